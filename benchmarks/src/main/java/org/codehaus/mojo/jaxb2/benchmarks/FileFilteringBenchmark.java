@@ -0,0 +1,168 @@
+package org.codehaus.mojo.jaxb2.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.javageneration.XjcMojo;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.filters.Filters;
+import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmarks resolving the sources of a Mojo: scanning a source directory tree with
+ * {@link FileSystemUtilities#filterFiles(File, List, List, Log, String, List, boolean)} using the standard exclude
+ * filters of the xjc goal, and matching files against a {@link PatternFileFilter} - both a newly created one
+ * and one which has already matched (and memoized) all candidates.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileFilteringBenchmark {
+
+    // Constants
+    private static final Log LOG = new QuietLog();
+    private static final List<String> EXCLUDE_PATTERNS = Arrays.asList("README.*", "\\.txt", "\\.xjb");
+
+    /**
+     * The number of XSD files within the source directory tree.
+     */
+    @Param({"10", "1000", "10000"})
+    public int numFiles;
+
+    /**
+     * If {@code true}, the source directory tree is scanned in parallel.
+     */
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    // Internal state
+    private File baseDirectory;
+    private List<File> candidates;
+    private PatternFileFilter memoizedFilter;
+
+    /**
+     * Writes the synthetic source directory tree, and primes the memoized PatternFileFilter.
+     *
+     * @throws IOException if the source directory tree could not be written.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        baseDirectory = Files.createTempDirectory("jaxb2-filter-benchmark").toFile();
+        candidates = SyntheticSources.writeSourceTree(baseDirectory, numFiles);
+        Filters.initialize(LOG, XjcMojo.STANDARD_SOURCE_EXCLUDE_FILTERS);
+
+        memoizedFilter = new PatternFileFilter(EXCLUDE_PATTERNS, true);
+        memoizedFilter.initialize(LOG);
+        matchAll(memoizedFilter);
+    }
+
+    /**
+     * Removes the synthetic source directory tree.
+     *
+     * @throws IOException if the source directory tree could not be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticSources.deleteDirectory(baseDirectory);
+    }
+
+    /**
+     * Resolves the sources within the standard source directory, as the xjc goal does.
+     *
+     * @return The URLs of all resolved sources.
+     */
+    @Benchmark
+    public List<URL> filterFiles() {
+        return FileSystemUtilities.filterFiles(
+                baseDirectory,
+                null,
+                Arrays.asList(XjcMojo.STANDARD_SOURCE_DIRECTORY),
+                LOG,
+                "sources",
+                XjcMojo.STANDARD_SOURCE_EXCLUDE_FILTERS,
+                parallel);
+    }
+
+    /**
+     * Matches all candidate files against a newly created PatternFileFilter.
+     *
+     * @return The number of matched candidates.
+     */
+    @Benchmark
+    public int patternFileFilter() {
+
+        final PatternFileFilter filter = new PatternFileFilter(EXCLUDE_PATTERNS, true);
+        filter.initialize(LOG);
+        return matchAll(filter);
+    }
+
+    /**
+     * Matches all candidate files against a PatternFileFilter which has matched all of them before.
+     *
+     * @return The number of matched candidates.
+     */
+    @Benchmark
+    public int memoizedPatternFileFilter() {
+        return matchAll(memoizedFilter);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private int matchAll(final PatternFileFilter filter) {
+
+        int toReturn = 0;
+        for (File current : candidates) {
+            if (filter.accept(current)) {
+                toReturn++;
+            }
+        }
+        return toReturn;
+    }
+}
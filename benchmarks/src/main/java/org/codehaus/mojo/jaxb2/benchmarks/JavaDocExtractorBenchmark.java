@@ -0,0 +1,141 @@
+package org.codehaus.mojo.jaxb2.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocExtractor;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SearchableDocumentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link JavaDocExtractor#process()}, i.e. parsing Java sources and extracting their JavaDoc,
+ * sequentially and in parallel, with and without a JavaDoc cache from a previous execution.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavaDocExtractorBenchmark {
+
+    // Constants
+    private static final Log LOG = new QuietLog();
+
+    /**
+     * The number of synthetic types (i.e. Java source files).
+     */
+    @Param({"10", "1000", "10000"})
+    public int numTypes;
+
+    /**
+     * The number of threads parsing the Java sources.
+     */
+    @Param({"1", "4"})
+    public int parallelism;
+
+    // Internal state
+    private File directory;
+    private List<File> sources;
+    private File cacheFile;
+
+    /**
+     * Writes the synthetic Java sources, and a JavaDoc cache holding all of them.
+     *
+     * @throws IOException if the sources could not be written.
+     */
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+
+        directory = Files.createTempDirectory("jaxb2-javadoc-benchmark").toFile();
+        sources = SyntheticSources.writeJavaSources(new File(directory, "src"), numTypes);
+
+        // Populate the JavaDoc cache used by processCached.
+        cacheFile = new File(directory, "javadoc.cache");
+        processCached();
+    }
+
+    /**
+     * Removes the synthetic Java sources.
+     *
+     * @throws IOException if the sources could not be removed.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticSources.deleteDirectory(directory);
+    }
+
+    /**
+     * Parses all sources and extracts their JavaDoc.
+     *
+     * @return The extracted JavaDoc.
+     */
+    @Benchmark
+    public SearchableDocumentation process() {
+        return createExtractor().process();
+    }
+
+    /**
+     * Extracts the JavaDoc of all sources from the JavaDoc cache, as for an unchanged re-build.
+     *
+     * @return The extracted JavaDoc.
+     */
+    @Benchmark
+    public SearchableDocumentation processCached() {
+
+        final JavaDocExtractor extractor = createExtractor();
+        extractor.setCacheFile(cacheFile);
+        return extractor.process();
+    }
+
+    //
+    // Private helpers
+    //
+
+    private JavaDocExtractor createExtractor() {
+
+        final JavaDocExtractor toReturn = new JavaDocExtractor(LOG);
+        toReturn.setEncoding(SyntheticSources.ENCODING);
+        toReturn.setParallelism(parallelism);
+        toReturn.addSourceFiles(sources);
+        return toReturn;
+    }
+}
@@ -0,0 +1,89 @@
+package org.codehaus.mojo.jaxb2.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+/**
+ * Maven Log emitting only warnings and errors, so that the benchmarked code neither floods the console nor
+ * spends its time writing log messages. The log statements guarded by {@code isDebugEnabled()} or
+ * {@code isInfoEnabled()} are skipped.
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public class QuietLog extends SystemStreamLog {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(final CharSequence content) {
+        // Do nothing.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(final CharSequence content, final Throwable error) {
+        // Do nothing.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void debug(final Throwable error) {
+        // Do nothing.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isInfoEnabled() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(final CharSequence content) {
+        // Do nothing.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(final CharSequence content, final Throwable error) {
+        // Do nothing.
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void info(final Throwable error) {
+        // Do nothing.
+    }
+}
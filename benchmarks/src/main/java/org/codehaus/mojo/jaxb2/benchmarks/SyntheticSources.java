@@ -0,0 +1,327 @@
+package org.codehaus.mojo.jaxb2.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.TransformSchema;
+
+/**
+ * <p>Generates synthetic, deterministic inputs for the benchmarks: JavaDoc'ed Java sources, the XSDs which
+ * SchemaGen would generate from them, and source directory trees. The same number of types always yields the
+ * same content, so results are comparable between runs and releases.</p>
+ * <p>Types are distributed round-robin over at most {@value #MAX_NAMESPACES} namespaces (i.e. Java packages and
+ * XSD files), and each type references the next one - which resides within the next namespace - implying that
+ * every generated XSD imports another one, just as the XSDs generated by SchemaGen for a multi-package model.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class SyntheticSources {
+
+    /**
+     * The maximum number of namespaces over which the generated types are distributed.
+     */
+    public static final int MAX_NAMESPACES = 10;
+
+    /**
+     * The encoding of all generated files.
+     */
+    public static final String ENCODING = "UTF-8";
+
+    // Constants
+    private static final String PACKAGE_PREFIX = "org.example.bench.ns";
+    private static final String NAMESPACE_PREFIX = "http://example.org/bench/ns";
+
+    /*
+     * Hide constructor for utility classes.
+     */
+    private SyntheticSources() {}
+
+    /**
+     * Retrieves the number of namespaces used for the supplied number of types.
+     *
+     * @param numTypes The number of types.
+     * @return The number of namespaces.
+     */
+    public static int getNumNamespaces(final int numTypes) {
+        return Math.max(1, Math.min(MAX_NAMESPACES, numTypes));
+    }
+
+    /**
+     * Retrieves the namespace URI of the supplied namespace index.
+     *
+     * @param namespaceIndex The index of the namespace.
+     * @return The namespace URI.
+     */
+    public static String getNamespaceUri(final int namespaceIndex) {
+        return NAMESPACE_PREFIX + namespaceIndex;
+    }
+
+    /**
+     * Creates TransformSchemas changing the prefix of every namespace used for the supplied number of types.
+     *
+     * @param numTypes The number of types.
+     * @return One TransformSchema per namespace.
+     */
+    public static List<TransformSchema> createTransformSchemas(final int numTypes) {
+
+        final List<TransformSchema> toReturn = new ArrayList<TransformSchema>();
+        for (int i = 0; i < getNumNamespaces(numTypes); i++) {
+            toReturn.add(new TransformSchema(getNamespaceUri(i), "bench" + i, null));
+        }
+        return toReturn;
+    }
+
+    /**
+     * Writes one JavaDoc'ed Java source file per type into the supplied directory.
+     *
+     * @param directory The source root directory.
+     * @param numTypes  The number of types to generate.
+     * @return The generated source files.
+     * @throws IOException if a file could not be written.
+     */
+    public static List<File> writeJavaSources(final File directory, final int numTypes) throws IOException {
+
+        final int numNamespaces = getNumNamespaces(numTypes);
+        final List<File> toReturn = new ArrayList<File>();
+        for (int i = 0; i < numTypes; i++) {
+
+            final int namespace = i % numNamespaces;
+            final int next = (i + 1) % numTypes;
+            final String className = getClassName(i);
+            final String nextClassName = PACKAGE_PREFIX + (next % numNamespaces) + "." + getClassName(next);
+
+            final String source = "package " + PACKAGE_PREFIX + namespace + ";\n"
+                    + "\n"
+                    + "import jakarta.xml.bind.annotation.XmlAccessType;\n"
+                    + "import jakarta.xml.bind.annotation.XmlAccessorType;\n"
+                    + "import jakarta.xml.bind.annotation.XmlAttribute;\n"
+                    + "\n"
+                    + "/**\n"
+                    + " * Synthetic type number " + i + ", which references the next synthetic type.\n"
+                    + " * <p>The second paragraph of the JavaDoc of " + className + ".</p>\n"
+                    + " *\n"
+                    + " * @author Benchmark\n"
+                    + " */\n"
+                    + "@XmlAccessorType(XmlAccessType.FIELD)\n"
+                    + "public class " + className + " {\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * The name of the " + className + ".\n"
+                    + "     */\n"
+                    + "    private String name;\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * The next synthetic type, or {@code null}.\n"
+                    + "     */\n"
+                    + "    private " + nextClassName + " next;\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * The ordinal of the " + className + ". Must be positive.\n"
+                    + "     */\n"
+                    + "    @XmlAttribute(required = true)\n"
+                    + "    private int ordinal;\n"
+                    + "\n"
+                    + "    /**\n"
+                    + "     * @return The name of the " + className + ".\n"
+                    + "     */\n"
+                    + "    public String getName() {\n"
+                    + "        return name;\n"
+                    + "    }\n"
+                    + "}\n";
+
+            toReturn.add(write(
+                    new File(directory, (PACKAGE_PREFIX + namespace).replace('.', '/') + "/" + className + ".java"),
+                    source));
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Writes the XSDs which SchemaGen would generate from the Java sources written by
+     * {@link #writeJavaSources(File, int)}, named {@code schema1.xsd}, {@code schema2.xsd} etc.
+     *
+     * @param directory The directory into which the XSDs should be written.
+     * @param numTypes  The number of types to generate.
+     * @return The generated XSD files.
+     * @throws IOException if a file could not be written.
+     */
+    public static List<File> writeSchemas(final File directory, final int numTypes) throws IOException {
+
+        final int numNamespaces = getNumNamespaces(numTypes);
+        final List<File> toReturn = new ArrayList<File>();
+        for (int namespace = 0; namespace < numNamespaces; namespace++) {
+
+            final int nextNamespace = (namespace + 1) % numNamespaces;
+            final boolean importsNext = nextNamespace != namespace;
+            final String nextPrefix = importsNext ? "ns1" : "tns";
+
+            final StringBuilder builder = new StringBuilder();
+            builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n")
+                    .append("<xs:schema version=\"1.0\" targetNamespace=\"")
+                    .append(getNamespaceUri(namespace))
+                    .append("\" xmlns:tns=\"")
+                    .append(getNamespaceUri(namespace))
+                    .append('"');
+            if (importsNext) {
+                builder.append(" xmlns:ns1=\"").append(getNamespaceUri(nextNamespace)).append('"');
+            }
+            builder.append(" xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n\n");
+            if (importsNext) {
+                builder.append("  <xs:import namespace=\"")
+                        .append(getNamespaceUri(nextNamespace))
+                        .append("\" schemaLocation=\"schema")
+                        .append(nextNamespace + 1)
+                        .append(".xsd\"/>\n\n");
+            }
+
+            for (int i = namespace; i < numTypes; i += numNamespaces) {
+
+                final String typeName = getTypeName(i);
+                final String nextTypeName = getTypeName((i + 1) % numTypes);
+                builder.append("  <xs:complexType name=\"")
+                        .append(typeName)
+                        .append("\">\n")
+                        .append("    <xs:sequence>\n")
+                        .append("      <xs:element name=\"name\" type=\"xs:string\" minOccurs=\"0\"/>\n")
+                        .append("      <xs:element name=\"next\" type=\"")
+                        .append(nextPrefix)
+                        .append(':')
+                        .append(nextTypeName)
+                        .append("\" minOccurs=\"0\"/>\n")
+                        .append("    </xs:sequence>\n")
+                        .append("    <xs:attribute name=\"ordinal\" type=\"xs:int\" use=\"required\"/>\n")
+                        .append("  </xs:complexType>\n\n");
+            }
+            builder.append("</xs:schema>\n");
+
+            toReturn.add(write(new File(directory, "schema" + (namespace + 1) + ".xsd"), builder.toString()));
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * <p>Writes a source directory tree holding the supplied number of XSD files below {@code src/main/xsd}
+     * within the supplied base directory, spread over subdirectories of 100 files each. Every tenth subdirectory
+     * also holds files which the standard exclude filters reject, such as README and binding files.</p>
+     *
+     * @param baseDirectory The base directory of the (synthetic) project.
+     * @param numFiles      The number of XSD files to generate.
+     * @return All files written, including the excluded ones.
+     * @throws IOException if a file could not be written.
+     */
+    public static List<File> writeSourceTree(final File baseDirectory, final int numFiles) throws IOException {
+
+        final File sourceDirectory = new File(baseDirectory, "src/main/xsd");
+        final List<File> toReturn = new ArrayList<File>();
+        for (int i = 0; i < numFiles; i++) {
+
+            final File subDirectory = new File(sourceDirectory, String.format("group%03d", i / 100));
+            toReturn.add(write(new File(subDirectory, getTypeName(i) + ".xsd"), "<xs:schema/>\n"));
+
+            if (i % 1000 == 0) {
+                toReturn.add(write(new File(subDirectory, "README.txt"), "Synthetic sources.\n"));
+                toReturn.add(write(new File(subDirectory, "bindings.xjb"), "<jaxb:bindings/>\n"));
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Copies all files from the source directory into the target directory, replacing existing files.
+     *
+     * @param sourceDirectory The directory to copy.
+     * @param targetDirectory The directory into which the files should be copied.
+     * @throws IOException if a file could not be copied.
+     */
+    public static void copyDirectory(final File sourceDirectory, final File targetDirectory) throws IOException {
+
+        final Path sourceRoot = sourceDirectory.toPath();
+        final Path targetRoot = targetDirectory.toPath();
+        for (Path current : list(sourceRoot)) {
+
+            final Path target = targetRoot.resolve(sourceRoot.relativize(current));
+            Files.createDirectories(target.getParent());
+            Files.copy(current, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes the supplied directory and all its content, if it exists.
+     *
+     * @param directory The directory to delete.
+     * @throws IOException if the directory could not be deleted.
+     */
+    public static void deleteDirectory(final File directory) throws IOException {
+
+        if (!directory.exists()) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            for (Path current : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(current);
+            }
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static String getClassName(final int index) {
+        return String.format("Type%05d", index);
+    }
+
+    private static String getTypeName(final int index) {
+        return String.format("type%05d", index);
+    }
+
+    private static File write(final File aFile, final String content) throws IOException {
+
+        Files.createDirectories(aFile.getParentFile().toPath());
+        Files.write(aFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return aFile;
+    }
+
+    private static List<Path> list(final Path directory) throws IOException {
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.codehaus.mojo.jaxb2.benchmarks;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.schemageneration.AbstractXsdGeneratorMojo;
+import org.codehaus.mojo.jaxb2.schemageneration.XsdGeneratorHelper;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocExtractor;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SearchableDocumentation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.SimpleNamespaceResolver;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.TransformSchema;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming.XsdPostProcessingPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <p>Benchmarks the XSD post-processing performed by the schemagen goals: injecting JavaDoc as XSD annotations
+ * ({@link XsdGeneratorHelper#insertJavaDocAsAnnotations}), replacing namespace prefixes
+ * ({@link XsdGeneratorHelper#replaceNamespacePrefixes}) and constructing {@link SimpleNamespaceResolver}s, as well
+ * as the single-pass {@link XsdPostProcessingPipeline} performing the same work.</p>
+ * <p>The post-processing rewrites the XSDs in place, so the vanilla XSDs are copied into a work directory before
+ * each invocation. The copying is not part of the measured time.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XsdPostProcessingBenchmark {
+
+    // Constants
+    private static final Log LOG = new QuietLog();
+
+    /**
+     * The synthetic XSDs and the JavaDoc of the Java sources from which they were generated.
+     */
+    @State(Scope.Benchmark)
+    public static class Sources {
+
+        /**
+         * The number of synthetic types (i.e. XSD complexTypes).
+         */
+        @Param({"10", "1000", "10000"})
+        public int numTypes;
+
+        File directory;
+        File vanillaDirectory;
+        List<File> vanillaSchemas;
+        SearchableDocumentation javaDocs;
+        List<TransformSchema> transformSchemas;
+
+        /**
+         * Writes the synthetic Java sources and XSDs, and extracts the JavaDoc of the Java sources.
+         *
+         * @throws IOException if the sources could not be written.
+         */
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+
+            directory = Files.createTempDirectory("jaxb2-xsd-benchmark").toFile();
+            vanillaDirectory = new File(directory, "vanilla");
+            vanillaSchemas = SyntheticSources.writeSchemas(vanillaDirectory, numTypes);
+            transformSchemas = SyntheticSources.createTransformSchemas(numTypes);
+
+            final JavaDocExtractor extractor = new JavaDocExtractor(LOG);
+            extractor.setEncoding(SyntheticSources.ENCODING);
+            extractor.addSourceFiles(SyntheticSources.writeJavaSources(new File(directory, "src"), numTypes));
+            javaDocs = extractor.process();
+        }
+
+        /**
+         * Removes the synthetic sources.
+         *
+         * @throws IOException if the sources could not be removed.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            SyntheticSources.deleteDirectory(directory);
+        }
+    }
+
+    /**
+     * A work directory holding a fresh copy of the vanilla XSDs for each invocation.
+     */
+    @State(Scope.Thread)
+    public static class WorkDirectory {
+
+        File directory;
+
+        /**
+         * Replaces the content of the work directory by the vanilla XSDs.
+         *
+         * @param sources The synthetic sources.
+         * @throws IOException if the XSDs could not be copied.
+         */
+        @Setup(Level.Invocation)
+        public void reset(final Sources sources) throws IOException {
+
+            directory = new File(sources.directory, "work-" + Thread.currentThread().getId());
+            SyntheticSources.deleteDirectory(directory);
+            SyntheticSources.copyDirectory(sources.vanillaDirectory, directory);
+        }
+    }
+
+    /**
+     * Injects the JavaDoc as XSD annotations into all XSDs, using the DOM-based XsdGeneratorHelper.
+     *
+     * @param sources The synthetic sources.
+     * @param work    The work directory.
+     * @return The number of processed XSDs.
+     */
+    @Benchmark
+    public int insertJavaDocAsAnnotations(final Sources sources, final WorkDirectory work) {
+        return XsdGeneratorHelper.insertJavaDocAsAnnotations(
+                LOG,
+                SyntheticSources.ENCODING,
+                work.directory,
+                sources.javaDocs,
+                AbstractXsdGeneratorMojo.STANDARD_JAVADOC_RENDERER);
+    }
+
+    /**
+     * Replaces the prefixes of all namespaces within all XSDs, using the DOM-based XsdGeneratorHelper.
+     *
+     * @param sources The synthetic sources.
+     * @param work    The work directory.
+     * @throws MojoExecutionException if the prefixes could not be replaced.
+     */
+    @Benchmark
+    public void replaceNamespacePrefixes(final Sources sources, final WorkDirectory work)
+            throws MojoExecutionException {
+
+        final Map<String, SimpleNamespaceResolver> resolverMap =
+                XsdGeneratorHelper.getFileNameToResolverMap(work.directory);
+        XsdGeneratorHelper.replaceNamespacePrefixes(
+                resolverMap, sources.transformSchemas, LOG, work.directory, SyntheticSources.ENCODING);
+    }
+
+    /**
+     * Constructs a SimpleNamespaceResolver for each vanilla XSD.
+     *
+     * @param sources   The synthetic sources.
+     * @param blackhole The JMH Blackhole consuming the resolvers.
+     */
+    @Benchmark
+    public void simpleNamespaceResolver(final Sources sources, final Blackhole blackhole) {
+        for (File current : sources.vanillaSchemas) {
+            blackhole.consume(new SimpleNamespaceResolver(current));
+        }
+    }
+
+    /**
+     * Injects the JavaDoc and replaces the namespace prefixes in a single streaming pass over each XSD.
+     *
+     * @param sources The synthetic sources.
+     * @param work    The work directory.
+     * @return The number of processed XSDs.
+     * @throws MojoExecutionException if the XSDs could not be processed.
+     */
+    @Benchmark
+    public int streamingPipeline(final Sources sources, final WorkDirectory work) throws MojoExecutionException {
+        return new XsdPostProcessingPipeline(LOG, SyntheticSources.ENCODING)
+                .withJavaDocAnnotations(sources.javaDocs, AbstractXsdGeneratorMojo.STANDARD_JAVADOC_RENDERER)
+                .withTransformSchemas(sources.transformSchemas)
+                .process(work.directory);
+    }
+}
@@ -0,0 +1,397 @@
+package org.codehaus.mojo.jaxb2.benchmarks.build;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.Mojo;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.mojo.jaxb2.benchmarks.QuietLog;
+import org.codehaus.mojo.jaxb2.benchmarks.SyntheticSources;
+
+/**
+ * <p>End-to-end build time benchmark, running the xjc and schemagen goals in-process against synthetic fixture
+ * projects (see {@link FixtureProjects}) exactly as Maven would: the plugin is loaded into its own ClassRealm
+ * (see {@link PluginRealm}), and a new, fully configured Mojo is created for each execution.</p>
+ * <p>Each goal is run in the following modes, in order:</p>
+ * <dl>
+ * <dt>first</dt><dd>The first (clean) build within the JVM, i.e. including class loading and JIT warmup.</dd>
+ * <dt>cold</dt><dd>A clean build - the build directory is removed before each iteration.</dd>
+ * <dt>warm</dt><dd>A re-build where nothing has changed, i.e. where all outputs are up to date.</dd>
+ * <dt>changed</dt><dd>A re-build after changing a single source file.</dd>
+ * </dl>
+ * <p>Each execution writes its {@code ExecutionMetrics} as JSON (the {@code writeMetrics} parameter), which are
+ * collected into a CSV file holding the wall time, the allocated bytes and the GC time per phase. The allocated
+ * bytes are those of the thread executing the Mojo, whereas the GC time is JVM-wide. The medians of each mode are
+ * printed on completion.</p>
+ * <p>Arguments are given as {@code key=value} pairs; Mojo parameters are given as {@code param.name=value}:</p>
+ * <pre>
+ *     java -cp target/benchmarks.jar org.codehaus.mojo.jaxb2.benchmarks.build.BuildTimeBenchmark \
+ *          goals=xjc,schemagen schemas=200 depth=10 types=2000 cold=5 warm=10 changed=5 \
+ *          out=build-times.csv param.xjc.parallelism=4
+ * </pre>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class BuildTimeBenchmark {
+
+    // Constants
+    private static final String EXECUTION_ID = "benchmark";
+    private static final String TOTAL = "total";
+    private static final String PARAM_PREFIX = "param.";
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<String, String>();
+    private static final Pattern OBJECT = Pattern.compile("\"(\\w+)\": \\{([^}]*)\\}");
+    private static final Pattern NUMBER = Pattern.compile("\"([^\"]+)\": (-?\\d+)");
+    private static final Pattern TOP_LEVEL_NUMBER = Pattern.compile("^  \"(\\w+)\": (-?\\d+)", Pattern.MULTILINE);
+
+    static {
+        DEFAULTS.put("goals", "xjc,schemagen");
+        DEFAULTS.put("schemas", "200");
+        DEFAULTS.put("depth", "10");
+        DEFAULTS.put("typesPerXsd", "5");
+        DEFAULTS.put("types", "2000");
+        DEFAULTS.put("cold", "5");
+        DEFAULTS.put("warm", "10");
+        DEFAULTS.put("changed", "5");
+        DEFAULTS.put("out", "build-times.csv");
+        DEFAULTS.put("workDirectory", "");
+        DEFAULTS.put("plugin", "");
+        DEFAULTS.put("localRepository", System.getProperty("maven.repo.local",
+                System.getProperty("user.home") + "/.m2/repository"));
+    }
+
+    // Internal state
+    private final Map<String, String> arguments;
+    private final Map<String, String> mojoConfiguration;
+    private final PluginRealm pluginRealm;
+    private final List<Row> rows = new ArrayList<Row>();
+
+    private BuildTimeBenchmark(final Map<String, String> arguments, final Map<String, String> mojoConfiguration)
+            throws Exception {
+
+        this.arguments = arguments;
+        this.mojoConfiguration = mojoConfiguration;
+
+        final File plugin = arguments.get("plugin").isEmpty()
+                ? new File(Class.forName("org.codehaus.mojo.jaxb2.AbstractJaxbMojo")
+                        .getProtectionDomain()
+                        .getCodeSource()
+                        .getLocation()
+                        .toURI())
+                : new File(arguments.get("plugin"));
+        this.pluginRealm = new PluginRealm(plugin, new File(arguments.get("localRepository")));
+    }
+
+    /**
+     * Runs the build time benchmark.
+     *
+     * @param args The {@code key=value} arguments of the benchmark.
+     * @throws Exception if the benchmark failed.
+     */
+    public static void main(final String[] args) throws Exception {
+
+        final Map<String, String> arguments = new LinkedHashMap<String, String>(DEFAULTS);
+        final Map<String, String> mojoConfiguration = new TreeMap<String, String>();
+        for (String current : args) {
+
+            final int separator = current.indexOf('=');
+            final String key = separator < 0 ? current : current.substring(0, separator);
+            final String value = separator < 0 ? "true" : current.substring(separator + 1);
+            if (key.startsWith(PARAM_PREFIX)) {
+                mojoConfiguration.put(key.substring(PARAM_PREFIX.length()), value);
+            } else if (DEFAULTS.containsKey(key)) {
+                arguments.put(key, value);
+            } else {
+                throw new IllegalArgumentException("Unknown argument [" + key + "]. Known arguments: "
+                        + DEFAULTS.keySet() + " and " + PARAM_PREFIX + "<mojo parameter>");
+            }
+        }
+
+        final File workDirectory = arguments.get("workDirectory").isEmpty()
+                ? Files.createTempDirectory("jaxb2-build-benchmark").toFile()
+                : new File(arguments.get("workDirectory"));
+
+        final BuildTimeBenchmark benchmark = new BuildTimeBenchmark(arguments, mojoConfiguration);
+        System.out.println("Benchmarking jaxb2-maven-plugin " + benchmark.pluginRealm.getPluginVersion()
+                + " in [" + workDirectory.getAbsolutePath() + "] using " + arguments + " and Mojo configuration "
+                + mojoConfiguration);
+
+        try {
+            for (String goal : arguments.get("goals").split(",")) {
+                benchmark.run(goal.trim(), new File(workDirectory, goal.trim()));
+            }
+        } finally {
+            if (arguments.get("workDirectory").isEmpty()) {
+                SyntheticSources.deleteDirectory(workDirectory);
+            }
+        }
+
+        final File csvFile = new File(arguments.get("out"));
+        benchmark.writeCsv(csvFile);
+        benchmark.printSummary();
+        System.out.println("Wrote all measurements to [" + csvFile.getAbsolutePath() + "]");
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void run(final String goal, final File baseDir) throws Exception {
+
+        final List<File> sources;
+        if (goal.startsWith("xjc") || goal.startsWith("testXjc")) {
+            sources = FixtureProjects.writeXjcProject(
+                    baseDir,
+                    getInt("schemas"),
+                    getInt("depth"),
+                    getInt("typesPerXsd"));
+        } else {
+            sources = FixtureProjects.writeSchemagenProject(baseDir, getInt("types"));
+        }
+
+        final File buildDirectory = new File(baseDir, "target");
+        final int cold = getInt("cold");
+        for (int i = 0; i < cold; i++) {
+            SyntheticSources.deleteDirectory(buildDirectory);
+            execute(goal, baseDir, i == 0 ? "first" : "cold", i);
+        }
+
+        final int warm = getInt("warm");
+        for (int i = 0; i < warm; i++) {
+            execute(goal, baseDir, "warm", i);
+        }
+
+        // Always change the same source; for xjc it is the first XSD of the first import chain.
+        final int changed = getInt("changed");
+        for (int i = 0; i < changed; i++) {
+            FixtureProjects.touchSource(sources.get(0), i + 1);
+            execute(goal, baseDir, "changed", i);
+        }
+    }
+
+    private void execute(final String goal, final File baseDir, final String mode, final int iteration)
+            throws Exception {
+
+        final MavenProject project = createProject(baseDir);
+        final Map<String, String> configuration = new TreeMap<String, String>(mojoConfiguration);
+        configuration.put("writeMetrics", "true");
+
+        final Mojo mojo = pluginRealm.createMojo(goal, EXECUTION_ID, project, configuration, new QuietLog());
+
+        // Maven executes each Mojo with the plugin ClassRealm as the thread context ClassLoader.
+        final Thread thread = Thread.currentThread();
+        final ClassLoader originalContextClassLoader = thread.getContextClassLoader();
+        final long startNanos = System.nanoTime();
+        try {
+            thread.setContextClassLoader(mojo.getClass().getClassLoader());
+            mojo.execute();
+        } finally {
+            thread.setContextClassLoader(originalContextClassLoader);
+        }
+        final long wallMillis = (System.nanoTime() - startNanos) / 1000000L;
+
+        final String json = readMetrics(new File(project.getBuild().getDirectory(), "jaxb2"));
+        final Map<String, Long> totals = parse(json, null);
+        final Map<String, Long> phaseMillis = parse(json, "phaseMillis");
+        final Map<String, Long> phaseAllocatedBytes = parse(json, "phaseAllocatedBytes");
+        final Map<String, Long> phaseGcMillis = parse(json, "phaseJvmGcMillis");
+
+        rows.add(new Row(goal, mode, iteration, TOTAL, wallMillis, totals.get("allocatedBytes"),
+                totals.get("jvmGcMillis")));
+        for (Map.Entry<String, Long> current : phaseMillis.entrySet()) {
+            rows.add(new Row(goal, mode, iteration, current.getKey(), current.getValue(),
+                    phaseAllocatedBytes.get(current.getKey()), phaseGcMillis.get(current.getKey())));
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-10s %-8s #%-3d %8d ms", goal, mode, iteration, wallMillis));
+    }
+
+    private MavenProject createProject(final File baseDir) {
+
+        final List<String> compileClasspath = new ArrayList<String>();
+        final File outputDirectory = new File(baseDir, "target/classes");
+        compileClasspath.add(outputDirectory.getAbsolutePath());
+        compileClasspath.add(pluginRealm.resolveDependency("jakarta.xml.bind", "jakarta.xml.bind-api")
+                .getAbsolutePath());
+
+        final MavenProject toReturn = new MavenProject() {
+            @Override
+            public List<String> getCompileClasspathElements() {
+                return compileClasspath;
+            }
+        };
+        toReturn.setFile(new File(baseDir, "pom.xml"));
+        toReturn.getBuild().setDirectory(new File(baseDir, "target").getAbsolutePath());
+        toReturn.getBuild().setOutputDirectory(outputDirectory.getAbsolutePath());
+        toReturn.addCompileSourceRoot(new File(baseDir, FixtureProjects.JAVA_DIRECTORY).getAbsolutePath());
+        toReturn.getProperties().setProperty("project.build.sourceEncoding", SyntheticSources.ENCODING);
+        return toReturn;
+    }
+
+    private static String readMetrics(final File staleFileDirectory) throws IOException {
+
+        final File[] metricsFiles = staleFileDirectory.listFiles((dir, name) -> name.endsWith("-metrics.json"));
+        if (metricsFiles == null || metricsFiles.length != 1) {
+            throw new IllegalStateException("Expected a single metrics file within ["
+                    + staleFileDirectory.getAbsolutePath() + "], found " + Arrays.toString(metricsFiles));
+        }
+        return new String(Files.readAllBytes(metricsFiles[0].toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Long> parse(final String json, final String objectName) {
+
+        final Map<String, Long> toReturn = new LinkedHashMap<String, Long>();
+        String scope = null;
+        if (objectName == null) {
+            final Matcher numbers = TOP_LEVEL_NUMBER.matcher(json);
+            while (numbers.find()) {
+                toReturn.put(numbers.group(1), Long.valueOf(numbers.group(2)));
+            }
+            return toReturn;
+        }
+
+        final Matcher objects = OBJECT.matcher(json);
+        while (objects.find()) {
+            if (objects.group(1).equals(objectName)) {
+                scope = objects.group(2);
+            }
+        }
+        if (scope != null) {
+            final Matcher numbers = NUMBER.matcher(scope);
+            while (numbers.find()) {
+                toReturn.put(numbers.group(1), Long.valueOf(numbers.group(2)));
+            }
+        }
+        return toReturn;
+    }
+
+    private void writeCsv(final File csvFile) throws IOException {
+
+        try (PrintWriter out = new PrintWriter(csvFile, "UTF-8")) {
+            out.println("goal,mode,iteration,phase,millis,allocatedBytes,jvmGcMillis");
+            for (Row current : rows) {
+                out.println(current.goal + "," + current.mode + "," + current.iteration + "," + current.phase + ","
+                        + current.millis + "," + current.allocatedBytes + "," + current.gcMillis);
+            }
+        }
+    }
+
+    private void printSummary() {
+
+        // Group the rows by goal, mode and phase - retaining the order of the modes.
+        final Map<String, SortedMap<String, List<Row>>> groups =
+                new LinkedHashMap<String, SortedMap<String, List<Row>>>();
+        for (Row current : rows) {
+            groups.computeIfAbsent(current.goal + " " + current.mode, k -> new TreeMap<String, List<Row>>())
+                    .computeIfAbsent(current.phase, k -> new ArrayList<Row>())
+                    .add(current);
+        }
+
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-20s %-20s %12s %16s %12s",
+                "Goal/mode", "Phase", "Median ms", "Median alloc MB", "Median GC ms"));
+        for (Map.Entry<String, SortedMap<String, List<Row>>> group : groups.entrySet()) {
+
+            final List<String> phases = new ArrayList<String>(group.getValue().keySet());
+            phases.remove(TOTAL);
+            phases.add(0, TOTAL);
+
+            for (String phase : phases) {
+
+                final List<Row> phaseRows = group.getValue().get(phase);
+                final List<Long> millis = new ArrayList<Long>();
+                final List<Long> allocated = new ArrayList<Long>();
+                final List<Long> gcMillis = new ArrayList<Long>();
+                for (Row current : phaseRows) {
+                    millis.add(current.millis);
+                    allocated.add(current.allocatedBytes);
+                    gcMillis.add(current.gcMillis);
+                }
+
+                System.out.println(String.format(Locale.ROOT, "%-20s %-20s %12d %16.1f %12d",
+                        TOTAL.equals(phase) ? group.getKey() : "",
+                        phase,
+                        median(millis),
+                        median(allocated) / (1024.0 * 1024.0),
+                        median(gcMillis)));
+            }
+        }
+    }
+
+    private static long median(final List<Long> values) {
+
+        final List<Long> sorted = new ArrayList<Long>();
+        for (Long current : values) {
+            sorted.add(current == null ? 0L : current);
+        }
+        Collections.sort(sorted);
+        return sorted.isEmpty() ? 0L : sorted.get(sorted.size() / 2);
+    }
+
+    private int getInt(final String key) {
+        return Integer.parseInt(arguments.get(key));
+    }
+
+    /**
+     * A single measurement: one phase of one Mojo execution.
+     */
+    private static final class Row {
+
+        final String goal;
+        final String mode;
+        final int iteration;
+        final String phase;
+        final long millis;
+        final Long allocatedBytes;
+        final Long gcMillis;
+
+        Row(final String goal,
+                final String mode,
+                final int iteration,
+                final String phase,
+                final long millis,
+                final Long allocatedBytes,
+                final Long gcMillis) {
+            this.goal = goal;
+            this.mode = mode;
+            this.iteration = iteration;
+            this.phase = phase;
+            this.millis = millis;
+            this.allocatedBytes = allocatedBytes;
+            this.gcMillis = gcMillis;
+        }
+    }
+}
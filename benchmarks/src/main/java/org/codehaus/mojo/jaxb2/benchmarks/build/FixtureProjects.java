@@ -0,0 +1,186 @@
+package org.codehaus.mojo.jaxb2.benchmarks.build;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.mojo.jaxb2.benchmarks.SyntheticSources;
+
+/**
+ * <p>Writes synthetic Maven project layouts used by the {@link BuildTimeBenchmark}. All fixtures are generated
+ * locally, so no network access is required to run the benchmark.</p>
+ * <ul>
+ * <li>The xjc fixture holds a number of XSDs within {@code src/main/xsd}, arranged in import chains of a given
+ * depth. Each XSD has its own namespace, and imports the previous XSD of its chain using a relative
+ * schemaLocation - so XJC must resolve the entire chain for each XSD.</li>
+ * <li>The schemagen fixture holds a model of JAXB-annotated and JavaDoc-commented classes within
+ * {@code src/main/java}, spread over a few packages (and hence XML namespaces).</li>
+ * </ul>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class FixtureProjects {
+
+    /**
+     * The directory, relative to the project base directory, holding the XSDs of the xjc fixture.
+     */
+    public static final String XSD_DIRECTORY = "src/main/xsd";
+
+    /**
+     * The directory, relative to the project base directory, holding the Java sources of the schemagen fixture.
+     */
+    public static final String JAVA_DIRECTORY = "src/main/java";
+
+    /*
+     * Hide constructor for utility classes.
+     */
+    private FixtureProjects() {}
+
+    /**
+     * Writes the XSDs of an xjc fixture project.
+     *
+     * @param baseDir      The project base directory.
+     * @param numSchemas   The total number of XSDs.
+     * @param depth        The length of each import chain.
+     * @param typesPerXsd  The number of complexTypes within each XSD.
+     * @return The written XSDs.
+     * @throws IOException if the XSDs could not be written.
+     */
+    public static List<File> writeXjcProject(
+            final File baseDir, final int numSchemas, final int depth, final int typesPerXsd) throws IOException {
+
+        final File xsdDirectory = new File(baseDir, XSD_DIRECTORY);
+        Files.createDirectories(xsdDirectory.toPath());
+
+        final List<File> toReturn = new ArrayList<File>();
+        for (int i = 0; i < numSchemas; i++) {
+
+            final int chain = i / depth;
+            final int level = i % depth;
+
+            final StringBuilder builder = new StringBuilder()
+                    .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                    .append("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"\n")
+                    .append("           xmlns:tns=\"")
+                    .append(getNamespaceUri(chain, level))
+                    .append("\"\n");
+            if (level > 0) {
+                builder.append("           xmlns:prev=\"")
+                        .append(getNamespaceUri(chain, level - 1))
+                        .append("\"\n");
+            }
+            builder.append("           targetNamespace=\"")
+                    .append(getNamespaceUri(chain, level))
+                    .append("\"\n")
+                    .append("           elementFormDefault=\"qualified\">\n\n");
+            if (level > 0) {
+                builder.append("    <xs:import namespace=\"")
+                        .append(getNamespaceUri(chain, level - 1))
+                        .append("\" schemaLocation=\"")
+                        .append(getSchemaFileName(chain, level - 1))
+                        .append("\"/>\n\n");
+            }
+
+            for (int type = 0; type < typesPerXsd; type++) {
+                builder.append("    <xs:complexType name=\"Type")
+                        .append(type)
+                        .append("\">\n")
+                        .append("        <xs:annotation><xs:documentation>Type ")
+                        .append(type)
+                        .append(" of chain ")
+                        .append(chain)
+                        .append(", level ")
+                        .append(level)
+                        .append(".</xs:documentation></xs:annotation>\n")
+                        .append("        <xs:sequence>\n")
+                        .append("            <xs:element name=\"name\" type=\"xs:string\"/>\n")
+                        .append("            <xs:element name=\"amount\" type=\"xs:decimal\" minOccurs=\"0\"/>\n")
+                        .append("            <xs:element name=\"created\" type=\"xs:dateTime\" minOccurs=\"0\"/>\n");
+                if (level > 0) {
+                    builder.append("            <xs:element name=\"previous\" type=\"prev:Type")
+                            .append(type)
+                            .append("\" minOccurs=\"0\"/>\n");
+                }
+                builder.append("        </xs:sequence>\n")
+                        .append("        <xs:attribute name=\"id\" type=\"xs:ID\" use=\"required\"/>\n")
+                        .append("    </xs:complexType>\n\n");
+            }
+            builder.append("    <xs:element name=\"root\" type=\"tns:Type0\"/>\n")
+                    .append("</xs:schema>\n");
+
+            final File xsd = new File(xsdDirectory, getSchemaFileName(chain, level));
+            Files.write(xsd.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+            toReturn.add(xsd);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Writes the Java sources of a schemagen fixture project.
+     *
+     * @param baseDir  The project base directory.
+     * @param numTypes The number of JAXB-annotated classes.
+     * @return The written Java sources.
+     * @throws IOException if the sources could not be written.
+     */
+    public static List<File> writeSchemagenProject(final File baseDir, final int numTypes) throws IOException {
+        return SyntheticSources.writeJavaSources(new File(baseDir, JAVA_DIRECTORY), numTypes);
+    }
+
+    /**
+     * Changes the content (and hence the timestamp) of the supplied source file by appending a comment,
+     * emulating a developer editing a single source between two builds.
+     *
+     * @param source   The source file to change.
+     * @param revision The revision number, making the change unique.
+     * @throws IOException if the source could not be changed.
+     */
+    public static void touchSource(final File source, final int revision) throws IOException {
+
+        final String comment = source.getName().endsWith(".java")
+                ? "\n// Revision " + revision + "\n"
+                : "\n<!-- Revision " + revision + " -->\n";
+        Files.write(source.toPath(), comment.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        // Ensure the change is visible even on file systems with coarse timestamps.
+        source.setLastModified(System.currentTimeMillis() + 2000L * revision);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static String getNamespaceUri(final int chain, final int level) {
+        return "http://example.org/bench/chain" + chain + "/level" + level;
+    }
+
+    private static String getSchemaFileName(final int chain, final int level) {
+        return String.format("chain%03d-level%03d.xsd", chain, level);
+    }
+}
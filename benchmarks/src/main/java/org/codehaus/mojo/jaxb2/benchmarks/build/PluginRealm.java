@@ -0,0 +1,337 @@
+package org.codehaus.mojo.jaxb2.benchmarks.build;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.Mojo;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.codehaus.plexus.classworlds.ClassWorld;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * <p>Loads the jaxb2-maven-plugin and its dependencies into a plexus ClassRealm, just as Maven does, and creates
+ * Mojo instances configured as Maven would configure them. The plugin classes are loaded from the plugin JAR
+ * (or classes directory) rather than from the benchmark classpath, while the Maven API is shared with the
+ * benchmark harness.</p>
+ * <p>Mojo parameters are assigned from the plugin descriptor ({@code META-INF/maven/plugin.xml}): an explicitly
+ * configured value takes precedence over the system property of the parameter expression (such as
+ * {@code -Djaxb2.reuseToolClassLoaders=true}), which takes precedence over the default value. Expressions
+ * are resolved against a small set of well-known project properties.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class PluginRealm {
+
+    // Constants
+    private static final String PLUGIN_DESCRIPTOR = "META-INF/maven/plugin.xml";
+    private static final String BUILD_CONTEXT_CLASS = "org.sonatype.plexus.build.incremental.DefaultBuildContext";
+    private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)\\}");
+    private static final List<String> PROVIDED_BY_MAVEN = Arrays.asList("org.slf4j:slf4j-api");
+
+    // Internal state
+    private final ClassRealm realm;
+    private final Document descriptor;
+    private final File localRepository;
+
+    /**
+     * Creates a PluginRealm holding the supplied plugin JAR (or classes directory), and all dependencies listed
+     * within its plugin descriptor - resolved from the supplied local repository.
+     *
+     * @param plugin          The plugin JAR or classes directory.
+     * @param localRepository The local Maven repository, holding the dependencies of the plugin.
+     * @throws Exception if the ClassRealm could not be created.
+     */
+    public PluginRealm(final File plugin, final File localRepository) throws Exception {
+
+        this.localRepository = localRepository;
+        this.realm = new ClassWorld().newRealm("plugin>jaxb2-maven-plugin", PluginRealm.class.getClassLoader());
+        realm.addURL(plugin.toURI().toURL());
+
+        try (InputStream in = realm.getResource(PLUGIN_DESCRIPTOR).openStream()) {
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setExpandEntityReferences(false);
+            this.descriptor = factory.newDocumentBuilder().parse(in);
+        }
+
+        for (Element current : children(descriptor.getDocumentElement(), "dependencies", "dependency")) {
+
+            final String groupId = text(current, "groupId");
+            final String artifactId = text(current, "artifactId");
+            if (!PROVIDED_BY_MAVEN.contains(groupId + ":" + artifactId)) {
+                realm.addURL(resolve(groupId, artifactId, text(current, "version")).toURI().toURL());
+            }
+        }
+    }
+
+    /**
+     * @return The version of the plugin, as stated within its plugin descriptor.
+     */
+    public String getPluginVersion() {
+        return text(descriptor.getDocumentElement(), "version");
+    }
+
+    /**
+     * Resolves the JAR of a dependency of the plugin from the local repository.
+     *
+     * @param groupId    The groupId of the dependency.
+     * @param artifactId The artifactId of the dependency.
+     * @return The JAR of the dependency, using the version stated within the plugin descriptor.
+     */
+    public File resolveDependency(final String groupId, final String artifactId) {
+
+        for (Element current : children(descriptor.getDocumentElement(), "dependencies", "dependency")) {
+            if (groupId.equals(text(current, "groupId")) && artifactId.equals(text(current, "artifactId"))) {
+                return resolve(groupId, artifactId, text(current, "version"));
+            }
+        }
+        throw new IllegalArgumentException("Not a dependency of the plugin: " + groupId + ":" + artifactId);
+    }
+
+    /**
+     * Creates and configures the Mojo for the supplied goal.
+     *
+     * @param goal          The goal, such as "xjc" or "schemagen".
+     * @param executionId   The ID of the (synthetic) MojoExecution.
+     * @param project       The MavenProject to inject.
+     * @param configuration Explicitly configured parameter values, overriding any defaults.
+     * @param log           The Log of the Mojo.
+     * @return The configured Mojo.
+     * @throws Exception if the Mojo could not be created.
+     */
+    public Mojo createMojo(
+            final String goal,
+            final String executionId,
+            final MavenProject project,
+            final Map<String, String> configuration,
+            final Log log)
+            throws Exception {
+
+        for (Element current : children(descriptor.getDocumentElement(), "mojos", "mojo")) {
+
+            if (!goal.equals(text(current, "goal"))) {
+                continue;
+            }
+
+            final MojoDescriptor mojoDescriptor = new MojoDescriptor();
+            mojoDescriptor.setGoal(goal);
+            final MojoExecution execution = new MojoExecution(mojoDescriptor, executionId);
+
+            final Mojo toReturn = (Mojo) realm.loadClass(text(current, "implementation"))
+                    .getDeclaredConstructor()
+                    .newInstance();
+            toReturn.setLog(log);
+            setField(toReturn, "buildContext", realm.loadClass(BUILD_CONTEXT_CLASS)
+                    .getDeclaredConstructor()
+                    .newInstance());
+
+            for (Element parameter : children(current, "configuration", null)) {
+
+                final String name = parameter.getTagName();
+                final Object value = getValue(parameter, configuration.get(name), project, execution);
+                if (value != null) {
+                    setField(toReturn, name, value);
+                }
+            }
+
+            // All done.
+            return toReturn;
+        }
+
+        throw new IllegalArgumentException("No goal [" + goal + "] within " + PLUGIN_DESCRIPTOR);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private Object getValue(
+            final Element parameter,
+            final String configuredValue,
+            final MavenProject project,
+            final MojoExecution execution)
+            throws Exception {
+
+        String value = configuredValue;
+        final Matcher expression = EXPRESSION.matcher(parameter.getTextContent().trim());
+        if (value == null && expression.matches()) {
+            value = System.getProperty(expression.group(1));
+        }
+        if (value == null && parameter.hasAttribute("default-value")) {
+            value = parameter.getAttribute("default-value");
+        }
+        if (value == null) {
+            return null;
+        }
+
+        // Injected objects.
+        if ("${project}".equals(value)) {
+            return project;
+        } else if ("${mojoExecution}".equals(value)) {
+            return execution;
+        } else if ("${settings}".equals(value)) {
+            return new Settings();
+        }
+
+        final String resolved = resolveExpressions(value, project);
+        if (resolved == null) {
+            return null;
+        }
+
+        final String type = parameter.getAttribute("implementation");
+        switch (type) {
+            case "boolean":
+                return Boolean.valueOf(resolved);
+            case "int":
+                return Integer.valueOf(resolved);
+            case "java.lang.String":
+                return resolved;
+            case "java.io.File":
+                final File file = new File(resolved);
+                return file.isAbsolute() ? file : new File(project.getBasedir(), resolved);
+            case "java.util.List":
+                return new ArrayList<String>(Arrays.asList(resolved.split(",")));
+            default:
+                final Class<?> typeClass = realm.loadClass(type);
+                if (typeClass.isEnum()) {
+                    for (Object current : typeClass.getEnumConstants()) {
+                        if (((Enum<?>) current).name().equals(resolved)) {
+                            return current;
+                        }
+                    }
+                }
+                throw new IllegalArgumentException("Cannot convert [" + resolved + "] to " + type);
+        }
+    }
+
+    private static String resolveExpressions(final String value, final MavenProject project) {
+
+        final StringBuffer toReturn = new StringBuffer();
+        final Matcher matcher = EXPRESSION.matcher(value);
+        while (matcher.find()) {
+
+            final String replacement;
+            switch (matcher.group(1)) {
+                case "basedir":
+                case "project.basedir":
+                    replacement = project.getBasedir().getAbsolutePath();
+                    break;
+                case "project.build.directory":
+                    replacement = project.getBuild().getDirectory();
+                    break;
+                case "project.build.outputDirectory":
+                    replacement = project.getBuild().getOutputDirectory();
+                    break;
+                case "project.build.sourceEncoding":
+                    replacement = project.getProperties().getProperty("project.build.sourceEncoding");
+                    break;
+                default:
+                    replacement = System.getProperty(matcher.group(1));
+            }
+
+            if (replacement == null) {
+                return null;
+            }
+            matcher.appendReplacement(toReturn, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(toReturn);
+        return toReturn.toString();
+    }
+
+    private File resolve(final String groupId, final String artifactId, final String version) {
+
+        final File toReturn = new File(localRepository, groupId.replace('.', '/') + "/" + artifactId + "/" + version
+                + "/" + artifactId + "-" + version + ".jar");
+        if (!toReturn.isFile()) {
+            throw new IllegalStateException("Dependency not found in the local repository: " + toReturn);
+        }
+        return toReturn;
+    }
+
+    private static void setField(final Object target, final String name, final Object value) throws Exception {
+
+        for (Class<?> current = target.getClass(); current != null; current = current.getSuperclass()) {
+            try {
+                final Field field = current.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // Try the superclass.
+            }
+        }
+        throw new IllegalArgumentException("No field [" + name + "] within " + target.getClass().getName());
+    }
+
+    private static List<Element> children(final Element parent, final String wrapper, final String name) {
+
+        final List<Element> toReturn = new ArrayList<Element>();
+        for (Element current : elements(parent.getChildNodes())) {
+            if (current.getTagName().equals(wrapper)) {
+                for (Element child : elements(current.getChildNodes())) {
+                    if (name == null || child.getTagName().equals(name)) {
+                        toReturn.add(child);
+                    }
+                }
+            }
+        }
+        return toReturn;
+    }
+
+    private static List<Element> elements(final NodeList nodes) {
+
+        final List<Element> toReturn = new ArrayList<Element>();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            if (nodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                toReturn.add((Element) nodes.item(i));
+            }
+        }
+        return toReturn;
+    }
+
+    private static String text(final Element parent, final String name) {
+
+        for (Element current : elements(parent.getChildNodes())) {
+            if (current.getTagName().equals(name)) {
+                return current.getTextContent().trim();
+            }
+        }
+        return null;
+    }
+}
@@ -25,8 +25,10 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.net.URL;
+import java.net.URLClassLoader;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.CodeSource;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -34,11 +36,15 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.model.Resource;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -46,12 +52,20 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.ResolvedSources;
 import org.codehaus.mojo.jaxb2.shared.Validate;
 import org.codehaus.mojo.jaxb2.shared.environment.EnvironmentFacet;
+import org.codehaus.mojo.jaxb2.shared.environment.classloading.ClassLoaderCache;
 import org.codehaus.mojo.jaxb2.shared.filters.Filter;
 import org.codehaus.mojo.jaxb2.shared.filters.pattern.FileFilterAdapter;
 import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
+import org.codehaus.mojo.jaxb2.shared.manifest.BuildManifest;
+import org.codehaus.mojo.jaxb2.shared.manifest.CacheKeyDescriptor;
+import org.codehaus.mojo.jaxb2.shared.manifest.UpToDateStamp;
+import org.codehaus.mojo.jaxb2.shared.metrics.ExecutionMetrics;
+import org.codehaus.mojo.jaxb2.shared.output.OutputUpdater;
 import org.codehaus.mojo.jaxb2.shared.version.DependencyInfo;
 import org.codehaus.mojo.jaxb2.shared.version.DependsFileParser;
 import org.sonatype.plexus.build.incremental.BuildContext;
@@ -121,6 +135,21 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
     private static final List<String> RELEVANT_GROUPIDS = Arrays.asList("com.sun.xml.bind", "jakarta.xml.bind");
     private static final String OWN_ARTIFACT_ID = "jaxb2-maven-plugin";
     private static final String SYSTEM_FILE_ENCODING_PROPERTY = "file.encoding";
+    private static final String CACHE_KEY_SUFFIX = ".cachekey";
+    private static final String METRICS_SUFFIX = "-metrics.json";
+    private static final String UP_TO_DATE_SUFFIX = ".uptodate";
+
+    // Injected components and per-execution state, which are not part of the configuration fingerprint.
+    private static final List<Class<?>> FINGERPRINT_IGNORED_TYPES = Arrays.<Class<?>>asList(
+            BuildContext.class,
+            MavenSession.class,
+            MavenProject.class,
+            MojoExecution.class,
+            Settings.class,
+            Log.class,
+            ResolvedSources.class,
+            ExecutionMetrics.class,
+            BuildManifest.class);
     // The patterns are matched against the full path of each candidate file, prefixed with
     // PatternFileFilter.PATTERN_LETTER_DIGIT_PUNCT. Since \p{Punct} includes the file separators, the README
     // pattern has to be anchored to the last path segment; otherwise it also matches every file below a
@@ -276,6 +305,100 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
     @Parameter(required = false)
     protected List<EnvironmentFacet> extraFacets;
 
+    /**
+     * <p>If {@code true}, the ClassLoaders holding the JARs of the classpath used to execute XJC or SchemaGen are
+     * cached and re-used by subsequent executions within the same JVM whose classpath contains identical JARs
+     * (identified by path, lastModified timestamp and size). This avoids re-loading and re-compiling the tool
+     * classes in each module of a multi-module reactor or within long-lived Maven daemon processes.
+     * Directories within the classpath are always loaded by a new ClassLoader, since their contents may change
+     * between executions.</p>
+     * <p>Cached ClassLoaders keep their JAR files open until the next build session starts within the same JVM,
+     * when all ClassLoaders cached by previous sessions are closed. Hence, this is an opt-in feature.</p>
+     *
+     * @see ClassLoaderCache
+     * @since 4.1.1
+     */
+    @Parameter(property = "jaxb2.reuseToolClassLoaders", defaultValue = "false")
+    protected boolean reuseToolClassLoaders;
+
+    /**
+     * The active MavenSession, binding any re-used tool ClassLoaders to the lifecycle of the current build.
+     */
+    @Parameter(defaultValue = "${session}", readonly = true)
+    protected MavenSession session;
+
+    /**
+     * <p>If {@code true}, source directories are scanned in parallel (each directory is listed by a separate
+     * task within the common ForkJoinPool). This speeds up resolving sources within large source trees, such as
+     * when scanning Java source roots holding tens of thousands of files. The resolved sources are identical to
+     * the ones resolved by a sequential scan.</p>
+     *
+     * @since 4.1.1
+     */
+    @Parameter(property = "jaxb2.parallelFileScan", defaultValue = "false")
+    protected boolean parallelFileScan;
+
+    /**
+     * <p>If {@code true}, the plugin strives to produce byte-identical outputs for identical inputs, making the
+     * outputs suitable for the Maven build cache extension and remote build caches. XJC is instructed not to emit
+     * file header comments (holding a generation timestamp), and a cache key descriptor is written next to the
+     * staleFile. The descriptor lists the versions of all tools, every tool argument and the content digest of
+     * every source - with the project base directory and the user home directory replaced by placeholders - along
+     * with a single digest of all those entries, which an external cache can use to skip the execution
+     * altogether.</p>
+     *
+     * @see org.codehaus.mojo.jaxb2.shared.manifest.CacheKeyDescriptor
+     * @since 4.1.1
+     */
+    @Parameter(property = "jaxb2.deterministicOutput", defaultValue = "false")
+    protected boolean deterministicOutput;
+
+    /**
+     * <p>If {@code true}, the metrics of each execution - the time spent within each phase (such as scanning
+     * sources, checking staleness, building the tool ClassLoader, running the tool, extracting JavaDoc,
+     * post-processing XSDs and transferring the generated files), the number of files and bytes read and written,
+     * and the (JVM-wide) garbage collections and approximate heap growth - are written as a JSON document next to
+     * the staleFile (i.e. within {@code target/jaxb2}), enabling tracking performance across builds. A summary of
+     * the metrics is always logged.</p>
+     *
+     * @since 4.1.1
+     */
+    @Parameter(property = "jaxb2.writeMetrics", defaultValue = "false")
+    protected boolean writeMetrics;
+
+    /**
+     * <p>If {@code true}, a small stamp file recording the configuration fingerprint of this execution and the
+     * modification timestamps of all sources, traversed source directories, classpath JARs and output directories
+     * is written next to the staleFile after each successful (or verified up-to-date) execution. Subsequent
+     * executions first compare the stamp with the file system, and skip all other work - such as resolving
+     * sources, checking staleness or synthesizing the tool arguments and classpath - if nothing has changed.
+     * Any difference falls back to the full staleness check.</p>
+     *
+     * @since 4.1.1
+     */
+    @Parameter(property = "jaxb2.fastUpToDateCheck", defaultValue = "true")
+    protected boolean fastUpToDateCheck;
+
+    /**
+     * The sources resolved for the current execution, as returned by {@link #getResolvedSources()}.
+     */
+    private ResolvedSources resolvedSources;
+
+    /**
+     * The metrics of the current execution, as returned by {@link #getMetrics()}.
+     */
+    private ExecutionMetrics metrics;
+
+    /**
+     * @return The ClassLoaderCache from which tool ClassLoaders should be leased, or {@code null} if
+     * tool ClassLoaders should not be re-used between executions.
+     * @see #reuseToolClassLoaders
+     * @since 4.1.1
+     */
+    protected ClassLoaderCache getClassLoaderCache() {
+        return reuseToolClassLoaders ? ClassLoaderCache.getDefault(session) : null;
+    }
+
     /**
      * Adds the supplied Resource to the project using the appropriate scope (i.e. resource or testResource)
      * depending on the exact implementation of this AbstractJaxbMojo.
@@ -308,6 +431,37 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         return getInjectedObject(execution, "execution");
     }
 
+    /**
+     * @return The ExecutionMetrics of the active execution, in which subclasses should time their phases
+     * and count the files they read and write.
+     * @since 4.1.1
+     */
+    protected final ExecutionMetrics getMetrics() {
+        if (metrics == null) {
+            metrics = new ExecutionMetrics();
+        }
+        return metrics;
+    }
+
+    /**
+     * Adds the number of files and bytes written, left unchanged and deleted by the supplied OutputUpdater to
+     * the ExecutionMetrics of the active execution.
+     *
+     * @param updater The OutputUpdater which has updated the outputs of the active execution.
+     * @since 4.1.1
+     */
+    protected final void countOutputs(final OutputUpdater updater) {
+
+        // Check sanity
+        Validate.notNull(updater, "updater");
+
+        final ExecutionMetrics current = getMetrics();
+        current.count("outputs.written", updater.getNumWritten());
+        current.count("outputs.writtenBytes", updater.getNumBytesWritten());
+        current.count("outputs.unchanged", updater.getNumUnchanged());
+        current.count("outputs.deleted", updater.getNumDeleted());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -319,6 +473,10 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         final boolean isDebugEnabled = log.isDebugEnabled();
         final boolean isInfoEnabled = log.isInfoEnabled();
 
+        // Resolve the sources and measure the metrics anew for each execution.
+        resolvedSources = null;
+        metrics = new ExecutionMetrics();
+
         // 1) Should we skip execution?
         if (shouldExecutionBeSkipped()) {
 
@@ -328,13 +486,43 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
             return;
         }
 
-        // 2) Printout relevant version information.
+        // 2) Prepare the sources, such as retrieving remote sources, so that the checks below see their state.
+        try (ExecutionMetrics.Phase phase = metrics.phase("sources")) {
+            prepareSources();
+        }
+
+        // 3) Has nothing changed since the last execution?
+        final boolean upToDate;
+        try (ExecutionMetrics.Phase phase = metrics.phase("staleCheck")) {
+            upToDate = fastUpToDateCheck && UpToDateStamp.isUpToDate(getUpToDateStampFile(), getFingerprint());
+        }
+
+        if (upToDate) {
+
+            if (isInfoEnabled) {
+                log.info("No changes detected in schema or binding files - skipping JAXB generation.");
+            }
+            reportMetrics();
+            addExistingOutputDirectoryToProject();
+            return;
+        }
+
+        // 4) Printout relevant version information.
         if (isDebugEnabled) {
             logPluginAndJaxbDependencyInfo();
         }
 
-        // 3) Are generated files stale?
-        if (isReGenerationRequired()) {
+        // 5) Are generated files stale?
+        final boolean reGenerationRequired;
+        try (ExecutionMetrics.Phase phase = metrics.phase("staleCheck")) {
+            reGenerationRequired = isReGenerationRequired();
+        }
+
+        if (reGenerationRequired) {
+
+            // Record the inputs before running the tool, so that inputs changed meanwhile are detected next time.
+            final UpToDateStamp stamp = createUpToDateStamp();
+            UpToDateStamp.delete(getUpToDateStampFile());
 
             if (performExecution()) {
 
@@ -345,14 +533,30 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
                 // Hack to support M2E
                 buildContext.refresh(getOutputDirectory());
 
+                writeUpToDateStamp(stamp);
+
             } else if (isInfoEnabled) {
                 log.info("Not updating staleFile timestamp as instructed.");
             }
-        } else if (isInfoEnabled) {
-            log.info("No changes detected in schema or binding files - skipping JAXB generation.");
+        } else {
+
+            if (isInfoEnabled) {
+                log.info("No changes detected in schema or binding files - skipping JAXB generation.");
+            }
+            writeUpToDateStamp(createUpToDateStamp());
         }
+        reportMetrics();
+
+        // 6) If the output directories exist, add them to the MavenProject's source directories
+        addExistingOutputDirectoryToProject();
+    }
 
-        // 4) If the output directories exist, add them to the MavenProject's source directories
+    /**
+     * Adds the output directory (if it exists) to the appropriate compilation sources of the MavenProject.
+     */
+    private void addExistingOutputDirectoryToProject() {
+
+        final Log log = getLog();
         if (getOutputDirectory().exists() && getOutputDirectory().isDirectory()) {
 
             final String canonicalPathToOutputDirectory = FileSystemUtilities.getCanonicalPath(getOutputDirectory());
@@ -399,6 +603,18 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
      */
     protected abstract boolean performExecution() throws MojoExecutionException, MojoFailureException;
 
+    /**
+     * <p>Prepares the sources of this execution before checking if its outputs are up to date, for instance by
+     * retrieving remote sources into a local directory. Invoked once per execution which is not skipped, before
+     * {@link #getSources()} is invoked. The default implementation does nothing.</p>
+     *
+     * @throws MojoExecutionException if the sources could not be prepared.
+     * @since 4.1.1
+     */
+    protected void prepareSources() throws MojoExecutionException {
+        // Nothing to prepare by default.
+    }
+
     /**
      * Override this method to acquire a List holding all URLs to the sources which this
      * AbstractJaxbMojo should use to produce its output (XSDs files for AbstractXsdGeneratorMojos and
@@ -408,6 +624,63 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
      */
     protected abstract List<URL> getSources();
 
+    /**
+     * Override this method to acquire a List holding all binding files (i.e. XJBs) which this AbstractJaxbMojo
+     * should use to produce its output. The default implementation returns an empty List.
+     *
+     * @return A non-null List holding the binding files used by this AbstractJaxbMojo to produce its output.
+     * @since 4.1.1
+     */
+    protected List<File> getSourceBindings() {
+        return Collections.<File>emptyList();
+    }
+
+    /**
+     * <p>Retrieves the sources and bindings of this AbstractJaxbMojo, which are resolved (by calling the
+     * {@link #getSources()} and {@link #getSourceBindings()} methods) only once per execution. Scanning the
+     * source directories can be expensive, so use this method rather than calling {@link #getSources()}
+     * repeatedly.</p>
+     *
+     * @return The ResolvedSources snapshot of the current execution.
+     * @since 4.1.1
+     */
+    protected final ResolvedSources getResolvedSources() {
+
+        if (resolvedSources == null) {
+
+            try (ExecutionMetrics.Phase phase = getMetrics().phase("sources")) {
+
+                final long startNanos = System.nanoTime();
+                final List<URL> sources;
+                final List<File> bindings;
+                final SortedSet<File> traversedDirectories;
+                FileSystemUtilities.startRecordingTraversedDirectories();
+                try {
+                    sources = getSources();
+                    bindings = getSourceBindings();
+                } finally {
+                    traversedDirectories = FileSystemUtilities.stopRecordingTraversedDirectories();
+                }
+                resolvedSources = new ResolvedSources(
+                        sources, bindings, System.nanoTime() - startNanos, traversedDirectories);
+            }
+            getMetrics().count("sources.files", resolvedSources.getSources().size());
+            getMetrics().count("sources.bindings", resolvedSources.getBindings().size());
+            for (URL current : resolvedSources.getSources()) {
+                if ("file".equalsIgnoreCase(current.getProtocol())) {
+                    getMetrics().count("sources.bytes", FileSystemUtilities.getFileFor(current, "UTF-8").length());
+                }
+            }
+
+            if (getLog().isDebugEnabled()) {
+                getLog().debug(resolvedSources.toString());
+            }
+        }
+
+        // All done.
+        return resolvedSources;
+    }
+
     /**
      * Retrieves the directory where the generated files should be written to.
      *
@@ -425,6 +698,77 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
      */
     protected abstract List<String> getClasspath() throws MojoExecutionException;
 
+    /**
+     * <p>Retrieves a fingerprint of everything - except the sources - which determines the output of this
+     * AbstractJaxbMojo, used to verify the stamp written by a previous execution (see
+     * {@link #fastUpToDateCheck}). The fingerprint is calculated before deciding whether the execution can be
+     * skipped, so it must not resolve the classpath or read the file system. The default implementation
+     * describes the values of all parameters of this Mojo (except the fields named by
+     * {@link #getFingerprintIgnoredFields()}), the paths of the plugin dependencies and project artifacts, the
+     * packaging and base directory of the project and the platform encoding. The timestamp and size of each
+     * classpath JAR is recorded within the stamp itself, so that a JAR re-resolved or rebuilt at the same path
+     * (such as a SNAPSHOT dependency or a reactor module) invalidates the stamp.</p>
+     * <p>Override this method to add further information, calling {@code super.getConfigurationFingerprint()}
+     * first.</p>
+     *
+     * @return The configuration fingerprint, or {@code null} if the configuration could not be described
+     * reliably - in which case the fast up-to-date check is not used.
+     * @throws MojoExecutionException if the configuration could not be retrieved.
+     * @since 4.1.1
+     */
+    protected String getConfigurationFingerprint() throws MojoExecutionException {
+
+        final String parameters;
+        try {
+            parameters = UpToDateStamp.describeFields(
+                    this, AbstractJaxbMojo.class, FINGERPRINT_IGNORED_TYPES, getFingerprintIgnoredFields());
+        } catch (IllegalArgumentException e) {
+
+            if (getLog().isInfoEnabled()) {
+                getLog().info("Not using the fast up-to-date check, since the configuration could not be "
+                        + "described: " + e.getMessage());
+            }
+            return null;
+        }
+
+        final StringBuilder artifacts = new StringBuilder("[");
+        for (Artifact current : getProject().getArtifacts()) {
+            artifacts.append(current.getFile()).append("; ");
+        }
+
+        // All done.
+        return parameters
+                + "plugin=" + getPluginClasspath() + "\n"
+                + "packaging=" + getProject().getPackaging() + "\n"
+                + "basedir=" + getProject().getBasedir() + "\n"
+                + SYSTEM_FILE_ENCODING_PROPERTY + "=" + System.getProperty(SYSTEM_FILE_ENCODING_PROPERTY) + "\n"
+                + "artifacts=" + artifacts.append(']') + "\n";
+    }
+
+    /**
+     * Retrieves the names of fields which are not part of the configuration fingerprint (see
+     * {@link #getConfigurationFingerprint()}), such as state derived from the configuration. Fields holding
+     * injected components and per-execution state are always ignored. The default implementation returns an
+     * empty List.
+     *
+     * @return A non-null List holding the names of fields which should not be part of the fingerprint.
+     * @since 4.1.1
+     */
+    protected List<String> getFingerprintIgnoredFields() {
+        return new ArrayList<String>();
+    }
+
+    /**
+     * Retrieves input files other than the sources and bindings, whose modification should trigger the full
+     * staleness check. The default implementation returns an empty List.
+     *
+     * @return A non-null List holding further input files, such as catalog files.
+     * @since 4.1.1
+     */
+    protected List<File> getAdditionalInputFiles() {
+        return Collections.<File>emptyList();
+    }
+
     /**
      * Convenience method to invoke when some plugin configuration is incorrect.
      * Will output the problem as a warning with some degree of log formatting.
@@ -499,6 +843,88 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         return new File(staleFileDirectory, staleFileName);
     }
 
+    /**
+     * Creates a CacheKeyDescriptor describing this Mojo and the active runtime, in which the paths of the project
+     * base directory and the user home directory are replaced by placeholders. The descriptor holds the content
+     * digests of the plugin dependencies (including any tool plugins added to the plugin definition) and of the
+     * classpath handed to the tool, except the output directories of the project itself. Subclasses should add
+     * their tools, arguments and sources before writing it using
+     * {@link #writeCacheKeyDescriptor(CacheKeyDescriptor)}.
+     *
+     * @return A non-null CacheKeyDescriptor.
+     * @throws MojoExecutionException if the classpath could not be retrieved.
+     * @throws IOException            if a classpath element could not be read.
+     * @since 4.1.1
+     */
+    protected final CacheKeyDescriptor createCacheKeyDescriptor() throws MojoExecutionException, IOException {
+
+        return new CacheKeyDescriptor()
+                .withRoot("${basedir}", getProject().getBasedir())
+                .withRoot("${user.home}", new File(System.getProperty("user.home")))
+                .addTool(getClass())
+                .addClasspath("plugin", getPluginClasspath())
+                .addClasspath("tool", getToolClasspath())
+                .addProperty("java.specification.version", System.getProperty("java.specification.version"))
+                .addProperty("outputDirectory", FileSystemUtilities.getCanonicalPath(getOutputDirectory()));
+    }
+
+    /**
+     * Writes the supplied CacheKeyDescriptor next to the staleFile of this execution. Failing to write the
+     * descriptor does not fail the build, but is logged as a warning.
+     *
+     * @param descriptor The non-null CacheKeyDescriptor to write.
+     * @since 4.1.1
+     */
+    protected final void writeCacheKeyDescriptor(final CacheKeyDescriptor descriptor) {
+
+        // Check sanity
+        Validate.notNull(descriptor, "descriptor");
+
+        final File staleFile = getStaleFile();
+        final File descriptorFile = new File(staleFile.getParentFile(), staleFile.getName() + CACHE_KEY_SUFFIX);
+        try {
+
+            descriptor.write(descriptorFile);
+            if (getLog().isInfoEnabled()) {
+                getLog().info("Wrote cache key descriptor [" + FileSystemUtilities.getCanonicalPath(descriptorFile)
+                        + "] with key [" + descriptor.getKey() + "]");
+            }
+
+        } catch (IOException e) {
+            getLog().warn("Could not write cache key descriptor ["
+                    + FileSystemUtilities.getCanonicalPath(descriptorFile) + "]: " + e.getMessage());
+            descriptorFile.delete();
+        }
+    }
+
+    /**
+     * Logs a summary of the ExecutionMetrics of the active execution, and writes them as a JSON document next to
+     * the staleFile if so configured. Failing to write the metrics does not fail the build.
+     */
+    private void reportMetrics() {
+
+        final ExecutionMetrics current = getMetrics();
+        current.finish();
+        if (getLog().isInfoEnabled()) {
+            getLog().info(current.getSummary());
+        }
+
+        if (writeMetrics) {
+
+            final File staleFile = getStaleFile();
+            final File metricsFile =
+                    new File(staleFile.getParentFile(), staleFile.getName().substring(1) + METRICS_SUFFIX);
+            current.setAttribute("mojo", getClass().getSimpleName());
+            current.setAttribute("execution", getExecution() == null ? "" : getExecution().getExecutionId());
+            try {
+                current.writeJson(metricsFile);
+            } catch (IOException e) {
+                getLog().warn("Could not write execution metrics ["
+                        + FileSystemUtilities.getCanonicalPath(metricsFile) + "]: " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * <p>The algorithm for finding the encoding to use is as follows (where the first non-null value found
      * is used for encoding):</p>
@@ -543,6 +969,24 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
      * @throws MojoExecutionException if the parent directory of the episode file could not be created.
      */
     protected File getEpisodeFile(final String episodeFileName) throws MojoExecutionException {
+        return getEpisodeFile(episodeFileName, true);
+    }
+
+    /**
+     * Retrieves a File to the JAXB Episode (which is normally written during the XJC process).
+     * Moreover, ensures that the parent directory of that File is created, to enable writing the File.
+     *
+     * @param episodeFileName {@code null} to indicate that the standard episode file name ("sun-jaxb.episode")
+     *                        should be used, and otherwise a non-empty name which should be used
+     *                        as the episode file name.
+     * @param unique          if {@code true}, an index is appended to the episode file name if an episode file
+     *                        with the given name already exists. If {@code false}, any existing episode file is
+     *                        returned to be overwritten.
+     * @return A non-null File where the JAXB episode file should be written.
+     * @throws MojoExecutionException if the parent directory of the episode file could not be created.
+     * @since 4.1.1
+     */
+    protected File getEpisodeFile(final String episodeFileName, final boolean unique) throws MojoExecutionException {
 
         // Get the execution ID
         final String executionID = getExecution() != null && getExecution().getExecutionId() != null
@@ -581,7 +1025,7 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
         // Is there already an episode file here?
         File episodeFile = new File(generatedJaxbEpisodeDirectory, effectiveEpisodeFileName + ".xjb");
         final AtomicInteger index = new AtomicInteger(1);
-        while (episodeFile.exists()) {
+        while (unique && episodeFile.exists()) {
             episodeFile = new File(
                     generatedJaxbEpisodeDirectory, effectiveEpisodeFileName + "_" + index.getAndIncrement() + ".xjb");
         }
@@ -600,6 +1044,131 @@ public abstract class AbstractJaxbMojo extends AbstractMojo {
     // Private helpers
     //
 
+    private List<File> getPluginClasspath() {
+
+        final List<File> toReturn = new ArrayList<File>();
+
+        // Maven loads each plugin within a ClassRealm, being an URLClassLoader holding all plugin dependencies.
+        final ClassLoader pluginClassLoader = getClass().getClassLoader();
+        final CodeSource codeSource = getClass().getProtectionDomain().getCodeSource();
+        final URL[] urls = pluginClassLoader instanceof URLClassLoader
+                ? ((URLClassLoader) pluginClassLoader).getURLs()
+                : new URL[] {codeSource == null ? null : codeSource.getLocation()};
+
+        for (URL current : urls) {
+            if (current != null && "file".equalsIgnoreCase(current.getProtocol())) {
+                toReturn.add(FileSystemUtilities.getFileFor(current, "UTF-8"));
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private List<File> getToolClasspath() throws MojoExecutionException {
+
+        // The output directories of the project hold classes compiled from the generated code,
+        // which must not change the key of the generation.
+        final List<String> projectOutputDirectories = new ArrayList<String>();
+        if (getProject().getBuild() != null) {
+            for (String current : Arrays.asList(
+                    getProject().getBuild().getOutputDirectory(),
+                    getProject().getBuild().getTestOutputDirectory())) {
+                if (current != null) {
+                    projectOutputDirectories.add(FileSystemUtilities.getCanonicalPath(new File(current)));
+                }
+            }
+        }
+
+        final List<File> toReturn = new ArrayList<File>();
+        for (String current : getClasspath()) {
+            final File element = new File(current);
+            if (!projectOutputDirectories.contains(FileSystemUtilities.getCanonicalPath(element))) {
+                toReturn.add(element);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private File getUpToDateStampFile() {
+        final File staleFile = getStaleFile();
+        return new File(staleFile.getParentFile(), staleFile.getName() + UP_TO_DATE_SUFFIX);
+    }
+
+    private String getFingerprint() {
+        try {
+            return getConfigurationFingerprint();
+        } catch (MojoExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records the configuration and the current state of all inputs of this execution, or returns {@code null}
+     * if the fast up-to-date check is disabled or not applicable (such as for non-file sources).
+     */
+    private UpToDateStamp createUpToDateStamp() {
+
+        if (!fastUpToDateCheck) {
+            return null;
+        }
+
+        final String fingerprint = getFingerprint();
+        if (fingerprint == null) {
+            return null;
+        }
+
+        final SortedSet<File> inputs = new TreeSet<File>(getResolvedSources().getTraversedDirectories());
+        for (URL current : getResolvedSources().getSources()) {
+            if (!"file".equalsIgnoreCase(current.getProtocol())) {
+                return null;
+            }
+            inputs.add(FileSystemUtilities.getFileFor(current, "UTF-8"));
+        }
+        inputs.addAll(getResolvedSources().getBindings());
+        inputs.addAll(getAdditionalInputFiles());
+
+        // The fingerprint only holds the paths of the classpath JARs, so record their state.
+        final List<File> classpath = new ArrayList<File>(getPluginClasspath());
+        try {
+            for (String current : getClasspath()) {
+                classpath.add(new File(current));
+            }
+        } catch (MojoExecutionException e) {
+            return null;
+        }
+        for (File current : classpath) {
+            if (current.isFile()) {
+                inputs.add(current);
+            }
+        }
+
+        // All done.
+        return UpToDateStamp.create(fingerprint, inputs);
+    }
+
+    private void writeUpToDateStamp(final UpToDateStamp stamp) {
+
+        if (stamp == null) {
+            return;
+        }
+
+        final File stampFile = getUpToDateStampFile();
+        try {
+            stamp.addOutputDirectory(getOutputDirectory()).write(stampFile);
+        } catch (IOException e) {
+
+            // A missing stamp simply implies that the full staleness check is performed within the next build.
+            if (getLog().isDebugEnabled()) {
+                getLog().debug("Could not write up-to-date stamp [" + FileSystemUtilities.getCanonicalPath(stampFile)
+                        + "]: " + e.getMessage());
+            }
+            UpToDateStamp.delete(stampFile);
+        }
+    }
+
     private void logPluginAndJaxbDependencyInfo() {
 
         if (getLog().isDebugEnabled()) {
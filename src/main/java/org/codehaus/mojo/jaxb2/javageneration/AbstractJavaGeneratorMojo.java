@@ -21,14 +21,29 @@ package org.codehaus.mojo.jaxb2.javageneration;
 
 import java.io.File;
 import java.io.FileWriter;
-import java.net.HttpURLConnection;
+import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.tools.xjc.BadCommandLineException;
 import com.sun.tools.xjc.Driver;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -42,12 +57,19 @@ import org.codehaus.mojo.jaxb2.shared.arguments.ArgumentBuilder;
 import org.codehaus.mojo.jaxb2.shared.environment.EnvironmentFacet;
 import org.codehaus.mojo.jaxb2.shared.environment.ToolExecutionEnvironment;
 import org.codehaus.mojo.jaxb2.shared.environment.classloading.ThreadContextClassLoaderBuilder;
+import org.codehaus.mojo.jaxb2.shared.environment.classloading.ThreadContextClassLoaderHolder;
 import org.codehaus.mojo.jaxb2.shared.environment.locale.LocaleFacet;
 import org.codehaus.mojo.jaxb2.shared.environment.logging.LoggingHandlerEnvironmentFacet;
 import org.codehaus.mojo.jaxb2.shared.environment.sysprops.SystemPropertyChangeEnvironmentFacet;
 import org.codehaus.mojo.jaxb2.shared.environment.sysprops.SystemPropertySaveEnvironmentFacet;
+import org.codehaus.mojo.jaxb2.shared.manifest.BuildManifest;
+import org.codehaus.mojo.jaxb2.shared.metrics.ExecutionMetrics;
+import org.codehaus.mojo.jaxb2.shared.mirror.RemoteSchemaMirror;
+import org.codehaus.mojo.jaxb2.shared.output.OutputStore;
+import org.codehaus.mojo.jaxb2.shared.output.OutputUpdater;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.StringUtils;
 
 /**
  * <p>Abstract superclass for Mojos generating Java source or binaries from XML schema(s) by invoking the JAXB XJC
@@ -65,6 +87,20 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
 
     private static final int XJC_COMPLETED_OK = 0;
 
+    /**
+     * Suffix appended to the stale file name to form the name of the {@link BuildManifest} file.
+     */
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    /**
+     * Suffix appended to the stale file name to form the name of the directory holding the schema island state.
+     */
+    private static final String ISLANDS_SUFFIX = ".islands";
+    private static final String STAGING_SUFFIX = ".staging";
+
+    private static final String EPISODE_SUFFIX = ".xjb";
+    private static final String OVERLAP_MARKER = "overlapping";
+
     /**
      * <p>Corresponding XJC parameter: {@code catalog}.</p>
      * <p>Specify catalog files to resolve external entity references.
@@ -211,6 +247,9 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
 
     /**
      * <p>Removes all files from the output directory before running XJC.</p>
+     * <p>Since 4.1.1, the generated files are written to a staging directory and only the changed files are
+     * replaced within the output directory; other files found within the output directory are removed
+     * afterwards. Unchanged output files therefore retain their modification timestamps.</p>
      */
     @Parameter(defaultValue = "true")
     protected boolean clearOutputDir;
@@ -350,82 +389,161 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
     protected boolean externalEntityProcessing;
 
     /**
-     * <p>Java generation is required if any of the file products is outdated/stale.</p>
+     * <p>If set to {@code true}, the XSD sources are partitioned into independent <em>schema islands</em>, being the
+     * connected components of the graph formed by the include/import/redefine references between the sources.
+     * Sources sharing a target namespace, and sources referred to by the same binding file, belong to the same
+     * island. Each schema island is compiled by a separate XJC invocation, which is only performed if any of the
+     * schemas or bindings within the island has changed since the previous build. The generated files of untouched
+     * islands therefore remain byte-identical on disk, which keeps incremental compilation warm.</p>
+     * <p>Islands are compiled within a staging directory before their outputs are moved to the outputDirectory,
+     * and the episode files of all islands are merged into a single episode file. Since islands are regenerated
+     * individually, the {@code clearOutputDir} parameter is only honored when no islands have previously been
+     * generated. If two islands turn out to generate the same file (for instance, when a {@code packageName} is
+     * configured), all sources are compiled by a single XJC invocation instead.</p>
+     *
+     * @since 4.1.1
+     */
+    @Parameter(defaultValue = "false")
+    protected boolean schemaIslands;
+
+    /**
+     * <p>A local directory holding a content-addressed store of XJC outputs, which may be shared between builds
+     * of different modules and branches. Each XJC invocation is identified by a key digesting the content of all
+     * sources, bindings and catalogs, all XJC arguments and the versions of XJC and the plugin (with the paths of
+     * the project base directory and the user home directory replaced by placeholders, as described for the
+     * {@code deterministicOutput} parameter). If the store holds the output tree of an identical invocation,
+     * the generated files and the episode file are restored from the store instead of invoking XJC; otherwise
+     * the outputs of the XJC invocation are added to the store.</p>
+     * <p>The store is not used when generating schema islands, and is disabled unless this parameter is set.</p>
+     *
+     * @see #outputStoreMaxSize
+     * @since 4.1.1
+     */
+    @Parameter(property = "xjc.outputStore")
+    protected File outputStore;
+
+    /**
+     * <p>The maximum size of the {@code outputStore}, in megabytes. The least recently used entries are evicted
+     * when the total size of the stored output trees exceeds this size.</p>
+     *
+     * @since 4.1.1
+     */
+    @Parameter(property = "xjc.outputStoreMaxSize", defaultValue = "512")
+    protected int outputStoreMaxSize;
+
+    /**
+     * <p>The number of threads used to generate Java code from independent schema islands (as described for the
+     * {@code schemaIslands} parameter) concurrently. Each thread uses its own ThreadContextClassLoader, and the
+     * outputs of all islands are merged into the outputDirectory in the order of the islands, implying that the
+     * result does not depend on the order in which the threads complete. This parameter only applies if the
+     * {@code schemaIslands} parameter is true; otherwise all sources are compiled by a single XJC invocation
+     * (and a warning is emitted if {@code parallelism} is larger than 1).</p>
+     *
+     * @since 4.1.1
+     */
+    @Parameter(property = "xjc.parallelism", defaultValue = "1")
+    protected int parallelism;
+
+    /**
+     * <p>The directory holding local copies of remote (http or https) XJC sources. Remote sources are downloaded
+     * into this directory along with the schemas they reference relatively, and XJC is invoked with the local
+     * copies. The copies are revalidated against their remote origin using conditional requests once the
+     * {@code remoteSchemaRevalidationInterval} has passed; if the origin is unavailable (or Maven runs in
+     * offline mode), the local copies are used as they are. Point this parameter to a directory outside the
+     * build directory to share the mirror between modules and builds.</p>
+     *
+     * @see #remoteSchemaRevalidationInterval
+     * @since 4.1.1
+     */
+    @Parameter(property = "xjc.remoteSchemaMirror", defaultValue = "${project.build.directory}/jaxb2/mirror")
+    protected File remoteSchemaMirror;
+
+    /**
+     * <p>The number of minutes a mirrored remote schema is used without revalidating it against its remote
+     * origin. Set to 0 to revalidate mirrored schemas within each build.</p>
+     *
+     * @see #remoteSchemaMirror
+     * @since 4.1.1
+     */
+    @Parameter(property = "xjc.remoteSchemaRevalidationInterval", defaultValue = "1440")
+    protected int remoteSchemaRevalidationInterval;
+
+    /**
+     * <p>The connect and read timeout, in milliseconds, used when mirroring or revalidating remote schemas.</p>
+     *
+     * @see #remoteSchemaMirror
+     * @since 4.1.1
+     */
+    @Parameter(property = "xjc.remoteSchemaTimeout", defaultValue = "10000")
+    protected int remoteSchemaTimeout;
+
+    /**
+     * The BuildManifest of the current sources and arguments, as synthesized by {@link #isReGenerationRequired()}.
+     */
+    private BuildManifest currentManifest;
+
+    /**
+     * The local copies of all remote schemas mirrored by {@link #getMirroredSources(List)}. Not part of the
+     * configuration fingerprint, since their state is recorded along with the other input files.
+     */
+    private List<File> mirroredFiles = Collections.<File>emptyList();
+
+    /**
+     * <p>Java generation is required if any of the file products is outdated/stale. This is determined by comparing
+     * a {@link BuildManifest} synthesized from the current sources, XJC arguments and tool versions with the
+     * BuildManifest written after the previous successful XJC invocation. Sources are compared by content digest,
+     * implying that touching a source (or checking it out anew) does not trigger re-generation.</p>
      * {@inheritDoc}
      */
     @Override
     protected boolean isReGenerationRequired() {
 
         //
-        // Use the stale flag method to identify if we should re-generate the java source code from the supplied
+        // Use the build manifest to identify if we should re-generate the java source code from the supplied
         // Xml Schema. Basically, we should regenerate the JAXB code if:
         //
-        // a) The staleFile does not exist
-        // b) The staleFile exists and is older than one of the sources (XSD or XJB files).
-        //    "Older" is determined by comparing the modification timestamp of the staleFile and the source files.
+        // a) The build manifest does not exist
+        // b) The content of any source (XSD, XJB or catalog file) differs from the one recorded in the manifest.
+        // c) The XJC arguments or the plugin/XJC versions differ from the ones recorded in the manifest.
+        // d) Any output file recorded in the manifest has been removed.
         //
-        final File staleFile = getStaleFile();
-        final String debugPrefix = "StaleFile [" + FileSystemUtilities.getCanonicalPath(staleFile) + "]";
+        final File manifestFile = getManifestFile();
+        final String debugPrefix = "BuildManifest [" + FileSystemUtilities.getCanonicalPath(manifestFile) + "]";
+        final BuildManifest previousManifest = BuildManifest.read(manifestFile);
 
-        boolean stale = !staleFile.exists();
-        if (stale) {
-            getLog().debug(debugPrefix + " not found. JAXB (re-)generation required.");
-        } else {
-
-            final List<URL> sourceXSDs = getSources();
-            final List<File> sourceXJBs = getSourceXJBs();
+        try {
+            currentManifest = createBuildManifest(previousManifest);
+        } catch (Exception e) {
 
+            // Can't determine if the sources have changed.
+            // Re-generate to be on the safe side.
             if (getLog().isDebugEnabled()) {
-                getLog().debug(debugPrefix + " found. Checking timestamps on source XSD and XJB "
-                        + "files to determine if JAXB (re-)generation is required.");
+                getLog().debug(debugPrefix + " could not be compared with the current sources ["
+                        + e.getMessage() + "]. JAXB (re-)generation required.");
             }
 
-            final long staleFileLastModified = staleFile.lastModified();
-            for (URL current : sourceXSDs) {
-
-                final URLConnection sourceXsdConnection;
-                try {
-                    sourceXsdConnection = current.openConnection();
-                    sourceXsdConnection.connect();
-                } catch (Exception e) {
-
-                    // Can't determine if the staleFile is younger than this sourceXSD.
-                    // Re-generate to be on the safe side.
-                    stale = true;
-                    break;
-                }
-
-                try {
-                    if (sourceXsdConnection.getLastModified() > staleFileLastModified) {
-
-                        if (getLog().isDebugEnabled()) {
-                            getLog().debug(current.toString() + " is newer than the stale flag file.");
-                        }
-                        stale = true;
-                    }
-                } finally {
-                    if (sourceXsdConnection instanceof HttpURLConnection) {
-                        ((HttpURLConnection) sourceXsdConnection).disconnect();
-                    }
-                }
-            }
+            currentManifest = null;
+            return true;
+        }
 
-            for (File current : sourceXJBs) {
-                if (current.lastModified() > staleFileLastModified) {
+        final List<String> differences = currentManifest.getDifferences(previousManifest, getOutputDirectory());
+        if (getLog().isDebugEnabled()) {
 
-                    if (getLog().isDebugEnabled()) {
-                        getLog().debug(FileSystemUtilities.getCanonicalPath(current)
-                                + " is newer than the stale flag file.");
-                    }
+            if (differences.isEmpty()) {
+                getLog().debug(debugPrefix + " matches the current sources, arguments and tool versions.");
+            } else {
 
-                    stale = true;
-                    break;
+                final StringBuilder builder = new StringBuilder(debugPrefix + " differs from the current build. "
+                        + "JAXB (re-)generation required.");
+                for (String current : differences) {
+                    builder.append(NEWLINE).append("  ").append(current);
                 }
+                getLog().debug(builder.toString());
             }
         }
 
         // All done.
-        return stale;
+        return !differences.isEmpty();
     }
 
     /**
@@ -449,6 +567,7 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
                 environment = new ToolExecutionEnvironment(
                         getLog(),
                         ThreadContextClassLoaderBuilder.createFor(this.getClass(), getLog(), getEncoding(false))
+                                .withClassLoaderCache(getClassLoaderCache())
                                 .addPaths(getClasspath()),
                         LoggingHandlerEnvironmentFacet.create(getLog(), getClass(), getEncoding(false)),
                         localeFacet);
@@ -479,46 +598,110 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
                 }
 
                 // Setup the environment.
-                environment.setup();
-
-                // Compile the XJC arguments
-                final String[] xjcArguments = getXjcArguments(environment.getClassPathAsArgument(), episodeFileName);
+                environment.setMetrics(getMetrics());
+                try (ExecutionMetrics.Phase phase = getMetrics().phase("environment")) {
+                    environment.setup();
+                }
 
-                // Ensure that the outputDirectory exists, but only clear it if does not already
-                FileSystemUtilities.createDirectory(getOutputDirectory(), clearOutputDir);
+                if (deterministicOutput && addGeneratedAnnotation && getLog().isWarnEnabled()) {
+                    getLog().warn("The @Generated annotations emitted by XJC (as requested by the "
+                            + "'addGeneratedAnnotation' parameter) hold a generation timestamp, "
+                            + "implying that the generated sources are not deterministic.");
+                }
 
-                // Do we need to re-create the episode file's parent directory.
-                final boolean reCreateEpisodeFileParentDirectory = generateEpisode && clearOutputDir;
-                if (reCreateEpisodeFileParentDirectory) {
-                    getEpisodeFile(episodeFileName);
+                if (parallelism > 1 && !schemaIslands && getLog().isWarnEnabled()) {
+                    getLog().warn("The 'parallelism' parameter only applies to schema island generation, which is "
+                            + "not enabled by the 'schemaIslands' parameter. Compiling all sources with a single "
+                            + "XJC invocation.");
                 }
 
-                // Check the system properties.
-                logSystemPropertiesAndBasedir();
+                if (schemaIslands) {
+
+                    // Fire XJC for each changed schema island.
+                    performSchemaIslandExecution(environment);
 
-                // Fire XJC
-                if (XJC_COMPLETED_OK != Driver.run(xjcArguments, new XjcLogAdapter(getLog()))) {
+                } else {
+
+                    // Remove any state from previous schema island executions.
+                    FileUtils.deleteDirectory(getSchemaIslandsDirectory());
+
+                    // XJC generates into an (always cleared) staging directory, from which only the
+                    // changed files are moved into the outputDirectory. Ensure that both exist.
+                    final File stagingDirectory = getStagingDirectory();
+                    FileSystemUtilities.createDirectory(stagingDirectory, true);
+                    FileSystemUtilities.createDirectory(getOutputDirectory(), false);
+
+                    // Compile the XJC arguments
+                    final String[] xjcArguments =
+                            getXjcArguments(environment.getClassPathAsArgument(), episodeFileName, stagingDirectory);
+
+                    // Restore the outputs of an identical XJC invocation from the outputStore, if configured.
+                    final OutputStore store = outputStore == null
+                            ? null
+                            : new OutputStore(outputStore, outputStoreMaxSize * 1024L * 1024L, getLog());
+                    String storeKey = null;
+                    boolean restored = false;
+                    if (store != null) {
+                        try (ExecutionMetrics.Phase phase = getMetrics().phase("outputStore")) {
+                            storeKey = getOutputStoreKey(xjcArguments);
+                            restored = store.restore(storeKey, stagingDirectory);
+                        }
+                    }
+
+                    if (!restored) {
+
+                        // Fire XJC, holding the tool execution lock only for the XJC invocation itself.
+                        final int xjcResult;
+                        try (ExecutionMetrics.Phase phase = getMetrics().phase("xjc")) {
+                            xjcResult = environment.execute(new Callable<Integer>() {
+                                @Override
+                                public Integer call() throws Exception {
 
-                    final StringBuilder errorMsgBuilder = new StringBuilder();
-                    errorMsgBuilder.append("\n+=================== [XJC Error]\n");
-                    errorMsgBuilder.append("|\n");
+                                    // Check the system properties.
+                                    logSystemPropertiesAndBasedir();
 
-                    final List<URL> sourceXSDs = getSources();
-                    for (int i = 0; i < sourceXSDs.size(); i++) {
-                        errorMsgBuilder
-                                .append("| " + i + ": ")
-                                .append(sourceXSDs.get(i).toString())
-                                .append("\n");
+                                    return Driver.run(xjcArguments, new XjcLogAdapter(getLog()));
+                                }
+                            });
+                        }
+                        if (XJC_COMPLETED_OK != xjcResult) {
+                            throw createXjcErrorException(getResolvedSources().getSources());
+                        }
+
+                        if (store != null) {
+                            try (ExecutionMetrics.Phase phase = getMetrics().phase("outputStore")) {
+                                store.store(storeKey, stagingDirectory);
+                            }
+                        }
                     }
 
-                    errorMsgBuilder.append("|\n");
-                    errorMsgBuilder.append("+=================== [End XJC Error]\n");
-                    throw new MojoExecutionException(errorMsgBuilder.toString());
+                    // Synchronize the outputDirectory with the staged outputs.
+                    final OutputUpdater updater = new OutputUpdater(getLog());
+                    try (ExecutionMetrics.Phase phase = getMetrics().phase("outputTransfer")) {
+
+                        updater.transfer(
+                                stagingDirectory,
+                                getOutputDirectory(),
+                                FileSystemUtilities.resolveRecursively(
+                                        Collections.singletonList(stagingDirectory), null, getLog()),
+                                true);
+                        if (clearOutputDir) {
+                            updater.deleteUntracked(getOutputDirectory());
+                        }
+                        FileUtils.deleteDirectory(stagingDirectory);
+                    }
+                    updater.logSummary("XJC");
+                    countOutputs(updater);
                 }
 
                 // Indicate that the output directory was updated.
                 getBuildContext().refresh(getOutputDirectory());
 
+                // Record the sources, arguments and outputs of this XJC invocation.
+                try (ExecutionMetrics.Phase phase = getMetrics().phase("manifest")) {
+                    writeBuildManifest();
+                }
+
                 // Update the modification timestamp of the staleFile.
                 updateStaleFileTimestamp = true;
 
@@ -540,7 +723,7 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
                 final File targetXsdDirectory = new File(buildOutputDirectory, xsdPathWithinArtifact);
                 FileUtils.forceMkdir(targetXsdDirectory);
 
-                for (URL current : getSources()) {
+                for (URL current : getResolvedSources().getSources()) {
 
                     String fileName = null;
                     if ("file".equalsIgnoreCase(current.getProtocol())) {
@@ -605,11 +788,173 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
      */
     protected abstract List<File> getSourceXJBs();
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<File> getSourceBindings() {
+        return getSourceXJBs();
+    }
+
+    /**
+     * Adds the active proxy (used to resolve remote schemas) to the fingerprint. The XJC implementation is
+     * described by the plugin dependencies.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    protected String getConfigurationFingerprint() throws MojoExecutionException {
+
+        final String toReturn = super.getConfigurationFingerprint();
+        if (toReturn == null) {
+            return null;
+        }
+
+        // Mirrored remote sources are revalidated by prepareSources(), and only replaced if their content
+        // changed. Their state is hence recorded along with all other sources, rather than within the fingerprint.
+        return toReturn
+                + "proxy=" + getProxyString(settings.getActiveProxy()) + "\n";
+    }
+
+    /**
+     * Adds the local copies of mirrored remote schemas, whose state is recorded along with the other input files.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<String> getFingerprintIgnoredFields() {
+
+        final List<String> toReturn = super.getFingerprintIgnoredFields();
+        toReturn.add("mirroredFiles");
+        return toReturn;
+    }
+
+    /**
+     * Adds the catalog file (if configured) and the local copies of all mirrored remote schemas - including the
+     * schemas they reference, which are not configured sources.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<File> getAdditionalInputFiles() {
+
+        final List<File> toReturn = new ArrayList<File>(super.getAdditionalInputFiles());
+        if (catalog != null) {
+            toReturn.add(catalog);
+        }
+        toReturn.addAll(mirroredFiles);
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Replaces each configured remote (http or https) source by the path to its local copy within the
+     * {@code remoteSchemaMirror}, mirroring or revalidating it as required. Local sources are retained as
+     * configured, so the local copies of remote sources are resolved just like any other source.
+     *
+     * @param configuredSources The configured sources, or {@code null} if no sources were configured.
+     * @return A List holding the configured sources, with each remote source replaced in place by the absolute
+     * path to its local copy, or {@code null} if no sources were configured.
+     * @throws MojoExecutionException if a remote source was never mirrored, and could not be retrieved.
+     * @see RemoteSchemaMirror#isRemote(String)
+     * @since 4.1.1
+     */
+    protected List<String> getMirroredSources(final List<String> configuredSources) throws MojoExecutionException {
+
+        mirroredFiles = Collections.<File>emptyList();
+        if (configuredSources == null) {
+            return null;
+        }
+
+        final List<String> toReturn = new ArrayList<String>();
+        RemoteSchemaMirror mirror = null;
+        for (String current : configuredSources) {
+
+            if (!RemoteSchemaMirror.isRemote(current)) {
+                toReturn.add(current);
+                continue;
+            }
+
+            if (mirror == null) {
+                mirror = new RemoteSchemaMirror(
+                                remoteSchemaMirror,
+                                remoteSchemaRevalidationInterval * 60000L,
+                                remoteSchemaTimeout,
+                                settings != null && settings.isOffline(),
+                                getLog())
+                        .withProxy(settings == null ? null : settings.getActiveProxy());
+            }
+
+            try {
+                toReturn.add(mirror.resolve(new URL(current.trim())).getAbsolutePath());
+                mirroredFiles = mirror.getResolvedFiles();
+            } catch (IOException e) {
+                throw new MojoExecutionException(
+                        "Could not resolve remote source [" + current.trim() + "]: " + e.getMessage(), e);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
     //
     // Private helpers
     //
 
-    private String[] getXjcArguments(final String classPath, final String episodeFileNameOrNull)
+    private String[] getXjcArguments(
+            final String classPath, final String episodeFileNameOrNull, final File stagingDirectory)
+            throws MojoExecutionException, NoSchemasException, IOException {
+
+        // We must add the -extension flag in order to generate the episode file.
+        if (!extension && generateEpisode) {
+
+            if (getLog().isInfoEnabled()) {
+                getLog().info("Adding 'extension' flag to XJC arguments, to generate an episode "
+                        + "file named '" + (episodeFileName == null ? STANDARD_EPISODE_FILENAME : episodeFileName)
+                        + "'. (XJCs 'episode' argument requires that the 'extension' argument is provided).");
+            }
+        }
+
+        // Only ask XJC for an episode file when one was actually requested.
+        // XJC writes the episode file to the same relative path within the staging directory,
+        // from which it replaces the episode file within the outputDirectory if its content has changed.
+        String episodeFilePath = null;
+        if (generateEpisode) {
+
+            final String relativePath = FileSystemUtilities.relativize(
+                    FileSystemUtilities.getCanonicalPath(getEpisodeFile(episodeFileNameOrNull, false)),
+                    getOutputDirectory(),
+                    true);
+            final File stagedEpisodeFile = new File(stagingDirectory, relativePath);
+            FileUtils.forceMkdir(stagedEpisodeFile.getParentFile());
+            episodeFilePath = FileSystemUtilities.getCanonicalPath(stagedEpisodeFile);
+        }
+
+        // All done.
+        return logAndReturnToolArguments(
+                buildXjcArguments(
+                        classPath,
+                        episodeFilePath,
+                        true,
+                        stagingDirectory,
+                        getResolvedSources().getBindings(),
+                        getResolvedSources().getSources()),
+                "XJC");
+    }
+
+    /**
+     * Builds the XJC argument vector without side effects (i.e. without creating the episode file directory
+     * or adding resources to the project), implying that it can be used to synthesize a BuildManifest.
+     */
+    private String[] buildXjcArguments(
+            final String classPath,
+            final String episodeFilePathOrNull,
+            final boolean warnIfPlatformEncoding,
+            final File outputDirectory,
+            final List<File> sourceXJBs,
+            final List<URL> sourceXSDs)
             throws MojoExecutionException, NoSchemasException {
 
         final ArgumentBuilder builder = new ArgumentBuilder();
@@ -623,37 +968,21 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
         builder.withFlag(enableIntrospection, "enableIntrospection");
         builder.withFlag(extension, "extension");
         builder.withFlag(readOnly, "readOnly");
-        builder.withFlag(noGeneratedHeaderComments, "no-header");
+        builder.withFlag(noGeneratedHeaderComments || deterministicOutput, "no-header");
         builder.withFlag(addGeneratedAnnotation, "mark-generated");
 
         // Add all arguments on the form '-argumentName argumentValue'
         // (i.e. in 2 separate elements of the returned String[])
         builder.withNamedArgument("httpproxy", getProxyString(settings.getActiveProxy()));
-        builder.withNamedArgument("encoding", getEncoding(true));
+        builder.withNamedArgument("encoding", getEncoding(warnIfPlatformEncoding));
         builder.withNamedArgument("p", packageName);
         builder.withNamedArgument("target", target);
-        builder.withNamedArgument("d", getOutputDirectory().getAbsolutePath());
+        builder.withNamedArgument("d", outputDirectory.getAbsolutePath());
         builder.withNamedArgument("classpath", classPath);
 
-        // We must add the -extension flag in order to generate the episode file.
-        if (!extension && generateEpisode) {
-
-            if (getLog().isInfoEnabled()) {
-                getLog().info("Adding 'extension' flag to XJC arguments, to generate an episode "
-                        + "file named '" + (episodeFileName == null ? STANDARD_EPISODE_FILENAME : episodeFileName)
-                        + "'. (XJCs 'episode' argument requires that the 'extension' argument is provided).");
-            }
-        }
+        // The -extension flag is required in order to generate the episode file.
         builder.withFlag(true, "extension");
-
-        // Only ask XJC for an episode file when one was actually requested. The episode file's parent
-        // directory is re-created after the output directory has been cleared, and only when
-        // generateEpisode is set, so handing XJC the argument regardless leaves it writing into a
-        // directory that is no longer there.
-        if (generateEpisode) {
-            final File episodeFile = getEpisodeFile(episodeFileNameOrNull);
-            builder.withNamedArgument("episode", FileSystemUtilities.getCanonicalPath(episodeFile));
-        }
+        builder.withNamedArgument("episode", episodeFilePathOrNull);
 
         if (catalog != null) {
             builder.withNamedArgument("catalog", FileSystemUtilities.getCanonicalPath(catalog));
@@ -667,7 +996,7 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
             builder.withPreCompiledArguments(arguments);
         }
 
-        for (File current : getSourceXJBs()) {
+        for (File current : sourceXJBs) {
 
             // Shorten the argument?
             // final String strippedXjbPath = FileSystemUtilities.relativize(
@@ -677,7 +1006,6 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
             builder.withPreCompiledArguments(Arrays.asList("-b", current.getAbsolutePath()));
         }
 
-        final List<URL> sourceXSDs = getSources();
         if (sourceXSDs.isEmpty()) {
 
             // If we have no XSDs, we are not going to be able to run XJC.
@@ -705,7 +1033,505 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
         }
 
         // All done.
-        return logAndReturnToolArguments(builder.build(), "XJC");
+        return builder.build();
+    }
+
+    private MojoExecutionException createXjcErrorException(final List<URL> sourceXSDs) {
+
+        final StringBuilder errorMsgBuilder = new StringBuilder();
+        errorMsgBuilder.append("\n+=================== [XJC Error]\n");
+        errorMsgBuilder.append("|\n");
+
+        for (int i = 0; i < sourceXSDs.size(); i++) {
+            errorMsgBuilder
+                    .append("| " + i + ": ")
+                    .append(sourceXSDs.get(i).toString())
+                    .append("\n");
+        }
+
+        errorMsgBuilder.append("|\n");
+        errorMsgBuilder.append("+=================== [End XJC Error]\n");
+        return new MojoExecutionException(errorMsgBuilder.toString());
+    }
+
+    private String getOutputStoreKey(final String[] xjcArguments)
+            throws MojoExecutionException, NoSchemasException, IOException {
+
+        final BuildManifest sources = currentManifest == null ? createBuildManifest(null) : currentManifest;
+        return createCacheKeyDescriptor()
+                .addTool(Driver.class)
+                .addArguments(Arrays.asList(xjcArguments))
+                .addSources(sources)
+                .getKey();
+    }
+
+    private File getStagingDirectory() {
+        final File staleFile = getStaleFile();
+        return new File(staleFile.getParentFile(), staleFile.getName() + STAGING_SUFFIX);
+    }
+
+    private File getSchemaIslandsDirectory() {
+        final File staleFile = getStaleFile();
+        return new File(staleFile.getParentFile(), staleFile.getName() + ISLANDS_SUFFIX);
+    }
+
+    private void performSchemaIslandExecution(final ToolExecutionEnvironment environment)
+            throws MojoExecutionException, NoSchemasException, IOException {
+
+        final List<URL> sourceXSDs = getResolvedSources().getSources();
+        if (sourceXSDs.isEmpty()) {
+
+            // If we have no XSDs, we are not going to be able to run XJC.
+            getLog().warn("No XSD files found. Please check your plugin configuration.");
+            throw new NoSchemasException();
+        }
+
+        // Emit any platform encoding warning once, rather than once per island.
+        getEncoding(true);
+
+        // When a packageName is given, all islands would generate into the same package.
+        final List<File> sourceXJBs = getResolvedSources().getBindings();
+        final List<SchemaIsland> allSources = Collections.singletonList(
+                new SchemaIsland(sourceXSDs, Collections.<URL>emptyList(), sourceXJBs));
+        List<SchemaIsland> islands =
+                packageName == null ? SchemaIslands.resolve(sourceXSDs, sourceXJBs, getLog()) : allSources;
+
+        // Did this partition generate overlapping files within a previous build?
+        final File islandsDirectory = getSchemaIslandsDirectory();
+        final File overlapMarker = new File(islandsDirectory, OVERLAP_MARKER);
+        final String partitionKey = getPartitionKey(islands);
+        if (overlapMarker.isFile() && partitionKey.equals(FileUtils.fileRead(overlapMarker, "UTF-8"))) {
+            islands = allSources;
+        }
+
+        FileUtils.forceMkdir(islandsDirectory);
+        final SortedMap<String, BuildManifest> previousManifests = readIslandManifests(islandsDirectory);
+
+        // Only clear the output directory if it holds no previously generated islands.
+        FileSystemUtilities.createDirectory(getOutputDirectory(), clearOutputDir && previousManifests.isEmpty());
+
+        if (!generateSchemaIslands(islands, previousManifests, environment)) {
+
+            // The islands were not independent after all. Compile all sources in one go instead,
+            // and remember not to attempt compiling this partition island by island again.
+            getLog().warn("Schema islands generated overlapping files; compiling all "
+                    + sourceXSDs.size() + " sources with a single XJC invocation instead.");
+
+            for (BuildManifest current : readIslandManifests(islandsDirectory).values()) {
+                deleteOutputs(current.getOutputs());
+            }
+            FileUtils.cleanDirectory(islandsDirectory);
+            FileUtils.fileWrite(overlapMarker, "UTF-8", partitionKey);
+
+            islands = allSources;
+            generateSchemaIslands(islands, new TreeMap<String, BuildManifest>(), environment);
+        }
+
+        // Merge the episodes of all islands.
+        mergeIslandEpisodes(islands);
+    }
+
+    private static String getPartitionKey(final List<SchemaIsland> islands) {
+
+        final StringBuilder builder = new StringBuilder();
+        for (SchemaIsland current : islands) {
+            builder.append(current.getKey()).append(' ');
+        }
+        return builder.toString().trim();
+    }
+
+    private boolean generateSchemaIslands(
+            final List<SchemaIsland> islands,
+            final SortedMap<String, BuildManifest> previousManifests,
+            final ToolExecutionEnvironment environment)
+            throws MojoExecutionException, NoSchemasException, IOException {
+
+        final String classPath = environment.getClassPathAsArgument();
+        final File islandsDirectory = getSchemaIslandsDirectory();
+        final Set<String> currentKeys = new HashSet<String>();
+        for (SchemaIsland current : islands) {
+            currentKeys.add(current.getKey());
+        }
+
+        // Remove the outputs and state of islands which no longer exist.
+        for (Map.Entry<String, BuildManifest> current : previousManifests.entrySet()) {
+            if (!currentKeys.contains(current.getKey())) {
+
+                if (getLog().isDebugEnabled()) {
+                    getLog().debug("Removing outputs of obsolete schema island [" + current.getKey() + "]");
+                }
+
+                deleteOutputs(current.getValue().getOutputs());
+                new File(islandsDirectory, current.getKey() + MANIFEST_SUFFIX).delete();
+                new File(islandsDirectory, current.getKey() + EPISODE_SUFFIX).delete();
+            }
+        }
+
+        // Map all outputs to the island owning them.
+        final Map<String, String> output2IslandKey = new HashMap<String, String>();
+        for (Map.Entry<String, BuildManifest> current : previousManifests.entrySet()) {
+            if (currentKeys.contains(current.getKey())) {
+                for (String output : current.getValue().getOutputs()) {
+                    output2IslandKey.put(output, current.getKey());
+                }
+            }
+        }
+
+        // Find the islands which must be (re-)generated.
+        final List<IslandGeneration> pending = new ArrayList<IslandGeneration>();
+        for (SchemaIsland current : islands) {
+
+            final IslandGeneration generation = new IslandGeneration(current, islandsDirectory);
+            generation.previousManifest = previousManifests.get(current.getKey());
+            generation.arguments = buildXjcArguments(
+                    classPath,
+                    generateEpisode ? generation.stagedEpisode.getAbsolutePath() : null,
+                    false,
+                    generation.stagingDirectory,
+                    current.getBindings(),
+                    current.getSources());
+
+            // Is the island up to date?
+            final BuildManifest manifest = new BuildManifest().addTool(getClass()).addTool(Driver.class);
+            manifest.setArguments(generation.arguments);
+            for (URL source : current.getSources()) {
+                manifest.addSource(source, generation.previousManifest);
+            }
+            for (URL referencedSchema : current.getReferencedSchemas()) {
+                manifest.addSource(referencedSchema, generation.previousManifest);
+            }
+            for (File binding : current.getBindings()) {
+                manifest.addSource(FileSystemUtilities.getUrlFor(binding), generation.previousManifest);
+            }
+            if (catalog != null && catalog.isFile()) {
+                manifest.addSource(FileSystemUtilities.getUrlFor(catalog), generation.previousManifest);
+            }
+            generation.manifest = manifest;
+
+            final List<String> differences = manifest.getDifferences(generation.previousManifest, getOutputDirectory());
+            if (differences.isEmpty() && (!generateEpisode || generation.islandEpisode.isFile())) {
+
+                if (getLog().isDebugEnabled()) {
+                    getLog().debug("Schema island [" + current.getKey() + "] is up to date.");
+                }
+            } else {
+                pending.add(generation);
+            }
+        }
+
+        // Fire XJC for all pending islands, each within its own staging directory.
+        for (IslandGeneration current : pending) {
+            FileSystemUtilities.createDirectory(current.stagingDirectory, true);
+            FileUtils.forceMkdir(current.stagedEpisode.getParentFile());
+        }
+        try (ExecutionMetrics.Phase phase = getMetrics().phase("xjc")) {
+
+            // All islands are generated while holding the tool execution lock once, permitting
+            // them to run in parallel with each other.
+            environment.execute(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+
+                    // Check the system properties.
+                    logSystemPropertiesAndBasedir();
+
+                    runXjcForIslands(pending);
+                    return null;
+                }
+            });
+        } catch (MojoExecutionException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MojoExecutionException("Could not generate schema islands", e);
+        }
+
+        // Merge the staged outputs into the outputDirectory, in the order of the islands.
+        final OutputUpdater updater = new OutputUpdater(getLog()).withParallelism(parallelism);
+        for (IslandGeneration current : pending) {
+
+            final String islandKey = current.island.getKey();
+
+            // Move the episode out of the staged outputs.
+            current.islandEpisode.delete();
+            if (current.stagedEpisode.isFile()) {
+                FileUtils.rename(current.stagedEpisode, current.islandEpisode);
+            }
+            current.manifest.addOutputs(current.stagingDirectory);
+
+            // Refuse to overwrite the outputs of other islands.
+            for (String output : current.manifest.getOutputs()) {
+                final String owner = output2IslandKey.get(output);
+                if (owner != null && !owner.equals(islandKey)) {
+
+                    if (getLog().isDebugEnabled()) {
+                        getLog().debug("Schema islands [" + owner + "] and [" + islandKey
+                                + "] both generate [" + output + "]");
+                    }
+
+                    for (IslandGeneration toDelete : pending) {
+                        FileUtils.deleteDirectory(toDelete.stagingDirectory);
+                    }
+                    return false;
+                }
+            }
+
+            // Synchronize the output directory with the staged outputs.
+            if (current.previousManifest != null) {
+                final List<String> obsoleteOutputs = new ArrayList<String>(current.previousManifest.getOutputs());
+                obsoleteOutputs.removeAll(current.manifest.getOutputs());
+                deleteOutputs(obsoleteOutputs);
+            }
+            final List<File> stagedOutputs = new ArrayList<File>();
+            for (String output : current.manifest.getOutputs()) {
+                stagedOutputs.add(new File(current.stagingDirectory, output));
+                output2IslandKey.put(output, islandKey);
+            }
+            try (ExecutionMetrics.Phase phase = getMetrics().phase("outputTransfer")) {
+                updater.transfer(current.stagingDirectory, getOutputDirectory(), stagedOutputs, true);
+            }
+
+            FileUtils.deleteDirectory(current.stagingDirectory);
+            current.manifest.write(new File(islandsDirectory, islandKey + MANIFEST_SUFFIX));
+        }
+
+        if (getLog().isInfoEnabled()) {
+            getLog().info("Generated " + pending.size() + " of " + islands.size() + " schema islands.");
+        }
+        updater.logSummary("XJC");
+        countOutputs(updater);
+
+        // All done.
+        return true;
+    }
+
+    private void runXjcForIslands(final List<IslandGeneration> pending) throws MojoExecutionException {
+
+        final int threads = Math.min(Math.max(parallelism, 1), pending.size());
+        if (threads <= 1) {
+
+            // Use the ClassLoader of the ToolExecutionEnvironment.
+            for (IslandGeneration current : pending) {
+                runXjcForIsland(current);
+            }
+            return;
+        }
+
+        if (getLog().isInfoEnabled()) {
+            getLog().info("Generating " + pending.size() + " schema islands using " + threads + " threads.");
+        }
+
+        // Each worker thread uses its own ThreadContextClassLoader, since XJC (and its plugins)
+        // resolve classes and resources through the ThreadContextClassLoader.
+        final List<String> classPathElements = getClasspath();
+        final String encoding = getEncoding(false);
+        final AtomicInteger threadIndex = new AtomicInteger(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread toReturn = new Thread(runnable, "jaxb2-xjc-" + threadIndex.getAndIncrement());
+                toReturn.setDaemon(true);
+                return toReturn;
+            }
+        });
+
+        try {
+
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (final IslandGeneration current : pending) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+
+                        // Each island gets its own, uncached ClassLoader, so that islands running concurrently
+                        // never share the static state of XJC or its plugins.
+                        final ThreadContextClassLoaderHolder holder = ThreadContextClassLoaderBuilder.createFor(
+                                        AbstractJavaGeneratorMojo.this.getClass(), getLog(), encoding)
+                                .addPaths(classPathElements)
+                                .buildAndSet();
+                        try {
+                            runXjcForIsland(current);
+                        } finally {
+                            holder.restoreClassLoaderAndReleaseThread();
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            // Wait for all islands, and report the first failure in island order.
+            MojoExecutionException failure = null;
+            for (Future<Void> current : futures) {
+                try {
+                    current.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof MojoExecutionException
+                                ? (MojoExecutionException) e.getCause()
+                                : new MojoExecutionException(e.getCause().getMessage(), e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException("Interrupted while generating schema islands.", e);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runXjcForIsland(final IslandGeneration generation) throws MojoExecutionException {
+
+        try {
+            if (XJC_COMPLETED_OK
+                    != Driver.run(
+                            logAndReturnToolArguments(generation.arguments, "XJC"), new XjcLogAdapter(getLog()))) {
+                throw createXjcErrorException(generation.island.getSources());
+            }
+        } catch (BadCommandLineException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    private void mergeIslandEpisodes(final List<SchemaIsland> islands) throws MojoExecutionException, IOException {
+
+        if (!generateEpisode) {
+            return;
+        }
+
+        final List<File> episodes = new ArrayList<File>();
+        for (SchemaIsland current : islands) {
+            final File islandEpisode = new File(getSchemaIslandsDirectory(), current.getKey() + EPISODE_SUFFIX);
+            if (islandEpisode.isFile()) {
+                episodes.add(islandEpisode);
+            }
+        }
+
+        if (!episodes.isEmpty()) {
+
+            // Only replace the merged episode file if its content has changed.
+            final File mergedEpisode = new File(getSchemaIslandsDirectory(), "merged" + EPISODE_SUFFIX);
+            SchemaIslands.mergeEpisodes(episodes, mergedEpisode);
+
+            new OutputUpdater(getLog()).move(mergedEpisode, getEpisodeFile(episodeFileName, false));
+        }
+    }
+
+    private SortedMap<String, BuildManifest> readIslandManifests(final File islandsDirectory) {
+
+        final SortedMap<String, BuildManifest> toReturn = new TreeMap<String, BuildManifest>();
+        final File[] manifestFiles = islandsDirectory.listFiles();
+        if (manifestFiles != null) {
+            for (File current : manifestFiles) {
+
+                final String name = current.getName();
+                if (name.endsWith(MANIFEST_SUFFIX)) {
+
+                    final BuildManifest manifest = BuildManifest.read(current);
+                    if (manifest != null) {
+                        toReturn.put(name.substring(0, name.length() - MANIFEST_SUFFIX.length()), manifest);
+                    }
+                }
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private void deleteOutputs(final Collection<String> relativePaths) {
+
+        final File outputDirectory = FileSystemUtilities.getCanonicalFile(getOutputDirectory());
+        for (String current : relativePaths) {
+
+            File toDelete = new File(outputDirectory, current);
+            if (toDelete.delete()) {
+
+                // Prune any directories left empty.
+                for (File parent = toDelete.getParentFile();
+                        parent != null && !parent.equals(outputDirectory);
+                        parent = parent.getParentFile()) {
+
+                    final String[] children = parent.list();
+                    if (children == null || children.length > 0 || !parent.delete()) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private File getManifestFile() {
+        final File staleFile = getStaleFile();
+        return new File(staleFile.getParentFile(), staleFile.getName() + MANIFEST_SUFFIX);
+    }
+
+    private BuildManifest createBuildManifest(final BuildManifest previousManifest)
+            throws MojoExecutionException, NoSchemasException, IOException {
+
+        if (getResolvedSources().getSources().isEmpty()) {
+            throw new NoSchemasException();
+        }
+
+        final BuildManifest toReturn = new BuildManifest().addTool(getClass()).addTool(Driver.class);
+
+        // The episode file and output directory paths are synthesized when XJC is fired,
+        // so we record the configured episode name and the outputDirectory instead of the resulting paths.
+        final String classPath = StringUtils.join(getClasspath().iterator(), File.pathSeparator);
+        final String episodeIdentifier =
+                generateEpisode ? (episodeFileName == null ? STANDARD_EPISODE_FILENAME : episodeFileName) : null;
+        toReturn.setArguments(buildXjcArguments(
+                classPath,
+                episodeIdentifier,
+                false,
+                getOutputDirectory(),
+                getResolvedSources().getBindings(),
+                getResolvedSources().getSources()));
+
+        for (URL current : getResolvedSources().getSources()) {
+            toReturn.addSource(current, previousManifest);
+        }
+        for (File current : getResolvedSources().getBindings()) {
+            toReturn.addSource(FileSystemUtilities.getUrlFor(current), previousManifest);
+        }
+        if (catalog != null && catalog.isFile()) {
+            toReturn.addSource(FileSystemUtilities.getUrlFor(catalog), previousManifest);
+        }
+        for (File current : mirroredFiles) {
+
+            // The mirrored copies of schemas referenced by remote sources.
+            toReturn.addSource(FileSystemUtilities.getUrlFor(current), previousManifest);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private void writeBuildManifest() {
+
+        final File manifestFile = getManifestFile();
+        try {
+
+            final BuildManifest toWrite = currentManifest == null ? createBuildManifest(null) : currentManifest;
+            toWrite.addOutputs(getOutputDirectory()).write(manifestFile);
+
+            if (deterministicOutput) {
+                writeCacheKeyDescriptor(createCacheKeyDescriptor()
+                        .addTool(Driver.class)
+                        .addArguments(toWrite.getArguments())
+                        .addSources(toWrite));
+            }
+
+        } catch (Exception e) {
+
+            // A missing manifest simply implies that XJC is re-run within the next build.
+            getLog().warn("Could not write BuildManifest [" + FileSystemUtilities.getCanonicalPath(manifestFile)
+                    + "]: " + e.getMessage());
+            manifestFile.delete();
+        }
     }
 
     private String getProxyString(final Proxy activeProxy) {
@@ -740,4 +1566,25 @@ public abstract class AbstractJavaGeneratorMojo extends AbstractJaxbMojo {
         // All done.
         return proxyBuilder.toString();
     }
+
+    /**
+     * State of the generation of a single SchemaIsland.
+     */
+    private static final class IslandGeneration {
+
+        private final SchemaIsland island;
+        private final File stagingDirectory;
+        private final File stagedEpisode;
+        private final File islandEpisode;
+        private BuildManifest previousManifest;
+        private BuildManifest manifest;
+        private String[] arguments;
+
+        IslandGeneration(final SchemaIsland island, final File islandsDirectory) {
+            this.island = island;
+            this.stagingDirectory = new File(islandsDirectory, island.getKey());
+            this.stagedEpisode = new File(stagingDirectory, "META-INF/JAXB/" + island.getKey() + EPISODE_SUFFIX);
+            this.islandEpisode = new File(islandsDirectory, island.getKey() + EPISODE_SUFFIX);
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package org.codehaus.mojo.jaxb2.javageneration;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.manifest.BuildManifest;
+
+/**
+ * <p>A schema island is a connected component within the include/import graph of the XSD sources of an XJC
+ * execution. Since no schema within one island includes, imports or redefines (directly or indirectly) any schema
+ * within another island, each island can be compiled by a separate XJC invocation.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see SchemaIslands
+ * @since 4.1.1
+ */
+public final class SchemaIsland {
+
+    // Internal state
+    private static final int KEY_LENGTH = 16;
+
+    private final String key;
+    private final List<URL> sources;
+    private final List<URL> referencedSchemas;
+    private final List<File> bindings;
+
+    /**
+     * Compound constructor creating a SchemaIsland from the supplied data.
+     *
+     * @param sources           The non-empty XSD sources (i.e. XJC arguments) of this SchemaIsland,
+     *                          in the order they should be handed to XJC.
+     * @param referencedSchemas Schemas which are not sources, but reachable from the sources
+     *                          through include/import/redefine references.
+     * @param bindings          The XJB files which should be handed to XJC when compiling this SchemaIsland.
+     */
+    public SchemaIsland(final List<URL> sources, final List<URL> referencedSchemas, final List<File> bindings) {
+
+        // Check sanity
+        Validate.notNull(sources, "sources");
+        Validate.notNull(referencedSchemas, "referencedSchemas");
+        Validate.notNull(bindings, "bindings");
+        Validate.isTrue(!sources.isEmpty(), "Cannot create a SchemaIsland without sources.");
+
+        // Assign internal state
+        this.sources = Collections.unmodifiableList(new ArrayList<URL>(sources));
+        this.referencedSchemas = Collections.unmodifiableList(new ArrayList<URL>(referencedSchemas));
+        this.bindings = Collections.unmodifiableList(new ArrayList<File>(bindings));
+
+        // The key is synthesized from the sources only, to remain stable as long as the island's members do.
+        final StringBuilder builder = new StringBuilder();
+        for (URL current : sources) {
+            builder.append(current.toString()).append('\n');
+        }
+        this.key = BuildManifest.digest(builder.toString()).substring(0, KEY_LENGTH);
+    }
+
+    /**
+     * @return A short key identifying this SchemaIsland by its sources, usable as part of a file name.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return The XSD sources of this SchemaIsland.
+     */
+    public List<URL> getSources() {
+        return sources;
+    }
+
+    /**
+     * @return The schemas (which are not sources) reachable from the sources of this SchemaIsland.
+     */
+    public List<URL> getReferencedSchemas() {
+        return referencedSchemas;
+    }
+
+    /**
+     * @return The XJB files to hand to XJC when compiling this SchemaIsland.
+     */
+    public List<File> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "SchemaIsland [" + key + "]: " + sources;
+    }
+}
@@ -0,0 +1,537 @@
+package org.codehaus.mojo.jaxb2.javageneration;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * <p>Utility class which partitions the XSD sources of an XJC execution into {@link SchemaIsland}s,
+ * i.e. the connected components of the graph formed by the sources and their references. Two schemas are
+ * connected within the graph if:</p>
+ * <ol>
+ *     <li>One of them includes, imports, redefines or overrides the other (directly, or through any number of
+ *     intermediate schemas which are not sources themselves).</li>
+ *     <li>They share the same target namespace (or both lack one), since XJC would generate their classes into
+ *     the same package.</li>
+ *     <li>One of them imports the target namespace of the other without stating a schemaLocation.</li>
+ *     <li>A binding (XJB) file refers to both, either through {@code schemaLocation} or through a
+ *     {@code x-schema::prefix} SCD. Binding files using absolute SCDs connect all schemas, whereas binding files
+ *     which do not refer to any schema are handed to all islands.</li>
+ * </ol>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class SchemaIslands {
+
+    // Internal state
+    private static final List<String> REFERENCE_ELEMENTS =
+            Arrays.asList("include", "import", "redefine", "override");
+    private static final String SCHEMA_LOCATION = "schemaLocation";
+    private static final String SCD = "scd";
+    private static final String X_SCHEMA_SCD_PREFIX = "x-schema::";
+    private static final String XJB_NODE_PREFIX = "xjb:";
+
+    /*
+     * Hide the constructor for utility classes.
+     */
+    private SchemaIslands() {
+        // Do nothing
+    }
+
+    /**
+     * Partitions the supplied sources into SchemaIslands.
+     *
+     * @param sources  The non-null XSD sources, in the order they should be handed to XJC.
+     * @param bindings The non-null XJB binding files, in the order they should be handed to XJC.
+     * @param log      The active Maven Log.
+     * @return The SchemaIslands of the supplied sources, sorted in the order of their first source.
+     */
+    public static List<SchemaIsland> resolve(final List<URL> sources, final List<File> bindings, final Log log) {
+
+        // Check sanity
+        Validate.notNull(sources, "sources");
+        Validate.notNull(bindings, "bindings");
+        Validate.notNull(log, "log");
+
+        final Graph graph = new Graph();
+        final List<String> sourceKeys = new ArrayList<String>();
+
+        // Add the sources, and all schemas reachable from them.
+        final List<String> toParse = new ArrayList<String>();
+        for (URL current : sources) {
+
+            final String key = graph.addSchema(current, true);
+            sourceKeys.add(key);
+            toParse.add(key);
+        }
+
+        for (int i = 0; i < toParse.size(); i++) {
+
+            final SchemaNode node = graph.schemas.get(toParse.get(i));
+            if (!node.isParseable()) {
+                continue;
+            }
+
+            try {
+                parseSchema(node, graph, toParse);
+            } catch (Exception e) {
+
+                // XJC will report unreadable schemas; treat the node as a leaf.
+                if (log.isDebugEnabled()) {
+                    log.debug("Could not parse schema [" + node.url + "] to find its references: " + e.getMessage());
+                }
+            }
+        }
+
+        // Connect all schemas sharing a target namespace, and namespace-only imports to their schemas.
+        final Map<String, List<String>> namespace2Keys = new HashMap<String, List<String>>();
+        for (SchemaNode current : graph.schemas.values()) {
+            if (current.targetNamespace != null) {
+                namespace2Keys
+                        .computeIfAbsent(current.targetNamespace, k -> new ArrayList<String>())
+                        .add(current.key);
+            }
+        }
+        for (List<String> current : namespace2Keys.values()) {
+            for (int i = 1; i < current.size(); i++) {
+                graph.union(current.get(0), current.get(i));
+            }
+        }
+        for (SchemaNode current : graph.schemas.values()) {
+            for (String importedNamespace : current.locationlessImports) {
+                final List<String> keys = namespace2Keys.get(importedNamespace);
+                if (keys != null) {
+                    graph.union(current.key, keys.get(0));
+                }
+            }
+        }
+
+        // Connect the bindings to the schemas they refer to.
+        final Set<File> globalBindings = new HashSet<File>();
+        for (File current : bindings) {
+
+            final String xjbKey = XJB_NODE_PREFIX + FileSystemUtilities.getCanonicalPath(current);
+            graph.find(xjbKey);
+
+            final BindingReferences references;
+            try {
+                references = parseBinding(current);
+            } catch (Exception e) {
+
+                // Play it safe; bind the unreadable XJB to all sources.
+                log.warn("Could not parse binding [" + FileSystemUtilities.getCanonicalPath(current)
+                        + "] to find its schema references: " + e.getMessage());
+                for (String sourceKey : sourceKeys) {
+                    graph.union(xjbKey, sourceKey);
+                }
+                continue;
+            }
+
+            if (references.absoluteScd) {
+                for (String sourceKey : sourceKeys) {
+                    graph.union(xjbKey, sourceKey);
+                }
+            }
+
+            boolean linked = references.absoluteScd;
+            for (URL schema : references.schemaLocations) {
+                graph.union(xjbKey, graph.addSchema(schema, false));
+                linked = true;
+            }
+            for (String namespace : references.scdNamespaces) {
+                for (SchemaNode node : graph.schemas.values()) {
+                    if (namespace.equals(node.targetNamespace) || node.importedNamespaces.contains(namespace)) {
+                        graph.union(xjbKey, node.key);
+                        linked = true;
+                    }
+                }
+            }
+
+            if (!linked) {
+                globalBindings.add(current);
+            }
+        }
+
+        // Collect the islands, in the order of their first source.
+        final Map<String, List<URL>> root2Sources = new LinkedHashMap<String, List<URL>>();
+        for (int i = 0; i < sources.size(); i++) {
+            root2Sources
+                    .computeIfAbsent(graph.find(sourceKeys.get(i)), k -> new ArrayList<URL>())
+                    .add(sources.get(i));
+        }
+
+        final List<SchemaIsland> toReturn = new ArrayList<SchemaIsland>();
+        for (Map.Entry<String, List<URL>> current : root2Sources.entrySet()) {
+
+            final String root = current.getKey();
+
+            final SortedMap<String, URL> referenced = new TreeMap<String, URL>();
+            for (SchemaNode node : graph.schemas.values()) {
+                if (!node.source && root.equals(graph.find(node.key))) {
+                    referenced.put(node.key, node.url);
+                }
+            }
+
+            final List<File> islandBindings = new ArrayList<File>();
+            for (File binding : bindings) {
+                final String xjbKey = XJB_NODE_PREFIX + FileSystemUtilities.getCanonicalPath(binding);
+                if (globalBindings.contains(binding) || root.equals(graph.find(xjbKey))) {
+                    islandBindings.add(binding);
+                }
+            }
+
+            toReturn.add(
+                    new SchemaIsland(current.getValue(), new ArrayList<URL>(referenced.values()), islandBindings));
+        }
+
+        if (log.isDebugEnabled()) {
+
+            final StringBuilder builder = new StringBuilder();
+            builder.append("\n+=================== [" + toReturn.size() + " Schema Islands]\n");
+            builder.append("|\n");
+            for (SchemaIsland current : toReturn) {
+                builder.append("| " + current.getKey() + ": " + current.getSources().size() + " sources, "
+                        + current.getReferencedSchemas().size() + " referenced schemas, "
+                        + current.getBindings().size() + " bindings\n");
+            }
+            builder.append("|\n");
+            builder.append("+=================== [End " + toReturn.size() + " Schema Islands]\n\n");
+            log.debug(builder.toString().replace("\n", AbstractJaxbMojo.NEWLINE));
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Merges the supplied episode files (generated by separate XJC invocations) into a single episode file,
+     * by appending the top-level bindings of each episode to the root element of the first one.
+     *
+     * @param episodes   The non-empty episode files to merge, in the order their bindings should be emitted.
+     * @param mergedFile The file to which the merged episode should be written.
+     * @throws IOException if the episodes could not be read, merged or written.
+     */
+    public static void mergeEpisodes(final List<File> episodes, final File mergedFile) throws IOException {
+
+        // Check sanity
+        Validate.notNull(episodes, "episodes");
+        Validate.notNull(mergedFile, "mergedFile");
+        Validate.isTrue(!episodes.isEmpty(), "Cannot merge an empty list of episodes.");
+
+        try {
+
+            final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+
+            final Document merged = factory.newDocumentBuilder().parse(episodes.get(0));
+            final Element mergedRoot = merged.getDocumentElement();
+            for (int i = 1; i < episodes.size(); i++) {
+
+                final Element root = factory.newDocumentBuilder()
+                        .parse(episodes.get(i))
+                        .getDocumentElement();
+                for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (child.getNodeType() == Node.ELEMENT_NODE) {
+                        mergedRoot.appendChild(merged.importNode(child, true));
+                    }
+                }
+            }
+
+            final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            Files.createDirectories(mergedFile.getAbsoluteFile().getParentFile().toPath());
+            try (OutputStream out = Files.newOutputStream(mergedFile.toPath())) {
+                transformer.transform(new DOMSource(merged), new StreamResult(out));
+            }
+
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Could not merge episodes " + episodes + " into [" + mergedFile + "]", e);
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static void parseSchema(final SchemaNode node, final Graph graph, final List<String> toParse)
+            throws IOException, XMLStreamException {
+
+        try (InputStream in = node.url.openStream()) {
+
+            final XMLStreamReader reader = createInputFactory().createXMLStreamReader(in);
+            try {
+                boolean rootElement = true;
+                while (reader.hasNext()) {
+
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+
+                    if (rootElement) {
+                        final String targetNamespace = reader.getAttributeValue(null, "targetNamespace");
+                        node.targetNamespace = targetNamespace == null ? "" : targetNamespace;
+                        rootElement = false;
+                        continue;
+                    }
+
+                    if (!XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(reader.getNamespaceURI())
+                            || !REFERENCE_ELEMENTS.contains(reader.getLocalName())) {
+                        continue;
+                    }
+
+                    final String namespace = reader.getAttributeValue(null, "namespace");
+                    final String location = reader.getAttributeValue(null, SCHEMA_LOCATION);
+                    if (namespace != null) {
+                        node.importedNamespaces.add(namespace);
+                    }
+
+                    if (location == null || location.trim().isEmpty()) {
+                        if (namespace != null) {
+                            node.locationlessImports.add(namespace);
+                        }
+                    } else {
+
+                        final URL referenced = new URL(node.url, location.trim());
+                        final boolean known = graph.schemas.containsKey(normalize(referenced));
+                        final String referencedKey = graph.addSchema(referenced, false);
+                        graph.union(node.key, referencedKey);
+                        if (!known) {
+                            toParse.add(referencedKey);
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static BindingReferences parseBinding(final File binding) throws IOException, XMLStreamException {
+
+        final BindingReferences toReturn = new BindingReferences();
+        final URL bindingURL = FileSystemUtilities.getUrlFor(binding);
+
+        try (InputStream in = bindingURL.openStream()) {
+
+            final XMLStreamReader reader = createInputFactory().createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+
+                    final String location = reader.getAttributeValue(null, SCHEMA_LOCATION);
+                    if (location != null && !location.trim().isEmpty()) {
+                        toReturn.schemaLocations.add(new URL(bindingURL, location.trim()));
+                    }
+
+                    final String scd = reader.getAttributeValue(null, SCD);
+                    if (scd != null) {
+
+                        final String trimmed = scd.trim();
+                        if (trimmed.startsWith(X_SCHEMA_SCD_PREFIX)) {
+
+                            String prefix = trimmed.substring(X_SCHEMA_SCD_PREFIX.length());
+                            final int slashIndex = prefix.indexOf('/');
+                            if (slashIndex != -1) {
+                                prefix = prefix.substring(0, slashIndex);
+                            }
+
+                            final String namespace = reader.getNamespaceContext().getNamespaceURI(prefix.trim());
+                            if (namespace == null) {
+                                toReturn.absoluteScd = true;
+                            } else {
+                                toReturn.scdNamespaces.add(namespace);
+                            }
+                        } else if (trimmed.startsWith("/")) {
+                            toReturn.absoluteScd = true;
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+
+        final XMLInputFactory toReturn = XMLInputFactory.newInstance();
+        toReturn.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        toReturn.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        toReturn.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return toReturn;
+    }
+
+    private static String normalize(final URL anURL) {
+
+        if ("file".equalsIgnoreCase(anURL.getProtocol())) {
+            try {
+                return FileSystemUtilities.getUrlFor(FileSystemUtilities.getCanonicalFile(new File(anURL.toURI())))
+                        .toString();
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return anURL.toString();
+            }
+        }
+
+        try {
+            return anURL.toURI().normalize().toString();
+        } catch (URISyntaxException e) {
+            return anURL.toString();
+        }
+    }
+
+    /**
+     * Schema node within the reference graph.
+     */
+    private static final class SchemaNode {
+
+        private final String key;
+        private final URL url;
+        private boolean source;
+        private String targetNamespace;
+        private final Set<String> importedNamespaces = new HashSet<String>();
+        private final Set<String> locationlessImports = new HashSet<String>();
+
+        SchemaNode(final String key, final URL url) {
+            this.key = key;
+            this.url = url;
+        }
+
+        boolean isParseable() {
+            final String protocol = url.getProtocol();
+            return "file".equalsIgnoreCase(protocol) || "jar".equalsIgnoreCase(protocol);
+        }
+    }
+
+    /**
+     * Schema references found within a binding file.
+     */
+    private static final class BindingReferences {
+
+        private final List<URL> schemaLocations = new ArrayList<URL>();
+        private final Set<String> scdNamespaces = new HashSet<String>();
+        private boolean absoluteScd;
+    }
+
+    /**
+     * Union-find structure over schema and binding nodes.
+     */
+    private static final class Graph {
+
+        private final Map<String, SchemaNode> schemas = new LinkedHashMap<String, SchemaNode>();
+        private final Map<String, String> parents = new HashMap<String, String>();
+
+        String addSchema(final URL anURL, final boolean isSource) {
+
+            final String key = normalize(anURL);
+            SchemaNode node = schemas.get(key);
+            if (node == null) {
+                node = new SchemaNode(key, anURL);
+                schemas.put(key, node);
+            }
+            node.source |= isSource;
+            find(key);
+
+            return key;
+        }
+
+        String find(final String key) {
+
+            String root = parents.putIfAbsent(key, key);
+            if (root == null) {
+                return key;
+            }
+
+            // Find the root, and compress the path.
+            root = key;
+            while (!root.equals(parents.get(root))) {
+                root = parents.get(root);
+            }
+            String current = key;
+            while (!current.equals(root)) {
+                final String next = parents.get(current);
+                parents.put(current, root);
+                current = next;
+            }
+
+            return root;
+        }
+
+        void union(final String key1, final String key2) {
+
+            final String root1 = find(key1);
+            final String root2 = find(key2);
+            if (!root1.equals(root2)) {
+
+                // Keep the lexicographically smallest root, to yield deterministic roots.
+                if (root1.compareTo(root2) < 0) {
+                    parents.put(root2, root1);
+                } else {
+                    parents.put(root1, root2);
+                }
+            }
+        }
+    }
+}
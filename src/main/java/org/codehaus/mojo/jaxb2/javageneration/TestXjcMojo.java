@@ -55,7 +55,7 @@ import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
         name = "testXjc",
         defaultPhase = LifecyclePhase.GENERATE_TEST_SOURCES,
         requiresDependencyResolution = ResolutionScope.TEST,
-        threadSafe = false)
+        threadSafe = true)
 public class TestXjcMojo extends AbstractJavaGeneratorMojo {
 
     /**
@@ -144,10 +144,13 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
      *          &lt;testSource>some/explicit/relative/file.xsd&lt;/testSource>
      *          &lt;testSource>/another/absolute/path/to/a/specification.xsd&lt;/testSource>
      *          &lt;testSource>a/directory/holding/xsds&lt;/testSource>
+     *          &lt;testSource>https://example.org/schemas/remote.xsd&lt;/testSource>
      *      &lt;/testSources>
      *   &lt;/configuration>
      * </code>
      * </pre>
+     * <p>Remote (http or https) XSD URLs are mirrored into the {@code remoteSchemaMirror} directory, and XJC is
+     * invoked with the local copies (since 4.1.1).</p>
      *
      * @see #STANDARD_TEST_SOURCE_DIRECTORY
      */
@@ -247,6 +250,12 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
     @Parameter(property = "xjc.test.skip", defaultValue = "false")
     private boolean skipTestXjc;
 
+    /**
+     * The configured testSources, in which each remote source is replaced by the path to its local copy.
+     * Not part of the configuration fingerprint, since it is derived from the configuration.
+     */
+    private List<String> mirroredSources;
+
     /**
      * {@inheritDoc}
      */
@@ -255,6 +264,29 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
         return skipTestXjc;
     }
 
+    /**
+     * Resolves the local copies of all remote sources within the remoteSchemaMirror.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    protected void prepareSources() throws MojoExecutionException {
+        mirroredSources = getMirroredSources(testSources);
+    }
+
+    /**
+     * Adds the mirrored testSources, which are derived from the configuration.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<String> getFingerprintIgnoredFields() {
+
+        final List<String> toReturn = super.getFingerprintIgnoredFields();
+        toReturn.add("mirroredSources");
+        return toReturn;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -265,14 +297,15 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
                 testSourceExcludeFilters == null ? STANDARD_TEST_SOURCE_EXCLUDE_FILTERS : testSourceExcludeFilters;
         Filters.initialize(getLog(), excludePatterns);
 
-        // All done.
+        // Remote sources were replaced by their local copies within the remoteSchemaMirror.
         return FileSystemUtilities.filterFiles(
                 getProject().getBasedir(),
-                testSources,
+                mirroredSources == null ? testSources : mirroredSources,
                 Arrays.asList(STANDARD_TEST_SOURCE_DIRECTORY),
                 getLog(),
                 "testSources",
-                excludePatterns);
+                excludePatterns,
+                parallelFileScan);
     }
 
     /**
@@ -291,7 +324,8 @@ public class TestXjcMojo extends AbstractJavaGeneratorMojo {
                 STANDARD_TEST_XJB_DIRECTORY,
                 getLog(),
                 "testXjbSources",
-                excludePatterns);
+                excludePatterns,
+                parallelFileScan);
     }
 
     /**
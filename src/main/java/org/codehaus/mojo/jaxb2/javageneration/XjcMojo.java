@@ -141,10 +141,13 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
      *          &lt;source>some/explicit/relative/file.xsd&lt;/source>
      *          &lt;source>/another/absolute/path/to/a/specification.xsd&lt;/source>
      *          &lt;source>a/directory/holding/xsds&lt;/source>
+     *          &lt;source>https://example.org/schemas/remote.xsd&lt;/source>
      *      &lt;/sources>
      *   &lt;/configuration>
      * </code>
      * </pre>
+     * <p>Remote (http or https) XSD URLs are mirrored into the {@code remoteSchemaMirror} directory, and XJC is
+     * invoked with the local copies (since 4.1.1).</p>
      *
      * @see #STANDARD_SOURCE_DIRECTORY
      */
@@ -259,6 +262,12 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
     @Parameter(property = "xjc.skip", defaultValue = "false")
     private boolean skipXjc;
 
+    /**
+     * The configured sources, in which each remote source is replaced by the path to its local copy.
+     * Not part of the configuration fingerprint, since it is derived from the configuration.
+     */
+    private List<String> mirroredSources;
+
     /**
      * {@inheritDoc}
      */
@@ -267,6 +276,29 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
         return skipXjc;
     }
 
+    /**
+     * Resolves the local copies of all remote sources within the remoteSchemaMirror.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    protected void prepareSources() throws MojoExecutionException {
+        mirroredSources = getMirroredSources(sources);
+    }
+
+    /**
+     * Adds the mirrored sources, which are derived from the configuration.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<String> getFingerprintIgnoredFields() {
+
+        final List<String> toReturn = super.getFingerprintIgnoredFields();
+        toReturn.add("mirroredSources");
+        return toReturn;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -277,13 +309,15 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
                 xjcSourceExcludeFilters == null ? STANDARD_SOURCE_EXCLUDE_FILTERS : xjcSourceExcludeFilters;
         Filters.initialize(getLog(), excludePatterns);
 
+        // Remote sources were replaced by their local copies within the remoteSchemaMirror.
         return FileSystemUtilities.filterFiles(
                 getProject().getBasedir(),
-                sources,
+                mirroredSources == null ? sources : mirroredSources,
                 Arrays.asList(STANDARD_SOURCE_DIRECTORY),
                 getLog(),
                 "sources",
-                excludePatterns);
+                excludePatterns,
+                parallelFileScan);
     }
 
     /**
@@ -297,7 +331,13 @@ public class XjcMojo extends AbstractJavaGeneratorMojo {
         Filters.initialize(getLog(), excludePatterns);
 
         return FileSystemUtilities.filterFiles(
-                getProject().getBasedir(), xjbSources, STANDARD_XJB_DIRECTORY, getLog(), "xjbSources", excludePatterns);
+                getProject().getBasedir(),
+                xjbSources,
+                STANDARD_XJB_DIRECTORY,
+                getLog(),
+                "xjbSources",
+                excludePatterns,
+                parallelFileScan);
     }
 
     /**
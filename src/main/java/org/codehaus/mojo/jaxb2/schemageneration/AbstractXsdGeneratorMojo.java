@@ -23,24 +23,23 @@ import javax.tools.ToolProvider;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.regex.Pattern;
 
 import com.sun.tools.jxc.SchemaGenerator;
-import com.thoughtworks.qdox.JavaProjectBuilder;
-import com.thoughtworks.qdox.model.JavaClass;
-import com.thoughtworks.qdox.model.JavaPackage;
-import com.thoughtworks.qdox.model.JavaSource;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -49,8 +48,9 @@ import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.DefaultJa
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocExtractor;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocRenderer;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SearchableDocumentation;
-import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.SimpleNamespaceResolver;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.ClassLocation;
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.TransformSchema;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming.XsdPostProcessingPipeline;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
 import org.codehaus.mojo.jaxb2.shared.arguments.ArgumentBuilder;
 import org.codehaus.mojo.jaxb2.shared.environment.EnvironmentFacet;
@@ -60,6 +60,10 @@ import org.codehaus.mojo.jaxb2.shared.environment.locale.LocaleFacet;
 import org.codehaus.mojo.jaxb2.shared.environment.logging.LoggingHandlerEnvironmentFacet;
 import org.codehaus.mojo.jaxb2.shared.filters.Filter;
 import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
+import org.codehaus.mojo.jaxb2.shared.manifest.BuildManifest;
+import org.codehaus.mojo.jaxb2.shared.manifest.SourceMetadataProbe;
+import org.codehaus.mojo.jaxb2.shared.metrics.ExecutionMetrics;
+import org.codehaus.mojo.jaxb2.shared.output.OutputUpdater;
 import org.codehaus.plexus.classworlds.realm.ClassRealm;
 import org.codehaus.plexus.util.FileUtils;
 
@@ -133,6 +137,27 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
     private static final int SCHEMAGEN_INCORRECT_OPTIONS = -1;
     private static final int SCHEMAGEN_JAXB_ERRORS = 1;
 
+    /**
+     * Suffix appended to the name of the stale file to form the name of the file caching harvested JavaDoc.
+     */
+    private static final String JAVADOC_CACHE_SUFFIX = ".javadoc";
+
+    /**
+     * Suffix appended by the JavaDocExtractor to the package name of package-info files.
+     */
+    private static final String PACKAGE_INFO_SUFFIX = ".package-info";
+
+    /**
+     * Suffix appended to the name of the stale file to form the name of the directory holding the build
+     * manifests of all generated namespaces.
+     */
+    private static final String NAMESPACES_SUFFIX = ".namespaces";
+
+    /**
+     * Suffix of the build manifest files of the generated namespaces.
+     */
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
     /**
      * <p>A List holding desired schema mappings, each of which binds a schema namespace URI to its desired prefix
      * [optional] and the name of the resulting schema file [optional]. All given elements (uri, prefix, file) must be
@@ -232,8 +257,41 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
     @Parameter
     protected JavaDocRenderer javaDocRenderer;
 
+    /**
+     * <p>The number of threads used to post-process the generated XSD files concurrently (i.e. to inject JavaDoc
+     * annotations, change namespace prefixes and rename the generated XSDs). Each XSD is post-processed
+     * independently of the others, and the processed files replace the generated ones in the order of their
+     * file names, implying that the result does not depend on the order in which the threads complete.
+     * Any custom {@code javaDocRenderer} must be thread-safe when {@code postProcessingParallelism} is larger
+     * than 1.</p>
+     * <p>The same number of threads is used to parse the java sources from which JavaDoc is harvested, and to
+     * transfer the generated files from the workDirectory into the outputDirectory.</p>
+     *
+     * @since 4.1.1
+     */
+    @Parameter(property = "schemagen.postProcessingParallelism", defaultValue = "1")
+    protected int postProcessingParallelism;
+
+    /**
+     * <p>If set to {@code true}, the XSDs generated by SchemaGen are tracked per namespace. For each namespace,
+     * a build manifest records the generated XSD, the java sources of the types defined within it and the
+     * post-processing configuration. When the XSDs are re-generated, only XSDs of namespaces whose manifest has
+     * changed are copied to the outputDirectory and post-processed; XSDs of all other namespaces are left
+     * untouched on disk, which keeps downstream resource filtering and packaging incremental.</p>
+     * <p>SchemaGen is still given all sources, since the names of the XSD files it emits and the references
+     * between them depend on the complete set of types. Since namespaces are regenerated individually, the
+     * {@code clearOutputDir} parameter is only honored when no namespaces have previously been generated.</p>
+     *
+     * @since 4.1.1
+     */
+    @Parameter(property = "schemagen.incremental", defaultValue = "false")
+    protected boolean incrementalSchemaGeneration;
+
     /**
      * <p>Removes all files from the output directory before running SchemaGenerator.</p>
+     * <p>Since 4.1.1, the generated files are written to a staging directory and only the changed files are
+     * replaced within the output directory; other files found within the output directory are removed
+     * afterwards. Unchanged output files therefore retain their modification timestamps.</p>
      *
      * @since 2.0
      */
@@ -254,7 +312,7 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             toReturn = true;
         }
 
-        if (getSources().isEmpty()) {
+        if (getResolvedSources().getSources().isEmpty()) {
             warnAboutIncorrectPluginConfiguration("sources", "At least one Java Source file has to be included.");
             toReturn = true;
         }
@@ -285,7 +343,7 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             getLog().debug(debugPrefix + " not found. XML Schema (re-)generation required.");
         } else {
 
-            final List<URL> sources = getSources();
+            final List<URL> sources = getResolvedSources().getSources();
 
             if (getLog().isDebugEnabled()) {
                 getLog().debug(debugPrefix + " found. Checking timestamps on source Java "
@@ -295,14 +353,13 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             final long staleFileLastModified = staleFile.lastModified();
             for (URL current : sources) {
 
-                final URLConnection sourceFileConnection;
+                final long sourceLastModified;
                 try {
-                    sourceFileConnection = current.openConnection();
-                    sourceFileConnection.connect();
+                    sourceLastModified = SourceMetadataProbe.probe(current).getLastModified();
                 } catch (Exception e) {
 
                     if (getLog().isDebugEnabled()) {
-                        getLog().debug("Could not open a sourceFileConnection to [" + current + "]", e);
+                        getLog().debug("Could not retrieve the metadata of [" + current + "]", e);
                     }
 
                     // Can't determine if the staleFile is younger than this source.
@@ -311,18 +368,12 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                     break;
                 }
 
-                try {
-                    if (sourceFileConnection.getLastModified() > staleFileLastModified) {
+                if (sourceLastModified > staleFileLastModified) {
 
-                        if (getLog().isDebugEnabled()) {
-                            getLog().debug(current.toString() + " is newer than the stale flag file.");
-                        }
-                        stale = true;
-                    }
-                } finally {
-                    if (sourceFileConnection instanceof HttpURLConnection) {
-                        ((HttpURLConnection) sourceFileConnection).disconnect();
+                    if (getLog().isDebugEnabled()) {
+                        getLog().debug(current.toString() + " is newer than the stale flag file.");
                     }
+                    stale = true;
                 }
             }
         }
@@ -355,6 +406,7 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             // Configure the ThreadContextClassLoaderBuilder, to enable synthesizing a correct ClassPath for the tool.
             final ThreadContextClassLoaderBuilder classLoaderBuilder = ThreadContextClassLoaderBuilder.createFor(
                             this.getClass(), getLog(), getEncoding(false))
+                    .withClassLoaderCache(getClassLoaderCache())
                     .addPaths(getClasspath())
                     .addPaths(getProject().getCompileSourceRoots());
 
@@ -377,21 +429,39 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             }
 
             // Setup the environment.
-            environment.setup();
+            environment.setMetrics(getMetrics());
+            try (ExecutionMetrics.Phase phase = getMetrics().phase("environment")) {
+                environment.setup();
+            }
+
+            // Read the manifests of previously generated namespaces.
+            final SortedMap<String, BuildManifest> previousManifests = incrementalSchemaGeneration
+                    ? readNamespaceManifests()
+                    : new TreeMap<String, BuildManifest>();
 
             // Compile the SchemaGen arguments
-            final File episodeFile = getEpisodeFile(episodeFileName);
-            final List<URL> sources = getSources();
-            final String[] schemaGenArguments =
-                    getSchemaGenArguments(environment.getClassPathAsArgument(), episodeFile, sources);
+            // SchemaGen writes the episode file into the workDirectory, from which it replaces the episode file
+            // within the outputDirectory only if its content has changed.
+            final File episodeFile = getEpisodeFile(episodeFileName, false);
+            final File stagedEpisodeFile =
+                    new File(getWorkDirectory(), getRelativePath(episodeFile, getOutputDirectory()));
+            final List<URL> sources = getResolvedSources().getSources();
+            final JavaDocExtractor extractor;
+            final String[] schemaGenArguments;
+            try (ExecutionMetrics.Phase phase = getMetrics().phase("javaDocParse")) {
+                extractor = getJavaDocExtractor(sources);
+                schemaGenArguments =
+                        getSchemaGenArguments(environment.getClassPathAsArgument(), stagedEpisodeFile, extractor);
+            }
 
             // Ensure that the outputDirectory and workDirectory exists.
-            // Clear them if configured to do so.
-            FileSystemUtilities.createDirectory(getOutputDirectory(), clearOutputDir);
-            FileSystemUtilities.createDirectory(getWorkDirectory(), clearOutputDir);
+            // The workDirectory is a staging area for the generated files, and is therefore always cleared.
+            // The outputDirectory is cleared after updating the changed files within it, if configured to do so.
+            FileSystemUtilities.createDirectory(getOutputDirectory(), false);
+            FileSystemUtilities.createDirectory(getWorkDirectory(), true);
 
-            // Re-generate the episode file's parent directory.
-            getEpisodeFile(episodeFileName);
+            // Re-generate the staged episode file's parent directory.
+            FileSystemUtilities.createDirectory(stagedEpisodeFile.getParentFile(), false);
             // Do we need to re-create the episode file's parent directory?
             /*final boolean reCreateEpisodeFileParentDirectory = generateEpisode && clearOutputDir;
             if (reCreateEpisodeFileParentDirectory) {
@@ -404,9 +474,17 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                 // Check the system properties.
                 // logSystemPropertiesAndBasedir();
 
-                // Fire the SchemaGenerator
-                final int result = SchemaGenerator.run(
-                        schemaGenArguments, Thread.currentThread().getContextClassLoader());
+                // Fire the SchemaGenerator, holding the tool execution lock only for the invocation itself.
+                final int result;
+                try (ExecutionMetrics.Phase phase = getMetrics().phase("schemagen")) {
+                    result = environment.execute(new Callable<Integer>() {
+                        @Override
+                        public Integer call() throws Exception {
+                            return SchemaGenerator.run(
+                                    schemaGenArguments, Thread.currentThread().getContextClassLoader());
+                        }
+                    });
+                }
 
                 if (SCHEMAGEN_INCORRECT_OPTIONS == result) {
                     printSchemaGenCommandAndThrowException(
@@ -417,42 +495,59 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                     throw new MojoExecutionException("JAXB errors arose while SchemaGen compiled sources to XML.");
                 }
 
-                // Copy generated XSDs and episode files from the WorkDirectory to the OutputDirectory,
-                // but do not copy the intermediary bytecode files generated by schemagen.
+                // Find the generated XSDs and episode files within the WorkDirectory,
+                // but ignore the intermediary bytecode files generated by schemagen.
                 final List<Filter<File>> exclusionFilters =
                         PatternFileFilter.createIncludeFilterList(getLog(), "\\.class");
 
-                final List<File> toCopy = FileSystemUtilities.resolveRecursively(
+                final List<File> generatedFiles = FileSystemUtilities.resolveRecursively(
                         Arrays.asList(getWorkDirectory()), exclusionFilters, getLog());
-                for (File current : toCopy) {
 
-                    // Get the path to the current file
-                    final String currentPath = FileSystemUtilities.getCanonicalPath(current.getAbsoluteFile());
-                    final File target = new File(
-                            getOutputDirectory(),
-                            FileSystemUtilities.relativize(currentPath, getWorkDirectory(), true));
+                // Acquire JavaDocs, re-using the sources parsed when compiling the SchemaGen arguments.
+                SearchableDocumentation javaDocs = null;
+                if (createJavaDocAnnotations) {
+                    try (ExecutionMetrics.Phase phase = getMetrics().phase("javaDocExtraction")) {
+                        javaDocs = extractor.process();
+                    }
+                }
+
+                final List<NamespaceGeneration> generations = new ArrayList<NamespaceGeneration>();
+                final List<NamespaceGeneration> pending = new ArrayList<NamespaceGeneration>();
+                if (incrementalSchemaGeneration) {
 
-                    // Copy the file to the same relative structure within the output directory.
-                    FileSystemUtilities.createDirectory(target.getParentFile(), false);
-                    FileUtils.copyFile(current, target);
+                    generations.addAll(getNamespaceGenerations(generatedFiles, extractor, javaDocs, previousManifests));
+                    for (NamespaceGeneration current : generations) {
+                        if (current.target != null) {
+                            pending.add(current);
+                        }
+                    }
                 }
 
                 //
                 // The XSD post-processing should be applied in the following order:
                 //
-                // 1. [XsdAnnotationProcessor]:            Inject JavaDoc annotations for Classes.
-                // 2. [XsdEnumerationAnnotationProcessor]: Inject JavaDoc annotations for Enums.
-                // 3. [ChangeNamespacePrefixProcessor]:    Change namespace prefixes within XSDs.
-                // 4. [ChangeFilenameProcessor]:           Change the fileNames of XSDs.
+                // 1. [JavaDocAnnotationStage]: Inject JavaDoc annotations for Classes.
+                // 2. [NamespacePrefixStage]:   Change namespace prefixes within XSDs.
+                // 3. [SchemaLocationStage]:    Change the schemaLocations of imports within XSDs.
+                // 4. Rename the XSD files themselves.
                 //
 
-                final boolean performPostProcessing = createJavaDocAnnotations || transformSchemas != null;
+                final boolean performPostProcessing = (createJavaDocAnnotations || transformSchemas != null)
+                        && !(incrementalSchemaGeneration && pending.isEmpty());
                 if (performPostProcessing) {
 
-                    // Map the XML Namespaces to their respective XML URIs (and reverse)
-                    // The keys are the generated 'vanilla' XSD file names.
-                    final Map<String, SimpleNamespaceResolver> resolverMap =
-                            XsdGeneratorHelper.getFileNameToResolverMap(getOutputDirectory());
+                    // All post-processing is applied in a single streaming pass over each generated XSD.
+                    final XsdPostProcessingPipeline pipeline =
+                            new XsdPostProcessingPipeline(getLog(), getEncoding(false))
+                                    .withParallelism(postProcessingParallelism);
+                    if (incrementalSchemaGeneration) {
+
+                        final List<File> schemaFiles = new ArrayList<File>();
+                        for (NamespaceGeneration current : pending) {
+                            schemaFiles.add(current.target);
+                        }
+                        pipeline.withSchemaFiles(schemaFiles);
+                    }
 
                     if (createJavaDocAnnotations) {
 
@@ -460,36 +555,10 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                             getLog().info("XSD post-processing: Adding JavaDoc annotations in generated XSDs.");
                         }
 
-                        // Resolve the sources
-                        final List<File> fileSources = new ArrayList<File>();
-                        for (URL current : sources) {
-                            if ("file".equalsIgnoreCase(current.getProtocol())) {
-                                final File toAdd = new File(current.getPath());
-                                if (toAdd.exists()) {
-                                    fileSources.add(toAdd);
-                                } else {
-                                    if (getLog().isWarnEnabled()) {
-                                        getLog().warn("Ignoring URL [" + current + "] as it is a nonexistent file.");
-                                    }
-                                }
-                            }
-                        }
-
-                        final List<File> files = FileSystemUtilities.resolveRecursively(fileSources, null, getLog());
-
-                        // Acquire JavaDocs
-                        final JavaDocExtractor extractor = new JavaDocExtractor(getLog()).addSourceFiles(files);
-                        final SearchableDocumentation javaDocs = extractor.process();
-
                         // Modify the 'vanilla' generated XSDs by inserting the JavaDoc as annotations
                         final JavaDocRenderer renderer =
                                 javaDocRenderer == null ? STANDARD_JAVADOC_RENDERER : javaDocRenderer;
-                        final int numProcessedFiles = XsdGeneratorHelper.insertJavaDocAsAnnotations(
-                                getLog(), getEncoding(false), getOutputDirectory(), javaDocs, renderer);
-
-                        if (getLog().isDebugEnabled()) {
-                            getLog().info("XSD post-processing: " + numProcessedFiles + " files processed.");
-                        }
+                        pipeline.withJavaDocAnnotations(javaDocs, renderer);
                     }
 
                     if (transformSchemas != null) {
@@ -498,14 +567,76 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                             getLog().info("XSD post-processing: Renaming and converting XSDs.");
                         }
 
-                        // Transform all namespace prefixes as requested.
-                        XsdGeneratorHelper.replaceNamespacePrefixes(
-                                resolverMap, transformSchemas, getLog(), getOutputDirectory(), getEncoding(false));
+                        // Transform all namespace prefixes and rename all generated schema files as requested.
+                        pipeline.withTransformSchemas(transformSchemas);
+                    }
 
-                        // Rename all generated schema files as requested.
-                        XsdGeneratorHelper.renameGeneratedSchemaFiles(
-                                resolverMap, transformSchemas, getLog(), getOutputDirectory(), getEncoding(false));
+                    final int numProcessedFiles;
+                    try (ExecutionMetrics.Phase phase = getMetrics().phase("postProcessing")) {
+                        numProcessedFiles = pipeline.process(getWorkDirectory());
                     }
+                    if (getLog().isDebugEnabled()) {
+                        getLog().debug("XSD post-processing: " + numProcessedFiles + " files processed.");
+                    }
+
+                    // Track the renamed XSDs.
+                    for (NamespaceGeneration current : pending) {
+                        final File processed = pipeline.getTargets().get(current.target);
+                        if (processed != null) {
+                            current.target = processed;
+                        }
+                    }
+                }
+
+                // Move the generated files to the same relative structure within the outputDirectory,
+                // replacing only the files whose content has changed. The workDirectory is cleared
+                // within the next execution anyhow, so the files are moved rather than copied when possible.
+                final OutputUpdater updater = new OutputUpdater(getLog()).withParallelism(postProcessingParallelism);
+                final List<File> toTransfer = new ArrayList<File>();
+                if (incrementalSchemaGeneration) {
+
+                    for (File current : generatedFiles) {
+                        if (!SCHEMAGEN_EMITTED_FILENAME.matcher(current.getName()).matches()) {
+                            toTransfer.add(current);
+                        }
+                    }
+                    for (NamespaceGeneration current : pending) {
+                        toTransfer.add(current.target);
+                        current.target = getOutputFileFor(current.target);
+                    }
+                } else {
+
+                    // The post-processing may have renamed the generated files.
+                    toTransfer.addAll(FileSystemUtilities.resolveRecursively(
+                            Arrays.asList(getWorkDirectory()), exclusionFilters, getLog()));
+                }
+                try (ExecutionMetrics.Phase phase = getMetrics().phase("outputTransfer")) {
+
+                    updater.transfer(getWorkDirectory(), getOutputDirectory(), toTransfer, true);
+
+                    // Only clear the outputDirectory if it holds no previously generated namespaces.
+                    if (clearOutputDir && previousManifests.isEmpty()) {
+                        updater.deleteUntracked(getOutputDirectory());
+                    }
+                }
+                updater.logSummary("SchemaGen");
+                countOutputs(updater);
+
+                if (incrementalSchemaGeneration) {
+                    writeNamespaceManifests(generations, previousManifests);
+                }
+
+                if (deterministicOutput) {
+
+                    final BuildManifest sourceDigests = new BuildManifest();
+                    for (URL current : sources) {
+                        sourceDigests.addSource(current, null);
+                    }
+                    writeCacheKeyDescriptor(createCacheKeyDescriptor()
+                            .addTool(SchemaGenerator.class)
+                            .addArguments(Arrays.asList(schemaGenArguments))
+                            .addArguments(getPostProcessingArguments())
+                            .addSources(sourceDigests));
                 }
 
             } catch (MojoExecutionException e) {
@@ -587,7 +718,28 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
     // Private helpers
     //
 
-    private String[] getSchemaGenArguments(final String classPath, final File episodeFile, final List<URL> sources)
+    private JavaDocExtractor getJavaDocExtractor(final List<URL> sources) throws MojoExecutionException {
+
+        final String encoding = getEncoding(true);
+        final List<File> sourceCodeFiles = new ArrayList<File>();
+        for (URL current : sources) {
+            sourceCodeFiles.add(FileSystemUtilities.getFileFor(current, encoding));
+        }
+
+        // Parse each source file once per execution, for both the SchemaGen arguments and the JavaDoc extraction.
+        final JavaDocExtractor toReturn = new JavaDocExtractor(getLog());
+        toReturn.setEncoding(encoding);
+        toReturn.setParallelism(postProcessingParallelism);
+        toReturn.setCacheFile(
+                new File(getStaleFile().getParentFile(), getStaleFile().getName() + JAVADOC_CACHE_SUFFIX));
+        toReturn.addSourceFiles(sourceCodeFiles);
+
+        // All done.
+        return toReturn;
+    }
+
+    private String[] getSchemaGenArguments(
+            final String classPath, final File episodeFile, final JavaDocExtractor extractor)
             throws MojoExecutionException {
 
         final ArgumentBuilder builder = new ArgumentBuilder();
@@ -626,8 +778,8 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             //
             // The jaxb2-maven-plugin uses these two methods in the order given.
             //
-            builder.withPreCompiledArguments(getSchemaGeneratorSourceFiles(sources));
-        } catch (IOException e) {
+            builder.withPreCompiledArguments(getSchemaGeneratorSourceFiles(extractor));
+        } catch (IllegalArgumentException e) {
             throw new MojoExecutionException("Could not compile source paths for the SchemaGenerator", e);
         }
 
@@ -655,25 +807,24 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
      * </dl>
      * <p>The jaxb2-maven-plugin uses these two methods in the order given</p>
      *
-     * @param sources The compiled sources (as calculated from the local project's
-     *                source paths, {@code getSources()}).
+     * @param extractor The JavaDocExtractor holding the compiled sources (as calculated from the local project's
+     *                  source paths, {@code getSources()}).
      * @return A sorted List holding all sources to be used by the SchemaGenerator. According to the SchemaGenerator
      * documentation, the order in which the source arguments are provided is irrelevant.
      * The sources are to be rendered as the final (open-ended) argument to the schemagen execution.
      * @see #getSources()
      */
-    private List<String> getSchemaGeneratorSourceFiles(final List<URL> sources)
-            throws IOException, MojoExecutionException {
+    private List<String> getSchemaGeneratorSourceFiles(final JavaDocExtractor extractor)
+            throws IllegalArgumentException {
 
         final SortedMap<String, String> className2SourcePath = new TreeMap<String, String>();
         final File baseDir = getProject().getBasedir();
         final File userDir = new File(System.getProperty("user.dir"));
-        final String encoding = getEncoding(true);
 
         // 1) Find/add all sources available in the compilation unit.
-        for (URL current : sources) {
+        for (Map.Entry<File, SortedSet<String>> current : extractor.getClassNames().entrySet()) {
 
-            final File sourceCodeFile = FileSystemUtilities.getFileFor(current, encoding);
+            final File sourceCodeFile = current.getKey();
 
             // Calculate the relative path for the current source
             final String relativePath =
@@ -688,46 +839,30 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
                         + ". (baseDir: " + FileSystemUtilities.getCanonicalPath(baseDir) + "]");
             }
 
-            // Find the Java class(es) within the source.
-            final JavaProjectBuilder builder = new JavaProjectBuilder();
-            builder.setEncoding(encoding);
-
             //
             // Ensure that we include package-info.java classes in the SchemaGen compilation.
             //
             if (sourceCodeFile.getName().trim().equalsIgnoreCase(PACKAGE_INFO_FILENAME)) {
 
-                // For some reason, QDox requires the package-info.java to be added as a URL instead of a File.
-                builder.addSource(current);
-                final Collection<JavaPackage> packages = builder.getPackages();
-                if (packages.size() != 1) {
-                    throw new MojoExecutionException(
-                            "Exactly one package should be present in file [" + sourceCodeFile.getPath() + "]");
-                }
-
                 // Make the key indicate that this is the package-info.java file.
-                final JavaPackage javaPackage = packages.iterator().next();
-                className2SourcePath.put("package-info for (" + javaPackage.getName() + ")", relativePath);
+                for (String currentName : current.getValue()) {
+                    final String packageName =
+                            currentName.substring(0, currentName.length() - PACKAGE_INFO_SUFFIX.length());
+                    className2SourcePath.put("package-info for (" + packageName + ")", relativePath);
+                }
                 continue;
             }
 
-            // This is not a package-info.java file, so QDox lets us add this as a File.
-            builder.addSource(sourceCodeFile);
-
             // Map any found FQCN to the relativized path of its source file.
-            for (JavaSource currentJavaSource : builder.getSources()) {
-                for (JavaClass currentJavaClass : currentJavaSource.getClasses()) {
-
-                    final String className = currentJavaClass.getFullyQualifiedName();
-                    if (className2SourcePath.containsKey(className)) {
-                        if (getLog().isWarnEnabled()) {
-                            getLog().warn("Already mapped. Source class [" + className + "] within ["
-                                    + className2SourcePath.get(className)
-                                    + "]. Not overwriting with [" + relativePath + "]");
-                        }
-                    } else {
-                        className2SourcePath.put(className, relativePath);
+            for (String className : current.getValue()) {
+                if (className2SourcePath.containsKey(className)) {
+                    if (getLog().isWarnEnabled()) {
+                        getLog().warn("Already mapped. Source class [" + className + "] within ["
+                                + className2SourcePath.get(className)
+                                + "]. Not overwriting with [" + relativePath + "]");
                     }
+                } else {
+                    className2SourcePath.put(className, relativePath);
                 }
             }
         }
@@ -862,9 +997,9 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             getLog().debug("... End [ClassName-2-SourcePath Map]");
         }
 
-        // Sort the source paths and place them first in the argument array
-        final ArrayList<String> toReturn = new ArrayList<String>(className2SourcePath.values());
-        Collections.sort(toReturn);
+        // Sort the source paths and place them first in the argument array.
+        // Several classes may be defined within the same source file, which must only be handed to SchemaGen once.
+        final ArrayList<String> toReturn = new ArrayList<String>(new TreeSet<String>(className2SourcePath.values()));
 
         // All Done.
         return toReturn;
@@ -915,4 +1050,214 @@ public abstract class AbstractXsdGeneratorMojo extends AbstractJaxbMojo {
             throw new MojoExecutionException(msg);
         }
     }
+
+    private File getNamespacesDirectory() {
+        final File staleFile = getStaleFile();
+        return new File(staleFile.getParentFile(), staleFile.getName() + NAMESPACES_SUFFIX);
+    }
+
+    private File getOutputFileFor(final File generatedFile) {
+
+        // Use the same relative structure within the output directory.
+        final String currentPath = FileSystemUtilities.getCanonicalPath(generatedFile.getAbsoluteFile());
+        return new File(getOutputDirectory(), FileSystemUtilities.relativize(currentPath, getWorkDirectory(), true));
+    }
+
+    private String getRelativePath(final File aFile, final File aDirectory) {
+
+        final String path = FileSystemUtilities.getCanonicalPath(aFile.getAbsoluteFile());
+        return FileSystemUtilities.relativize(path, aDirectory, true).replace(File.separatorChar, '/');
+    }
+
+    private SortedMap<String, BuildManifest> readNamespaceManifests() {
+
+        final SortedMap<String, BuildManifest> toReturn = new TreeMap<String, BuildManifest>();
+        final File[] manifestFiles = getNamespacesDirectory().listFiles();
+        if (manifestFiles != null) {
+            for (File current : manifestFiles) {
+
+                final String name = current.getName();
+                if (name.endsWith(MANIFEST_SUFFIX)) {
+
+                    final BuildManifest manifest = BuildManifest.read(current);
+                    if (manifest != null) {
+                        toReturn.put(name.substring(0, name.length() - MANIFEST_SUFFIX.length()), manifest);
+                    }
+                }
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private List<String> getPostProcessingArguments() {
+
+        final List<String> toReturn = new ArrayList<String>();
+        toReturn.add("encoding=" + getEncoding(false));
+        if (createJavaDocAnnotations) {
+            final JavaDocRenderer renderer = javaDocRenderer == null ? STANDARD_JAVADOC_RENDERER : javaDocRenderer;
+            toReturn.add("javaDocRenderer=" + renderer.getClass().getName());
+        }
+        if (transformSchemas != null) {
+            for (TransformSchema current : transformSchemas) {
+                toReturn.add("transformSchema=" + current.getUri() + "," + current.getToPrefix() + ","
+                        + current.getToFile());
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private List<NamespaceGeneration> getNamespaceGenerations(
+            final List<File> generatedFiles,
+            final JavaDocExtractor extractor,
+            final SearchableDocumentation javaDocs,
+            final SortedMap<String, BuildManifest> previousManifests)
+            throws IOException {
+
+        // Map the classes of the compilation unit to their source files.
+        final Map<String, File> className2SourceFile = new HashMap<String, File>();
+        if (javaDocs != null) {
+            for (Map.Entry<File, SortedSet<String>> current : extractor.getClassNames().entrySet()) {
+                for (String className : current.getValue()) {
+                    className2SourceFile.putIfAbsent(className, current.getKey());
+                }
+            }
+        }
+
+        final List<String> postProcessingArguments = getPostProcessingArguments();
+        final List<NamespaceGeneration> toReturn = new ArrayList<NamespaceGeneration>();
+        int numUpToDate = 0;
+        for (File current : generatedFiles) {
+
+            // Only the XSDs are tracked per namespace.
+            if (!SCHEMAGEN_EMITTED_FILENAME.matcher(current.getName()).matches()) {
+                continue;
+            }
+
+            final GeneratedSchema schema = GeneratedSchema.read(current, getRelativePath(current, getWorkDirectory()));
+            final NamespaceGeneration generation = new NamespaceGeneration(schema);
+            generation.previousManifest = previousManifests.get(generation.schema.getKey());
+
+            // The post-processed XSD depends on the generated XSD, the post-processing configuration
+            // and - when injecting JavaDoc - the sources of the types defined within the XSD.
+            final List<String> arguments = new ArrayList<String>(postProcessingArguments);
+            arguments.add("schema=" + generation.schema.getRelativePath() + "," + generation.schema.getDigest());
+            generation.manifest = new BuildManifest()
+                    .addTool(getClass())
+                    .setArguments(arguments.toArray(new String[arguments.size()]));
+
+            if (javaDocs != null) {
+                for (String typeName : generation.schema.getTypeNames()) {
+
+                    final ClassLocation location = javaDocs.getLocationIndex().getClassLocation(typeName);
+                    final File sourceFile = location == null ? null : className2SourceFile.get(getClassName(location));
+                    if (sourceFile != null) {
+                        generation.manifest.addSource(
+                                FileSystemUtilities.getUrlFor(sourceFile), generation.previousManifest);
+                    }
+                }
+            }
+
+            final List<String> differences =
+                    generation.manifest.getDifferences(generation.previousManifest, getOutputDirectory());
+            if (differences.isEmpty()) {
+
+                numUpToDate++;
+                if (getLog().isDebugEnabled()) {
+                    getLog().debug("XSD for namespace [" + generation.schema.getTargetNamespace() + "] is up to date.");
+                }
+            } else {
+
+                if (getLog().isDebugEnabled()) {
+                    final StringBuilder builder = new StringBuilder("XSD for namespace ["
+                            + generation.schema.getTargetNamespace() + "] must be updated.");
+                    for (String currentDifference : differences) {
+                        builder.append(NEWLINE).append("  ").append(currentDifference);
+                    }
+                    getLog().debug(builder.toString());
+                }
+
+                generation.target = current;
+            }
+            toReturn.add(generation);
+        }
+
+        if (getLog().isInfoEnabled()) {
+            getLog().info("Found [" + numUpToDate + "] of [" + toReturn.size() + "] generated XSDs up to date.");
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private void writeNamespaceManifests(
+            final List<NamespaceGeneration> generations, final SortedMap<String, BuildManifest> previousManifests)
+            throws IOException {
+
+        final File namespacesDirectory = getNamespacesDirectory();
+        FileUtils.forceMkdir(namespacesDirectory);
+
+        // Record the outputs of all updated namespaces.
+        final Set<String> currentKeys = new HashSet<String>();
+        final Set<String> currentOutputs = new HashSet<String>();
+        for (NamespaceGeneration current : generations) {
+
+            final String key = current.schema.getKey();
+            currentKeys.add(key);
+
+            if (current.target == null) {
+                currentOutputs.addAll(current.previousManifest.getOutputs());
+            } else {
+
+                current.manifest.addOutput(getRelativePath(current.target, getOutputDirectory()));
+                currentOutputs.addAll(current.manifest.getOutputs());
+                current.manifest.write(new File(namespacesDirectory, key + MANIFEST_SUFFIX));
+            }
+        }
+
+        // Remove the outputs and manifests of namespaces which are no longer generated.
+        for (Map.Entry<String, BuildManifest> current : previousManifests.entrySet()) {
+
+            for (String output : current.getValue().getOutputs()) {
+                if (!currentOutputs.contains(output) && new File(getOutputDirectory(), output).delete()) {
+                    if (getLog().isDebugEnabled()) {
+                        getLog().debug("Removed obsolete XSD [" + output + "]");
+                    }
+                }
+            }
+
+            if (!currentKeys.contains(current.getKey())) {
+                new File(namespacesDirectory, current.getKey() + MANIFEST_SUFFIX).delete();
+            }
+        }
+    }
+
+    private static String getClassName(final ClassLocation location) {
+
+        final String packageName = location.getPackageName();
+        return packageName == null || packageName.isEmpty()
+                ? location.getDeclaredClassName()
+                : packageName + "." + location.getDeclaredClassName();
+    }
+
+    /**
+     * Holder for the generation state of the XSD of a single namespace.
+     */
+    private static final class NamespaceGeneration {
+
+        private final GeneratedSchema schema;
+        private BuildManifest previousManifest;
+        private BuildManifest manifest;
+
+        // The XSD to update within the workDirectory - and, once copied, within the outputDirectory.
+        // Null if the XSD is up to date.
+        private File target;
+
+        NamespaceGeneration(final GeneratedSchema schema) {
+            this.schema = schema;
+        }
+    }
 }
@@ -0,0 +1,207 @@
+package org.codehaus.mojo.jaxb2.schemageneration;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.manifest.BuildManifest;
+
+/**
+ * <p>Summary of a single XSD file emitted by the SchemaGenerator, holding the target namespace of the XSD and the
+ * names of the types defined within it. SchemaGen emits one XSD file per namespace, and the names of the types
+ * identify the Java classes which contribute to that namespace (and whose JavaDoc is injected into the XSD during
+ * post-processing).</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class GeneratedSchema {
+
+    // Internal state
+    private static final int KEY_LENGTH = 16;
+    private static final String TARGET_NAMESPACE = "targetNamespace";
+    private static final String NAME = "name";
+    private static final String COMPLEX_TYPE = "complexType";
+    private static final String SIMPLE_TYPE = "simpleType";
+
+    private final String relativePath;
+    private final String targetNamespace;
+    private final String digest;
+    private final SortedSet<String> typeNames;
+
+    /**
+     * Compound constructor creating a GeneratedSchema from the supplied data.
+     *
+     * @param relativePath    The non-empty path of the XSD file, relative to the directory where SchemaGen emitted it.
+     * @param targetNamespace The target namespace of the XSD, or an empty string for XSDs without target namespace.
+     * @param digest          The non-empty content digest of the XSD file.
+     * @param typeNames       The names of all top-level complexTypes and simpleTypes defined within the XSD.
+     */
+    public GeneratedSchema(
+            final String relativePath,
+            final String targetNamespace,
+            final String digest,
+            final SortedSet<String> typeNames) {
+
+        // Check sanity
+        Validate.notEmpty(relativePath, "relativePath");
+        Validate.notNull(targetNamespace, "targetNamespace");
+        Validate.notEmpty(digest, "digest");
+        Validate.notNull(typeNames, "typeNames");
+
+        // Assign internal state
+        this.relativePath = relativePath;
+        this.targetNamespace = targetNamespace;
+        this.digest = digest;
+        this.typeNames = Collections.unmodifiableSortedSet(new TreeSet<String>(typeNames));
+    }
+
+    /**
+     * @return A short key identifying this GeneratedSchema by its target namespace, usable as part of a file name.
+     */
+    public String getKey() {
+        return BuildManifest.digest(targetNamespace).substring(0, KEY_LENGTH);
+    }
+
+    /**
+     * @return The path of the XSD file, relative to the directory where SchemaGen emitted it.
+     */
+    public String getRelativePath() {
+        return relativePath;
+    }
+
+    /**
+     * @return The target namespace of the XSD, or an empty string for XSDs without target namespace.
+     */
+    public String getTargetNamespace() {
+        return targetNamespace;
+    }
+
+    /**
+     * @return The content digest of the XSD file.
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * @return The names of all top-level complexTypes and simpleTypes defined within the XSD.
+     */
+    public SortedSet<String> getTypeNames() {
+        return typeNames;
+    }
+
+    /**
+     * Reads the target namespace and the names of the top-level types from the supplied XSD file.
+     *
+     * @param schemaFile   An XSD file emitted by SchemaGen.
+     * @param relativePath The path of the XSD file, relative to the directory where SchemaGen emitted it.
+     * @return A GeneratedSchema summarizing the supplied schemaFile.
+     * @throws IOException if the schemaFile could not be read or parsed.
+     */
+    public static GeneratedSchema read(final File schemaFile, final String relativePath) throws IOException {
+
+        // Check sanity
+        Validate.notNull(schemaFile, "schemaFile");
+
+        final String digest;
+        try (InputStream in = Files.newInputStream(schemaFile.toPath())) {
+            digest = BuildManifest.digest(in);
+        }
+
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        String targetNamespace = null;
+        final SortedSet<String> typeNames = new TreeSet<String>();
+        try (InputStream in = Files.newInputStream(schemaFile.toPath())) {
+
+            final XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+
+                int depth = 0;
+                while (reader.hasNext()) {
+
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+
+                        depth++;
+                        if (depth == 1) {
+                            final String value = reader.getAttributeValue(null, TARGET_NAMESPACE);
+                            targetNamespace = value == null ? "" : value;
+                        } else if (depth == 2 && isTypeDefinition(reader)) {
+                            final String name = reader.getAttributeValue(null, NAME);
+                            if (name != null) {
+                                typeNames.add(name);
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not parse [" + schemaFile.getAbsolutePath() + "]: " + e.getMessage(), e);
+        }
+
+        if (targetNamespace == null) {
+            throw new IOException("No schema element found within [" + schemaFile.getAbsolutePath() + "]");
+        }
+
+        // All done.
+        return new GeneratedSchema(relativePath, targetNamespace, digest, typeNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "GeneratedSchema [" + relativePath + "] for namespace [" + targetNamespace + "]: " + typeNames;
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static boolean isTypeDefinition(final XMLStreamReader reader) {
+
+        final String localName = reader.getLocalName();
+        return XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(reader.getNamespaceURI())
+                && (COMPLEX_TYPE.equals(localName) || SIMPLE_TYPE.equals(localName));
+    }
+}
@@ -216,7 +216,8 @@ public class SchemaGenerationMojo extends AbstractXsdGeneratorMojo {
                 defaultSources,
                 getLog(),
                 "sources",
-                sourceExcludes);
+                sourceExcludes,
+                parallelFileScan);
     }
 
     /**
@@ -240,7 +240,8 @@ public class TestSchemaGenerationMojo extends AbstractXsdGeneratorMojo {
                 getProject().getTestCompileSourceRoots(),
                 getLog(),
                 "test schema sources",
-                excludeFilters);
+                excludeFilters,
+                parallelFileScan);
     }
 
     /**
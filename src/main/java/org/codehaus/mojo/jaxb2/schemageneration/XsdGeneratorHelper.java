@@ -456,7 +456,10 @@ public final class XsdGeneratorHelper {
     }
 
     /**
-     * Converts the provided DOM Node to a pretty-printed XML-formatted string.
+     * Converts the provided DOM Node to a pretty-printed XML-formatted string. The serialization is normalized,
+     * implying that equal DOM trees yield identical strings regardless of the platform and of any whitespace
+     * between the elements of the original document: whitespace-only text nodes are ignored (the Transformer
+     * re-indents the elements anyways) and lines are separated by '\n'.
      *
      * @param node The Node whose children should be converted to a String.
      * @return a pretty-printed XML-formatted string.
@@ -469,12 +472,14 @@ public final class XsdGeneratorHelper {
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
             transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
             transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-            transformer.transform(new DOMSource(node), new StreamResult(toReturn));
+            transformer.transform(new DOMSource(withoutWhitespaceText(node)), new StreamResult(toReturn));
         } catch (TransformerException e) {
             throw new IllegalStateException("Could not transform node [" + node.getNodeName() + "] to XML", e);
         }
 
-        return toReturn.toString();
+        // Line breaks within text content are escaped by the Transformer, so all remaining
+        // carriage returns stem from the platform line separator.
+        return toReturn.toString().replace("\r\n", "\n").replace('\r', '\n');
     }
 
     //
@@ -539,6 +544,33 @@ public final class XsdGeneratorHelper {
         }
     }
 
+    private static Node withoutWhitespaceText(final Node node) {
+
+        if (node.getNodeType() != Node.ELEMENT_NODE && node.getNodeType() != Node.DOCUMENT_NODE) {
+            return node;
+        }
+
+        // Remove the whitespace-only text nodes from a copy of the node, leaving the original unchanged.
+        final Node toReturn = node.cloneNode(true);
+        removeWhitespaceText(toReturn);
+        return toReturn;
+    }
+
+    private static void removeWhitespaceText(final Node node) {
+
+        Node current = node.getFirstChild();
+        while (current != null) {
+
+            final Node next = current.getNextSibling();
+            if (current.getNodeType() == Node.TEXT_NODE && current.getNodeValue().trim().isEmpty()) {
+                node.removeChild(current);
+            } else if (current.getNodeType() == Node.ELEMENT_NODE) {
+                removeWhitespaceText(current);
+            }
+            current = next;
+        }
+    }
+
     private static void addRecursively(final List<File> toPopulate, final FileFilter fileFilter, final File aDir) {
 
         // Check sanity
@@ -213,15 +213,34 @@ public final class DomHelper {
     public static ClassLocation getClassLocation(final Node aNode, final Set<ClassLocation> classLocations) {
 
         if (aNode != null) {
+            return getClassLocation(aNode.getLocalName(), DomHelper.getNameAttribute(aNode), classLocations);
+        }
 
-            // The LocalName of the supplied DOM Node should be either "complexType" or "simpleType".
-            final String nodeLocalName = aNode.getLocalName();
+        // Nothing found
+        return null;
+    }
+
+    /**
+     * Retrieves the ClassLocation for an XSD element with the supplied local name and "name" attribute value.
+     * This permits matching XSD elements which are not available as DOM Nodes, such as streamed ones.
+     *
+     * @param nodeLocalName  The local name of the XSD element.
+     * @param nodeClassName  The value of the "name" attribute of the XSD element, or {@code null} if not present.
+     * @param classLocations The set of known ClassLocations, extracted from the JavaDocs.
+     * @return the ClassLocation matching the supplied element data, or {@code null} if no match was found.
+     * @since 4.1.1
+     */
+    public static ClassLocation getClassLocation(
+            final String nodeLocalName, final String nodeClassName, final Set<ClassLocation> classLocations) {
+
+        if (nodeLocalName != null) {
+
+            // The LocalName of the XSD element should be either "complexType" or "simpleType".
             final boolean acceptableType =
                     "complexType".equalsIgnoreCase(nodeLocalName) || "simpleType".equalsIgnoreCase(nodeLocalName);
 
             if (acceptableType) {
 
-                final String nodeClassName = DomHelper.getNameAttribute(aNode);
                 for (ClassLocation current : classLocations) {
 
                     // TODO: Ensure that the namespace of the supplied aNode matches the expected namespace.
@@ -250,14 +269,38 @@ public final class DomHelper {
      */
     public static MethodLocation getMethodLocation(final Node aNode, final Set<MethodLocation> methodLocations) {
 
+        if (aNode != null) {
+            return getMethodLocation(
+                    aNode.getLocalName(), getMemberXmlName(aNode), getContainingClassName(aNode), methodLocations);
+        }
+
+        // Nothing found
+        return null;
+    }
+
+    /**
+     * Finds the MethodLocation within the given Set, which corresponds to an XSD element with the supplied data.
+     *
+     * @param nodeLocalName   The local name of the XSD element.
+     * @param memberXmlName   The value of the "name" (or, if absent, "value") attribute of the XSD element.
+     * @param classXmlName    The value of the "name" attribute of the closest complexType or simpleType
+     *                        containing the XSD element, or {@code null} if there is none.
+     * @param methodLocations The Set of all found/known MethodLocation instances.
+     * @return The MethodLocation matching the supplied element data - or {@code null} if no match was found.
+     * @since 4.1.1
+     */
+    public static MethodLocation getMethodLocation(
+            final String nodeLocalName,
+            final String memberXmlName,
+            final String classXmlName,
+            final Set<MethodLocation> methodLocations) {
+
         MethodLocation toReturn = null;
 
-        if (aNode != null
-                && CLASS_FIELD_METHOD_ELEMENT_NAMES.contains(
-                        aNode.getLocalName().toLowerCase())) {
+        if (nodeLocalName != null && CLASS_FIELD_METHOD_ELEMENT_NAMES.contains(nodeLocalName.toLowerCase())) {
 
             final MethodLocation validLocation =
-                    getFieldOrMethodLocationIfValid(aNode, getContainingClassOrNull(aNode), methodLocations);
+                    getFieldOrMethodLocationIfValid(memberXmlName, classXmlName, methodLocations);
 
             // The MethodLocation should represent a normal getter; no arguments should be present.
             if (validLocation != null
@@ -279,19 +322,46 @@ public final class DomHelper {
      */
     public static FieldLocation getFieldLocation(final Node aNode, final Set<FieldLocation> fieldLocations) {
 
+        if (aNode != null) {
+            return getFieldLocation(
+                    aNode.getLocalName(), getMemberXmlName(aNode), getContainingClassName(aNode), fieldLocations);
+        }
+
+        // Nothing found
+        return null;
+    }
+
+    /**
+     * Retrieves a FieldLocation from the supplied Set, provided that the FieldLocation matches an XSD element
+     * with the supplied data.
+     *
+     * @param nodeLocalName  The local name of the XSD element.
+     * @param memberXmlName  The value of the "name" (or, if absent, "value") attribute of the XSD element.
+     * @param classXmlName   The value of the "name" attribute of the closest complexType or simpleType
+     *                       containing the XSD element, or {@code null} if there is none.
+     * @param fieldLocations The Set of known/found FieldLocation instances.
+     * @return The FieldLocation corresponding to the supplied element data - or {@code null} if no match was found.
+     * @since 4.1.1
+     */
+    public static FieldLocation getFieldLocation(
+            final String nodeLocalName,
+            final String memberXmlName,
+            final String classXmlName,
+            final Set<FieldLocation> fieldLocations) {
+
         FieldLocation toReturn = null;
 
-        if (aNode != null) {
+        if (nodeLocalName != null) {
 
-            if (CLASS_FIELD_METHOD_ELEMENT_NAMES.contains(aNode.getLocalName().toLowerCase())) {
+            final String lowerCaseLocalName = nodeLocalName.toLowerCase();
+            if (CLASS_FIELD_METHOD_ELEMENT_NAMES.contains(lowerCaseLocalName)) {
 
                 // This is a ComplexType which correspond to a Java class.
-                toReturn = getFieldOrMethodLocationIfValid(aNode, getContainingClassOrNull(aNode), fieldLocations);
-            } else if (ENUMERATION_FIELD_METHOD_ELEMENT_NAMES.contains(
-                    aNode.getLocalName().toLowerCase())) {
+                toReturn = getFieldOrMethodLocationIfValid(memberXmlName, classXmlName, fieldLocations);
+            } else if (ENUMERATION_FIELD_METHOD_ELEMENT_NAMES.contains(lowerCaseLocalName)) {
 
                 // This is a SimpleType which correspond to a Java enum.
-                toReturn = getFieldOrMethodLocationIfValid(aNode, getContainingClassOrNull(aNode), fieldLocations);
+                toReturn = getFieldOrMethodLocationIfValid(memberXmlName, classXmlName, fieldLocations);
             }
         }
 
@@ -312,11 +382,35 @@ public final class DomHelper {
     public static <T extends FieldLocation> T getFieldOrMethodLocationIfValid(
             final Node aNode, final Node containingClassNode, final Set<? extends FieldLocation> locations) {
 
+        if (containingClassNode != null) {
+            return getFieldOrMethodLocationIfValid(
+                    getMemberXmlName(aNode), DomHelper.getNameAttribute(containingClassNode), locations);
+        }
+
+        // Nothing found
+        return null;
+    }
+
+    /**
+     * Retrieves a FieldLocation or MethodLocation from the supplied Set of Field- or MethodLocations, provided that
+     * its (possibly renamed) member and class names match the supplied XML names.
+     *
+     * @param memberXmlName The value of the "name" (or, if absent, "value") attribute of the XSD element.
+     * @param classXmlName  The value of the "name" attribute of the closest complexType or simpleType
+     *                      containing the XSD element, or {@code null} if there is none.
+     * @param locations     A Set containing known/found Field- and MethodLocations.
+     * @param <T>           The FieldLocation type.
+     * @return The Matching Field- or MethodLocation.
+     * @since 4.1.1
+     */
+    public static <T extends FieldLocation> T getFieldOrMethodLocationIfValid(
+            final String memberXmlName, final String classXmlName, final Set<? extends FieldLocation> locations) {
+
         T toReturn = null;
 
-        if (containingClassNode != null) {
+        if (classXmlName != null) {
 
-            // Do we have a FieldLocation corresponding to the supplied Node?
+            // Do we have a FieldLocation corresponding to the supplied XML names?
             for (FieldLocation current : locations) {
 
                 // Validate that the field and class names match the FieldLocation's corresponding values,
@@ -337,21 +431,7 @@ public final class DomHelper {
                 final String className = current.getClassName();
 
                 try {
-
-                    //
-                    // Fields in XML enums are rendered on the form
-                    // <xs:enumeration value="LACTO_VEGETARIAN"/>, implying that
-                    // we must retrieve the 'value' attribute's value.
-                    //
-                    // Fields in XML classes are rendered on the form
-                    // <xsd:element name="Line1" type="xsd:string"/>, implying that
-                    // we must retrieve the 'name' attribute's value.
-                    //
-                    final String attributeValue = DomHelper.getNameAttribute(aNode) == null
-                            ? DomHelper.getValueAttribute(aNode)
-                            : DomHelper.getNameAttribute(aNode);
-                    if (fieldName.equalsIgnoreCase(attributeValue)
-                            && className.equalsIgnoreCase(DomHelper.getNameAttribute(containingClassNode))) {
+                    if (fieldName.equalsIgnoreCase(memberXmlName) && className.equalsIgnoreCase(classXmlName)) {
                         toReturn = (T) current;
                     }
                 } catch (Exception e) {
@@ -367,6 +447,78 @@ public final class DomHelper {
         return toReturn;
     }
 
+    /**
+     * Finds the Class-, Field- or MethodLocation within the supplied JavaDocLocationIndex, which corresponds to the
+     * supplied DOM Node. The same rules as for {@link #getClassLocation(Node, Set)},
+     * {@link #getFieldLocation(Node, Set)} and {@link #getMethodLocation(Node, Set)} apply, in that order.
+     *
+     * @param aNode A DOM Node.
+     * @param index The JavaDocLocationIndex of all found/known locations.
+     * @return The SortableLocation matching the supplied Node - or {@code null} if no match was found.
+     * @since 4.1.1
+     */
+    public static SortableLocation getJavaDocLocation(final Node aNode, final JavaDocLocationIndex index) {
+
+        if (aNode != null) {
+            return getJavaDocLocation(
+                    aNode.getLocalName(), getMemberXmlName(aNode), getContainingClassName(aNode), index);
+        }
+
+        // Nothing found
+        return null;
+    }
+
+    /**
+     * Finds the Class-, Field- or MethodLocation within the supplied JavaDocLocationIndex, which corresponds to an
+     * XSD element with the supplied data.
+     *
+     * @param nodeLocalName The local name of the XSD element.
+     * @param memberXmlName The value of the "name" (or, if absent, "value") attribute of the XSD element.
+     * @param classXmlName  The value of the "name" attribute of the closest complexType or simpleType
+     *                      containing the XSD element, or {@code null} if there is none.
+     * @param index         The JavaDocLocationIndex of all found/known locations.
+     * @return The SortableLocation matching the supplied element data - or {@code null} if no match was found.
+     * @since 4.1.1
+     */
+    public static SortableLocation getJavaDocLocation(
+            final String nodeLocalName,
+            final String memberXmlName,
+            final String classXmlName,
+            final JavaDocLocationIndex index) {
+
+        SortableLocation toReturn = null;
+
+        if (nodeLocalName != null) {
+
+            final String lowerCaseLocalName = nodeLocalName.toLowerCase();
+            if ("complextype".equals(lowerCaseLocalName) || "simpletype".equals(lowerCaseLocalName)) {
+
+                // This is a ComplexType or SimpleType which correspond to a Java class or enum.
+                toReturn = index.getClassLocation(memberXmlName);
+            } else if (CLASS_FIELD_METHOD_ELEMENT_NAMES.contains(lowerCaseLocalName)) {
+
+                // This is an Element or Attribute which correspond to a Java Field or getter Method.
+                toReturn = index.getFieldLocation(classXmlName, memberXmlName);
+                if (toReturn == null) {
+
+                    // The MethodLocation should represent a normal getter; no arguments should be present.
+                    final MethodLocation methodLocation = index.getMethodLocation(classXmlName, memberXmlName);
+                    if (methodLocation != null
+                            && MethodLocation.NO_PARAMETERS.equalsIgnoreCase(methodLocation.getParametersAsString())) {
+                        toReturn = methodLocation;
+                    }
+                }
+            } else if (ENUMERATION_FIELD_METHOD_ELEMENT_NAMES.contains(lowerCaseLocalName)) {
+
+                // This is an Enumeration which correspond to a Java enum constant.
+                toReturn = index.getFieldLocation(classXmlName, memberXmlName);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
     /**
      * Processes the supplied DOM Node, inserting XML Documentation annotations if applicable.
      *
@@ -407,6 +559,26 @@ public final class DomHelper {
             }
         }
 
+        // All done.
+        insertXmlDocumentationAnnotationsFor(aNode, location, javaDocData, renderer);
+    }
+
+    /**
+     * Inserts an XML Documentation annotation, rendered from the supplied JavaDocData, into the supplied DOM Node.
+     *
+     * @param aNode       The DOM Node to process.
+     * @param location    The SortableLocation matching the supplied DOM Node.
+     * @param javaDocData The JavaDocData harvested for the supplied SortableLocation.
+     * @param renderer    A non-null {@link JavaDocRenderer}.
+     * @throws IllegalStateException if the supplied javaDocData is {@code null}.
+     * @since 4.1.1
+     */
+    public static void insertXmlDocumentationAnnotationsFor(
+            final Node aNode,
+            final SortableLocation location,
+            final JavaDocData javaDocData,
+            final JavaDocRenderer renderer) {
+
         // We should have a JavaDocData here.
         if (javaDocData == null) {
 
@@ -430,6 +602,27 @@ public final class DomHelper {
     // Private helpers
     //
 
+    private static String getMemberXmlName(final Node aNode) {
+
+        //
+        // Fields in XML enums are rendered on the form
+        // <xs:enumeration value="LACTO_VEGETARIAN"/>, implying that
+        // we must retrieve the 'value' attribute's value.
+        //
+        // Fields in XML classes are rendered on the form
+        // <xsd:element name="Line1" type="xsd:string"/>, implying that
+        // we must retrieve the 'name' attribute's value.
+        //
+        final String nameAttribute = DomHelper.getNameAttribute(aNode);
+        return nameAttribute == null ? DomHelper.getValueAttribute(aNode) : nameAttribute;
+    }
+
+    private static String getContainingClassName(final Node aNode) {
+
+        final Node containingClass = getContainingClassOrNull(aNode);
+        return containingClass == null ? null : DomHelper.getNameAttribute(containingClass);
+    }
+
     private static Node getContainingClassOrNull(final Node aNode) {
 
         for (Node current = aNode.getParentNode(); current != null; current = current.getParentNode()) {
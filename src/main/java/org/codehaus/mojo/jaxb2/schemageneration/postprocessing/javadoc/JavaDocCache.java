@@ -0,0 +1,522 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.thoughtworks.qdox.JavaProjectBuilder;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.ClassLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.FieldLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.MethodLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.PackageLocation;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.manifest.BuildManifest;
+
+/**
+ * <p>Persistent cache of the JavaDoc harvested from java source files, used by the {@link JavaDocExtractor} to
+ * avoid re-parsing unchanged source files. The cache holds one {@link Entry} per source file, keyed by the
+ * canonical path of the file, and containing the content digest (SHA-256) of the file, the names of the
+ * classes defined within it and the JavaDocData harvested from it.</p>
+ * <p>A cache is only valid for the QDox version and source encoding by which it was created; caches written
+ * by another QDox version, for another encoding or in another format version are ignored when read.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+final class JavaDocCache {
+
+    /**
+     * The version of the cache file format. Caches of other versions are ignored when read.
+     */
+    static final String FORMAT_VERSION = "2";
+
+    // Constants
+    private static final String VERSION_KEY = "cache.version";
+    private static final String QDOX_VERSION_KEY = "qdox.version";
+    private static final String ENCODING_KEY = "encoding";
+    private static final String SOURCE_PREFIX = "source.";
+    private static final String PATH_KEY = "path";
+    private static final String STATS_KEY = "stats";
+    private static final String CLASSES_KEY = "classes";
+    private static final String DOC_KEY = "doc";
+    private static final String LOCATION_KEY = "location";
+    private static final String PACKAGE_KEY = "package";
+    private static final String CLASS_KEY = "class";
+    private static final String CLASS_XML_NAME_KEY = "classXmlName";
+    private static final String MEMBER_KEY = "member";
+    private static final String MEMBER_XML_NAME_KEY = "memberXmlName";
+    private static final String PARAMETERS_KEY = "parameters";
+    private static final String COMMENT_KEY = "comment";
+    private static final String TAG_PREFIX = "tag.";
+    private static final String PACKAGE_LOCATION = "package";
+    private static final String CLASS_LOCATION = "class";
+    private static final String FIELD_LOCATION = "field";
+    private static final String METHOD_LOCATION = "method";
+    private static final String FIELD_SEPARATOR = ",";
+    private static final String QDOX_POM_PROPERTIES = "/META-INF/maven/com.thoughtworks.qdox/qdox/pom.properties";
+
+    // Internal state
+    private final String qdoxVersion;
+    private final String encoding;
+    private final SortedMap<String, Entry> entries = new TreeMap<String, Entry>();
+
+    /**
+     * Creates a new, empty JavaDocCache for the QDox version on the classpath and the supplied encoding.
+     *
+     * @param encoding The encoding of the parsed source files, or {@code null} for the platform encoding.
+     */
+    JavaDocCache(final String encoding) {
+        this.qdoxVersion = getQDoxVersion();
+        this.encoding = encoding == null ? "" : encoding;
+    }
+
+    /**
+     * Retrieves the cached Entry for the supplied source file, provided that its content is unchanged.
+     * The content digest of the file is only calculated if its timestamp or size differ from the cached ones.
+     *
+     * @param path       The canonical path of a source file.
+     * @param sourceFile The source file.
+     * @return The cached Entry, or {@code null} if none exists or if the source file has been changed.
+     * @throws IOException if the source file could not be read.
+     */
+    Entry getUnchanged(final String path, final File sourceFile) throws IOException {
+
+        final Entry toReturn = entries.get(path);
+        if (toReturn == null) {
+            return null;
+        }
+
+        final long lastModified = sourceFile.lastModified();
+        if (lastModified != 0L && toReturn.lastModified == lastModified && toReturn.length == sourceFile.length()) {
+            return toReturn;
+        }
+
+        // All done.
+        return toReturn.digest.equals(digest(sourceFile)) ? toReturn.touch(sourceFile) : null;
+    }
+
+    /**
+     * Adds an Entry to this JavaDocCache, replacing any existing Entry for the same path.
+     *
+     * @param path  The canonical path of a source file.
+     * @param entry The non-null Entry for the source file.
+     */
+    void put(final String path, final Entry entry) {
+
+        // Check sanity
+        Validate.notEmpty(path, "path");
+        Validate.notNull(entry, "entry");
+        Validate.notNull(entry.digest, "entry.digest");
+
+        // All done.
+        entries.put(path, entry);
+    }
+
+    /**
+     * @return An unmodifiable view of all Entries within this JavaDocCache, keyed by the paths of their sources.
+     */
+    SortedMap<String, Entry> getEntries() {
+        return Collections.unmodifiableSortedMap(entries);
+    }
+
+    /**
+     * Writes this JavaDocCache to the supplied file. The entries are written in sorted order without any
+     * timestamp comment, and the file is first written to a temporary sibling to avoid leaving a partially
+     * written cache behind.
+     *
+     * @param cacheFile The non-null file to which this JavaDocCache should be written.
+     * @throws IOException if the cache file could not be written.
+     */
+    void write(final File cacheFile) throws IOException {
+
+        // Check sanity
+        Validate.notNull(cacheFile, "cacheFile");
+
+        final Properties props = new Properties();
+        props.setProperty(VERSION_KEY, FORMAT_VERSION);
+        props.setProperty(QDOX_VERSION_KEY, qdoxVersion);
+        props.setProperty(ENCODING_KEY, encoding);
+
+        int sourceIndex = 0;
+        for (Map.Entry<String, Entry> current : entries.entrySet()) {
+
+            final Entry entry = current.getValue();
+            final String sourcePrefix = SOURCE_PREFIX + String.format("%05d", sourceIndex++) + ".";
+            props.setProperty(sourcePrefix + PATH_KEY, current.getKey());
+            props.setProperty(
+                    sourcePrefix + STATS_KEY,
+                    entry.lastModified + FIELD_SEPARATOR + entry.length + FIELD_SEPARATOR + entry.digest);
+            props.setProperty(sourcePrefix + CLASSES_KEY, String.join(FIELD_SEPARATOR, entry.classNames));
+
+            int docIndex = 0;
+            for (Map.Entry<SortableLocation, JavaDocData> currentDoc : entry.javaDocs.entrySet()) {
+                writeJavaDoc(
+                        props,
+                        sourcePrefix + DOC_KEY + "." + String.format("%05d", docIndex++) + ".",
+                        currentDoc.getKey(),
+                        currentDoc.getValue());
+            }
+        }
+
+        // Properties.store emits entries in hash order, preceded by a timestamp comment.
+        // Strip the comments and sort the lines to make the written cache deterministic.
+        final StringWriter out = new StringWriter();
+        props.store(out, null);
+        final SortedSet<String> lines = new TreeSet<String>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(out.toString()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+
+        final File parent = cacheFile.getAbsoluteFile().getParentFile();
+        Files.createDirectories(parent.toPath());
+        final Path tmp = Files.createTempFile(parent.toPath(), cacheFile.getName(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.ISO_8859_1)) {
+                for (String current : lines) {
+                    writer.write(current);
+                    writer.write("\n");
+                }
+            }
+            Files.move(tmp, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Reads a JavaDocCache from the supplied file.
+     *
+     * @param cacheFile The file holding a written JavaDocCache.
+     * @param encoding  The encoding of the source files to parse, or {@code null} for the platform encoding.
+     * @return The JavaDocCache read, or {@code null} if the file did not exist, could not be read or was written
+     * in another format version, by another QDox version or for another encoding.
+     */
+    static JavaDocCache read(final File cacheFile, final String encoding) {
+
+        // Check sanity
+        Validate.notNull(cacheFile, "cacheFile");
+
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+
+        final Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.ISO_8859_1)) {
+            props.load(reader);
+        } catch (IOException e) {
+            return null;
+        }
+
+        final JavaDocCache toReturn = new JavaDocCache(encoding);
+        if (!FORMAT_VERSION.equals(props.getProperty(VERSION_KEY))
+                || !toReturn.qdoxVersion.equals(props.getProperty(QDOX_VERSION_KEY))
+                || !toReturn.encoding.equals(props.getProperty(ENCODING_KEY))) {
+            return null;
+        }
+
+        // Group the properties by source, and by JavaDoc entry within each source.
+        final SortedMap<String, SortedMap<String, String>> sourceProperties =
+                new TreeMap<String, SortedMap<String, String>>();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(SOURCE_PREFIX)) {
+
+                final int separatorIndex = key.indexOf('.', SOURCE_PREFIX.length());
+                if (separatorIndex < 0) {
+                    return null;
+                }
+
+                sourceProperties
+                        .computeIfAbsent(key.substring(0, separatorIndex), k -> new TreeMap<String, String>())
+                        .put(key.substring(separatorIndex + 1), props.getProperty(key));
+            }
+        }
+
+        try {
+            for (SortedMap<String, String> current : sourceProperties.values()) {
+
+                final String path = current.get(PATH_KEY);
+                final String stats = current.get(STATS_KEY);
+                final String classes = current.get(CLASSES_KEY);
+                if (path == null || stats == null || classes == null) {
+                    return null;
+                }
+
+                final String[] fields = stats.split(FIELD_SEPARATOR, 3);
+                if (fields.length != 3) {
+                    return null;
+                }
+
+                final Entry entry = new Entry();
+                entry.lastModified = Long.parseLong(fields[0]);
+                entry.length = Long.parseLong(fields[1]);
+                entry.digest = fields[2];
+                if (!classes.isEmpty()) {
+                    entry.classNames.addAll(Arrays.asList(classes.split(FIELD_SEPARATOR)));
+                }
+
+                final SortedMap<String, SortedMap<String, String>> docProperties =
+                        new TreeMap<String, SortedMap<String, String>>();
+                for (Map.Entry<String, String> currentProperty : current.entrySet()) {
+
+                    final String key = currentProperty.getKey();
+                    if (key.startsWith(DOC_KEY + ".")) {
+
+                        final int separatorIndex = key.indexOf('.', DOC_KEY.length() + 1);
+                        if (separatorIndex < 0) {
+                            return null;
+                        }
+
+                        docProperties
+                                .computeIfAbsent(key.substring(0, separatorIndex), k -> new TreeMap<String, String>())
+                                .put(key.substring(separatorIndex + 1), currentProperty.getValue());
+                    }
+                }
+
+                for (SortedMap<String, String> currentDoc : docProperties.values()) {
+                    entry.javaDocs.put(readLocation(currentDoc), readJavaDocData(currentDoc));
+                }
+
+                toReturn.entries.put(path, entry);
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+
+            // Malformed or missing values, including NumberFormatExceptions.
+            return null;
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Calculates the hex-encoded SHA-256 digest of the content of the supplied file.
+     *
+     * @param file A non-null, readable file.
+     * @return The hex-encoded digest of the file content.
+     * @throws IOException if the file could not be read.
+     */
+    static String digest(final File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return BuildManifest.digest(in);
+        }
+    }
+
+    /**
+     * Retrieves the version of QDox used to parse source files. If the version cannot be found, the location
+     * from which QDox was loaded is used in its place.
+     *
+     * @return A non-empty description of the QDox version.
+     */
+    static String getQDoxVersion() {
+
+        try (InputStream in = JavaProjectBuilder.class.getResourceAsStream(QDOX_POM_PROPERTIES)) {
+            if (in != null) {
+
+                final Properties props = new Properties();
+                props.load(in);
+
+                final String version = props.getProperty("version");
+                if (version != null && !version.isEmpty()) {
+                    return version;
+                }
+            }
+        } catch (IOException e) {
+            // Fall back to the code location below.
+        }
+
+        final CodeSource codeSource = JavaProjectBuilder.class.getProtectionDomain().getCodeSource();
+        return codeSource == null || codeSource.getLocation() == null
+                ? "unknown"
+                : codeSource.getLocation().toString();
+    }
+
+    /**
+     * Cached JavaDoc harvested from a single source file.
+     */
+    static final class Entry {
+
+        // Internal state
+        private long lastModified;
+        private long length;
+        private String digest;
+        private final SortedSet<String> classNames = new TreeSet<String>();
+        private final SortedMap<SortableLocation, JavaDocData> javaDocs = new TreeMap<SortableLocation, JavaDocData>();
+
+        /**
+         * Creates an empty Entry, whose source file must be assigned before it is added to a JavaDocCache.
+         */
+        Entry() {
+            this.length = -1L;
+        }
+
+        /**
+         * Records the timestamp, size and content digest of the source file from which this Entry was harvested.
+         *
+         * @param sourceFile The non-null source file.
+         * @return This Entry, for chaining.
+         * @throws IOException if the source file could not be read.
+         */
+        Entry setSource(final File sourceFile) throws IOException {
+            this.digest = digest(sourceFile);
+            return touch(sourceFile);
+        }
+
+        /**
+         * @return The modifiable, fully qualified names of all classes defined within the source file.
+         */
+        SortedSet<String> getClassNames() {
+            return classNames;
+        }
+
+        /**
+         * @return The modifiable JavaDocData harvested from the source file, keyed by location.
+         */
+        SortedMap<SortableLocation, JavaDocData> getJavaDocs() {
+            return javaDocs;
+        }
+
+        private Entry touch(final File sourceFile) {
+
+            // Record the timestamp and size, to avoid calculating the digest of an unchanged source file again.
+            this.lastModified = sourceFile.lastModified();
+            this.length = sourceFile.length();
+            return this;
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static void writeJavaDoc(
+            final Properties props, final String prefix, final SortableLocation location, final JavaDocData data) {
+
+        // The location types are written using their own constructor arguments, to re-create equal locations.
+        String locationType = PACKAGE_LOCATION;
+        if (location instanceof ClassLocation) {
+
+            final ClassLocation classLocation = (ClassLocation) location;
+            locationType = CLASS_LOCATION;
+            props.setProperty(prefix + CLASS_KEY, classLocation.getDeclaredClassName());
+            setIfNotNull(props, prefix + CLASS_XML_NAME_KEY, classLocation.getClassXmlName());
+        }
+        if (location instanceof FieldLocation) {
+
+            final FieldLocation fieldLocation = (FieldLocation) location;
+            locationType = FIELD_LOCATION;
+            props.setProperty(prefix + MEMBER_KEY, fieldLocation.getDeclaredMemberName());
+            setIfNotNull(props, prefix + MEMBER_XML_NAME_KEY, fieldLocation.getMemberXmlName());
+        }
+        if (location instanceof MethodLocation) {
+            locationType = METHOD_LOCATION;
+            props.setProperty(prefix + PARAMETERS_KEY, ((MethodLocation) location).getParametersAsString());
+        }
+
+        props.setProperty(prefix + LOCATION_KEY, locationType);
+        props.setProperty(prefix + PACKAGE_KEY, ((PackageLocation) location).getPackageName());
+        props.setProperty(prefix + COMMENT_KEY, data.getComment());
+        for (Map.Entry<String, String> current : data.getTag2ValueMap().entrySet()) {
+            props.setProperty(prefix + TAG_PREFIX + current.getKey(), current.getValue());
+        }
+    }
+
+    private static SortableLocation readLocation(final SortedMap<String, String> properties) {
+
+        final String locationType = properties.get(LOCATION_KEY);
+        final String packageName = properties.get(PACKAGE_KEY);
+
+        if (PACKAGE_LOCATION.equals(locationType)) {
+            return new PackageLocation(packageName);
+        } else if (CLASS_LOCATION.equals(locationType)) {
+            return new ClassLocation(
+                    packageName, properties.get(CLASS_KEY), properties.get(CLASS_XML_NAME_KEY));
+        } else if (FIELD_LOCATION.equals(locationType)) {
+            return new FieldLocation(
+                    packageName,
+                    properties.get(CLASS_KEY),
+                    properties.get(CLASS_XML_NAME_KEY),
+                    properties.get(MEMBER_KEY),
+                    properties.get(MEMBER_XML_NAME_KEY));
+        } else if (METHOD_LOCATION.equals(locationType)) {
+
+            final String parameters = properties.get(PARAMETERS_KEY);
+            Validate.isTrue(
+                    parameters != null && parameters.startsWith("(") && parameters.endsWith(")"), "parameters");
+
+            final String parameterList = parameters.substring(1, parameters.length() - 1);
+            return new MethodLocation(
+                    packageName,
+                    properties.get(CLASS_KEY),
+                    properties.get(CLASS_XML_NAME_KEY),
+                    properties.get(MEMBER_KEY),
+                    properties.get(MEMBER_XML_NAME_KEY),
+                    parameterList.isEmpty()
+                            ? new String[0]
+                            : parameterList.split(MethodLocation.PARAMETER_SEPARATOR, -1));
+        }
+
+        // Unknown location type.
+        throw new IllegalArgumentException("Unknown location type [" + locationType + "]");
+    }
+
+    private static JavaDocData readJavaDocData(final SortedMap<String, String> properties) {
+
+        final SortedMap<String, String> tag2ValueMap = new TreeMap<String, String>();
+        for (Map.Entry<String, String> current : properties.entrySet()) {
+            if (current.getKey().startsWith(TAG_PREFIX)) {
+                tag2ValueMap.put(current.getKey().substring(TAG_PREFIX.length()), current.getValue());
+            }
+        }
+
+        // All done.
+        return new JavaDocData(properties.get(COMMENT_KEY), tag2ValueMap);
+    }
+
+    private static void setIfNotNull(final Properties props, final String key, final String value) {
+        if (value != null) {
+            props.setProperty(key, value);
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.TreeMap;
 
 import com.thoughtworks.qdox.model.DocletTag;
 import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
+import org.codehaus.mojo.jaxb2.shared.Validate;
 
 /**
  * Simplified structure containing comments and tags read from a JavaDoc comment block.
@@ -78,6 +79,25 @@ public class JavaDocData {
         }
     }
 
+    /**
+     * Creates a JavaDocData with the supplied JavaDoc comment and already parsed tags, as previously retrieved
+     * from the {@link #getComment()} and {@link #getTag2ValueMap()} methods of another JavaDocData.
+     *
+     * @param comment      The actual comment in the JavaDoc. Null values are replaced with the value
+     *                     {@code NO_COMMENT}.
+     * @param tag2ValueMap A non-null Map relating the names of all JavaDoc tags to their value(s).
+     * @since 4.1.1
+     */
+    public JavaDocData(final String comment, final SortedMap<String, String> tag2ValueMap) {
+
+        // Check sanity
+        Validate.notNull(tag2ValueMap, "tag2ValueMap");
+
+        // Assign internal state
+        this.comment = comment == null ? NO_COMMENT : comment;
+        this.tag2ValueMap = new TreeMap<String, String>(tag2ValueMap);
+    }
+
     /**
      * Retrieves the comment/text in the JavaDoc structure, minus the names and values of any given JavaDoc tags.
      *
@@ -21,14 +21,25 @@ package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import com.thoughtworks.qdox.JavaProjectBuilder;
 import com.thoughtworks.qdox.model.JavaAnnotatedElement;
@@ -37,6 +48,7 @@ import com.thoughtworks.qdox.model.JavaClass;
 import com.thoughtworks.qdox.model.JavaField;
 import com.thoughtworks.qdox.model.JavaMethod;
 import com.thoughtworks.qdox.model.JavaPackage;
+import com.thoughtworks.qdox.model.JavaParameter;
 import com.thoughtworks.qdox.model.JavaSource;
 import jakarta.xml.bind.annotation.XmlAttribute;
 import jakarta.xml.bind.annotation.XmlElement;
@@ -57,6 +69,13 @@ import org.codehaus.mojo.jaxb2.shared.Validate;
  * XSD to increase usability and produce an XSD which does not loose out on important usage information.</p>
  * <p>The JavaDocExtractor is used as a post processor after creating the XSDs within the compilation
  * unit, and injects XSD annotations into the appropriate XSD elements or types.</p>
+ * <p>Source files may be parsed in parallel (as set by {@link #setParallelism(int)}), in which case the files are
+ * split into chunks which are parsed by separate JavaProjectBuilders within a ForkJoinPool. The JavaDoc of each
+ * chunk is harvested concurrently, and the results are merged in the order of the chunks - applying the same
+ * duplicate checks as when parsing sequentially.</p>
+ * <p>The JavaDoc harvested from source files may be cached between builds (as set by {@link #setCacheFile(File)}),
+ * in which case only source files whose content has changed since the cache was written are parsed. The JavaDoc
+ * of unchanged source files is read from the cache, and merged with the JavaDoc of the parsed source files.</p>
  *
  * @author <a href="mailto:lj@jguru.se">Lennart J&ouml;relid</a>, jGuru Europe AB
  * @since 2.0
@@ -69,9 +88,25 @@ public class JavaDocExtractor {
      */
     private static final String DEFAULT_VALUE = "##default";
 
+    /**
+     * The number of chunks created per thread when parsing source files in parallel, to even out the load
+     * between the threads when source files differ in size.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // Constants for parsing package-info files.
+    private static final String PACKAGE_INFO = "package-info.java";
+    private static final String PACKAGE_INFO_SUFFIX = ".package-info";
+    private static final String PACKAGE_INFO_PLACEHOLDER = "JavaDocExtractorPackageInfoPlaceholder";
+
     // Internal state
     private JavaProjectBuilder builder;
     private Log log;
+    private String encoding;
+    private int parallelism = 1;
+    private File cacheFile;
+    private List<File> deferredSourceFiles = new ArrayList<File>();
+    private List<JavaDocCache.Entry> harvested;
 
     /**
      * Creates a JavaDocExtractor wrapping the supplied Maven Log.
@@ -94,11 +129,37 @@ public class JavaDocExtractor {
      * @param encoding The non-empty encoding to be set into the underlying {@link JavaProjectBuilder}.
      */
     public void setEncoding(final String encoding) {
+        this.encoding = encoding;
         this.builder.setEncoding(encoding);
     }
 
     /**
-     * Adds the supplied sourceCodeFiles for processing by this JavaDocExtractor.
+     * Assigns the number of threads used to parse source files, which are parsed when first required. Values
+     * smaller than 2 imply that all source files are parsed sequentially by a single JavaProjectBuilder, which
+     * is the default.
+     *
+     * @param parallelism The maximum number of threads used to parse source files.
+     * @since 4.1.1
+     */
+    public void setParallelism(final int parallelism) {
+        this.parallelism = Math.max(parallelism, 1);
+    }
+
+    /**
+     * Assigns the file in which the JavaDoc harvested from source files is cached between builds. Only source
+     * files whose content differs from the cached content are parsed. The cache is invalidated when the QDox
+     * version or the encoding changes.
+     *
+     * @param cacheFile The file holding the JavaDoc cache, or {@code null} to disable caching (the default).
+     * @since 4.1.1
+     */
+    public void setCacheFile(final File cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Adds the supplied sourceCodeFiles for processing by this JavaDocExtractor. The source files are parsed
+     * when first required, i.e. by the {@link #getClassNames()} or {@link #process()} methods.
      *
      * @param sourceCodeFiles The non-null List of source code files to add.
      * @return This JavaDocExtractor, for call chaining.
@@ -109,20 +170,39 @@ public class JavaDocExtractor {
         // Check sanity
         Validate.notNull(sourceCodeFiles, "addSourceFiles");
 
-        // Add the files.
-        for (File current : sourceCodeFiles) {
-            try {
-                builder.addSource(current);
-            } catch (IOException e) {
-                throw new IllegalArgumentException(
-                        "Could not add file [" + FileSystemUtilities.getCanonicalPath(current) + "]", e);
-            }
-        }
+        // Defer parsing until the parsed sources are required.
+        deferredSourceFiles.addAll(sourceCodeFiles);
+        harvested = null;
 
         // All done.
         return this;
     }
 
+    /**
+     * <p>Retrieves the fully qualified names of the classes defined within each source file added to this
+     * JavaDocExtractor. Package-info files are mapped to the name of their package, suffixed with
+     * {@code ".package-info"}.</p>
+     * <p>Each source file is parsed (or read from the cache) only once, and the JavaDoc harvested from it is
+     * re-used by subsequent calls to {@link #process()}.</p>
+     *
+     * @return A Map relating each added source file to the names of the classes defined within it, in the order
+     * in which the source files were added.
+     * @throws IllegalArgumentException If any of the added source files could not be read properly.
+     * @since 4.1.1
+     */
+    public Map<File, SortedSet<String>> getClassNames() throws IllegalArgumentException {
+
+        final List<JavaDocCache.Entry> entries = getHarvested();
+        final Map<File, SortedSet<String>> toReturn = new LinkedHashMap<File, SortedSet<String>>();
+        for (int i = 0; i < entries.size(); i++) {
+            toReturn.put(
+                    deferredSourceFiles.get(i), Collections.unmodifiableSortedSet(entries.get(i).getClassNames()));
+        }
+
+        // All done.
+        return toReturn;
+    }
+
     /**
      * Adds the supplied sourceCodeFiles for processing by this JavaDocExtractor.
      *
@@ -161,161 +241,17 @@ public class JavaDocExtractor {
         final Collection<JavaSource> sources = builder.getSources();
 
         if (log.isInfoEnabled()) {
-            log.info("Processing [" + sources.size() + "] java sources.");
+            log.info("Processing [" + (sources.size() + deferredSourceFiles.size()) + "] java sources.");
         }
 
         for (JavaSource current : sources) {
+            addJavaDocs(dataHolder, current, null);
+        }
 
-            // Add the package-level JavaDoc
-            final JavaPackage currentPackage = current.getPackage();
-            final String packageName = currentPackage.getName();
-            addEntry(dataHolder, new PackageLocation(packageName), currentPackage);
-
-            if (log.isDebugEnabled()) {
-                log.debug("Added package-level JavaDoc for [" + packageName + "]");
-            }
-
-            for (JavaClass currentClass : current.getClasses()) {
-
-                // Add the class-level JavaDoc
-                final String simpleClassName = currentClass.getName();
-                final String classXmlName =
-                        getAnnotationAttributeValueFrom(XmlType.class, "name", currentClass.getAnnotations());
-
-                final ClassLocation classLocation = new ClassLocation(packageName, simpleClassName, classXmlName);
-                addEntry(dataHolder, classLocation, currentClass);
-
-                if (log.isDebugEnabled()) {
-                    log.debug("Added class-level JavaDoc for [" + classLocation + "]");
-                }
-
-                for (JavaField currentField : currentClass.getFields()) {
-
-                    final List<JavaAnnotation> currentFieldAnnotations = currentField.getAnnotations();
-                    String annotatedXmlName = null;
-
-                    //
-                    // Is this field a collection, annotated with @XmlElementWrapper?
-                    // If so, the documentation should pertain to the corresponding XML Sequence,
-                    // rather than the individual XML elements.
-                    //
-                    if (hasAnnotation(XmlElementWrapper.class, currentFieldAnnotations)) {
-
-                        // There are 2 cases here:
-                        //
-                        // 1: The XmlElementWrapper is named.
-                        // ==================================
-                        // @XmlElementWrapper(name = "foobar")
-                        // @XmlElement(name = "aString")
-                        // private List<String> strings;
-                        //
-                        // ==> annotatedXmlName == "foobar"
-                        //
-                        // 2: The XmlElementWrapper is not named.
-                        // ======================================
-                        // @XmlElementWrapper
-                        // @XmlElement(name = "anInteger")
-                        // private SortedSet<Integer> integerSet;
-                        //
-                        // ==> annotatedXmlName == "integerSet"
-                        //
-                        annotatedXmlName = getAnnotationAttributeValueFrom(
-                                XmlElementWrapper.class, "name", currentFieldAnnotations);
-
-                        if (annotatedXmlName == null || annotatedXmlName.equals(DEFAULT_VALUE)) {
-                            annotatedXmlName = currentField.getName();
-                        }
-                    }
-
-                    // Find the XML name if provided within an annotation.
-                    if (annotatedXmlName == null) {
-                        annotatedXmlName =
-                                getAnnotationAttributeValueFrom(XmlElement.class, "name", currentFieldAnnotations);
-                    }
-
-                    if (annotatedXmlName == null) {
-                        annotatedXmlName =
-                                getAnnotationAttributeValueFrom(XmlAttribute.class, "name", currentFieldAnnotations);
-                    }
-                    if (annotatedXmlName == null) {
-                        annotatedXmlName =
-                                getAnnotationAttributeValueFrom(XmlEnumValue.class, "value", currentFieldAnnotations);
-                    }
-
-                    // Add the field-level JavaDoc
-                    final FieldLocation fieldLocation = new FieldLocation(
-                            packageName, simpleClassName, classXmlName, currentField.getName(), annotatedXmlName);
-
-                    addEntry(dataHolder, fieldLocation, currentField);
-
-                    if (log.isDebugEnabled()) {
-                        log.debug("Added field-level JavaDoc for [" + fieldLocation + "]");
-                    }
-                }
-
-                for (JavaMethod currentMethod : currentClass.getMethods()) {
-
-                    final List<JavaAnnotation> currentMethodAnnotations = currentMethod.getAnnotations();
-                    String annotatedXmlName = null;
-
-                    //
-                    // Is this field a collection, annotated with @XmlElementWrapper?
-                    // If so, the documentation should pertain to the corresponding XML Sequence,
-                    // rather than the individual XML elements.
-                    //
-                    if (hasAnnotation(XmlElementWrapper.class, currentMethodAnnotations)) {
-
-                        // There are 2 cases here:
-                        //
-                        // 1: The XmlElementWrapper is named.
-                        // ==================================
-                        // @XmlElementWrapper(name = "foobar")
-                        // @XmlElement(name = "aString")
-                        // public List<String> getStrings() { ... };
-                        //
-                        // ==> annotatedXmlName == "foobar"
-                        //
-                        // 2: The XmlElementWrapper is not named.
-                        // ======================================
-                        // @XmlElementWrapper
-                        // @XmlElement(name = "anInteger")
-                        // public SortedSet<Integer> getIntegerSet() { ... };
-                        //
-                        // ==> annotatedXmlName == "getIntegerSet"
-                        //
-                        annotatedXmlName = getAnnotationAttributeValueFrom(
-                                XmlElementWrapper.class, "name", currentMethodAnnotations);
-
-                        if (annotatedXmlName == null || annotatedXmlName.equals(DEFAULT_VALUE)) {
-                            annotatedXmlName = currentMethod.getName();
-                        }
-                    }
-
-                    // Find the XML name if provided within an annotation.
-                    if (annotatedXmlName == null) {
-                        annotatedXmlName = getAnnotationAttributeValueFrom(
-                                XmlElement.class, "name", currentMethod.getAnnotations());
-                    }
-
-                    if (annotatedXmlName == null) {
-                        annotatedXmlName = getAnnotationAttributeValueFrom(
-                                XmlAttribute.class, "name", currentMethod.getAnnotations());
-                    }
-
-                    // Add the method-level JavaDoc
-                    final MethodLocation location = new MethodLocation(
-                            packageName,
-                            simpleClassName,
-                            classXmlName,
-                            currentMethod.getName(),
-                            annotatedXmlName,
-                            currentMethod.getParameters());
-                    addEntry(dataHolder, location, currentMethod);
-
-                    if (log.isDebugEnabled()) {
-                        log.debug("Added method-level JavaDoc for [" + location + "]");
-                    }
-                }
+        // Merge the JavaDoc harvested from all source files, in the order in which they were added.
+        for (JavaDocCache.Entry current : getHarvested()) {
+            for (Map.Entry<SortableLocation, JavaDocData> currentEntry : current.getJavaDocs().entrySet()) {
+                addEntry(dataHolder, currentEntry.getKey(), currentEntry.getValue(), JavaDocData.class.getName());
             }
         }
 
@@ -394,10 +330,468 @@ public class JavaDocExtractor {
     // Private helpers
     //
 
+    private synchronized List<JavaDocCache.Entry> getHarvested() {
+
+        // Parse and harvest all source files once.
+        if (harvested == null) {
+            harvested = cacheFile == null
+                    ? harvest(deferredSourceFiles, Collections.<String>emptySet())
+                    : harvestUsingCache();
+        }
+
+        // All done.
+        return harvested;
+    }
+
+    private List<JavaDocCache.Entry> harvestUsingCache() {
+
+        final JavaDocCache previous = JavaDocCache.read(cacheFile, encoding);
+        final JavaDocCache current = new JavaDocCache(encoding);
+
+        // Find the source files whose content has changed since the cache was written.
+        final List<String> paths = new ArrayList<String>();
+        final List<JavaDocCache.Entry> toReturn = new ArrayList<JavaDocCache.Entry>();
+        final List<File> changedFiles = new ArrayList<File>();
+        final Set<String> unchangedClassNames = new HashSet<String>();
+        for (File currentFile : deferredSourceFiles) {
+
+            final String path = FileSystemUtilities.getCanonicalPath(currentFile);
+            final JavaDocCache.Entry cached = previous == null ? null : getUnchanged(previous, path, currentFile);
+            if (cached == null) {
+                changedFiles.add(currentFile);
+            } else {
+                unchangedClassNames.addAll(cached.getClassNames());
+            }
+
+            paths.add(path);
+            toReturn.add(cached);
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("Re-using cached JavaDoc for [" + (deferredSourceFiles.size() - changedFiles.size()) + "] of ["
+                    + deferredSourceFiles.size() + "] java sources.");
+        }
+
+        // Parameter types of the parsed source files are resolved against the classes of the unchanged ones.
+        // The parameter types of the cached entries remain valid, since their (unchanged) source files can only
+        // refer to classes which existed when they were harvested.
+        final List<JavaDocCache.Entry> harvested = harvest(changedFiles, unchangedClassNames);
+
+        // Insert the harvested entries, and record all entries within the cache.
+        int harvestedIndex = 0;
+        for (int i = 0; i < toReturn.size(); i++) {
+
+            final File currentFile = deferredSourceFiles.get(i);
+            if (toReturn.get(i) == null) {
+                try {
+                    toReturn.set(i, harvested.get(harvestedIndex++).setSource(currentFile));
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Could not read file [" + paths.get(i) + "]", e);
+                }
+            }
+
+            current.put(paths.get(i), toReturn.get(i));
+        }
+
+        try {
+            current.write(cacheFile);
+        } catch (IOException e) {
+            if (log.isWarnEnabled()) {
+                log.warn("Could not write JavaDoc cache [" + FileSystemUtilities.getCanonicalPath(cacheFile) + "]: "
+                        + e.getMessage());
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private List<JavaDocCache.Entry> harvest(final List<File> sourceFiles, final Set<String> additionalClassNames) {
+
+        if (sourceFiles.isEmpty()) {
+            return new ArrayList<JavaDocCache.Entry>();
+        }
+
+        // Split the source files into chunks of roughly equal size, retaining their order.
+        final int numFiles = sourceFiles.size();
+        final int numChunks = parallelism == 1 ? 1 : Math.min(parallelism * CHUNKS_PER_THREAD, numFiles);
+        final List<List<File>> chunks = new ArrayList<List<File>>();
+        for (int i = 0; i < numChunks; i++) {
+            chunks.add(sourceFiles.subList(i * numFiles / numChunks, (i + 1) * numFiles / numChunks));
+        }
+
+        if (parallelism > 1 && log.isDebugEnabled()) {
+            log.debug("Parsing [" + numFiles + "] java sources in " + numChunks + " chunks using " + parallelism
+                    + " threads.");
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+
+            // Parse each chunk using a separate JavaProjectBuilder, since JavaProjectBuilders are not thread-safe.
+            final List<Callable<List<JavaSource>>> parseTasks = new ArrayList<Callable<List<JavaSource>>>();
+            for (final List<File> current : chunks) {
+                parseTasks.add(new Callable<List<JavaSource>>() {
+                    @Override
+                    public List<JavaSource> call() {
+
+                        final JavaProjectBuilder chunkBuilder = new JavaProjectBuilder();
+                        if (encoding != null) {
+                            chunkBuilder.setEncoding(encoding);
+                        }
+
+                        final List<JavaSource> toReturn = new ArrayList<JavaSource>();
+                        for (File currentFile : current) {
+                            try {
+                                toReturn.add(
+                                        isPackageInfo(currentFile)
+                                                ? parsePackageInfo(currentFile)
+                                                : chunkBuilder.addSource(currentFile));
+                            } catch (IOException e) {
+                                throw new IllegalArgumentException(
+                                        "Could not add file [" + FileSystemUtilities.getCanonicalPath(currentFile)
+                                                + "]",
+                                        e);
+                            }
+                        }
+                        return toReturn;
+                    }
+                });
+            }
+            final List<List<JavaSource>> parsedChunks = getAll(pool.invokeAll(parseTasks));
+
+            // A JavaProjectBuilder cannot resolve types defined in the sources of other chunks.
+            // Collect the names of all known classes, to resolve such types when harvesting JavaDoc.
+            final Set<String> knownClassNames = new HashSet<String>(additionalClassNames);
+            for (List<JavaSource> current : parsedChunks) {
+                for (JavaSource currentSource : current) {
+                    if (!isPackageInfo(currentSource)) {
+                        for (JavaClass currentClass : currentSource.getClasses()) {
+                            addClassNames(knownClassNames, currentClass);
+                        }
+                    }
+                }
+            }
+
+            // Harvest the JavaDoc of each source file, in the order of the source files.
+            final List<Callable<List<JavaDocCache.Entry>>> harvestTasks =
+                    new ArrayList<Callable<List<JavaDocCache.Entry>>>();
+            for (final List<JavaSource> current : parsedChunks) {
+                harvestTasks.add(new Callable<List<JavaDocCache.Entry>>() {
+                    @Override
+                    public List<JavaDocCache.Entry> call() {
+
+                        final List<JavaDocCache.Entry> toReturn = new ArrayList<JavaDocCache.Entry>();
+                        for (JavaSource currentSource : current) {
+
+                            // Package-info files yield no JavaDoc, as the package-level JavaDoc of each
+                            // JavaSource is read from the JavaSource itself.
+                            final JavaDocCache.Entry entry = new JavaDocCache.Entry();
+                            if (isPackageInfo(currentSource)) {
+                                entry.getClassNames().add(currentSource.getPackageName() + PACKAGE_INFO_SUFFIX);
+                            } else {
+                                for (JavaClass currentClass : currentSource.getClasses()) {
+                                    addClassNames(entry.getClassNames(), currentClass);
+                                }
+                                addJavaDocs(entry.getJavaDocs(), currentSource, knownClassNames);
+                            }
+                            toReturn.add(entry);
+                        }
+                        return toReturn;
+                    }
+                });
+            }
+
+            final List<JavaDocCache.Entry> toReturn = new ArrayList<JavaDocCache.Entry>();
+            for (List<JavaDocCache.Entry> current : getAll(pool.invokeAll(harvestTasks))) {
+                toReturn.addAll(current);
+            }
+
+            // All done.
+            return toReturn;
+
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private JavaSource parsePackageInfo(final File packageInfo) throws IOException {
+
+        // QDox does not register the package of a source file without type declarations.
+        // Parse the content of the package-info file followed by a placeholder type declaration.
+        final Charset charset = encoding == null ? Charset.defaultCharset() : Charset.forName(encoding);
+        final String content = new String(Files.readAllBytes(packageInfo.toPath()), charset);
+
+        // All done.
+        return new JavaProjectBuilder()
+                .addSource(new StringReader(content + "\nclass " + PACKAGE_INFO_PLACEHOLDER + " {}\n"));
+    }
+
+    private static boolean isPackageInfo(final File sourceFile) {
+        return PACKAGE_INFO.equals(sourceFile.getName());
+    }
+
+    private static boolean isPackageInfo(final JavaSource source) {
+
+        final List<JavaClass> classes = source.getClasses();
+        return classes.size() == 1 && PACKAGE_INFO_PLACEHOLDER.equals(classes.get(0).getName());
+    }
+
+    private static JavaDocCache.Entry getUnchanged(
+            final JavaDocCache cache, final String path, final File sourceFile) {
+        try {
+            return cache.getUnchanged(path, sourceFile);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read file [" + path + "]", e);
+        }
+    }
+
+    private static <T> List<T> getAll(final List<Future<T>> futures) {
+
+        final List<T> toReturn = new ArrayList<T>();
+        for (Future<T> current : futures) {
+            try {
+                toReturn.add(current.get());
+            } catch (ExecutionException e) {
+
+                // Rethrow the original exception, as thrown when parsing sequentially.
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Could not process java sources", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while processing java sources", e);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static void addClassNames(final Set<String> toPopulate, final JavaClass aClass) {
+
+        toPopulate.add(aClass.getFullyQualifiedName());
+        for (JavaClass current : aClass.getNestedClasses()) {
+            addClassNames(toPopulate, current);
+        }
+    }
+
+    private static String[] getParameterTypeNames(
+            final JavaSource source, final List<JavaParameter> parameters, final Set<String> knownClassNames) {
+
+        final String[] toReturn = new String[parameters.size()];
+        for (int i = 0; i < toReturn.length; i++) {
+
+            final String typeName = parameters.get(i).getType().getFullyQualifiedName();
+            toReturn[i] = knownClassNames == null ? typeName : resolveTypeName(source, typeName, knownClassNames);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static String resolveTypeName(
+            final JavaSource source, final String typeName, final Set<String> knownClassNames) {
+
+        // Types which could not be resolved retain the name used within the source code.
+        final int arrayIndex = typeName.indexOf('[');
+        final String baseName = arrayIndex < 0 ? typeName : typeName.substring(0, arrayIndex);
+        if (knownClassNames.contains(baseName)) {
+            return typeName;
+        }
+
+        // Resolve in the same order as QDox: first within the same package, then within wildcard imports.
+        final List<String> candidatePrefixes = new ArrayList<String>();
+        final String packageName = source.getPackageName();
+        candidatePrefixes.add(packageName == null || packageName.isEmpty() ? "" : packageName + ".");
+        for (String current : source.getImports()) {
+            if (current.endsWith(".*")) {
+                candidatePrefixes.add(current.substring(0, current.length() - 1));
+            }
+        }
+
+        for (String current : candidatePrefixes) {
+            if (knownClassNames.contains(current + baseName)) {
+                return current + typeName;
+            }
+        }
+
+        // Not a type defined within the parsed sources.
+        return typeName;
+    }
+
+    private void addJavaDocs(
+            final SortedMap<SortableLocation, JavaDocData> dataHolder,
+            final JavaSource current,
+            final Set<String> knownClassNames) {
+
+
+        // Add the package-level JavaDoc
+        final JavaPackage currentPackage = current.getPackage();
+        final String packageName = currentPackage.getName();
+        addEntry(dataHolder, new PackageLocation(packageName), currentPackage);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Added package-level JavaDoc for [" + packageName + "]");
+        }
+
+        for (JavaClass currentClass : current.getClasses()) {
+
+            // Add the class-level JavaDoc
+            final String simpleClassName = currentClass.getName();
+            final String classXmlName =
+                    getAnnotationAttributeValueFrom(XmlType.class, "name", currentClass.getAnnotations());
+
+            final ClassLocation classLocation = new ClassLocation(packageName, simpleClassName, classXmlName);
+            addEntry(dataHolder, classLocation, currentClass);
+
+            if (log.isDebugEnabled()) {
+                log.debug("Added class-level JavaDoc for [" + classLocation + "]");
+            }
+
+            for (JavaField currentField : currentClass.getFields()) {
+
+                final List<JavaAnnotation> currentFieldAnnotations = currentField.getAnnotations();
+                String annotatedXmlName = null;
+
+                //
+                // Is this field a collection, annotated with @XmlElementWrapper?
+                // If so, the documentation should pertain to the corresponding XML Sequence,
+                // rather than the individual XML elements.
+                //
+                if (hasAnnotation(XmlElementWrapper.class, currentFieldAnnotations)) {
+
+                    // There are 2 cases here:
+                    //
+                    // 1: The XmlElementWrapper is named.
+                    // ==================================
+                    // @XmlElementWrapper(name = "foobar")
+                    // @XmlElement(name = "aString")
+                    // private List<String> strings;
+                    //
+                    // ==> annotatedXmlName == "foobar"
+                    //
+                    // 2: The XmlElementWrapper is not named.
+                    // ======================================
+                    // @XmlElementWrapper
+                    // @XmlElement(name = "anInteger")
+                    // private SortedSet<Integer> integerSet;
+                    //
+                    // ==> annotatedXmlName == "integerSet"
+                    //
+                    annotatedXmlName = getAnnotationAttributeValueFrom(
+                            XmlElementWrapper.class, "name", currentFieldAnnotations);
+
+                    if (annotatedXmlName == null || annotatedXmlName.equals(DEFAULT_VALUE)) {
+                        annotatedXmlName = currentField.getName();
+                    }
+                }
+
+                // Find the XML name if provided within an annotation.
+                if (annotatedXmlName == null) {
+                    annotatedXmlName =
+                            getAnnotationAttributeValueFrom(XmlElement.class, "name", currentFieldAnnotations);
+                }
+
+                if (annotatedXmlName == null) {
+                    annotatedXmlName =
+                            getAnnotationAttributeValueFrom(XmlAttribute.class, "name", currentFieldAnnotations);
+                }
+                if (annotatedXmlName == null) {
+                    annotatedXmlName =
+                            getAnnotationAttributeValueFrom(XmlEnumValue.class, "value", currentFieldAnnotations);
+                }
+
+                // Add the field-level JavaDoc
+                final FieldLocation fieldLocation = new FieldLocation(
+                        packageName, simpleClassName, classXmlName, currentField.getName(), annotatedXmlName);
+
+                addEntry(dataHolder, fieldLocation, currentField);
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Added field-level JavaDoc for [" + fieldLocation + "]");
+                }
+            }
+
+            for (JavaMethod currentMethod : currentClass.getMethods()) {
+
+                final List<JavaAnnotation> currentMethodAnnotations = currentMethod.getAnnotations();
+                String annotatedXmlName = null;
+
+                //
+                // Is this field a collection, annotated with @XmlElementWrapper?
+                // If so, the documentation should pertain to the corresponding XML Sequence,
+                // rather than the individual XML elements.
+                //
+                if (hasAnnotation(XmlElementWrapper.class, currentMethodAnnotations)) {
+
+                    // There are 2 cases here:
+                    //
+                    // 1: The XmlElementWrapper is named.
+                    // ==================================
+                    // @XmlElementWrapper(name = "foobar")
+                    // @XmlElement(name = "aString")
+                    // public List<String> getStrings() { ... };
+                    //
+                    // ==> annotatedXmlName == "foobar"
+                    //
+                    // 2: The XmlElementWrapper is not named.
+                    // ======================================
+                    // @XmlElementWrapper
+                    // @XmlElement(name = "anInteger")
+                    // public SortedSet<Integer> getIntegerSet() { ... };
+                    //
+                    // ==> annotatedXmlName == "getIntegerSet"
+                    //
+                    annotatedXmlName = getAnnotationAttributeValueFrom(
+                            XmlElementWrapper.class, "name", currentMethodAnnotations);
+
+                    if (annotatedXmlName == null || annotatedXmlName.equals(DEFAULT_VALUE)) {
+                        annotatedXmlName = currentMethod.getName();
+                    }
+                }
+
+                // Find the XML name if provided within an annotation.
+                if (annotatedXmlName == null) {
+                    annotatedXmlName = getAnnotationAttributeValueFrom(
+                            XmlElement.class, "name", currentMethod.getAnnotations());
+                }
+
+                if (annotatedXmlName == null) {
+                    annotatedXmlName = getAnnotationAttributeValueFrom(
+                            XmlAttribute.class, "name", currentMethod.getAnnotations());
+                }
+
+                // Add the method-level JavaDoc
+                final MethodLocation location = new MethodLocation(
+                        packageName,
+                        simpleClassName,
+                        classXmlName,
+                        currentMethod.getName(),
+                        annotatedXmlName,
+                        getParameterTypeNames(current, currentMethod.getParameters(), knownClassNames));
+                addEntry(dataHolder, location, currentMethod);
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Added method-level JavaDoc for [" + location + "]");
+                }
+            }
+        }
+    }
+
     private void addEntry(
             final SortedMap<SortableLocation, JavaDocData> map,
             final SortableLocation key,
             final JavaAnnotatedElement value) {
+        addEntry(map, key, new JavaDocData(value.getComment(), value.getTags()), value.getClass().getName());
+    }
+
+    private void addEntry(
+            final SortedMap<SortableLocation, JavaDocData> map,
+            final SortableLocation key,
+            final JavaDocData value,
+            final String valueType) {
 
         // Check sanity
         if (map.containsKey(key)) {
@@ -410,8 +804,7 @@ public class JavaDocExtractor {
 
                 final boolean emptyExisting =
                         existing.getComment() == null || existing.getComment().isEmpty();
-                final boolean emptyGiven =
-                        value.getComment() == null || value.getComment().isEmpty();
+                final boolean emptyGiven = value.getComment().isEmpty();
 
                 if (emptyGiven) {
                     if (log.isDebugEnabled()) {
@@ -422,7 +815,7 @@ public class JavaDocExtractor {
                     log.warn("Overwriting empty Package javadoc from [" + key + "]");
                 }
             } else {
-                final String given = "[" + value.getClass().getName() + "]: " + value.getComment();
+                final String given = "[" + valueType + "]: " + value.getComment();
                 throw new IllegalArgumentException("Not processing duplicate SortableLocation [" + key + "]. "
                         + "\n Existing: " + existing
                         + ".\n Given: [" + given + "]");
@@ -432,7 +825,7 @@ public class JavaDocExtractor {
         // Validate.isTrue(!map.containsKey(key), "Found duplicate SortableLocation [" + key + "] in map. "
         //         + "Current map keySet: " + map.keySet() + ". Got comment: [" + value.getComment() + "]");
 
-        map.put(key, new JavaDocData(value.getComment(), value.getTags()));
+        map.put(key, value);
     }
 
     /**
@@ -443,6 +836,7 @@ public class JavaDocExtractor {
         // Internal state
         private TreeMap<String, SortableLocation> keyMap;
         private SortedMap<? extends SortableLocation, JavaDocData> valueMap;
+        private JavaDocLocationIndex locationIndex;
 
         ReadOnlySearchableDocumentation(final SortedMap<SortableLocation, JavaDocData> valueMap) {
 
@@ -523,5 +917,20 @@ public class JavaDocExtractor {
             // All done.
             return toReturn;
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public synchronized JavaDocLocationIndex getLocationIndex() {
+
+            // Create the index lazily, as it is only required when annotating generated XSDs.
+            if (locationIndex == null) {
+                locationIndex = new JavaDocLocationIndex(this);
+            }
+
+            // All done.
+            return locationIndex;
+        }
     }
 }
@@ -0,0 +1,154 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.ClassLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.FieldLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.MethodLocation;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Hash index over the Class-, Field- and MethodLocations of a {@link SearchableDocumentation}, keyed by the
+ * XML names under which the corresponding types and members are emitted in generated XSDs. XML names are
+ * matched case-insensitively, as done by the {@link DomHelper} lookup methods which iterate over all known
+ * locations; the index yields the same matches in constant time per XSD node.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class JavaDocLocationIndex {
+
+    // Constants; XML names cannot contain the KEY_SEPARATOR.
+    private static final char KEY_SEPARATOR = '#';
+
+    // Internal state
+    private final SortedMap<SortableLocation, JavaDocData> javaDocs;
+    private final Map<String, ClassLocation> classLocations = new HashMap<String, ClassLocation>();
+    private final Map<String, FieldLocation> fieldLocations = new HashMap<String, FieldLocation>();
+    private final Map<String, MethodLocation> methodLocations = new HashMap<String, MethodLocation>();
+
+    /**
+     * Creates a JavaDocLocationIndex for the locations within the supplied SearchableDocumentation.
+     *
+     * @param docs A non-null SearchableDocumentation, produced from the source code of the JAXB compilation unit.
+     */
+    public JavaDocLocationIndex(final SearchableDocumentation docs) {
+
+        // Check sanity
+        Validate.notNull(docs, "docs");
+
+        // Assign internal state
+        this.javaDocs = docs.getAll();
+
+        // The first matching ClassLocation wins, whereas the last matching Field- or MethodLocation wins.
+        // This is the order in which the DomHelper lookups select between ambiguous matches.
+        for (ClassLocation current : docs.getAll(ClassLocation.class).keySet()) {
+            classLocations.putIfAbsent(toKey(getEffectiveClassName(current)), current);
+        }
+        for (FieldLocation current : docs.getAll(FieldLocation.class).keySet()) {
+            fieldLocations.put(toKey(current), current);
+        }
+        for (MethodLocation current : docs.getAll(MethodLocation.class).keySet()) {
+            methodLocations.put(toKey(current), current);
+        }
+    }
+
+    /**
+     * Retrieves the ClassLocation of the type emitted under the supplied XML name.
+     *
+     * @param classXmlName The value of the "name" attribute of an XSD complexType or simpleType.
+     * @return The ClassLocation matching the supplied XML name, or {@code null} if there is none.
+     */
+    public ClassLocation getClassLocation(final String classXmlName) {
+        return classXmlName == null ? null : classLocations.get(toKey(classXmlName));
+    }
+
+    /**
+     * Retrieves the FieldLocation of the member emitted under the supplied XML names.
+     *
+     * @param classXmlName  The value of the "name" attribute of the complexType or simpleType containing the member.
+     * @param memberXmlName The value of the "name" (or, for enumerations, "value") attribute of the member.
+     * @return The FieldLocation matching the supplied XML names, or {@code null} if there is none.
+     */
+    public FieldLocation getFieldLocation(final String classXmlName, final String memberXmlName) {
+        return classXmlName == null || memberXmlName == null
+                ? null
+                : fieldLocations.get(toKey(classXmlName, memberXmlName));
+    }
+
+    /**
+     * Retrieves the MethodLocation of the member emitted under the supplied XML names.
+     *
+     * @param classXmlName  The value of the "name" attribute of the complexType or simpleType containing the member.
+     * @param memberXmlName The value of the "name" attribute of the member.
+     * @return The MethodLocation matching the supplied XML names, or {@code null} if there is none.
+     */
+    public MethodLocation getMethodLocation(final String classXmlName, final String memberXmlName) {
+        return classXmlName == null || memberXmlName == null
+                ? null
+                : methodLocations.get(toKey(classXmlName, memberXmlName));
+    }
+
+    /**
+     * Retrieves the JavaDocData harvested for the supplied SortableLocation.
+     *
+     * @param location A SortableLocation, typically retrieved from this JavaDocLocationIndex.
+     * @return The JavaDocData for the supplied SortableLocation, or {@code null} if there is none.
+     */
+    public JavaDocData getJavaDoc(final SortableLocation location) {
+        return location == null ? null : javaDocs.get(location);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static String getEffectiveClassName(final ClassLocation location) {
+
+        // Issue #25: Handle XML Type renaming.
+        return location.getAnnotationRenamedTo() == null
+                ? location.getClassName()
+                : location.getAnnotationRenamedTo();
+    }
+
+    private static String toKey(final FieldLocation location) {
+
+        // Issue #25: Handle XML Type renaming.
+        final String memberName = location.getAnnotationRenamedTo() == null
+                ? location.getMemberName()
+                : location.getAnnotationRenamedTo();
+        return toKey(location.getClassName(), memberName);
+    }
+
+    private static String toKey(final String classXmlName, final String memberXmlName) {
+        return toKey(classXmlName) + KEY_SEPARATOR + toKey(memberXmlName);
+    }
+
+    private static String toKey(final String xmlName) {
+
+        // Use a fixed Locale, since the LocaleFacet may alter the default Locale during execution.
+        return xmlName.toLowerCase(Locale.ROOT);
+    }
+}
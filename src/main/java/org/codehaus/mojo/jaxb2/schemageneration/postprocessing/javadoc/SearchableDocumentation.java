@@ -78,4 +78,17 @@ public interface SearchableDocumentation {
      * May return empty Maps, but never {@code null}.
      */
     <T extends SortableLocation> SortedMap<T, JavaDocData> getAll(Class<T> type);
+
+    /**
+     * Retrieves a JavaDocLocationIndex over the Class-, Field- and MethodLocations within this
+     * SearchableDocumentation, to match XSD nodes to their JavaDocData without scanning all locations.
+     * The default implementation creates a new JavaDocLocationIndex for each invocation; implementations
+     * are encouraged to create the index once and return it from subsequent invocations.
+     *
+     * @return A JavaDocLocationIndex over the locations within this SearchableDocumentation. Never null.
+     * @since 4.1.1
+     */
+    default JavaDocLocationIndex getLocationIndex() {
+        return new JavaDocLocationIndex(this);
+    }
 }
@@ -19,12 +19,7 @@ package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
  * under the License.
  */
 
-import java.util.SortedMap;
-
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.NodeProcessor;
-import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.ClassLocation;
-import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.FieldLocation;
-import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.MethodLocation;
 import org.codehaus.mojo.jaxb2.shared.Validate;
 import org.w3c.dom.Node;
 
@@ -93,10 +88,10 @@ import org.w3c.dom.Node;
 public class XsdAnnotationProcessor implements NodeProcessor {
 
     // Internal state
-    private SortedMap<ClassLocation, JavaDocData> classJavaDocs;
-    private SortedMap<FieldLocation, JavaDocData> fieldJavaDocs;
-    private SortedMap<MethodLocation, JavaDocData> methodJavaDocs;
+    private JavaDocLocationIndex index;
     private JavaDocRenderer renderer;
+    private Node acceptedNode;
+    private SortableLocation acceptedLocation;
 
     /**
      * Creates an XsdAnnotationProcessor that uses the supplied/generated SearchableDocumentation to read all
@@ -112,9 +107,7 @@ public class XsdAnnotationProcessor implements NodeProcessor {
         Validate.notNull(renderer, "renderer");
 
         // Assign internal state
-        this.classJavaDocs = docs.getAll(ClassLocation.class);
-        this.fieldJavaDocs = docs.getAll(FieldLocation.class);
-        this.methodJavaDocs = docs.getAll(MethodLocation.class);
+        this.index = docs.getLocationIndex();
         this.renderer = renderer;
     }
 
@@ -150,17 +143,12 @@ public class XsdAnnotationProcessor implements NodeProcessor {
         // Only process nodes corresponding to Types we have any JavaDoc for.
         // TODO: How should we handle PackageLocations and package documentation?
 
-        boolean toReturn = false;
-        if (DomHelper.getMethodLocation(aNode, methodJavaDocs.keySet()) != null) {
-            toReturn = true;
-        } else if (DomHelper.getFieldLocation(aNode, fieldJavaDocs.keySet()) != null) {
-            toReturn = true;
-        } else if (DomHelper.getClassLocation(aNode, classJavaDocs.keySet()) != null) {
-            toReturn = true;
-        }
+        // Remember the matched location, to avoid matching the Node once more when processing it.
+        acceptedNode = aNode;
+        acceptedLocation = DomHelper.getJavaDocLocation(aNode, index);
 
         // All done.
-        return toReturn;
+        return acceptedLocation != null;
     }
 
     /**
@@ -168,6 +156,9 @@ public class XsdAnnotationProcessor implements NodeProcessor {
      */
     @Override
     public void process(final Node aNode) {
-        DomHelper.insertXmlDocumentationAnnotationsFor(aNode, classJavaDocs, fieldJavaDocs, methodJavaDocs, renderer);
+
+        final SortableLocation location =
+                aNode == acceptedNode ? acceptedLocation : DomHelper.getJavaDocLocation(aNode, index);
+        DomHelper.insertXmlDocumentationAnnotationsFor(aNode, location, index.getJavaDoc(location), renderer);
     }
 }
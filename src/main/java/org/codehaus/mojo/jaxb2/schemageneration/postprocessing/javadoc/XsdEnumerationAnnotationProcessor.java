@@ -1,11 +1,6 @@
 package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
 
-import java.util.SortedMap;
-
 import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.NodeProcessor;
-import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.ClassLocation;
-import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.FieldLocation;
-import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.MethodLocation;
 import org.codehaus.mojo.jaxb2.shared.Validate;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -71,9 +66,7 @@ import org.w3c.dom.Node;
 public class XsdEnumerationAnnotationProcessor implements NodeProcessor {
 
     // Internal state
-    private SortedMap<ClassLocation, JavaDocData> classJavaDocs;
-    private SortedMap<FieldLocation, JavaDocData> fieldJavaDocs;
-    private SortedMap<MethodLocation, JavaDocData> methodJavaDocs;
+    private JavaDocLocationIndex index;
     private JavaDocRenderer renderer;
 
     /**
@@ -90,9 +83,7 @@ public class XsdEnumerationAnnotationProcessor implements NodeProcessor {
         Validate.notNull(renderer, "renderer");
 
         // Assign internal state
-        this.classJavaDocs = docs.getAll(ClassLocation.class);
-        this.fieldJavaDocs = docs.getAll(FieldLocation.class);
-        this.methodJavaDocs = docs.getAll(MethodLocation.class);
+        this.index = docs.getLocationIndex();
         this.renderer = renderer;
     }
 
@@ -171,6 +162,8 @@ public class XsdEnumerationAnnotationProcessor implements NodeProcessor {
      */
     @Override
     public void process(final Node aNode) {
-        DomHelper.insertXmlDocumentationAnnotationsFor(aNode, classJavaDocs, fieldJavaDocs, methodJavaDocs, renderer);
+
+        final SortableLocation location = DomHelper.getJavaDocLocation(aNode, index);
+        DomHelper.insertXmlDocumentationAnnotationsFor(aNode, location, index.getJavaDoc(location), renderer);
     }
 }
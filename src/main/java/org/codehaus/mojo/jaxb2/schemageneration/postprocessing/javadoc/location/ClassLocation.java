@@ -65,6 +65,26 @@ public class ClassLocation extends PackageLocation {
         return classXmlName == null ? className : classXmlName;
     }
 
+    /**
+     * Retrieves the simple name of the class, as declared within the source code.
+     *
+     * @return The simple class name, disregarding any {@link XmlType#name()} rename. Never {@code null} or empty.
+     * @since 4.1.1
+     */
+    public String getDeclaredClassName() {
+        return className;
+    }
+
+    /**
+     * Retrieves the name given as the {@link XmlType#name()} value of an annotation placed on the class.
+     *
+     * @return The XML name of the class, or {@code null} if none was provided.
+     * @since 4.1.1
+     */
+    public String getClassXmlName() {
+        return classXmlName;
+    }
+
     /**
      * Always appends the <strong>effective className</strong> to the path from the superclass {@link PackageLocation}.
      * If the {@link #getAnnotationRenamedTo()} method returns a non-null value, that value is the effective className.
@@ -75,6 +75,26 @@ public class FieldLocation extends ClassLocation {
         return memberXmlName == null ? memberName : memberXmlName;
     }
 
+    /**
+     * Retrieves the name of the member, as declared within the source code.
+     *
+     * @return The member name, disregarding any rename given within an annotation. Never {@code null} or empty.
+     * @since 4.1.1
+     */
+    public String getDeclaredMemberName() {
+        return memberName;
+    }
+
+    /**
+     * Retrieves the name given to the member within an annotation, such as {@link XmlElement#name()}.
+     *
+     * @return The XML name of the member, or {@code null} if none was provided.
+     * @since 4.1.1
+     */
+    public String getMemberXmlName() {
+        return memberXmlName;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -68,19 +68,40 @@ public class MethodLocation extends FieldLocation {
             final String memberXmlName,
             final List<JavaParameter> parameters) {
 
+        this(packageName, className, classXmlName, memberName, memberXmlName, getTypeNames(parameters));
+    }
+
+    /**
+     * Creates a new MethodLocation with the supplied package, class and member names, as well as the fully
+     * qualified names of the types of the method parameters.
+     *
+     * @param packageName        The name of the package for a class potentially holding JavaDoc.
+     *                           Cannot be {@code null}.
+     * @param className          The (simple) name of a class. Cannot be null or empty.
+     * @param classXmlName       The name given as the {@link XmlType#name()} value of an annotation placed on the
+     *                           Class, or {@code  null} if none is provided.
+     * @param memberName         The name of a (method or) field. Cannot be null or empty.
+     * @param memberXmlName      The name given as the {@link XmlElement#name()} or {@link XmlAttribute#name()}
+     *                           value of an annotation placed on this Field, or {@code null} if none is provided.
+     * @param parameterTypeNames The fully qualified names of the types which are parameters to this method.
+     * @since 4.1.1
+     */
+    public MethodLocation(
+            final String packageName,
+            final String className,
+            final String classXmlName,
+            final String memberName,
+            final String memberXmlName,
+            final String[] parameterTypeNames) {
+
         super(packageName, className, classXmlName, memberName, memberXmlName);
 
         // Check sanity
-        Validate.notNull(parameters, "parameters");
+        Validate.notNull(parameterTypeNames, "parameterTypeNames");
 
         // Stringify the parameter types
-        if (parameters.size() > 0) {
-            final StringBuilder builder = new StringBuilder();
-
-            for (JavaParameter current : parameters) {
-                builder.append(current.getType().getFullyQualifiedName()).append(PARAMETER_SEPARATOR);
-            }
-            this.parameters = "(" + builder.substring(0, builder.lastIndexOf(PARAMETER_SEPARATOR)) + ")";
+        if (parameterTypeNames.length > 0) {
+            this.parameters = "(" + String.join(PARAMETER_SEPARATOR, parameterTypeNames) + ")";
         }
     }
 
@@ -121,4 +142,22 @@ public class MethodLocation extends FieldLocation {
     public boolean hasNoParameters() {
         return NO_PARAMETERS.equals(parameters);
     }
+
+    //
+    // Private helpers
+    //
+
+    private static String[] getTypeNames(final List<JavaParameter> parameters) {
+
+        // Check sanity
+        Validate.notNull(parameters, "parameters");
+
+        final String[] toReturn = new String[parameters.size()];
+        for (int i = 0; i < toReturn.length; i++) {
+            toReturn[i] = parameters.get(i).getType().getFullyQualifiedName();
+        }
+
+        // All done.
+        return toReturn;
+    }
 }
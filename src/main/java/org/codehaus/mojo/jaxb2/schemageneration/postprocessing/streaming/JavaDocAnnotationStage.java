@@ -0,0 +1,204 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.DomHelper;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocData;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocLocationIndex;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocRenderer;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SearchableDocumentation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SortableLocation;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Streaming counterpart of the {@code XsdAnnotationProcessor}, which injects XSD documentation annotations
+ * holding JavaDoc harvested from Java source code into ComplexTypes, SimpleTypes, Elements and Attributes.
+ * The annotation is emitted as the first child of the documented XSD element, using the same matching rules as
+ * the {@code XsdAnnotationProcessor}. The names of the enclosing types are tracked on a stack as the elements
+ * stream by, implying that the memory used is proportional to the nesting depth of the XSD only.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.XsdAnnotationProcessor
+ * @since 4.1.1
+ */
+public class JavaDocAnnotationStage extends XsdEventStage {
+
+    // Constants
+    private static final QName NAME_ATTRIBUTE = new QName("name");
+    private static final String INDENTATION = "  ";
+    private static final String CDATA_END = "]]>";
+    private static final String NEWLINE = "\n";
+
+    // Internal state
+    private final JavaDocLocationIndex index;
+    private final JavaDocRenderer renderer;
+    private final List<String> containingClassNames = new ArrayList<String>();
+    private String currentIndentation = "";
+    private String pendingEndIndentation;
+
+    /**
+     * Creates a JavaDocAnnotationStage using the supplied JavaDocLocationIndex (typically acquired from a
+     * {@link SearchableDocumentation}) and the supplied JavaDocRenderer to render JavaDocs into XSD
+     * documentation annotations. The JavaDocLocationIndex is only read, and may hence be shared between the
+     * stages processing several XSDs.
+     *
+     * @param index    A non-null JavaDocLocationIndex, used to find the JavaDocData of each XSD element.
+     * @param renderer A non-null JavaDocRenderer, used to render the JavaDocData.
+     */
+    public JavaDocAnnotationStage(final JavaDocLocationIndex index, final JavaDocRenderer renderer) {
+
+        // Check sanity
+        Validate.notNull(index, "index");
+        Validate.notNull(renderer, "renderer");
+
+        // Assign internal state
+        this.index = index;
+        this.renderer = renderer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final XMLEvent event) throws XMLStreamException {
+
+        // Was an annotation injected into an element which turned out to be empty?
+        if (pendingEndIndentation != null) {
+            if (event.isEndElement()) {
+                emit(eventFactory.createSpace(NEWLINE + pendingEndIndentation));
+            }
+            pendingEndIndentation = null;
+        }
+
+        if (event.isCharacters()) {
+
+            // Remember the indentation of the next element, to indent injected annotations alike.
+            final String data = event.asCharacters().getData();
+            final int lastNewline = data.lastIndexOf('\n');
+            currentIndentation = data.trim().isEmpty() && lastNewline >= 0 ? data.substring(lastNewline + 1) : "";
+
+            emit(event);
+
+        } else if (event.isStartElement()) {
+
+            final StartElement start = event.asStartElement();
+            final String localName = start.getName().getLocalPart();
+            final Attribute nameAttribute = start.getAttributeByName(NAME_ATTRIBUTE);
+            final String name = nameAttribute == null ? null : nameAttribute.getValue().trim();
+
+            // Find the name of the closest complexType or simpleType containing the current element.
+            final String containingClassName =
+                    containingClassNames.isEmpty() ? null : containingClassNames.get(containingClassNames.size() - 1);
+            containingClassNames.add(isClassElement(localName) ? name : containingClassName);
+
+            emit(start);
+
+            // Only deal with Elements with "name" attributes.
+            if (name != null && !name.isEmpty()) {
+                final String documentation = getDocumentation(localName, name, containingClassName);
+                if (documentation != null && !documentation.isEmpty()) {
+                    emitAnnotation(start, documentation);
+                    pendingEndIndentation = currentIndentation;
+                }
+            }
+            currentIndentation = "";
+
+        } else {
+
+            if (event.isEndElement()) {
+                containingClassNames.remove(containingClassNames.size() - 1);
+            }
+            currentIndentation = "";
+
+            emit(event);
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static boolean isClassElement(final String localName) {
+        return "complexType".equalsIgnoreCase(localName) || "simpleType".equalsIgnoreCase(localName);
+    }
+
+    private String getDocumentation(final String localName, final String name, final String containingClassName) {
+
+        final SortableLocation location = DomHelper.getJavaDocLocation(localName, name, containingClassName, index);
+        final JavaDocData javaDocData = index.getJavaDoc(location);
+
+        // All done.
+        return javaDocData == null ? null : renderer.render(javaDocData, location).trim();
+    }
+
+    private void emitAnnotation(final StartElement parent, final String documentation) throws XMLStreamException {
+
+        // Use the prefix already bound to the XML Schema namespace, or declare the standard one if there is none.
+        String prefix = parent.getNamespaceContext().getPrefix(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        Iterator<Namespace> namespaces = Collections.<Namespace>emptyList().iterator();
+        if (prefix == null) {
+            prefix = DomHelper.XSD_SCHEMA_NAMESPACE_PREFIX;
+            namespaces = Collections.singletonList(
+                            eventFactory.createNamespace(prefix, XMLConstants.W3C_XML_SCHEMA_NS_URI))
+                    .iterator();
+        }
+
+        final String annotationIndentation = NEWLINE + currentIndentation + INDENTATION;
+        final Iterator<Attribute> noAttributes = Collections.<Attribute>emptyList().iterator();
+
+        // <xs:annotation>
+        //     <xs:documentation><![CDATA[(JavaDoc here)]]></xs:documentation>
+        // </xs:annotation>
+        emit(eventFactory.createSpace(annotationIndentation));
+        emit(eventFactory.createStartElement(
+                prefix, XMLConstants.W3C_XML_SCHEMA_NS_URI, DomHelper.ANNOTATION_ELEMENT_NAME, noAttributes,
+                namespaces));
+        emit(eventFactory.createSpace(annotationIndentation + INDENTATION));
+        emit(eventFactory.createStartElement(
+                prefix, XMLConstants.W3C_XML_SCHEMA_NS_URI, DomHelper.DOCUMENTATION_ELEMENT_NAME));
+
+        // A CDATA section cannot contain its own end marker; split it into several sections where required.
+        int start = 0;
+        for (int end = documentation.indexOf(CDATA_END); end >= 0; end = documentation.indexOf(CDATA_END, start)) {
+            emit(eventFactory.createCData(documentation.substring(start, end + 2)));
+            start = end + 2;
+        }
+        emit(eventFactory.createCData(documentation.substring(start)));
+
+        emit(eventFactory.createEndElement(
+                prefix, XMLConstants.W3C_XML_SCHEMA_NS_URI, DomHelper.DOCUMENTATION_ELEMENT_NAME));
+        emit(eventFactory.createSpace(annotationIndentation));
+        emit(eventFactory.createEndElement(
+                prefix, XMLConstants.W3C_XML_SCHEMA_NS_URI, DomHelper.ANNOTATION_ELEMENT_NAME));
+    }
+}
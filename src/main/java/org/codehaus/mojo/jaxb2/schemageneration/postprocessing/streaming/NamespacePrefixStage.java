@@ -0,0 +1,245 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Streaming counterpart of the {@code ChangeNamespacePrefixProcessor}, which alters the namespace prefixes
+ * of configured namespace URIs within a generated XSD. The prefix bound to each configured namespace URI is
+ * resolved from the namespace declarations of the schema (root) element, where SchemaGen emits all of them.
+ * The prefix is then altered in the following logical places:</p>
+ * <dl>
+ * <dt>Namespace Definition</dt>
+ * <dd>xmlns:oldPrefix="http://some/namespace" is altered to xmlns:newPrefix="http://some/namespace"</dd>
+ * <dt>Elements and Attributes Namespace Prefix</dt>
+ * <dd>&lt;oldPrefix:someElement ... &gt; is altered to &lt;newPrefix:someElement ... &gt;</dd>
+ * <dt>Element Reference and Type Attribute</dt>
+ * <dd><code>&lt;xs:element ref="oldPrefix:something" type="oldPrefix:someType"/&gt;</code> is altered to
+ * <code>&lt;xs:element ref="newPrefix:something" type="newPrefix:someType"/&gt;</code></dd>
+ * <dt>Type Extension</dt>
+ * <dd><code>&lt;xs:extension base="oldPrefix:something"/&gt;</code> is altered to
+ * <code>&lt;xs:extension base="newPrefix:something"/&gt;</code></dd>
+ * </dl>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.ChangeNamespacePrefixProcessor
+ * @since 4.1.1
+ */
+public class NamespacePrefixStage extends XsdEventStage {
+
+    // Constants
+    private static final String MISCONFIG = "Misconfiguration detected: ";
+    private static final String EXTENSION_ELEMENT_NAME = "extension";
+    private static final String EXTENSION_BASE_ATTRIBUTE_NAME = "base";
+    private static final String REFERENCE_ATTRIBUTE_NAME = "ref";
+    private static final String TYPE_ATTRIBUTE_NAME = "type";
+    private static final String TARGET_NAMESPACE_PREFIX = "tns";
+
+    // Internal state
+    private final String sourceFilename;
+    private final Map<String, String> namespaceUriToNewPrefixMap;
+    private Map<String, String> oldToNewPrefixMap;
+
+    /**
+     * Creates a new NamespacePrefixStage using the provided map relating namespace URIs to desired new prefixes.
+     *
+     * @param sourceFilename             The name of the processed XSD file, used within error messages.
+     * @param namespaceUriToNewPrefixMap A map relating namespace URIs [key] to new/desired prefixes [value].
+     */
+    public NamespacePrefixStage(final String sourceFilename, final Map<String, String> namespaceUriToNewPrefixMap) {
+
+        // Check sanity
+        Validate.notEmpty(sourceFilename, "sourceFilename");
+        Validate.notNull(namespaceUriToNewPrefixMap, "namespaceUriToNewPrefixMap");
+
+        // Assign internal state
+        this.sourceFilename = sourceFilename;
+        this.namespaceUriToNewPrefixMap = namespaceUriToNewPrefixMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final XMLEvent event) throws XMLStreamException {
+
+        if (event.isStartElement()) {
+
+            final StartElement start = event.asStartElement();
+
+            // The namespace declarations of the root element decide which prefixes to substitute.
+            if (oldToNewPrefixMap == null) {
+                oldToNewPrefixMap = getPrefixSubstitutions(start);
+            }
+
+            emit(oldToNewPrefixMap.isEmpty() ? start : substitutePrefixes(start));
+
+        } else if (event.isEndElement() && oldToNewPrefixMap != null && !oldToNewPrefixMap.isEmpty()) {
+
+            final EndElement end = event.asEndElement();
+            emit(eventFactory.createEndElement(substitute(end.getName()), null));
+
+        } else {
+
+            // Pass the event on unaltered.
+            emit(event);
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private Map<String, String> getPrefixSubstitutions(final StartElement root) throws XMLStreamException {
+
+        // Collect all prefixes bound to each namespace URI within the root element.
+        final Map<String, Set<String>> uri2Prefixes = new LinkedHashMap<String, Set<String>>();
+        for (Iterator<Namespace> it = root.getNamespaces(); it.hasNext(); ) {
+
+            final Namespace current = it.next();
+            if (!current.isDefaultNamespaceDeclaration()) {
+                uri2Prefixes
+                        .computeIfAbsent(current.getNamespaceURI(), key -> new LinkedHashSet<String>())
+                        .add(current.getPrefix());
+            }
+        }
+
+        final Map<String, String> toReturn = new TreeMap<String, String>();
+        for (Map.Entry<String, String> current : namespaceUriToNewPrefixMap.entrySet()) {
+
+            final String newPrefix = current.getValue();
+            final Set<String> boundPrefixes = uri2Prefixes.get(current.getKey());
+            if (boundPrefixes == null) {
+                continue;
+            }
+
+            // As in the SimpleNamespaceResolver, "tns" wins whenever it is present.
+            final String oldPrefix;
+            if (boundPrefixes.contains(TARGET_NAMESPACE_PREFIX)) {
+                oldPrefix = TARGET_NAMESPACE_PREFIX;
+            } else if (boundPrefixes.size() == 1) {
+                oldPrefix = boundPrefixes.iterator().next();
+            } else {
+                throw new XMLStreamException("Cannot select which of the prefixes " + boundPrefixes
+                        + " bound to URI [" + current.getKey() + "] to replace in file [" + sourceFilename + "].");
+            }
+
+            // Substituting a prefix onto itself is a no-op.
+            if (oldPrefix.equals(newPrefix)) {
+                continue;
+            }
+
+            // Make certain the newPrefix does not exist already.
+            for (Set<String> prefixes : uri2Prefixes.values()) {
+                if (prefixes.contains(newPrefix)) {
+                    throw new XMLStreamException(MISCONFIG + "Namespace prefix [" + newPrefix + "] is already in use."
+                            + " Cannot replace namespace prefix [" + oldPrefix + "] with [" + newPrefix
+                            + "] in file [" + sourceFilename + "].");
+                }
+            }
+
+            toReturn.put(oldPrefix, newPrefix);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private StartElement substitutePrefixes(final StartElement start) {
+
+        final QName elementName = start.getName();
+        final boolean isExtension = XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(elementName.getNamespaceURI())
+                && EXTENSION_ELEMENT_NAME.equalsIgnoreCase(elementName.getLocalPart());
+
+        // Substitute the prefixes of attributes, and of QName references within attribute values.
+        final List<Attribute> attributes = new ArrayList<Attribute>();
+        for (Iterator<Attribute> it = start.getAttributes(); it.hasNext(); ) {
+
+            final Attribute current = it.next();
+            final QName attributeName = current.getName();
+            final boolean isUnprefixed = XMLConstants.DEFAULT_NS_PREFIX.equals(attributeName.getPrefix());
+            final String localName = attributeName.getLocalPart();
+
+            final boolean holdsReference = isUnprefixed
+                    && (REFERENCE_ATTRIBUTE_NAME.equals(localName)
+                            || TYPE_ATTRIBUTE_NAME.equals(localName)
+                            || (isExtension && EXTENSION_BASE_ATTRIBUTE_NAME.equalsIgnoreCase(localName)));
+
+            final String value = holdsReference ? substituteReference(current.getValue()) : current.getValue();
+            attributes.add(eventFactory.createAttribute(substitute(attributeName), value));
+        }
+
+        // Substitute the prefixes within namespace declarations.
+        final List<Namespace> namespaces = new ArrayList<Namespace>();
+        for (Iterator<Namespace> it = start.getNamespaces(); it.hasNext(); ) {
+
+            final Namespace current = it.next();
+            final String newPrefix =
+                    current.isDefaultNamespaceDeclaration() ? null : oldToNewPrefixMap.get(current.getPrefix());
+
+            namespaces.add(
+                    newPrefix == null ? current : eventFactory.createNamespace(newPrefix, current.getNamespaceURI()));
+        }
+
+        // All done.
+        return eventFactory.createStartElement(
+                substitute(elementName), attributes.iterator(), namespaces.iterator());
+    }
+
+    private QName substitute(final QName name) {
+
+        final String newPrefix = oldToNewPrefixMap.get(name.getPrefix());
+        return newPrefix == null ? name : new QName(name.getNamespaceURI(), name.getLocalPart(), newPrefix);
+    }
+
+    private String substituteReference(final String value) {
+
+        final int colonIndex = value.indexOf(':');
+        if (colonIndex > 0) {
+
+            final String newPrefix = oldToNewPrefixMap.get(value.substring(0, colonIndex));
+            if (newPrefix != null) {
+                return newPrefix + value.substring(colonIndex);
+            }
+        }
+
+        // Not a reference to a substituted prefix.
+        return value;
+    }
+}
@@ -0,0 +1,127 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Streaming counterpart of the {@code ChangeFilenameProcessor}, which rewrites the schemaLocation of
+ * import definitions to match the new file names of the imported schemas. Thus,</p>
+ * <pre>
+ *     <code>&lt;xs:import namespace="http://some/namespace" schemaLocation="schema2.xsd"/&gt;</code>
+ * </pre>
+ * <p>... is altered to</p>
+ * <pre>
+ *     <code>&lt;xs:import namespace="http://some/namespace" schemaLocation="anotherFile.xsd"/&gt;</code>
+ * </pre>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.ChangeFilenameProcessor
+ * @since 4.1.1
+ */
+public class SchemaLocationStage extends XsdEventStage {
+
+    // Constants
+    private static final QName SCHEMA_LOCATION = new QName("schemaLocation");
+    private static final QName NAMESPACE = new QName("namespace");
+    private static final String IMPORT = "import";
+
+    // Internal state
+    private final Map<String, String> namespaceUriToNewFilenameMap;
+
+    /**
+     * Creates a new SchemaLocationStage using the provided map relating namespace URIs to desired new file names.
+     *
+     * @param namespaceUriToNewFilenameMap A map relating namespace URIs [key] to
+     *                                     new/desired schema filenames [value].
+     */
+    public SchemaLocationStage(final Map<String, String> namespaceUriToNewFilenameMap) {
+
+        // Check sanity
+        Validate.notNull(namespaceUriToNewFilenameMap, "namespaceUriToNewFilenameMap");
+
+        // Assign internal state
+        this.namespaceUriToNewFilenameMap = namespaceUriToNewFilenameMap;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final XMLEvent event) throws XMLStreamException {
+
+        if (event.isStartElement()) {
+
+            // <xs:import namespace="http://yet/another/namespace" schemaLocation="schema1.xsd"/>
+            final StartElement start = event.asStartElement();
+            final String newFilename = getNewFilename(start);
+
+            if (newFilename != null && start.getAttributeByName(SCHEMA_LOCATION) != null) {
+
+                final List<Attribute> attributes = new ArrayList<Attribute>();
+                for (Iterator<Attribute> it = start.getAttributes(); it.hasNext(); ) {
+
+                    final Attribute current = it.next();
+                    attributes.add(
+                            SCHEMA_LOCATION.equals(current.getName())
+                                    ? eventFactory.createAttribute(SCHEMA_LOCATION, newFilename)
+                                    : current);
+                }
+
+                emit(eventFactory.createStartElement(
+                        start.getName(), attributes.iterator(), start.getNamespaces()));
+                return;
+            }
+        }
+
+        // Pass the event on unaltered.
+        emit(event);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private String getNewFilename(final StartElement start) {
+
+        final QName name = start.getName();
+        if (XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(name.getNamespaceURI())
+                && IMPORT.equalsIgnoreCase(name.getLocalPart())) {
+
+            final Attribute namespace = start.getAttributeByName(NAMESPACE);
+            return namespaceUriToNewFilenameMap.get(namespace == null ? "" : namespace.getValue());
+        }
+
+        // Not an import definition.
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.util.XMLEventConsumer;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Abstract stage within a streaming XSD post-processing pipeline. Each stage receives the StAX events of
+ * a generated XSD in document order, and emits (possibly altered or additional) events to the next stage
+ * within the pipeline. Since stages never hold more than the events they are currently working on, any number
+ * of them can be chained without the memory footprint growing with the size of the processed XSD.</p>
+ * <p>The default implementation of {@link #add(XMLEvent)} passes all events on unaltered; subclasses
+ * override it to alter the events they care about. Stages hold per-document state, implying that
+ * a new chain of stages should be created for each processed XSD.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @see XsdPostProcessingPipeline
+ * @since 4.1.1
+ */
+public abstract class XsdEventStage implements XMLEventConsumer {
+
+    /**
+     * The XMLEventFactory used to synthesize altered or additional events.
+     */
+    protected final XMLEventFactory eventFactory = XMLEventFactory.newDefaultFactory();
+
+    // Internal state
+    private XMLEventConsumer next;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final XMLEvent event) throws XMLStreamException {
+        emit(event);
+    }
+
+    /**
+     * Passes the supplied event on to the next stage within the pipeline.
+     *
+     * @param event The non-null event to emit.
+     * @throws XMLStreamException if the next stage could not handle the supplied event.
+     */
+    protected final void emit(final XMLEvent event) throws XMLStreamException {
+        next.add(event);
+    }
+
+    /**
+     * Assigns the consumer to which this XsdEventStage emits its events.
+     *
+     * @param next The non-null next stage (or terminal consumer) of the pipeline.
+     */
+    final void setNext(final XMLEventConsumer next) {
+
+        // Check sanity
+        Validate.notNull(next, "next");
+
+        // Assign internal state
+        this.next = next;
+    }
+}
@@ -0,0 +1,239 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Characters;
+import javax.xml.stream.events.Comment;
+import javax.xml.stream.events.DTD;
+import javax.xml.stream.events.EntityReference;
+import javax.xml.stream.events.Namespace;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.util.XMLEventConsumer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Terminal consumer of a streaming XSD post-processing pipeline, which serializes the received events.
+ * Contrary to a plain {@code XMLEventWriter}, elements without content are written as empty elements
+ * (i.e. {@code <xs:element name="foo"/>} rather than {@code <xs:element name="foo"></xs:element>}), attributes
+ * are written in a stable order and the XML declaration is written on the same form as SchemaGen emits it.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+final class XsdEventWriter implements XMLEventConsumer {
+
+    // Constants
+    private static final String NEWLINE = "\n";
+
+    // Internal state
+    private final Writer out;
+    private final String encoding;
+    private final XMLStreamWriter writer;
+    private StartElement pendingStart;
+
+    /**
+     * Creates an XsdEventWriter serializing all received events to the supplied Writer.
+     *
+     * @param out           The non-null Writer to which the XSD should be written.
+     * @param encoding      The non-empty encoding of the supplied Writer, stated within the XML declaration.
+     * @param outputFactory The non-null XMLOutputFactory used to create the underlying XMLStreamWriter.
+     * @throws XMLStreamException if the underlying XMLStreamWriter could not be created.
+     */
+    XsdEventWriter(final Writer out, final String encoding, final XMLOutputFactory outputFactory)
+            throws XMLStreamException {
+
+        // Check sanity
+        Validate.notNull(out, "out");
+        Validate.notEmpty(encoding, "encoding");
+        Validate.notNull(outputFactory, "outputFactory");
+
+        // Assign internal state
+        this.out = out;
+        this.encoding = encoding;
+        this.writer = outputFactory.createXMLStreamWriter(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void add(final XMLEvent event) throws XMLStreamException {
+
+        // Write any pending start element, as an empty element if it is immediately closed.
+        if (pendingStart != null) {
+
+            final boolean isEmptyElement = event.isEndElement();
+            writeStartElement(pendingStart, isEmptyElement);
+            pendingStart = null;
+
+            if (isEmptyElement) {
+                return;
+            }
+        }
+
+        switch (event.getEventType()) {
+            case XMLStreamConstants.START_DOCUMENT:
+                writeXmlDeclaration();
+                break;
+
+            case XMLStreamConstants.START_ELEMENT:
+                pendingStart = event.asStartElement();
+                break;
+
+            case XMLStreamConstants.END_ELEMENT:
+                writer.writeEndElement();
+                break;
+
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+            case XMLStreamConstants.CDATA:
+                final Characters characters = event.asCharacters();
+                if (characters.isCData()) {
+                    writer.writeCData(characters.getData());
+                } else {
+                    writer.writeCharacters(characters.getData());
+                }
+                break;
+
+            case XMLStreamConstants.COMMENT:
+                writer.writeComment(((Comment) event).getText());
+                break;
+
+            case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                final ProcessingInstruction instruction = (ProcessingInstruction) event;
+                writer.writeProcessingInstruction(instruction.getTarget(), instruction.getData());
+                break;
+
+            case XMLStreamConstants.ENTITY_REFERENCE:
+                writer.writeEntityRef(((EntityReference) event).getName());
+                break;
+
+            case XMLStreamConstants.DTD:
+                writer.writeDTD(((DTD) event).getDocumentTypeDeclaration());
+                break;
+
+            case XMLStreamConstants.END_DOCUMENT:
+                writer.writeEndDocument();
+                writer.flush();
+                write(NEWLINE);
+                break;
+
+            default:
+                // Attributes and namespaces are written along with their start element.
+                break;
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void writeXmlDeclaration() throws XMLStreamException {
+
+        // The XMLStreamWriter cannot emit the standalone pseudo-attribute, so write the declaration directly.
+        writer.flush();
+        write("<?xml version=\"1.0\" encoding=\"" + encoding + "\" standalone=\"yes\"?>" + NEWLINE);
+    }
+
+    private void write(final String data) throws XMLStreamException {
+        try {
+            out.write(data);
+        } catch (IOException e) {
+            throw new XMLStreamException("Could not write [" + data.trim() + "]", e);
+        }
+    }
+
+    private void writeStartElement(final StartElement start, final boolean isEmptyElement)
+            throws XMLStreamException {
+
+        final QName name = start.getName();
+        if (isEmptyElement) {
+            writer.writeEmptyElement(name.getPrefix(), name.getLocalPart(), name.getNamespaceURI());
+        } else {
+            writer.writeStartElement(name.getPrefix(), name.getLocalPart(), name.getNamespaceURI());
+        }
+
+        // The order of attributes is not retained by StAX events. Write namespace declarations and attributes
+        // sorted by their qualified names, to yield the same output for the same XSD in every build.
+        final SortedMap<String, XMLEvent> sortedAttributes = new TreeMap<String, XMLEvent>();
+        for (Iterator<Namespace> it = start.getNamespaces(); it.hasNext(); ) {
+
+            final Namespace current = it.next();
+            sortedAttributes.put(
+                    current.isDefaultNamespaceDeclaration()
+                            ? XMLConstants.XMLNS_ATTRIBUTE
+                            : XMLConstants.XMLNS_ATTRIBUTE + ":" + current.getPrefix(),
+                    current);
+        }
+        for (Iterator<Attribute> it = start.getAttributes(); it.hasNext(); ) {
+
+            final Attribute current = it.next();
+            final QName attributeName = current.getName();
+            sortedAttributes.put(
+                    XMLConstants.DEFAULT_NS_PREFIX.equals(attributeName.getPrefix())
+                            ? attributeName.getLocalPart()
+                            : attributeName.getPrefix() + ":" + attributeName.getLocalPart(),
+                    current);
+        }
+
+        for (XMLEvent current : sortedAttributes.values()) {
+
+            if (current.isNamespace()) {
+
+                final Namespace namespace = (Namespace) current;
+                if (namespace.isDefaultNamespaceDeclaration()) {
+                    writer.writeDefaultNamespace(namespace.getNamespaceURI());
+                } else {
+                    writer.writeNamespace(namespace.getPrefix(), namespace.getNamespaceURI());
+                }
+
+            } else {
+
+                final Attribute attribute = (Attribute) current;
+                final QName attributeName = attribute.getName();
+                if (XMLConstants.DEFAULT_NS_PREFIX.equals(attributeName.getPrefix())) {
+                    writer.writeAttribute(attributeName.getLocalPart(), attribute.getValue());
+                } else {
+                    writer.writeAttribute(
+                            attributeName.getPrefix(),
+                            attributeName.getNamespaceURI(),
+                            attributeName.getLocalPart(),
+                            attribute.getValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,531 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.stream.util.XMLEventConsumer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.schemageneration.AbstractXsdGeneratorMojo;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocLocationIndex;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.JavaDocRenderer;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SearchableDocumentation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.TransformSchema;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * <p>Streaming XSD post-processor, which applies all configured post-processing steps to the XSDs generated by
+ * SchemaGen in a single read and a single write per file. Each XSD is read as a stream of StAX events, which
+ * passes through a chain of {@link XsdEventStage}s before being written to a temporary file. Since neither the
+ * stages nor the reader and writer hold more than a handful of events at a time, peak memory remains flat
+ * regardless of the size of the generated XSDs. The stages are applied in the following order:</p>
+ * <ol>
+ * <li>[{@link JavaDocAnnotationStage}]: Inject JavaDoc annotations for Classes, Fields and Methods.</li>
+ * <li>[{@link NamespacePrefixStage}]: Change namespace prefixes within XSDs.</li>
+ * <li>[{@link SchemaLocationStage}]: Change the schemaLocation of imports to match renamed XSDs.</li>
+ * </ol>
+ * <p>When all XSDs are processed, the temporary files replace the originals - and are given their configured
+ * new file names, if any.</p>
+ * <p>Since each XSD is processed independently of the others, the XSDs may be streamed concurrently by a
+ * number of threads (as set by {@link #withParallelism(int)}). Each thread uses its own StAX factories, and
+ * every stage chain is created for a single XSD; the JavaDocLocationIndex and the JavaDocRenderer are the only
+ * state shared between the threads, and are only read. Replacing the originals is always done sequentially,
+ * in the order of the XSD file names, implying that the result does not depend on the order in which the
+ * threads complete.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public class XsdPostProcessingPipeline {
+
+    // Constants
+    private static final QName TARGET_NAMESPACE = new QName("targetNamespace");
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    // Internal state
+    private final Log log;
+    private final String encoding;
+    private final ThreadLocal<XMLInputFactory> inputFactory;
+    private final ThreadLocal<XMLOutputFactory> outputFactory;
+    private JavaDocLocationIndex javaDocIndex;
+    private JavaDocRenderer renderer;
+    private Map<String, String> namespaceUriToNewPrefixMap;
+    private Map<String, String> namespaceUriToNewFilenameMap;
+    private int parallelism = 1;
+    private Set<File> includedFiles;
+    private SortedMap<File, File> targets = new TreeMap<File, File>();
+
+    /**
+     * Creates an XsdPostProcessingPipeline without any stages.
+     *
+     * @param log      The active Maven Log.
+     * @param encoding The encoding used to read and write the generated XSDs.
+     */
+    public XsdPostProcessingPipeline(final Log log, final String encoding) {
+
+        // Check sanity
+        Validate.notNull(log, "log");
+        Validate.notEmpty(encoding, "encoding");
+
+        // Assign internal state
+        this.log = log;
+        this.encoding = encoding;
+
+        // The StAX factories are not guaranteed to be thread-safe; confine them to the thread using them.
+        this.inputFactory = ThreadLocal.withInitial(() -> {
+            final XMLInputFactory toReturn = XMLInputFactory.newInstance();
+            toReturn.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            toReturn.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return toReturn;
+        });
+        this.outputFactory = ThreadLocal.withInitial(XMLOutputFactory::newInstance);
+    }
+
+    /**
+     * Assigns the number of threads used to stream the generated XSDs through the stages of this
+     * XsdPostProcessingPipeline. Values smaller than 2 imply that all XSDs are processed by the calling thread.
+     *
+     * @param parallelism The maximum number of XSDs processed concurrently.
+     * @return This XsdPostProcessingPipeline, for chaining.
+     */
+    public XsdPostProcessingPipeline withParallelism(final int parallelism) {
+
+        // Assign internal state
+        this.parallelism = Math.max(parallelism, 1);
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Restricts the processing of this XsdPostProcessingPipeline to the supplied generated XSDs. All other XSDs
+     * within the schema directory are left untouched.
+     *
+     * @param schemaFiles The non-null generated XSDs to process.
+     * @return This XsdPostProcessingPipeline, for chaining.
+     */
+    public XsdPostProcessingPipeline withSchemaFiles(final Collection<File> schemaFiles) {
+
+        // Check sanity
+        Validate.notNull(schemaFiles, "schemaFiles");
+
+        // Assign internal state
+        this.includedFiles = new HashSet<File>();
+        for (File current : schemaFiles) {
+            includedFiles.add(current.getAbsoluteFile());
+        }
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Adds the stage injecting XSD documentation annotations rendered from the supplied JavaDocs.
+     *
+     * @param docs     A non-null SearchableDocumentation, produced from the source code of the JAXB compilation unit.
+     * @param renderer A non-null JavaDocRenderer, used to render the JavaDocData within the SearchableDocumentation.
+     * @return This XsdPostProcessingPipeline, for chaining.
+     */
+    public XsdPostProcessingPipeline withJavaDocAnnotations(
+            final SearchableDocumentation docs, final JavaDocRenderer renderer) {
+
+        // Check sanity
+        Validate.notNull(docs, "docs");
+        Validate.notNull(renderer, "renderer");
+
+        // Index the JavaDocs once, rather than once per processed XSD.
+        this.javaDocIndex = docs.getLocationIndex();
+        this.renderer = renderer;
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Adds the stages changing namespace prefixes and file names of the generated XSDs, as instructed by the
+     * supplied TransformSchemas.
+     *
+     * @param transformSchemas The non-null TransformSchema instances read from the configuration of this plugin.
+     * @return This XsdPostProcessingPipeline, for chaining.
+     */
+    public XsdPostProcessingPipeline withTransformSchemas(final List<TransformSchema> transformSchemas) {
+
+        // Check sanity
+        Validate.notNull(transformSchemas, "transformSchemas");
+
+        this.namespaceUriToNewPrefixMap = new TreeMap<String, String>();
+        this.namespaceUriToNewFilenameMap = new TreeMap<String, String>();
+        for (TransformSchema current : transformSchemas) {
+
+            if (StringUtils.isNotEmpty(current.getToPrefix())) {
+                namespaceUriToNewPrefixMap.put(current.getUri(), current.getToPrefix());
+            }
+            if (StringUtils.isNotEmpty(current.getToFile())) {
+                namespaceUriToNewFilenameMap.put(current.getUri(), current.getToFile());
+            }
+        }
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Applies all stages of this XsdPostProcessingPipeline to the XSDs generated within the supplied directory.
+     * JavaDoc annotations are injected into all generated XSDs (recursively), whereas the transformations are
+     * applied to the generated XSDs directly within the supplied directory.
+     *
+     * @param schemaDirectory The directory where all generated schema files reside.
+     * @return The number of processed XSDs.
+     * @throws MojoExecutionException if any XSD could not be processed.
+     */
+    public int process(final File schemaDirectory) throws MojoExecutionException {
+
+        // Check sanity
+        Validate.notNull(schemaDirectory, "schemaDirectory");
+        Validate.isTrue(schemaDirectory.isDirectory(), "'schemaDirectory' must be a Directory.");
+
+        // Find all XSDs to process.
+        targets = new TreeMap<File, File>();
+        final SortedMap<File, SchemaFile> schemaFiles = new TreeMap<File, SchemaFile>();
+        if (renderer != null) {
+
+            final List<File> generatedFiles = new ArrayList<File>();
+            addRecursively(generatedFiles, schemaDirectory);
+
+            if (generatedFiles.isEmpty() && log.isWarnEnabled()) {
+                log.warn("Found no generated 'vanilla' XSD files to process under ["
+                        + FileSystemUtilities.getCanonicalPath(schemaDirectory) + "]. Aborting processing.");
+            }
+
+            for (File current : generatedFiles) {
+                if (isIncluded(current)) {
+                    schemaFiles.computeIfAbsent(current, SchemaFile::new).annotate = true;
+                }
+            }
+        }
+        if (namespaceUriToNewPrefixMap != null) {
+
+            final File[] topLevelFiles = schemaDirectory.listFiles(
+                    (dir, name) -> name.startsWith("schema") && name.endsWith(".xsd"));
+            for (File current : topLevelFiles) {
+                if (isIncluded(current)) {
+                    schemaFiles.computeIfAbsent(current, SchemaFile::new).transform = true;
+                }
+            }
+        }
+
+        try {
+
+            // Stream each XSD through the stages into a temporary file, leaving the originals untouched.
+            processAll(new ArrayList<SchemaFile>(schemaFiles.values()));
+
+            // Find the new file names of the processed XSDs.
+            for (SchemaFile current : schemaFiles.values()) {
+                resolveTarget(current, schemaDirectory);
+            }
+
+            // Replace the originals with the processed files, starting by removing renamed ones
+            // to prevent a rename target from being confused with an original file.
+            for (SchemaFile current : schemaFiles.values()) {
+                if (!current.target.equals(current.file)) {
+                    Files.delete(current.file.toPath());
+                }
+            }
+            for (SchemaFile current : schemaFiles.values()) {
+
+                move(current.tempFile, current.target);
+                targets.put(current.file, current.target);
+                if (log.isDebugEnabled() && !current.target.equals(current.file)) {
+                    log.debug("Success renaming [" + current.file.getAbsolutePath() + "] to [" + current.target
+                            + "]");
+                }
+            }
+
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not replace the generated XSDs with their processed versions.", e);
+        } finally {
+
+            // Remove any remaining temporary files.
+            for (SchemaFile current : schemaFiles.values()) {
+                if (current.tempFile != null && current.tempFile.exists() && !current.tempFile.delete()) {
+                    log.warn("Could not delete temporary file [" + current.tempFile.getAbsolutePath() + "]");
+                }
+            }
+        }
+
+        // All done.
+        return schemaFiles.size();
+    }
+
+    /**
+     * Retrieves the files written by the most recent invocation of {@link #process(File)}.
+     *
+     * @return A SortedMap relating each processed XSD, as generated by SchemaGen, to the file holding its
+     * processed version. The two differ only for XSDs which were renamed.
+     */
+    public SortedMap<File, File> getTargets() {
+        return Collections.unmodifiableSortedMap(targets);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private boolean isIncluded(final File schemaFile) {
+        return includedFiles == null || includedFiles.contains(schemaFile.getAbsoluteFile());
+    }
+
+    private void processAll(final List<SchemaFile> schemaFiles) throws MojoExecutionException {
+
+        final int threads = Math.min(parallelism, schemaFiles.size());
+        if (threads <= 1) {
+            for (SchemaFile current : schemaFiles) {
+                process(current);
+            }
+            return;
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Post-processing " + schemaFiles.size() + " XSDs using " + threads + " threads.");
+        }
+
+        final AtomicInteger threadIndex = new AtomicInteger(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread toReturn = new Thread(runnable, "jaxb2-xsd-" + threadIndex.getAndIncrement());
+                toReturn.setDaemon(true);
+                return toReturn;
+            }
+        });
+
+        try {
+
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (final SchemaFile current : schemaFiles) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        process(current);
+                        return null;
+                    }
+                }));
+            }
+
+            // Wait for all XSDs, and report the first failure in file order.
+            MojoExecutionException failure = null;
+            for (Future<Void> current : futures) {
+                try {
+                    current.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof MojoExecutionException
+                                ? (MojoExecutionException) e.getCause()
+                                : new MojoExecutionException(e.getCause().getMessage(), e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MojoExecutionException("Interrupted while post-processing generated XSDs.", e);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void process(final SchemaFile schemaFile) throws MojoExecutionException {
+
+        final String fileName = schemaFile.file.getName();
+        final List<XsdEventStage> stages = new ArrayList<XsdEventStage>();
+        if (schemaFile.annotate) {
+            stages.add(new JavaDocAnnotationStage(javaDocIndex, renderer));
+        }
+        if (schemaFile.transform) {
+            stages.add(new NamespacePrefixStage(fileName, namespaceUriToNewPrefixMap));
+            stages.add(new SchemaLocationStage(namespaceUriToNewFilenameMap));
+        }
+
+        if (log.isDebugEnabled()) {
+            final List<String> stageNames = new ArrayList<String>();
+            for (XsdEventStage current : stages) {
+                stageNames.add(current.getClass().getSimpleName());
+            }
+            log.debug("Post-processing [" + schemaFile.file.getAbsolutePath() + "] using stages " + stageNames);
+        }
+
+        XMLEventReader reader = null;
+        try {
+
+            schemaFile.tempFile = File.createTempFile(fileName, TEMP_FILE_SUFFIX, schemaFile.file.getParentFile());
+
+            try (Reader in = new InputStreamReader(new FileInputStream(schemaFile.file), encoding);
+                    Writer out = new BufferedWriter(
+                            new OutputStreamWriter(new FileOutputStream(schemaFile.tempFile), encoding))) {
+
+                // Chain the stages, ending with the writer.
+                XMLEventConsumer consumer = new XsdEventWriter(out, encoding, outputFactory.get());
+                for (int i = stages.size() - 1; i >= 0; i--) {
+                    stages.get(i).setNext(consumer);
+                    consumer = stages.get(i);
+                }
+
+                reader = inputFactory.get().createXMLEventReader(in);
+                while (reader.hasNext()) {
+
+                    final XMLEvent event = reader.nextEvent();
+                    if (schemaFile.targetNamespace == null && event.isStartElement()) {
+                        final Attribute attribute = event.asStartElement().getAttributeByName(TARGET_NAMESPACE);
+                        schemaFile.targetNamespace = attribute == null ? "" : attribute.getValue();
+                    }
+
+                    consumer.add(event);
+                }
+            }
+
+        } catch (XMLStreamException e) {
+            throw new MojoExecutionException("Could not post-process [" + schemaFile.file.getAbsolutePath() + "]: "
+                    + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Could not post-process [" + schemaFile.file.getAbsolutePath() + "]", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // Ignore this; the underlying Reader is closed anyways.
+                }
+            }
+        }
+    }
+
+    private void resolveTarget(final SchemaFile schemaFile, final File schemaDirectory) {
+
+        // Should the processed file be renamed?
+        schemaFile.target = schemaFile.file;
+        if (schemaFile.transform && !namespaceUriToNewFilenameMap.isEmpty()) {
+
+            if (StringUtils.isEmpty(schemaFile.targetNamespace)) {
+                log.warn("Generated schema file [" + schemaFile.file.getName()
+                        + "] has no targetNamespace; aborting rename.");
+            } else {
+
+                final String newFilename = namespaceUriToNewFilenameMap.get(schemaFile.targetNamespace);
+                if (StringUtils.isNotEmpty(newFilename)) {
+                    schemaFile.target = FileUtils.resolveFile(schemaDirectory, newFilename);
+                }
+            }
+        }
+    }
+
+    private static void move(final File source, final File target) throws IOException {
+
+        try {
+            Files.move(
+                    source.toPath(),
+                    target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void addRecursively(final List<File> toPopulate, final File aDir) {
+
+        final File[] children = aDir.listFiles();
+        if (children != null) {
+
+            // Sort the children to process the XSDs in a stable order.
+            Arrays.sort(children);
+            for (File current : children) {
+
+                if (current.isDirectory()) {
+                    addRecursively(toPopulate, current);
+                } else if (AbstractXsdGeneratorMojo.SCHEMAGEN_EMITTED_FILENAME
+                        .matcher(current.getName())
+                        .matches()) {
+                    toPopulate.add(current);
+                }
+            }
+        }
+    }
+
+    /**
+     * Holder for the processing state of a single generated XSD.
+     */
+    private static final class SchemaFile {
+
+        // Internal state
+        private final File file;
+        private boolean annotate;
+        private boolean transform;
+        private File tempFile;
+        private String targetNamespace;
+        private File target;
+
+        SchemaFile(final File file) {
+            this.file = file;
+        }
+    }
+}
@@ -31,8 +31,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
@@ -53,6 +57,11 @@ import org.codehaus.plexus.util.StringUtils;
  */
 public final class FileSystemUtilities {
 
+    /**
+     * The directories traversed while resolving sources on the current thread, or {@code null} if not recording.
+     */
+    private static final ThreadLocal<Set<File>> TRAVERSED_DIRECTORIES = new ThreadLocal<Set<File>>();
+
     /*
      * Hide the constructor for utility classes.
      */
@@ -264,6 +273,39 @@ public final class FileSystemUtilities {
             final Log log,
             final String fileTypeDescription,
             final List<Filter<File>> excludePatterns) {
+        return filterFiles(baseDir, sources, standardDirectories, log, fileTypeDescription, excludePatterns, false);
+    }
+
+    /**
+     * Filters files found either in the sources paths (or in the standardDirectory if no explicit sources are given),
+     * and retrieves a List holding those files that do not match any of the supplied Java Regular Expression
+     * excludePatterns.
+     *
+     * @param baseDir             The non-null basedir Directory.
+     * @param sources             The sources which should be either absolute or relative (to the given baseDir)
+     *                            paths to files or to directories that should be searched recursively for files.
+     * @param standardDirectories If no sources are given, revert to searching all files under these standard
+     *                            directories. Each path is {@code relativize()}-d to the supplied baseDir to
+     *                            reach a directory path.
+     * @param log                 A non-null Maven Log for logging any operations performed.
+     * @param fileTypeDescription A human-readable short description of what kind of files are searched for, such as
+     *                            "xsdSources" or "xjbSources".
+     * @param excludePatterns     An optional List of patterns used to construct an ExclusionRegExpFileFilter used to
+     *                            identify files which should be excluded from the result.
+     * @param parallel            if {@code true}, directories are searched in parallel.
+     * @return URLs to all Files under the supplied sources (or standardDirectories, if no explicit sources
+     * are given) which do not match the supplied Java Regular excludePatterns.
+     * @since 4.1.1
+     */
+    @SuppressWarnings("all")
+    public static List<URL> filterFiles(
+            final File baseDir,
+            final List<String> sources,
+            final List<String> standardDirectories,
+            final Log log,
+            final String fileTypeDescription,
+            final List<Filter<File>> excludePatterns,
+            final boolean parallel) {
 
         final SortedMap<String, File> pathToResolvedSourceMap = new TreeMap<String, File>();
 
@@ -274,7 +316,8 @@ public final class FileSystemUtilities {
                     FileSystemUtilities.relativize(current, baseDir, true),
                     log,
                     fileTypeDescription,
-                    excludePatterns)) {
+                    excludePatterns,
+                    parallel)) {
 
                 // Add the source
                 pathToResolvedSourceMap.put(
@@ -349,6 +392,38 @@ public final class FileSystemUtilities {
             final Log log,
             final String fileTypeDescription,
             final List<Filter<File>> excludeFilters) {
+        return filterFiles(baseDir, sources, standardDirectory, log, fileTypeDescription, excludeFilters, false);
+    }
+
+    /**
+     * Filters files found either in the sources paths (or in the standardDirectory if no explicit sources are given),
+     * and retrieves a List holding those files that do not match any of the supplied Java Regular Expression
+     * excludePatterns.
+     *
+     * @param baseDir             The non-null basedir Directory.
+     * @param sources             The sources which should be either absolute or relative (to the given baseDir)
+     *                            paths to files or to directories that should be searched recursively for files.
+     * @param standardDirectory   If no sources are given, revert to searching all files under this standard directory.
+     *                            This is the path appended to the baseDir to reach a directory.
+     * @param log                 A non-null Maven Log for logging any operations performed.
+     * @param fileTypeDescription A human-readable short description of what kind of files are searched for, such as
+     *                            "xsdSources" or "xjbSources".
+     * @param excludeFilters      An optional List of Filters used to identify files which should be excluded from
+     *                            the result.
+     * @param parallel            if {@code true}, directories are searched in parallel.
+     * @return All files under the supplied sources (or standardDirectory, if no explicit sources are given) which
+     * do not match the supplied Java Regular excludePatterns.
+     * @since 4.1.1
+     */
+    @SuppressWarnings("CheckStyle")
+    public static List<File> filterFiles(
+            final File baseDir,
+            final List<String> sources,
+            final String standardDirectory,
+            final Log log,
+            final String fileTypeDescription,
+            final List<Filter<File>> excludeFilters,
+            final boolean parallel) {
 
         // Check sanity
         Validate.notNull(baseDir, "baseDir");
@@ -379,6 +454,11 @@ public final class FileSystemUtilities {
                             + FileSystemUtilities.getCanonicalFile(existingFile) + "]");
                 }
             } else {
+
+                // A source appearing later must be noticed by up-to-date checks.
+                final File nonExistent = new File(current);
+                recordTraversedDirectory(nonExistent.isAbsolute() ? nonExistent : new File(baseDir, current));
+
                 if (log.isInfoEnabled()) {
                     log.info("Ignored given or default " + fileTypeDescription + " [" + current
                             + "], since it is not an existent file or directory.");
@@ -398,7 +478,7 @@ public final class FileSystemUtilities {
         }
 
         // All Done.
-        return FileSystemUtilities.resolveRecursively(existingSources, excludeFilters, log);
+        return FileSystemUtilities.resolveRecursively(existingSources, excludeFilters, parallel, log);
     }
 
     /**
@@ -429,7 +509,7 @@ public final class FileSystemUtilities {
                 if (isAcceptedFile) {
                     toReturn.add(current);
                 } else if (isAcceptedDirectory) {
-                    recurseAndPopulate(toReturn, Collections.singletonList(acceptFilter), current, false, log);
+                    recurseAndPopulate(toReturn, Collections.singletonList(acceptFilter), current, false, false, log);
                 }
             }
         }
@@ -455,6 +535,31 @@ public final class FileSystemUtilities {
      */
     public static List<File> resolveRecursively(
             final List<File> files, final List<Filter<File>> exclusionFilters, final Log log) {
+        return resolveRecursively(files, exclusionFilters, false, log);
+    }
+
+    /**
+     * Retrieves a List of Files containing all the existing files within the supplied files List, including all
+     * files found in directories recursive to any directories provided in the files list. Each file included in the
+     * result must pass an ExclusionRegExpFileFilter synthesized from the supplied exclusions pattern(s).
+     *
+     * @param files            The list of files to resolve, filter and return. If the {@code files} List
+     *                         contains directories, they are searched for Files recursively. Any found Files in such
+     *                         a search are included in the resulting File List if they do not match any of the
+     *                         exclusionFilters supplied.
+     * @param exclusionFilters A List of Filters which identify files to remove from the result - implying that any
+     *                         File matched by any of these exclusionFilters will not be included in the result.
+     * @param parallel         if {@code true}, directories are searched in parallel.
+     * @param log              The active Maven Log.
+     * @return All files in (or files in subdirectories of directories provided in) the files List, provided that each
+     * file is accepted by an ExclusionRegExpFileFilter.
+     * @since 4.1.1
+     */
+    public static List<File> resolveRecursively(
+            final List<File> files,
+            final List<Filter<File>> exclusionFilters,
+            final boolean parallel,
+            final Log log) {
 
         // Check sanity
         Validate.notNull(files, "files");
@@ -475,7 +580,7 @@ public final class FileSystemUtilities {
                 if (isAcceptedFile) {
                     toReturn.add(current);
                 } else if (isAcceptedDirectory) {
-                    recurseAndPopulate(toReturn, effectiveExclusions, current, true, log);
+                    recurseAndPopulate(toReturn, effectiveExclusions, current, true, parallel, log);
                 }
             }
         }
@@ -623,6 +728,33 @@ public final class FileSystemUtilities {
         return toReturn;
     }
 
+    /**
+     * <p>Starts recording the directories traversed by the filterFiles and resolveRecursively methods on the
+     * calling thread, as well as configured source paths which did not exist. Adding or removing a file within a
+     * traversed directory changes the modification timestamp of that directory, so the recorded directories can
+     * be used to detect new or removed sources without resolving the sources anew.</p>
+     * <p>Always call {@link #stopRecordingTraversedDirectories()} (within a finally block) when done.</p>
+     *
+     * @since 4.1.1
+     */
+    public static void startRecordingTraversedDirectories() {
+        TRAVERSED_DIRECTORIES.set(new ConcurrentSkipListSet<File>());
+    }
+
+    /**
+     * Stops recording traversed directories on the calling thread.
+     *
+     * @return The directories traversed (and non-existent source paths found) since the recording was started,
+     * or an empty SortedSet if no recording was started.
+     * @since 4.1.1
+     */
+    public static SortedSet<File> stopRecordingTraversedDirectories() {
+
+        final Set<File> recorded = TRAVERSED_DIRECTORIES.get();
+        TRAVERSED_DIRECTORIES.remove();
+        return recorded == null ? new TreeSet<File>() : new TreeSet<File>(recorded);
+    }
+
     //
     // Private helpers
     //
@@ -634,15 +766,7 @@ public final class FileSystemUtilities {
             final boolean excludeFilterOperation,
             final Log log) {
 
-        //
-        // When no filters are supplied...
-        // [Include Operation]: all files will be rejected
-        // [Exclude Operation]: all files will be included
-        //
-        final boolean noFilters = fileFilters == null || fileFilters.isEmpty();
-        final boolean addFile = excludeFilterOperation
-                ? noFilters || Filters.rejectAtLeastOnce(current, fileFilters)
-                : noFilters || Filters.matchAtLeastOnce(current, fileFilters);
+        final boolean addFile = isAccepted(current, fileFilters, excludeFilterOperation);
         final String logPrefix =
                 (addFile ? "Accepted " : "Rejected ") + (current.isDirectory() ? "directory" : "file") + " [";
 
@@ -655,6 +779,28 @@ public final class FileSystemUtilities {
         }
     }
 
+    /**
+     * Matches the supplied File using the supplied Filters.
+     *
+     * @param current                The File to match.
+     * @param fileFilters            The Filters to match. May be null or empty.
+     * @param excludeFilterOperation if {@code true}, the fileFilters are considered exclude filters.
+     * @return {@code true} if the supplied File should be included in a listing.
+     */
+    static boolean isAccepted(
+            final File current, final List<Filter<File>> fileFilters, final boolean excludeFilterOperation) {
+
+        //
+        // When no filters are supplied...
+        // [Include Operation]: all files will be rejected
+        // [Exclude Operation]: all files will be included
+        //
+        final boolean noFilters = fileFilters == null || fileFilters.isEmpty();
+        return excludeFilterOperation
+                ? noFilters || Filters.rejectAtLeastOnce(current, fileFilters)
+                : noFilters || Filters.matchAtLeastOnce(current, fileFilters);
+    }
+
     private static void validateFileOrDirectoryName(final File fileOrDir) {
 
         if (Os.isFamily(Os.FAMILY_WINDOWS) && !FileUtils.isValidWindowsFileName(fileOrDir)) {
@@ -664,22 +810,24 @@ public final class FileSystemUtilities {
         }
     }
 
+    private static void recordTraversedDirectory(final File aDirectory) {
+
+        final Set<File> recorder = TRAVERSED_DIRECTORIES.get();
+        if (recorder != null) {
+            recorder.add(aDirectory.getAbsoluteFile());
+        }
+    }
+
     private static void recurseAndPopulate(
             final List<File> toPopulate,
             final List<Filter<File>> fileFilters,
             final File aDirectory,
             final boolean excludeOperation,
+            final boolean parallel,
             final Log log) {
 
-        final List<File> files = listFiles(aDirectory, fileFilters, excludeOperation, log);
-        for (File current : files) {
-            if (EXISTING_FILE.accept(current)) {
-                toPopulate.add(current);
-            }
-
-            if (EXISTING_DIRECTORY.accept(current)) {
-                recurseAndPopulate(toPopulate, fileFilters, current, excludeOperation, log);
-            }
-        }
+        // Walk the directory, applying the same rules as the listFiles method.
+        toPopulate.addAll(new FileTreeWalker(fileFilters, excludeOperation, log, TRAVERSED_DIRECTORIES.get())
+                .walk(aDirectory, parallel));
     }
 }
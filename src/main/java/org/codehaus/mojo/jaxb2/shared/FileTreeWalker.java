@@ -0,0 +1,275 @@
+package org.codehaus.mojo.jaxb2.shared;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.filters.Filter;
+
+/**
+ * <p>NIO-based walker finding all files below a directory, reading the attributes of each entry only once.
+ * The FileTreeWalker applies the same rules as the (recursive) listing methods within FileSystemUtilities:</p>
+ * <ol>
+ * <li>Files and directories whose names start with '.' are ignored.</li>
+ * <li>Each file and directory is matched by the supplied Filters, using either include or exclude semantics.
+ * Rejected directories are not traversed.</li>
+ * <li>Symbolic links are followed, but directory cycles are not traversed more than once.</li>
+ * </ol>
+ * <p>For large trees, the walk can be performed in parallel by the common ForkJoinPool, where each directory
+ * is listed by a separate task. The results are always returned in the order of a sequential walk.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+final class FileTreeWalker {
+
+    // Internal state
+    private final List<Filter<File>> fileFilters;
+    private final boolean excludeOperation;
+    private final Log log;
+    private final Set<File> traversedDirectories;
+
+    /**
+     * Compound constructor creating a FileTreeWalker applying the supplied Filters.
+     *
+     * @param fileFilters      The Filters to apply to each file and directory. May be null or empty.
+     * @param excludeOperation if {@code true}, the fileFilters are considered exclude filters.
+     *                         Otherwise they are considered include filters.
+     * @param log              The active Maven Log.
+     */
+    FileTreeWalker(final List<Filter<File>> fileFilters, final boolean excludeOperation, final Log log) {
+        this(fileFilters, excludeOperation, log, null);
+    }
+
+    /**
+     * Compound constructor creating a FileTreeWalker applying the supplied Filters, and recording all
+     * traversed directories.
+     *
+     * @param fileFilters          The Filters to apply to each file and directory. May be null or empty.
+     * @param excludeOperation     if {@code true}, the fileFilters are considered exclude filters.
+     *                             Otherwise they are considered include filters.
+     * @param log                  The active Maven Log.
+     * @param traversedDirectories A thread-safe Set to which all traversed directories are added, or
+     *                             {@code null} if traversed directories should not be recorded.
+     */
+    FileTreeWalker(
+            final List<Filter<File>> fileFilters,
+            final boolean excludeOperation,
+            final Log log,
+            final Set<File> traversedDirectories) {
+
+        // Check sanity
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.fileFilters = fileFilters;
+        this.excludeOperation = excludeOperation;
+        this.log = log;
+        this.traversedDirectories = traversedDirectories;
+    }
+
+    /**
+     * Finds all files below the supplied directory, which are accepted by the Filters of this FileTreeWalker.
+     *
+     * @param aDirectory The directory to walk. The directory itself is not matched by the Filters.
+     * @param parallel   if {@code true}, directories are listed in parallel within the common ForkJoinPool.
+     * @return All files found below the supplied directory which are accepted by the Filters of this FileTreeWalker.
+     */
+    List<File> walk(final File aDirectory, final boolean parallel) {
+
+        // Check sanity
+        Validate.notNull(aDirectory, "aDirectory");
+
+        final Path root = aDirectory.toPath();
+        if (parallel) {
+            return ForkJoinPool.commonPool().invoke(new DirectoryTask(root, Collections.<Object>emptyList()));
+        }
+
+        final List<File> toReturn = new ArrayList<File>();
+        try {
+            Files.walkFileTree(
+                    root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+
+                        @Override
+                        public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+
+                            // Always traverse the root directory.
+                            if (dir.equals(root) || isAccepted(dir, attrs)) {
+                                recordTraversed(dir);
+                                return FileVisitResult.CONTINUE;
+                            }
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+
+                            if (attrs.isRegularFile() && isAccepted(file, attrs)) {
+                                toReturn.add(file.toFile());
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+
+                            logUnreadable(file, e);
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not walk directory [" + aDirectory + "]", e);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    //
+    // Private helpers
+    //
+
+    private boolean isAccepted(final Path path, final BasicFileAttributes attrs) {
+
+        // Typically, hidden files and directories start with '.'
+        // Except them from automagic filtering.
+        final Path fileName = path.getFileName();
+        if (fileName == null || fileName.toString().startsWith(".")) {
+            return false;
+        }
+
+        final boolean toReturn = FileSystemUtilities.isAccepted(path.toFile(), fileFilters, excludeOperation);
+
+        if (log.isDebugEnabled()) {
+            log.debug((toReturn ? "Accepted " : "Rejected ") + (attrs.isDirectory() ? "directory" : "file") + " ["
+                    + path + "]");
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private void recordTraversed(final Path directory) {
+        if (traversedDirectories != null) {
+            traversedDirectories.add(directory.toFile().getAbsoluteFile());
+        }
+    }
+
+    private void logUnreadable(final Path path, final IOException e) {
+
+        if (log.isDebugEnabled()) {
+            final String reason = e instanceof FileSystemLoopException ? "directory cycle" : e.getMessage();
+            log.debug("Ignoring unreadable path [" + path + "]: " + reason);
+        }
+    }
+
+    /**
+     * RecursiveTask listing a single directory, and forking a new DirectoryTask for each accepted subdirectory.
+     */
+    private final class DirectoryTask extends RecursiveTask<List<File>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final List<Object> ancestorKeys;
+
+        DirectoryTask(final Path directory, final List<Object> ancestorKeys) {
+            this.directory = directory;
+            this.ancestorKeys = ancestorKeys;
+        }
+
+        @Override
+        protected List<File> compute() {
+
+            // Holds Files for accepted files, and DirectoryTasks for accepted subdirectories, in listing order.
+            final List<Object> results = new ArrayList<Object>();
+
+            try {
+
+                final BasicFileAttributes directoryAttrs = Files.readAttributes(directory, BasicFileAttributes.class);
+                final Object directoryKey = directoryAttrs.fileKey();
+                if (directoryKey != null && ancestorKeys.contains(directoryKey)) {
+                    logUnreadable(directory, new FileSystemLoopException(directory.toString()));
+                    return Collections.emptyList();
+                }
+
+                recordTraversed(directory);
+                final List<Object> childAncestorKeys = new ArrayList<Object>(ancestorKeys);
+                childAncestorKeys.add(directoryKey);
+
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                    for (Path current : children) {
+
+                        final BasicFileAttributes attrs;
+                        try {
+                            attrs = Files.readAttributes(current, BasicFileAttributes.class);
+                        } catch (IOException e) {
+                            logUnreadable(current, e);
+                            continue;
+                        }
+
+                        if (attrs.isDirectory()) {
+                            if (isAccepted(current, attrs)) {
+
+                                final DirectoryTask subTask = new DirectoryTask(current, childAncestorKeys);
+                                subTask.fork();
+                                results.add(subTask);
+                            }
+                        } else if (attrs.isRegularFile() && isAccepted(current, attrs)) {
+                            results.add(current.toFile());
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logUnreadable(directory, e);
+            }
+
+            // Join the subtasks in listing order.
+            final List<File> toReturn = new ArrayList<File>();
+            for (Object current : results) {
+                if (current instanceof DirectoryTask) {
+                    toReturn.addAll(((DirectoryTask) current).join());
+                } else {
+                    toReturn.add((File) current);
+                }
+            }
+
+            // All done.
+            return toReturn;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.codehaus.mojo.jaxb2.shared;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Immutable snapshot of the sources resolved for a single Mojo execution. Resolving sources implies scanning
+ * the configured source directories and applying the exclude Filters, which is not cheap for large source trees.
+ * Hence, the sources are resolved once per execution, and the resulting ResolvedSources snapshot is shared by the
+ * staleness check, the argument synthesis and any post-processing.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class ResolvedSources {
+
+    // Internal state
+    private final List<URL> sources;
+    private final List<File> bindings;
+    private final long scanTimeNanos;
+    private final SortedSet<File> traversedDirectories;
+
+    /**
+     * Compound constructor creating a ResolvedSources snapshot from the supplied data.
+     *
+     * @param sources       The non-null resolved sources.
+     * @param bindings      The non-null resolved binding (i.e. XJB) files.
+     * @param scanTimeNanos The time (in nanoseconds) required to resolve the sources and bindings.
+     */
+    public ResolvedSources(final List<URL> sources, final List<File> bindings, final long scanTimeNanos) {
+        this(sources, bindings, scanTimeNanos, new TreeSet<File>());
+    }
+
+    /**
+     * Compound constructor creating a ResolvedSources snapshot from the supplied data.
+     *
+     * @param sources              The non-null resolved sources.
+     * @param bindings             The non-null resolved binding (i.e. XJB) files.
+     * @param scanTimeNanos        The time (in nanoseconds) required to resolve the sources and bindings.
+     * @param traversedDirectories The non-null directories traversed while resolving the sources and bindings,
+     *                             including configured source paths which did not exist.
+     * @since 4.1.1
+     */
+    public ResolvedSources(
+            final List<URL> sources,
+            final List<File> bindings,
+            final long scanTimeNanos,
+            final SortedSet<File> traversedDirectories) {
+
+        // Check sanity
+        Validate.notNull(sources, "sources");
+        Validate.notNull(bindings, "bindings");
+        Validate.notNull(traversedDirectories, "traversedDirectories");
+
+        // Assign internal state
+        this.sources = Collections.unmodifiableList(new ArrayList<URL>(sources));
+        this.bindings = Collections.unmodifiableList(new ArrayList<File>(bindings));
+        this.scanTimeNanos = scanTimeNanos;
+        this.traversedDirectories = Collections.unmodifiableSortedSet(new TreeSet<File>(traversedDirectories));
+    }
+
+    /**
+     * @return An unmodifiable List holding the URLs of the resolved sources.
+     */
+    public List<URL> getSources() {
+        return sources;
+    }
+
+    /**
+     * @return An unmodifiable List holding the resolved binding (i.e. XJB) files.
+     */
+    public List<File> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * @return An unmodifiable SortedSet holding the directories traversed while resolving the sources and
+     * bindings, including configured source paths which did not exist.
+     * @since 4.1.1
+     */
+    public SortedSet<File> getTraversedDirectories() {
+        return traversedDirectories;
+    }
+
+    /**
+     * @return The time (in nanoseconds) required to resolve the sources and bindings.
+     */
+    public long getScanTimeNanos() {
+        return scanTimeNanos;
+    }
+
+    /**
+     * @return The time (in milliseconds) required to resolve the sources and bindings.
+     */
+    public long getScanTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(scanTimeNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Resolved " + sources.size() + " sources and " + bindings.size() + " bindings in "
+                + getScanTimeMillis() + " ms";
+    }
+}
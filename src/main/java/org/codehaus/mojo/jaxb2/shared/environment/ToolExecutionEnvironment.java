@@ -21,6 +21,8 @@ package org.codehaus.mojo.jaxb2.shared.environment;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.mojo.jaxb2.shared.Validate;
@@ -28,21 +30,36 @@ import org.codehaus.mojo.jaxb2.shared.environment.classloading.ThreadContextClas
 import org.codehaus.mojo.jaxb2.shared.environment.classloading.ThreadContextClassLoaderHolder;
 import org.codehaus.mojo.jaxb2.shared.environment.locale.LocaleFacet;
 import org.codehaus.mojo.jaxb2.shared.environment.logging.LoggingHandlerEnvironmentFacet;
+import org.codehaus.mojo.jaxb2.shared.metrics.ExecutionMetrics;
 
 /**
  * Compound EnvironmentFacet implementation which is used to set up and use a collection
  * of other EnvironmentFacet instances during the run of the JAXB2 Maven Plugin.
+ * <p>The state of a ToolExecutionEnvironment is applied in two scopes, to permit running the plugin within
+ * parallel Maven builds ({@code mvn -T ...}):</p>
+ * <ol>
+ *     <li>The ThreadContext ClassLoader only affects the current Thread. It is set by {@code setup()} and
+ *     restored by {@code restore()}, so it is active during the entire execution of a Mojo.</li>
+ *     <li>All other EnvironmentFacets alter JVM-global state (such as System properties, the default Locale
+ *     and the Handlers of the JUL root Logger). They are only applied around the actual tool invocation, as
+ *     performed by {@link #execute(Callable)}, which holds a JVM-wide lock while the global state is altered.
+ *     Hence, the global state altered by one ToolExecutionEnvironment is never observed (or altered) by another
+ *     one executing concurrently - while all other work of concurrent executions proceeds in parallel.</li>
+ * </ol>
  *
  * @author <a href="mailto:lj@jguru.se">Lennart J&ouml;relid</a>, jGuru Europe AB
  */
 public class ToolExecutionEnvironment extends AbstractLogAwareFacet {
 
     // Internal state
+    private static final ReentrantLock TOOL_EXECUTION_LOCK = new ReentrantLock();
+
     private ThreadContextClassLoaderBuilder builder;
     private ThreadContextClassLoaderHolder holder;
     private LoggingHandlerEnvironmentFacet loggingHandlerEnvironmentFacet;
     private List<EnvironmentFacet> extraFacets;
     private LocaleFacet localeFacet;
+    private ExecutionMetrics metrics;
 
     /**
      * Creates a new ToolExecutionEnvironment object wrapping the supplied Maven Log.
@@ -73,7 +90,20 @@ public class ToolExecutionEnvironment extends AbstractLogAwareFacet {
     }
 
     /**
-     * Adds the supplied EnvironmentFacet to this ToolExecutionEnvironment.
+     * Assigns the ExecutionMetrics in which the time spent building the ThreadContext ClassLoader is recorded
+     * (as the "classLoader" phase) during {@link #setup()}.
+     *
+     * @param metrics The ExecutionMetrics of the active execution, or {@code null} to record no metrics.
+     * @since 4.1.1
+     */
+    public void setMetrics(final ExecutionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Adds the supplied EnvironmentFacet to this ToolExecutionEnvironment. Extra EnvironmentFacets are set up
+     * and restored around each tool call performed by {@link #execute(Callable)} - not between the {@code setup()}
+     * and {@code restore()} calls of this ToolExecutionEnvironment.
      *
      * @param facet the non-null EnvironmentFacet to add to this ToolExecutionEnvironment.
      */
@@ -118,25 +148,11 @@ public class ToolExecutionEnvironment extends AbstractLogAwareFacet {
             }
 
             // Build the ClassLoader as required for the JAXB tools
-            holder = builder.buildAndSet();
-
-            // Redirect the JUL logging handler used by the tools to the Maven log.
-            loggingHandlerEnvironmentFacet.setup();
-
-            // If requested, switch the locale
-            if (localeFacet != null) {
-                localeFacet.setup();
-            }
-
-            // Setup optional/extra environment facets
-            for (EnvironmentFacet current : extraFacets) {
-                try {
-                    current.setup();
-                } catch (Exception e) {
-                    throw new IllegalStateException(
-                            "Could not setup() EnvironmentFacet of type ["
-                                    + current.getClass().getName() + "]",
-                            e);
+            if (metrics == null) {
+                holder = builder.buildAndSet();
+            } else {
+                try (ExecutionMetrics.Phase phase = metrics.phase("classLoader")) {
+                    holder = builder.buildAndSet();
                 }
             }
 
@@ -157,40 +173,119 @@ public class ToolExecutionEnvironment extends AbstractLogAwareFacet {
     @Override
     public final void restore() {
 
+        if (log.isDebugEnabled()) {
+            log.debug("ToolExecutionEnvironment restore -- Starting.");
+        }
+
+        if (holder != null) {
+            // Restore the original ClassLoader
+            holder.restoreClassLoaderAndReleaseThread();
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("ToolExecutionEnvironment restore -- Done.");
+        }
+    }
+
+    /**
+     * Invokes the supplied tool call (such as XJC or SchemaGen) while holding the JVM-wide lock serializing all
+     * changes of JVM-global state, with the logging handler, locale and all extra EnvironmentFacets of this
+     * ToolExecutionEnvironment applied. The facets which were successfully set up are restored (and the lock
+     * released) before this method returns, even if setting up another facet fails. Note that the {@link #setup()}
+     * method must be invoked before this one is.
+     *
+     * @param toolCall The non-null tool call to invoke.
+     * @param <T>      The type of result of the tool call.
+     * @return The result of the tool call.
+     * @throws Exception if the tool call failed.
+     * @since 4.1.1
+     */
+    public <T> T execute(final Callable<T> toolCall) throws Exception {
+
+        // Check sanity
+        Validate.notNull(toolCall, "toolCall");
+        if (holder == null) {
+            throw new IllegalStateException("Cannot execute a tool before calling 'setup'");
+        }
+
+        if (!TOOL_EXECUTION_LOCK.tryLock()) {
+
+            if (log.isInfoEnabled()) {
+                log.info("Waiting for another JAXB2 tool execution to complete.");
+            }
+            TOOL_EXECUTION_LOCK.lock();
+        }
+
         try {
 
-            if (log.isDebugEnabled()) {
-                log.debug("ToolExecutionEnvironment restore -- Starting.");
+            // Only the facets which were successfully set up are restored.
+            final List<EnvironmentFacet> appliedFacets = new ArrayList<EnvironmentFacet>();
+            try {
+                setupGlobalFacets(appliedFacets);
+                return toolCall.call();
+            } finally {
+                restoreGlobalFacets(appliedFacets);
+            }
+        } finally {
+
+            // Permit other ToolExecutionEnvironments to proceed.
+            TOOL_EXECUTION_LOCK.unlock();
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void setupGlobalFacets(final List<EnvironmentFacet> appliedFacets) {
+
+        // Redirect the JUL logging handler used by the tools to the Maven log.
+        loggingHandlerEnvironmentFacet.setup();
+        appliedFacets.add(loggingHandlerEnvironmentFacet);
+
+        // If requested, switch the locale
+        if (localeFacet != null) {
+            localeFacet.setup();
+            appliedFacets.add(localeFacet);
+        }
+
+        // Setup optional/extra environment facets
+        for (EnvironmentFacet current : extraFacets) {
+            try {
+                current.setup();
+                appliedFacets.add(current);
+            } catch (Exception e) {
+                throw new IllegalStateException(
+                        "Could not setup() EnvironmentFacet of type [" + current.getClass().getName() + "]", e);
             }
+        }
+    }
+
+    private void restoreGlobalFacets(final List<EnvironmentFacet> appliedFacets) {
 
+        try {
             for (EnvironmentFacet current : extraFacets) {
-                try {
-                    current.restore();
-                } catch (Exception e) {
-                    throw new IllegalStateException(
-                            "Could not restore() EnvironmentFacet of type ["
-                                    + current.getClass().getName() + "]",
-                            e);
+                if (appliedFacets.contains(current)) {
+                    try {
+                        current.restore();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(
+                                "Could not restore() EnvironmentFacet of type [" + current.getClass().getName() + "]",
+                                e);
+                    }
                 }
             }
         } finally {
 
             // Restore the logging handler structure.
-            loggingHandlerEnvironmentFacet.restore();
+            if (appliedFacets.contains(loggingHandlerEnvironmentFacet)) {
+                loggingHandlerEnvironmentFacet.restore();
+            }
 
             // Restore the original locale
-            if (localeFacet != null) {
+            if (localeFacet != null && appliedFacets.contains(localeFacet)) {
                 localeFacet.restore();
             }
-
-            if (holder != null) {
-                // Restore the original ClassLoader
-                holder.restoreClassLoaderAndReleaseThread();
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug("ToolExecutionEnvironment restore -- Done.");
-            }
         }
     }
 }
@@ -0,0 +1,284 @@
+package org.codehaus.mojo.jaxb2.shared.environment.classloading;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Cache of URLClassLoaders, permitting several tool executions within the same JVM (such as the modules
+ * of a multi-module reactor, or the builds of a long-lived Maven daemon) to re-use classes which are already
+ * loaded and JIT-compiled. Each cached URLClassLoader is identified by a fingerprint synthesized from its parent
+ * ClassLoader and the URL, lastModified timestamp and size of each of its classpath elements; hence, a rebuilt
+ * JAR yields a new fingerprint and therefore a new URLClassLoader.</p>
+ * <p>URLClassLoaders are leased from the cache by {@link #acquire(List, ClassLoader, Log)}, and must be returned
+ * by {@link #release(ClassLoader)}. When the cache holds more than its maximum number of URLClassLoaders, the
+ * least recently used ones are evicted and closed as soon as they are no longer leased. The {@link #close()}
+ * method evicts all URLClassLoaders explicitly.</p>
+ * <p>The ClassLoaderCache shared by all executions within a JVM (see {@link #getDefault(Object)}) is bound to a
+ * build session: when the first execution of a new session (such as the next build within a Maven daemon) leases
+ * it, all URLClassLoaders cached by previous sessions are evicted and closed - releasing their JAR file handles
+ * and ensuring that rebuilt tool JARs are picked up.</p>
+ * <p>Only use a ClassLoaderCache for classpath elements which do not change during the lifetime of the cached
+ * URLClassLoader (such as JAR files); classes within directories cannot be reliably fingerprinted.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class ClassLoaderCache {
+
+    /**
+     * The default maximum number of URLClassLoaders held by a ClassLoaderCache.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 8;
+
+    // Internal state
+    private static final ClassLoaderCache DEFAULT_CACHE = new ClassLoaderCache(DEFAULT_MAXIMUM_SIZE);
+    private static WeakReference<Object> defaultCacheSession = new WeakReference<Object>(null);
+
+    private final int maximumSize;
+    private final LinkedHashMap<String, CacheEntry> entries;
+    private final List<CacheEntry> evictedEntries;
+
+    /**
+     * Creates a new ClassLoaderCache holding up to the supplied number of URLClassLoaders.
+     *
+     * @param maximumSize The maximum number of URLClassLoaders held by this ClassLoaderCache. Must be positive.
+     */
+    public ClassLoaderCache(final int maximumSize) {
+
+        // Check sanity
+        Validate.isTrue(maximumSize > 0, "maximumSize must be positive.");
+
+        // Assign internal state
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+        this.evictedEntries = new ArrayList<CacheEntry>();
+    }
+
+    /**
+     * @return The ClassLoaderCache shared by all executions of this plugin within the running JVM.
+     */
+    public static ClassLoaderCache getDefault() {
+        return DEFAULT_CACHE;
+    }
+
+    /**
+     * Retrieves the ClassLoaderCache shared by all executions of this plugin within the running JVM, binding it
+     * to the supplied build session. If the shared ClassLoaderCache was last used within another session, all its
+     * URLClassLoaders are evicted (and closed, as soon as they are no longer leased) first.
+     *
+     * @param session The current build session (typically the MavenSession), or {@code null} if unknown - in
+     *                which case the shared ClassLoaderCache is returned as is.
+     * @return The ClassLoaderCache shared by all executions of this plugin within the running JVM.
+     */
+    public static ClassLoaderCache getDefault(final Object session) {
+
+        synchronized (DEFAULT_CACHE) {
+            if (session != null && defaultCacheSession.get() != session) {
+                DEFAULT_CACHE.close();
+                defaultCacheSession = new WeakReference<Object>(session);
+            }
+        }
+
+        // All done.
+        return DEFAULT_CACHE;
+    }
+
+    /**
+     * Leases a URLClassLoader for the supplied URLs and parent ClassLoader from this ClassLoaderCache,
+     * creating the URLClassLoader unless an identical one is already cached.
+     *
+     * @param urls   The non-null URLs of the URLClassLoader.
+     * @param parent The non-null parent ClassLoader of the URLClassLoader.
+     * @param log    The active Maven Log.
+     * @return A URLClassLoader which must be returned to this ClassLoaderCache by a call to
+     * {@link #release(ClassLoader)} after use.
+     */
+    public synchronized URLClassLoader acquire(final List<URL> urls, final ClassLoader parent, final Log log) {
+
+        // Check sanity
+        Validate.notNull(urls, "urls");
+        Validate.notNull(parent, "parent");
+        Validate.notNull(log, "log");
+
+        final String fingerprint = getFingerprint(urls, parent);
+        CacheEntry entry = entries.get(fingerprint);
+
+        if (entry != null && entry.classLoader.getParent() == parent) {
+
+            if (log.isDebugEnabled()) {
+                log.debug("Re-using cached ClassLoader for " + urls.size() + " classpath elements.");
+            }
+        } else {
+
+            if (log.isDebugEnabled()) {
+                log.debug("Creating cached ClassLoader for " + urls.size() + " classpath elements.");
+            }
+
+            if (entry != null) {
+                evict(entry);
+            }
+
+            entry = new CacheEntry(new URLClassLoader(urls.toArray(new URL[urls.size()]), parent));
+            entries.put(fingerprint, entry);
+
+            // Evict the least recently used entries.
+            final Iterator<CacheEntry> it = entries.values().iterator();
+            while (entries.size() > maximumSize && it.hasNext()) {
+
+                final CacheEntry current = it.next();
+                if (current != entry) {
+                    it.remove();
+                    evict(current);
+                }
+            }
+        }
+
+        // All done.
+        entry.leases++;
+        return entry.classLoader;
+    }
+
+    /**
+     * Returns a URLClassLoader leased by {@link #acquire(List, ClassLoader, Log)} to this ClassLoaderCache.
+     * Evicted URLClassLoaders are closed when their last lease is returned.
+     *
+     * @param classLoader The URLClassLoader to return.
+     */
+    public synchronized void release(final ClassLoader classLoader) {
+
+        // Check sanity
+        Validate.notNull(classLoader, "classLoader");
+
+        for (CacheEntry current : entries.values()) {
+            if (current.classLoader == classLoader) {
+                current.leases = Math.max(0, current.leases - 1);
+                return;
+            }
+        }
+
+        for (Iterator<CacheEntry> it = evictedEntries.iterator(); it.hasNext(); ) {
+
+            final CacheEntry current = it.next();
+            if (current.classLoader == classLoader) {
+
+                current.leases = Math.max(0, current.leases - 1);
+                if (current.leases == 0) {
+                    it.remove();
+                    closeQuietly(current.classLoader);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The number of URLClassLoaders currently cached within this ClassLoaderCache.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Evicts all URLClassLoaders from this ClassLoaderCache. URLClassLoaders which are not leased are closed
+     * immediately; the others are closed when their last lease is returned.
+     */
+    public synchronized void close() {
+
+        for (CacheEntry current : entries.values()) {
+            evict(current);
+        }
+        entries.clear();
+    }
+
+    /**
+     * Synthesizes the fingerprint of a URLClassLoader for the supplied URLs and parent ClassLoader.
+     * The fingerprint includes the lastModified timestamp and size of all URLs referring to local files.
+     *
+     * @param urls   The non-null URLs of the URLClassLoader.
+     * @param parent The non-null parent ClassLoader of the URLClassLoader.
+     * @return The fingerprint of the URLClassLoader.
+     */
+    static String getFingerprint(final List<URL> urls, final ClassLoader parent) {
+
+        final StringBuilder builder = new StringBuilder();
+        builder.append(parent.getClass().getName())
+                .append('@')
+                .append(Integer.toHexString(System.identityHashCode(parent)));
+
+        for (URL current : urls) {
+
+            builder.append('\n').append(current.toString());
+            if ("file".equalsIgnoreCase(current.getProtocol())) {
+
+                final File file = new File(current.getPath());
+                builder.append(',').append(file.lastModified()).append(',').append(file.length());
+            }
+        }
+
+        // All done.
+        return builder.toString();
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void evict(final CacheEntry entry) {
+
+        if (entry.leases == 0) {
+            closeQuietly(entry.classLoader);
+        } else {
+            evictedEntries.add(entry);
+        }
+    }
+
+    private static void closeQuietly(final URLClassLoader classLoader) {
+        try {
+            classLoader.close();
+        } catch (IOException e) {
+            // Ignore this; the ClassLoader is no longer used.
+        }
+    }
+
+    /**
+     * A cached URLClassLoader and the number of its outstanding leases.
+     */
+    private static final class CacheEntry {
+
+        private final URLClassLoader classLoader;
+        private int leases;
+
+        CacheEntry(final URLClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+    }
+}
@@ -93,6 +93,7 @@ public final class ThreadContextClassLoaderBuilder {
     private List<URL> urlList;
     private Log log;
     private String encoding;
+    private ClassLoaderCache classLoaderCache;
 
     private ThreadContextClassLoaderBuilder(final ClassLoader classLoader, final Log aLog, final String encoding) {
         log = aLog;
@@ -146,6 +147,22 @@ public final class ThreadContextClassLoaderBuilder {
         return this;
     }
 
+    /**
+     * Assigns a ClassLoaderCache from which the ClassLoader for the leading JAR (i.e. non-directory) URLs should be
+     * leased, permitting several tool executions to re-use already loaded classes. The first directory URL and
+     * all URLs following it are always loaded by a new ClassLoader, whose parent is the cached one - hence
+     * retaining the order of the classpath.
+     *
+     * @param cache The ClassLoaderCache to use, or {@code null} to always create new ClassLoaders.
+     * @return This ThreadContextClassLoaderBuilder, for builder pattern chaining.
+     * @since 4.1.1
+     */
+    public ThreadContextClassLoaderBuilder withClassLoaderCache(final ClassLoaderCache cache) {
+
+        this.classLoaderCache = cache;
+        return this;
+    }
+
     /**
      * Converts the supplied path to an URL and adds it to this ThreadContextClassLoaderBuilder.
      *
@@ -206,9 +223,32 @@ public final class ThreadContextClassLoaderBuilder {
     public ThreadContextClassLoaderHolder buildAndSet() {
 
         // Create the URLClassLoader from the supplied URLs
-        final URL[] allURLs = new URL[urlList.size()];
-        urlList.toArray(allURLs);
-        final URLClassLoader classLoader = new URLClassLoader(allURLs, originalClassLoader);
+        final URLClassLoader classLoader;
+        URLClassLoader cachedClassLoader = null;
+        if (classLoaderCache == null) {
+
+            final URL[] allURLs = new URL[urlList.size()];
+            urlList.toArray(allURLs);
+            classLoader = new URLClassLoader(allURLs, originalClassLoader);
+        } else {
+
+            // Lease a ClassLoader for the leading JARs, i.e. those preceding the first directory.
+            // All remaining URLs are loaded - in their original order - by a separate child ClassLoader.
+            // Since the child delegates to the leased ClassLoader first, the classpath order is retained.
+            int firstDirectoryIndex = 0;
+            while (firstDirectoryIndex < urlList.size() && !urlList.get(firstDirectoryIndex).getPath().endsWith("/")) {
+                firstDirectoryIndex++;
+            }
+            final List<URL> jarURLs = new ArrayList<URL>(urlList.subList(0, firstDirectoryIndex));
+            final List<URL> remainingURLs = urlList.subList(firstDirectoryIndex, urlList.size());
+
+            ClassLoader parentClassLoader = originalClassLoader;
+            if (!jarURLs.isEmpty()) {
+                cachedClassLoader = classLoaderCache.acquire(jarURLs, originalClassLoader, log);
+                parentClassLoader = cachedClassLoader;
+            }
+            classLoader = new URLClassLoader(remainingURLs.toArray(new URL[remainingURLs.size()]), parentClassLoader);
+        }
 
         // Assign the ThreadContext ClassLoader
         final Thread currentThread = Thread.currentThread();
@@ -227,6 +267,9 @@ public final class ThreadContextClassLoaderBuilder {
         } catch (Exception e) {
             // Restore the original classloader to the active thread before failing.
             currentThread.setContextClassLoader(originalClassLoader);
+            if (cachedClassLoader != null) {
+                classLoaderCache.release(cachedClassLoader);
+            }
             throw new IllegalStateException("Could not synthesize classpath from original classloader.", e);
         }
 
@@ -235,7 +278,8 @@ public final class ThreadContextClassLoaderBuilder {
                 : "";
 
         // All done.
-        return new DefaultHolder(currentThread, this.originalClassLoader, classPathString);
+        return new DefaultHolder(
+                currentThread, this.originalClassLoader, classPathString, classLoaderCache, cachedClassLoader);
     }
 
     /**
@@ -361,6 +405,8 @@ public final class ThreadContextClassLoaderBuilder {
         private Thread affectedThread;
         private ClassLoader originalClassLoader;
         private String classPathArgument;
+        private ClassLoaderCache classLoaderCache;
+        private ClassLoader cachedClassLoader;
 
         /**
          * Compound constructor creating a default-implementation {@link ThreadContextClassLoaderHolder} which
@@ -374,6 +420,26 @@ public final class ThreadContextClassLoaderBuilder {
          */
         public DefaultHolder(
                 final Thread affectedThread, final ClassLoader originalClassLoader, final String classPathArgument) {
+            this(affectedThread, originalClassLoader, classPathArgument, null, null);
+        }
+
+        /**
+         * Compound constructor creating a default-implementation {@link ThreadContextClassLoaderHolder} which
+         * also returns a ClassLoader leased from a {@link ClassLoaderCache} when restoring the original ClassLoader.
+         *
+         * @param affectedThread      The non-null Thread for which a new ClassLoader should be constructed.
+         * @param originalClassLoader The non-null original ClassLoader.
+         * @param classPathArgument   The non-null classpath argument, to be returned
+         *                            from the method call to {@link #getClassPathAsArgument()}.
+         * @param classLoaderCache    The ClassLoaderCache from which the cachedClassLoader was leased, or null.
+         * @param cachedClassLoader   The ClassLoader leased from the classLoaderCache, or null.
+         */
+        public DefaultHolder(
+                final Thread affectedThread,
+                final ClassLoader originalClassLoader,
+                final String classPathArgument,
+                final ClassLoaderCache classLoaderCache,
+                final ClassLoader cachedClassLoader) {
 
             // Check sanity
             Validate.notNull(affectedThread, "affectedThread");
@@ -384,6 +450,8 @@ public final class ThreadContextClassLoaderBuilder {
             this.affectedThread = affectedThread;
             this.originalClassLoader = originalClassLoader;
             this.classPathArgument = classPathArgument;
+            this.classLoaderCache = classLoaderCache;
+            this.cachedClassLoader = cachedClassLoader;
         }
 
         /**
@@ -397,7 +465,14 @@ public final class ThreadContextClassLoaderBuilder {
                 // Restore original state
                 affectedThread.setContextClassLoader(originalClassLoader);
 
+                // Return any leased ClassLoader to its cache
+                if (cachedClassLoader != null) {
+                    classLoaderCache.release(cachedClassLoader);
+                }
+
                 // Null out the internal state
+                cachedClassLoader = null;
+                classLoaderCache = null;
                 affectedThread = null;
                 originalClassLoader = null;
                 classPathArgument = null;
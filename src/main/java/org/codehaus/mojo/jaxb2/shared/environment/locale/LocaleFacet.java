@@ -53,7 +53,6 @@ public class LocaleFacet extends AbstractLogAwareFacet {
         Validate.notNull(newLocale, "usedLocale");
 
         // Assign internal state
-        this.originalLocale = Locale.getDefault();
         this.newLocale = newLocale;
     }
 
@@ -64,6 +63,9 @@ public class LocaleFacet extends AbstractLogAwareFacet {
     @Override
     public void setup() {
 
+        // Remember the Locale active when the tool execution starts, rather than when this facet was created.
+        originalLocale = Locale.getDefault();
+
         if (log.isInfoEnabled()) {
             log.info("Setting default locale to [" + newLocale + "]");
         }
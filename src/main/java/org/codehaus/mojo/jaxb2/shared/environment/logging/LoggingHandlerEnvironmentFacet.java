@@ -79,7 +79,6 @@ public class LoggingHandlerEnvironmentFacet extends AbstractLogAwareFacet {
         this.originalHandlers = new ArrayList<Handler>();
         this.logPrefix = logPrefix;
         rootLogger = Logger.getLogger("");
-        originalRootLoggerLevel = rootLogger.getLevel();
         this.encoding = encoding;
         this.loggerNamePrefixes = loggerNamePrefixes;
     }
@@ -91,6 +90,11 @@ public class LoggingHandlerEnvironmentFacet extends AbstractLogAwareFacet {
     @Override
     public void setup() {
 
+        // Capture the original state of the root Logger when the tool execution starts.
+        originalRootLoggerLevel = rootLogger.getLevel();
+        originalHandlers.clear();
+        restored = false;
+
         // Redirect the JUL Logging statements to the Maven Log.
         rootLogger.setLevel(MavenLogHandler.getJavaUtilLoggingLevelFor(log));
         this.mavenLogHandler = new MavenLogHandler(log, logPrefix, encoding, loggerNamePrefixes);
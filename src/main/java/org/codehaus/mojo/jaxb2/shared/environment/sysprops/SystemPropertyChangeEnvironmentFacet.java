@@ -102,9 +102,8 @@ public final class SystemPropertyChangeEnvironmentFacet extends AbstractLogAware
 
         // Assign internal state
         this.key = key;
-        this.originalValue = System.getProperty(key);
         this.newValue = newValue;
-        this.type = existsAsSystemProperty(key) ? ChangeType.CHANGE : ChangeType.ADD;
+        this.type = ChangeType.CHANGE;
     }
 
     /**
@@ -113,6 +112,12 @@ public final class SystemPropertyChangeEnvironmentFacet extends AbstractLogAware
     @Override
     public void setup() {
 
+        // Capture the original state when the tool execution starts, rather than when this facet was created.
+        originalValue = System.getProperty(key);
+        if (type != ChangeType.REMOVE) {
+            type = existsAsSystemProperty(key) ? ChangeType.CHANGE : ChangeType.ADD;
+        }
+
         if (type == ChangeType.REMOVE) {
             System.clearProperty(key);
         } else {
@@ -130,7 +135,7 @@ public final class SystemPropertyChangeEnvironmentFacet extends AbstractLogAware
     @Override
     public void restore() {
 
-        if (type == ChangeType.ADD) {
+        if (type == ChangeType.ADD || originalValue == null) {
             System.clearProperty(key);
         } else {
             System.setProperty(key, originalValue);
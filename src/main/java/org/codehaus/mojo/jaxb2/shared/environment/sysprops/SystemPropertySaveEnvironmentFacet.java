@@ -18,11 +18,11 @@ import org.codehaus.mojo.jaxb2.shared.environment.AbstractLogAwareFacet;
  */
 public final class SystemPropertySaveEnvironmentFacet extends AbstractLogAwareFacet {
     private final String key;
-    private final String originalValue;
+    private String originalValue;
 
     /**
      * Creates a SystemPropertySave which will remember the original value of the
-     * supplied system property for the duration of this SystemPropertySave.
+     * supplied system property from {@code setup()} until {@code restore()}.
      *
      * @param key A non-null key.
      * @param log The active Maven Log.
@@ -33,7 +33,6 @@ public final class SystemPropertySaveEnvironmentFacet extends AbstractLogAwareFa
 
         // Assign internal state
         this.key = key;
-        this.originalValue = System.getProperty(key);
     }
 
     /**
@@ -57,7 +56,8 @@ public final class SystemPropertySaveEnvironmentFacet extends AbstractLogAwareFa
      */
     @Override
     public void setup() {
-        // Do nothing, value is saved in constructor
+        // Save the value active when the tool execution starts.
+        originalValue = System.getProperty(key);
 
         if (log.isDebugEnabled()) {
             log.debug("Setup " + toString());
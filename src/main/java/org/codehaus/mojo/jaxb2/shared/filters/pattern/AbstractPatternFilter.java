@@ -43,7 +43,7 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
     // Internal state
     private boolean acceptCandidateOnPatternMatch;
     private StringConverter<T> converter;
-    private List<Pattern> regularExpressions;
+    private CompiledPatternSet compiledPatterns;
     private String patternPrefix;
     private List<String> patterns;
 
@@ -168,7 +168,7 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
 
         } else {
             // Complete internal state
-            regularExpressions = convert(patterns, patternPrefix);
+            compiledPatterns = new CompiledPatternSet(patterns, patternPrefix);
         }
     }
 
@@ -211,19 +211,18 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
         final String candidateString = convert(nonNullCandidate);
         boolean atLeastOnePatternMatched = false;
 
-        if (regularExpressions != null) {
-            for (Pattern current : regularExpressions) {
-                if (current.matcher(candidateString).matches()) {
+        if (compiledPatterns != null) {
 
-                    if (log.isDebugEnabled()) {
-                        log.debug("CandidateString [" + candidateString + "] matched pattern [" + current.pattern()
-                                + "]");
-                    }
+            // The CompiledPatternSet short-circuits on the first matching pattern.
+            final String matchedPattern = compiledPatterns.findMatch(candidateString);
+            if (matchedPattern != null) {
 
-                    // Adjust and return
-                    atLeastOnePatternMatched = true;
-                    break;
+                if (log.isDebugEnabled()) {
+                    log.debug("CandidateString [" + candidateString + "] matched pattern [" + matchedPattern + "]");
                 }
+
+                // Adjust and return
+                atLeastOnePatternMatched = true;
             }
         }
 
@@ -255,6 +254,26 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
      */
     public static List<Pattern> convert(final List<String> patternStrings, final String prepend) {
 
+        // Convert
+        final List<Pattern> toReturn = new ArrayList<Pattern>();
+        for (String current : getEffectivePatternStrings(patternStrings, prepend)) {
+            toReturn.add(Pattern.compile(current, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Retrieves the full pattern strings which {@link #convert(List, String)} would compile, without compiling them.
+     *
+     * @param patternStrings The List of PatternStrings. If {@code null}, the single pattern {@code .*} is used.
+     * @param prepend        A string to prepend each pattern. If a null argument is supplied, nothing
+     *                       will be prepended.
+     * @return a List containing {@code prepend + current_pattern_string} for each supplied pattern string.
+     */
+    static List<String> getEffectivePatternStrings(final List<String> patternStrings, final String prepend) {
+
         // Check sanity
         List<String> effectivePatternStrings = patternStrings;
         if (patternStrings == null) {
@@ -263,10 +282,10 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
         }
         final String effectivePrepend = prepend == null ? "" : prepend;
 
-        // Convert
-        final List<Pattern> toReturn = new ArrayList<Pattern>();
+        // Prepend
+        final List<String> toReturn = new ArrayList<String>();
         for (String current : effectivePatternStrings) {
-            toReturn.add(Pattern.compile(effectivePrepend + current, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+            toReturn.add(effectivePrepend + current);
         }
 
         // All done.
@@ -287,7 +306,9 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
                 .append(isInitialized())
                 .append("]\n");
 
-        final List<Pattern> effectivePatterns = isInitialized() ? regularExpressions : convert(patterns, patternPrefix);
+        final List<String> effectivePatterns = isInitialized()
+                ? (compiledPatterns == null ? null : compiledPatterns.getPatterns())
+                : getEffectivePatternStrings(patterns, patternPrefix);
         final int numPatterns =
                 effectivePatterns != null && effectivePatterns.size() > 0 ? effectivePatterns.size() : 0;
         builder.append(TOSTRING_INDENT).append(numPatterns).append(" regularExpressions ");
@@ -297,7 +318,7 @@ public abstract class AbstractPatternFilter<T> extends AbstractFilter<T> {
             for (int i = 0; i < effectivePatterns.size(); i++) {
                 final String prefix = TOSTRING_INDENT + " [" + (i + 1) + "/" + effectivePatterns.size() + "]: ";
                 builder.append(prefix)
-                        .append(effectivePatterns.get(i).pattern())
+                        .append(effectivePatterns.get(i))
                         .append("\n");
             }
         } else {
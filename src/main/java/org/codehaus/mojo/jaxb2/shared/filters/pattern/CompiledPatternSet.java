@@ -0,0 +1,254 @@
+package org.codehaus.mojo.jaxb2.shared.filters.pattern;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Compiled, short-circuiting set of the Patterns of an AbstractPatternFilter. A candidate string matches the
+ * CompiledPatternSet if it matches at least one of its Patterns, as compiled by
+ * {@link AbstractPatternFilter#convert(List, String)}. The common pattern forms used with the
+ * {@link PatternFileFilter#PATTERN_LETTER_DIGIT_PUNCT} prefix are matched without using regular expressions:</p>
+ * <ol>
+ * <li><strong>Literal suffixes</strong>, such as {@code \.xsd} or {@code \.xjb}, are matched by a
+ * (case-insensitive) comparison of the end of the candidate string.</li>
+ * <li><strong>Literal last path segment prefixes</strong>, such as {@code [/\\]README[^/\\]*}, are
+ * matched by a (case-insensitive) comparison of the start of the last path segment of the candidate string.</li>
+ * </ol>
+ * <p>In both cases, the PATTERN_LETTER_DIGIT_PUNCT prefix requires that the part of the candidate string preceding
+ * the literal is non-empty and consists of letters, digits and punctuation characters only. This is validated by a
+ * single scan of the candidate string, which is shared by all literal patterns. All other patterns are matched using
+ * their compiled regular expression.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class CompiledPatternSet {
+
+    // Internal state
+    private static final String REGEXP_METACHARACTERS = "^$.|?*+()[]{}";
+    private static final String[] SEPARATOR_CLASSES = {"[/\\\\]", "[\\\\/]"};
+    private static final String[] NOT_SEPARATOR_CLASSES = {"[^/\\\\]*", "[^\\\\/]*"};
+
+    private final List<String> patterns;
+    private final List<LiteralPattern> literalPatterns;
+    private final List<Pattern> regularExpressions;
+
+    /**
+     * Compiles the supplied patterns into a CompiledPatternSet.
+     *
+     * @param patternStrings The List of pattern strings to compile. If {@code null}, the CompiledPatternSet matches
+     *                       all candidates, as {@link AbstractPatternFilter#convert(List, String)} does.
+     * @param prepend        A string to prepend each pattern. If a null argument is supplied, nothing
+     *                       will be prepended.
+     */
+    public CompiledPatternSet(final List<String> patternStrings, final String prepend) {
+
+        this.patterns = Collections.unmodifiableList(
+                AbstractPatternFilter.getEffectivePatternStrings(patternStrings, prepend));
+        this.literalPatterns = new ArrayList<LiteralPattern>();
+        List<String> nonLiteralPatterns = patternStrings;
+
+        // Literal fast paths are only available for the standard prefix.
+        if (patternStrings != null && PatternFileFilter.PATTERN_LETTER_DIGIT_PUNCT.equals(prepend)) {
+
+            nonLiteralPatterns = new ArrayList<String>();
+            for (String current : patternStrings) {
+
+                final LiteralPattern literalPattern = LiteralPattern.parse(prepend, current);
+                if (literalPattern != null) {
+                    literalPatterns.add(literalPattern);
+                } else {
+                    nonLiteralPatterns.add(current);
+                }
+            }
+        }
+
+        this.regularExpressions =
+                Collections.unmodifiableList(AbstractPatternFilter.convert(nonLiteralPatterns, prepend));
+    }
+
+    /**
+     * Retrieves the first pattern within this CompiledPatternSet matching the supplied candidate.
+     *
+     * @param candidate The non-null string to match.
+     * @return The (full, i.e. including prefix) pattern string matching the candidate,
+     * or {@code null} if no pattern matched.
+     */
+    public String findMatch(final String candidate) {
+
+        if (!literalPatterns.isEmpty()) {
+
+            // Find the first character not permitted by the PATTERN_LETTER_DIGIT_PUNCT prefix.
+            final int firstInvalidIndex = getFirstInvalidPrefixIndex(candidate);
+            for (LiteralPattern current : literalPatterns) {
+                if (current.matches(candidate, firstInvalidIndex)) {
+                    return current.source;
+                }
+            }
+        }
+
+        for (Pattern current : regularExpressions) {
+            if (current.matcher(candidate).matches()) {
+                return current.pattern();
+            }
+        }
+
+        // Nothing matched.
+        return null;
+    }
+
+    /**
+     * @return The unmodifiable List of (full, i.e. including prefix) pattern strings within this CompiledPatternSet,
+     * in the order supplied to the constructor.
+     */
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @return The number of patterns within this CompiledPatternSet matched without regular expressions.
+     */
+    public int getNumberOfLiteralPatterns() {
+        return literalPatterns.size();
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static int getFirstInvalidPrefixIndex(final String candidate) {
+
+        for (int i = 0; i < candidate.length(); ) {
+
+            final int codePoint = candidate.codePointAt(i);
+            if (!Character.isLetterOrDigit(codePoint) && !isPunctuation(codePoint)) {
+                return i;
+            }
+            i += Character.charCount(codePoint);
+        }
+
+        // All characters are permitted.
+        return candidate.length();
+    }
+
+    private static boolean isPunctuation(final int codePoint) {
+
+        // Corresponds to the POSIX (US-ASCII) character class \p{Punct}.
+        return (codePoint >= '!' && codePoint <= '/')
+                || (codePoint >= ':' && codePoint <= '@')
+                || (codePoint >= '[' && codePoint <= '`')
+                || (codePoint >= '{' && codePoint <= '~');
+    }
+
+    /**
+     * Pattern on the form {@code PATTERN_LETTER_DIGIT_PUNCT + literal} or
+     * {@code PATTERN_LETTER_DIGIT_PUNCT + [/\\] + literal + [^/\\]*}.
+     */
+    private static final class LiteralPattern {
+
+        private final String source;
+        private final String literal;
+        private final boolean lastSegmentPrefix;
+
+        private LiteralPattern(final String source, final String literal, final boolean lastSegmentPrefix) {
+            this.source = source;
+            this.literal = literal;
+            this.lastSegmentPrefix = lastSegmentPrefix;
+        }
+
+        boolean matches(final String candidate, final int firstInvalidIndex) {
+
+            final int literalLength = literal.length();
+
+            if (lastSegmentPrefix) {
+
+                // The separator must be the last separator within the candidate, as the
+                // remainder (i.e. literal followed by non-separators) contains no separators.
+                final int separatorIndex = Math.max(candidate.lastIndexOf('/'), candidate.lastIndexOf('\\'));
+                return separatorIndex > 0
+                        && firstInvalidIndex >= separatorIndex
+                        && candidate.regionMatches(true, separatorIndex + 1, literal, 0, literalLength);
+            }
+
+            final int literalStart = candidate.length() - literalLength;
+            return literalStart > 0
+                    && firstInvalidIndex >= literalStart
+                    && candidate.regionMatches(true, literalStart, literal, 0, literalLength);
+        }
+
+        static LiteralPattern parse(final String prefix, final String pattern) {
+
+            // Is this a last path segment prefix pattern?
+            for (String separatorClass : SEPARATOR_CLASSES) {
+                for (String notSeparatorClass : NOT_SEPARATOR_CLASSES) {
+                    if (pattern.length() > separatorClass.length() + notSeparatorClass.length()
+                            && pattern.startsWith(separatorClass)
+                            && pattern.endsWith(notSeparatorClass)) {
+
+                        final String literal = parseLiteral(pattern.substring(
+                                separatorClass.length(), pattern.length() - notSeparatorClass.length()));
+                        return literal == null || literal.indexOf('/') != -1 || literal.indexOf('\\') != -1
+                                ? null
+                                : new LiteralPattern(prefix + pattern, literal, true);
+                    }
+                }
+            }
+
+            // Is this a literal suffix pattern?
+            final String literal = parseLiteral(pattern);
+            return literal == null ? null : new LiteralPattern(prefix + pattern, literal, false);
+        }
+
+        private static String parseLiteral(final String pattern) {
+
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < pattern.length(); i++) {
+
+                char current = pattern.charAt(i);
+                if (current == '\\') {
+
+                    // Only escaped non-alphanumeric characters are literals. (\d, \Q and friends are not).
+                    if (++i >= pattern.length()) {
+                        return null;
+                    }
+                    current = pattern.charAt(i);
+                    if (Character.isLetterOrDigit(current)) {
+                        return null;
+                    }
+                } else if (REGEXP_METACHARACTERS.indexOf(current) != -1) {
+                    return null;
+                }
+
+                // Restrict literals to US-ASCII to retain the case-insensitive semantics of the regular expression.
+                if (current > 127) {
+                    return null;
+                }
+                builder.append(current);
+            }
+
+            // All done.
+            return builder.length() == 0 ? null : builder.toString();
+        }
+    }
+}
@@ -24,6 +24,8 @@ import java.io.FileFilter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
@@ -40,6 +42,9 @@ import org.codehaus.mojo.jaxb2.shared.filters.Filters;
  */
 public class PatternFileFilter extends AbstractPatternFilter<File> implements FileFilter {
 
+    // Internal state
+    private final ConcurrentMap<String, Boolean> memoizedResults = new ConcurrentHashMap<String, Boolean>();
+
     /**
      * Java RegExp pattern matching one or more letters/digits/punctuation characters.
      * It can be flexibly used to separate normative text in a pattern:
@@ -56,6 +61,11 @@ public class PatternFileFilter extends AbstractPatternFilter<File> implements Fi
      */
     public static final String PATTERN_LETTER_DIGIT_PUNCT = "(\\p{javaLetterOrDigit}|\\p{Punct})+";
 
+    /**
+     * The maximum number of File paths for which a PatternFileFilter memoizes its result.
+     */
+    public static final int MAXIMUM_MEMOIZED_PATHS = 10000;
+
     /**
      * Converter returning the canonical and absolute path for a File.
      */
@@ -139,6 +149,45 @@ public class PatternFileFilter extends AbstractPatternFilter<File> implements Fi
         this(false, PATTERN_LETTER_DIGIT_PUNCT, new ArrayList<String>(), FILE_PATH_CONVERTER, true);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>Also discards the results memoized by this PatternFileFilter, since the files they describe
+     * may have changed since the previous initialization.</p>
+     */
+    @Override
+    protected void onInitialize() {
+
+        // Delegate
+        super.onInitialize();
+
+        // Start over
+        memoizedResults.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>The result for each File path is memoized until the next initialization, since converting a File
+     * into its canonical path is costly.</p>
+     */
+    @Override
+    protected boolean onCandidate(final File nonNullCandidate) {
+
+        final String path = nonNullCandidate.getPath();
+        Boolean toReturn = memoizedResults.get(path);
+
+        if (toReturn == null) {
+
+            // Delegate, and memoize the result.
+            toReturn = super.onCandidate(nonNullCandidate);
+            if (memoizedResults.size() < MAXIMUM_MEMOIZED_PATHS) {
+                memoizedResults.put(path, toReturn);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
     /**
      * Creates a new List containing an exclude-mode PatternFileFilter using the supplied patternStrings which
      * are interpreted as file suffixes. (I.e. prepended with {@code PATTERN_LETTER_DIGIT_PUNCT} and compiled to
@@ -0,0 +1,608 @@
+package org.codehaus.mojo.jaxb2.shared.manifest;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Persistent record of a successful tool invocation, used to decide whether the tool must be re-run.
+ * A BuildManifest holds:</p>
+ * <ol>
+ *     <li>The versions (or code locations) of the tools used to generate the output.</li>
+ *     <li>The effective argument vector handed to the tool.</li>
+ *     <li>A content digest (SHA-256) of each source, together with its modification timestamp and size.</li>
+ *     <li>The relative paths of all files found in the output directory after the tool was run.</li>
+ * </ol>
+ * <p>Regeneration is required whenever one of these differ from the previous manifest, or when a previously
+ * produced output file has been removed. Since source equality is determined by content rather than by timestamp,
+ * touching a source (or checking it out anew) does not trigger regeneration. To avoid reading all sources on every
+ * build, the digest of a previous manifest is re-used whenever the timestamp and size of a source are unchanged.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class BuildManifest {
+
+    /**
+     * The version of the manifest file format. Manifests of other versions are ignored when read.
+     */
+    public static final String FORMAT_VERSION = "1";
+
+    /**
+     * The digest algorithm used to calculate content digests.
+     */
+    public static final String DIGEST_ALGORITHM = "SHA-256";
+
+    // Internal state
+    private static final String VERSION_KEY = "manifest.version";
+    private static final String TOOL_PREFIX = "tool.";
+    private static final String ARGUMENT_PREFIX = "argument.";
+    private static final String SOURCE_PREFIX = "source.";
+    private static final String OUTPUT_PREFIX = "output.";
+    private static final String FIELD_SEPARATOR = ",";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private SortedMap<String, String> toolVersions;
+    private List<String> arguments;
+    private SortedMap<String, SourceEntry> sources;
+    private SortedSet<String> outputs;
+
+    /**
+     * Creates a new, empty BuildManifest.
+     */
+    public BuildManifest() {
+        this.toolVersions = new TreeMap<String, String>();
+        this.arguments = new ArrayList<String>();
+        this.sources = new TreeMap<String, SourceEntry>();
+        this.outputs = new TreeSet<String>();
+    }
+
+    /**
+     * Adds a description of the supplied tool class to this BuildManifest. The description consists of the
+     * location from which the class was loaded, as well as the timestamp and size of that location if it is a
+     * local file. Hence, a changed tool or plugin JAR (even a re-installed SNAPSHOT) yields a changed manifest.
+     *
+     * @param toolClass A non-null class identifying a tool (or the plugin itself).
+     * @return This BuildManifest, for chaining.
+     */
+    public BuildManifest addTool(final Class<?> toolClass) {
+
+        // Check sanity
+        Validate.notNull(toolClass, "toolClass");
+
+        // All done.
+        toolVersions.put(toolClass.getName(), describeTool(toolClass));
+        return this;
+    }
+
+    /**
+     * Describes the supplied tool class by the location from which it was loaded, as well as the timestamp and
+     * size of that location if it is a local file.
+     *
+     * @param toolClass A non-null class identifying a tool (or the plugin itself).
+     * @return A description of the supplied tool class, which changes whenever the tool JAR is replaced.
+     * @since 4.1.1
+     */
+    public static String describeTool(final Class<?> toolClass) {
+
+        // Check sanity
+        Validate.notNull(toolClass, "toolClass");
+
+        String toReturn = "unknown";
+        final CodeSource codeSource = toolClass.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation() != null) {
+
+            final URL location = codeSource.getLocation();
+            toReturn = location.toString();
+
+            final File locationFile = toFile(location);
+            if (locationFile != null && locationFile.isFile()) {
+                toReturn += FIELD_SEPARATOR + locationFile.lastModified() + FIELD_SEPARATOR + locationFile.length();
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Assigns the effective argument vector of the tool invocation.
+     *
+     * @param arguments The non-null arguments, in the order handed to the tool.
+     * @return This BuildManifest, for chaining.
+     */
+    public BuildManifest setArguments(final String[] arguments) {
+
+        // Check sanity
+        Validate.notNull(arguments, "arguments");
+
+        // All done.
+        this.arguments = new ArrayList<String>(Arrays.asList(arguments));
+        return this;
+    }
+
+    /**
+     * Adds a source to this BuildManifest, calculating its content digest unless the supplied previous
+     * BuildManifest holds an entry for the same source with identical timestamp and size - or with identical
+     * size and validator (such as the CRC of a JAR entry or the strong ETag of a remote source), as reported by
+     * the {@link SourceMetadataProbe}.
+     *
+     * @param source   The non-null URL of a source.
+     * @param previous The previous BuildManifest, or {@code null} if none exists.
+     * @return This BuildManifest, for chaining.
+     * @throws IOException if the source could not be read.
+     */
+    public BuildManifest addSource(final URL source, final BuildManifest previous) throws IOException {
+
+        // Check sanity
+        Validate.notNull(source, "source");
+
+        final String key = source.toString();
+        final SourceMetadataProbe.Metadata metadata = SourceMetadataProbe.probe(source);
+        final long lastModified = metadata.getLastModified();
+        final long length = metadata.getLength();
+        final String validator = metadata.getValidator();
+        final SourceEntry previousEntry = previous == null ? null : previous.sources.get(key);
+
+        final String digest;
+        if (previousEntry != null
+                && previousEntry.length == length
+                && ((lastModified != 0L && previousEntry.lastModified == lastModified)
+                        || (validator != null && validator.equals(previousEntry.validator)))) {
+
+            // Re-use the digest of the unchanged source.
+            digest = previousEntry.digest;
+        } else {
+
+            // Bypass the JVM-wide JarFile cache, which would serve the content of a since rewritten JAR.
+            final URLConnection connection = source.openConnection();
+            connection.setUseCaches(false);
+            try (InputStream in = connection.getInputStream()) {
+                digest = digest(in);
+            }
+        }
+
+        // All done.
+        sources.put(key, new SourceEntry(lastModified, length, digest, validator));
+        return this;
+    }
+
+    /**
+     * Records the relative paths of all files found below the supplied output directory.
+     *
+     * @param outputDirectory The output directory of the tool. Ignored if it does not exist.
+     * @return This BuildManifest, for chaining.
+     * @throws IOException if the output directory could not be traversed.
+     */
+    public BuildManifest addOutputs(final File outputDirectory) throws IOException {
+
+        // Check sanity
+        Validate.notNull(outputDirectory, "outputDirectory");
+
+        if (outputDirectory.isDirectory()) {
+
+            final Path root = outputDirectory.toPath();
+            try (Stream<Path> paths = Files.walk(root)) {
+                paths.filter(Files::isRegularFile)
+                        .map(p -> root.relativize(p).toString().replace(File.separatorChar, '/'))
+                        .forEach(outputs::add);
+            }
+        }
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Records a single output file, for tools whose outputs share an output directory with other outputs.
+     *
+     * @param relativePath The non-empty path of the output file, relative to the output directory and
+     *                     using '/' as separator.
+     * @return This BuildManifest, for chaining.
+     */
+    public BuildManifest addOutput(final String relativePath) {
+
+        // Check sanity
+        Validate.notEmpty(relativePath, "relativePath");
+
+        // All done.
+        outputs.add(relativePath);
+        return this;
+    }
+
+    /**
+     * @return An unmodifiable view of the sources of this BuildManifest, keyed by their URL form.
+     */
+    public SortedMap<String, SourceEntry> getSources() {
+        return Collections.unmodifiableSortedMap(sources);
+    }
+
+    /**
+     * @return An unmodifiable view of the relative paths of all recorded output files.
+     */
+    public SortedSet<String> getOutputs() {
+        return Collections.unmodifiableSortedSet(outputs);
+    }
+
+    /**
+     * @return An unmodifiable view of the recorded argument vector.
+     */
+    public List<String> getArguments() {
+        return Collections.unmodifiableList(arguments);
+    }
+
+    /**
+     * @return An unmodifiable view of the recorded tool descriptions.
+     */
+    public SortedMap<String, String> getToolVersions() {
+        return Collections.unmodifiableSortedMap(toolVersions);
+    }
+
+    /**
+     * Finds all differences between this (current) BuildManifest and the supplied previous one, which imply that
+     * the tool must be re-run. Outputs are compared by checking that all outputs recorded within the previous
+     * BuildManifest still exist within the supplied output directory.
+     *
+     * @param previous        The previous BuildManifest, or {@code null} if none exists.
+     * @param outputDirectory The output directory of the tool.
+     * @return A list of human-readable descriptions of the differences found; empty if the outputs are up to date.
+     */
+    public List<String> getDifferences(final BuildManifest previous, final File outputDirectory) {
+
+        // Check sanity
+        Validate.notNull(outputDirectory, "outputDirectory");
+
+        final List<String> toReturn = new ArrayList<String>();
+        if (previous == null) {
+            toReturn.add("No previous build manifest found.");
+            return toReturn;
+        }
+
+        if (!toolVersions.equals(previous.toolVersions)) {
+            toReturn.add("Tool versions changed from " + previous.toolVersions + " to " + toolVersions);
+        }
+        if (!arguments.equals(previous.arguments)) {
+            toReturn.add("Tool arguments changed from " + previous.arguments + " to " + arguments);
+        }
+
+        for (Map.Entry<String, SourceEntry> current : sources.entrySet()) {
+
+            final SourceEntry previousEntry = previous.sources.get(current.getKey());
+            if (previousEntry == null) {
+                toReturn.add("Added source " + current.getKey());
+            } else if (!previousEntry.digest.equals(current.getValue().digest)) {
+                toReturn.add("Changed source " + current.getKey());
+            }
+        }
+        for (String current : previous.sources.keySet()) {
+            if (!sources.containsKey(current)) {
+                toReturn.add("Removed source " + current);
+            }
+        }
+
+        for (String current : previous.outputs) {
+            if (!new File(outputDirectory, current).exists()) {
+                toReturn.add("Missing output " + current);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Writes this BuildManifest to the supplied file. The entries are written in sorted order without any
+     * timestamp comment, implying that equal manifests yield byte-identical files. The file is first written
+     * to a temporary sibling, and then moved into place to avoid leaving a partially written manifest behind.
+     *
+     * @param manifestFile The non-null file to which this BuildManifest should be written.
+     * @throws IOException if the manifest file could not be written.
+     */
+    public void write(final File manifestFile) throws IOException {
+
+        // Check sanity
+        Validate.notNull(manifestFile, "manifestFile");
+
+        final Properties props = new Properties();
+        props.setProperty(VERSION_KEY, FORMAT_VERSION);
+        for (Map.Entry<String, String> current : toolVersions.entrySet()) {
+            props.setProperty(TOOL_PREFIX + current.getKey(), current.getValue());
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            props.setProperty(ARGUMENT_PREFIX + String.format("%05d", i), arguments.get(i));
+        }
+        for (Map.Entry<String, SourceEntry> current : sources.entrySet()) {
+            final SourceEntry entry = current.getValue();
+            props.setProperty(
+                    SOURCE_PREFIX + current.getKey(),
+                    entry.lastModified + FIELD_SEPARATOR + entry.length + FIELD_SEPARATOR + entry.digest
+                            + (entry.validator == null ? "" : FIELD_SEPARATOR + entry.validator));
+        }
+        int index = 0;
+        for (String current : outputs) {
+            props.setProperty(OUTPUT_PREFIX + String.format("%07d", index++), current);
+        }
+
+        // All done.
+        writeSorted(props, manifestFile);
+    }
+
+    /**
+     * Writes the supplied Properties to the supplied file, sorted and without any timestamp comment.
+     * The file is first written to a temporary sibling, and then moved into place.
+     *
+     * @param props The Properties to write.
+     * @param aFile The non-null file to which the Properties should be written.
+     * @throws IOException if the file could not be written.
+     */
+    static void writeSorted(final Properties props, final File aFile) throws IOException {
+
+        // Properties.store emits entries in hash order, preceded by a timestamp comment.
+        // Strip the comments and sort the lines to make the written manifest deterministic.
+        final StringWriter out = new StringWriter();
+        props.store(out, null);
+        final SortedSet<String> lines = new TreeSet<String>();
+        try (BufferedReader reader = new BufferedReader(new StringReader(out.toString()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+
+        final File parent = aFile.getAbsoluteFile().getParentFile();
+        Files.createDirectories(parent.toPath());
+        final Path tmp = Files.createTempFile(parent.toPath(), aFile.getName(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.ISO_8859_1)) {
+                for (String current : lines) {
+                    writer.write(current);
+                    writer.write("\n");
+                }
+            }
+            Files.move(tmp, aFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Reads a BuildManifest from the supplied file.
+     *
+     * @param manifestFile The file holding a written BuildManifest.
+     * @return The BuildManifest read, or {@code null} if the file did not exist, could not be read or
+     * was written in another format version.
+     */
+    public static BuildManifest read(final File manifestFile) {
+
+        // Check sanity
+        Validate.notNull(manifestFile, "manifestFile");
+
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+
+        final Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.ISO_8859_1)) {
+            props.load(reader);
+        } catch (IOException e) {
+            return null;
+        }
+
+        if (!FORMAT_VERSION.equals(props.getProperty(VERSION_KEY))) {
+            return null;
+        }
+
+        final BuildManifest toReturn = new BuildManifest();
+        final SortedMap<String, String> sortedArguments = new TreeMap<String, String>();
+        final SortedMap<String, String> sortedOutputs = new TreeMap<String, String>();
+
+        for (String key : props.stringPropertyNames()) {
+
+            final String value = props.getProperty(key);
+            if (key.startsWith(TOOL_PREFIX)) {
+                toReturn.toolVersions.put(key.substring(TOOL_PREFIX.length()), value);
+            } else if (key.startsWith(ARGUMENT_PREFIX)) {
+                sortedArguments.put(key, value);
+            } else if (key.startsWith(OUTPUT_PREFIX)) {
+                sortedOutputs.put(key, value);
+            } else if (key.startsWith(SOURCE_PREFIX)) {
+
+                // The optional validator is the last field, since it may contain the field separator.
+                final String[] fields = value.split(FIELD_SEPARATOR, 4);
+                if (fields.length < 3) {
+                    return null;
+                }
+
+                try {
+                    toReturn.sources.put(
+                            key.substring(SOURCE_PREFIX.length()),
+                            new SourceEntry(
+                                    Long.parseLong(fields[0]),
+                                    Long.parseLong(fields[1]),
+                                    fields[2],
+                                    fields.length > 3 ? fields[3] : null));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+
+        toReturn.arguments.addAll(sortedArguments.values());
+        toReturn.outputs.addAll(sortedOutputs.values());
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Calculates the hex-encoded SHA-256 digest of all bytes within the supplied stream.
+     * The stream is read to its end, but not closed.
+     *
+     * @param in A non-null InputStream.
+     * @return The hex-encoded digest of the bytes read.
+     * @throws IOException if the stream could not be read.
+     */
+    public static String digest(final InputStream in) throws IOException {
+
+        // Check sanity
+        Validate.notNull(in, "in");
+
+        final MessageDigest messageDigest = createMessageDigest();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            messageDigest.update(buffer, 0, read);
+        }
+
+        // All done.
+        return toHex(messageDigest.digest());
+    }
+
+    /**
+     * Calculates the hex-encoded SHA-256 digest of the supplied string, encoded as UTF-8.
+     *
+     * @param value A non-null string.
+     * @return The hex-encoded digest of the supplied value.
+     */
+    public static String digest(final String value) {
+
+        // Check sanity
+        Validate.notNull(value, "value");
+
+        // All done.
+        return toHex(createMessageDigest().digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Immutable record of a single source within a BuildManifest.
+     */
+    public static final class SourceEntry {
+
+        private final long lastModified;
+        private final long length;
+        private final String digest;
+        private final String validator;
+
+        SourceEntry(final long lastModified, final long length, final String digest, final String validator) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.digest = digest;
+            this.validator = validator;
+        }
+
+        /**
+         * @return The modification timestamp of the source, or 0 if unknown.
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return The size of the source in bytes, or -1 if unknown.
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @return The hex-encoded content digest of the source.
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        /**
+         * @return The validator of the source (such as the CRC of a JAR entry), or {@code null} if none is known.
+         */
+        public String getValidator() {
+            return validator;
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    static File toFile(final URL anURL) {
+
+        if ("file".equalsIgnoreCase(anURL.getProtocol())) {
+            try {
+                return new File(anURL.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return new File(anURL.getPath());
+            }
+        }
+
+        // Not a local file.
+        return null;
+    }
+
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Digest algorithm [" + DIGEST_ALGORITHM + "] not available.", e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+
+        final char[] toReturn = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            toReturn[2 * i] = HEX[(bytes[i] >> 4) & 0x0F];
+            toReturn[2 * i + 1] = HEX[bytes[i] & 0x0F];
+        }
+
+        // All done.
+        return new String(toReturn);
+    }
+}
@@ -0,0 +1,364 @@
+package org.codehaus.mojo.jaxb2.shared.manifest;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Machine-independent description of all inputs of a tool invocation, usable by external build caches
+ * (such as the Maven build cache extension or a remote cache) to decide if a plugin execution can be skipped
+ * altogether. As opposed to the {@link BuildManifest}, which identifies sources by their URL, timestamp and size,
+ * a CacheKeyDescriptor holds no timestamps, and replaces the paths of all registered root directories (such as
+ * the project base directory) by placeholder tokens. Hence, the same inputs yield the same descriptor - and
+ * the same {@link #getKey() key} - regardless of the checkout location or the time of the build.</p>
+ * <p>The descriptor lists the versions of all tools, the content digests of every element of the tool classpaths
+ * (such as the plugin dependencies and the classpath handed to the tool), every argument handed to the tool and
+ * the content digest of every source. Since the tool and plugin versions alone do not identify a rebuilt SNAPSHOT
+ * or a changed XJC plugin JAR, the classpath content is part of the key. It is written as a sorted properties
+ * file, whose {@code cachekey.digest} entry holds the digest of all other entries.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class CacheKeyDescriptor {
+
+    /**
+     * The version of the descriptor file format.
+     */
+    public static final String FORMAT_VERSION = "2";
+
+    // Internal state
+    private static final String VERSION_KEY = "cachekey.version";
+    private static final String DIGEST_KEY = "cachekey.digest";
+    private static final String TOOL_PREFIX = "tool.";
+    private static final String ARGUMENT_PREFIX = "argument.";
+    private static final String CLASSPATH_PREFIX = "classpath.";
+    private static final String SOURCE_PREFIX = "source.";
+    private static final String PROPERTY_PREFIX = "property.";
+    private static final String UNKNOWN_VERSION = "unknown";
+    private static final String MISSING_DIGEST = "missing";
+
+    /**
+     * Content digests of classpath JARs, keyed by their path, timestamp and size. Classpath JARs are typically
+     * shared by all executions (and modules) within a Maven session, so each JAR is only digested once.
+     */
+    private static final ConcurrentMap<String, String> JAR_DIGESTS = new ConcurrentHashMap<String, String>();
+
+    private final Map<String, String> roots;
+    private final SortedMap<String, String> toolVersions;
+    private final List<String> arguments;
+    private final SortedMap<String, String> classpaths;
+    private final SortedMap<String, String> sources;
+    private final SortedMap<String, String> properties;
+
+    /**
+     * Creates a new, empty CacheKeyDescriptor.
+     */
+    public CacheKeyDescriptor() {
+        this.roots = new LinkedHashMap<String, String>();
+        this.toolVersions = new TreeMap<String, String>();
+        this.arguments = new ArrayList<String>();
+        this.classpaths = new TreeMap<String, String>();
+        this.sources = new TreeMap<String, String>();
+        this.properties = new TreeMap<String, String>();
+    }
+
+    /**
+     * Registers a root directory, whose path should be replaced by the supplied token within all arguments and
+     * source identifiers subsequently added to this CacheKeyDescriptor. Roots are replaced in the order in which
+     * they were registered, so nested roots should be registered before their parents.
+     *
+     * @param token     The non-empty token replacing the path of the directory, such as {@code ${basedir}}.
+     * @param directory The root directory. Ignored if {@code null}.
+     * @return This CacheKeyDescriptor, for chaining.
+     */
+    public CacheKeyDescriptor withRoot(final String token, final File directory) {
+
+        // Check sanity
+        Validate.notEmpty(token, "token");
+
+        if (directory != null) {
+
+            final String path = FileSystemUtilities.getCanonicalPath(directory.getAbsoluteFile());
+            roots.put(path, token);
+
+            // Sources are identified by their URL form, in which the path may be spelled differently.
+            final String urlPath = FileSystemUtilities.getUrlFor(new File(path)).getPath();
+            roots.put(urlPath.endsWith("/") ? urlPath.substring(0, urlPath.length() - 1) : urlPath, token);
+        }
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Adds the version of the supplied tool class to this CacheKeyDescriptor. The version is the implementation
+     * version of the package of the tool class, falling back to the file name of the JAR from which the tool class
+     * was loaded (which holds the version for artifacts resolved from a Maven repository).
+     *
+     * @param toolClass A non-null class identifying a tool (or the plugin itself).
+     * @return This CacheKeyDescriptor, for chaining.
+     */
+    public CacheKeyDescriptor addTool(final Class<?> toolClass) {
+
+        // Check sanity
+        Validate.notNull(toolClass, "toolClass");
+
+        String version = toolClass.getPackage() == null ? null : toolClass.getPackage().getImplementationVersion();
+        if (version == null) {
+
+            final CodeSource codeSource = toolClass.getProtectionDomain().getCodeSource();
+            final File location = codeSource == null || codeSource.getLocation() == null
+                    ? null
+                    : BuildManifest.toFile(codeSource.getLocation());
+            version = location != null && location.isFile() ? location.getName() : UNKNOWN_VERSION;
+        }
+
+        // All done.
+        toolVersions.put(toolClass.getName(), version);
+        return this;
+    }
+
+    /**
+     * Adds the content digests of all elements within the supplied classpath, in classpath order. Each element
+     * is identified by its file name and content digest (for directories, the digest of the relative paths and
+     * contents of all files within), so that the key is independent of the location of the local repository.
+     * Missing elements are recorded as such.
+     *
+     * @param name      The non-empty name of the classpath, such as {@code plugin} or {@code tool}.
+     * @param classpath The non-null elements of the classpath, in classpath order.
+     * @return This CacheKeyDescriptor, for chaining.
+     * @throws IOException if a classpath element could not be read.
+     */
+    public CacheKeyDescriptor addClasspath(final String name, final List<File> classpath) throws IOException {
+
+        // Check sanity
+        Validate.notEmpty(name, "name");
+        Validate.notNull(classpath, "classpath");
+
+        for (int i = 0; i < classpath.size(); i++) {
+            final File current = classpath.get(i);
+            classpaths.put(
+                    name + "." + String.format("%05d", i), current.getName() + "," + digestClasspathElement(current));
+        }
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Adds the supplied arguments, in the order handed to the tool.
+     *
+     * @param toAdd The non-null arguments to add.
+     * @return This CacheKeyDescriptor, for chaining.
+     */
+    public CacheKeyDescriptor addArguments(final List<String> toAdd) {
+
+        // Check sanity
+        Validate.notNull(toAdd, "toAdd");
+
+        for (String current : toAdd) {
+            arguments.add(current == null ? "" : relativize(current));
+        }
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Adds all sources - and their content digests - recorded within the supplied BuildManifest.
+     *
+     * @param manifest A non-null BuildManifest.
+     * @return This CacheKeyDescriptor, for chaining.
+     */
+    public CacheKeyDescriptor addSources(final BuildManifest manifest) {
+
+        // Check sanity
+        Validate.notNull(manifest, "manifest");
+
+        for (Map.Entry<String, BuildManifest.SourceEntry> current : manifest.getSources().entrySet()) {
+            sources.put(relativize(current.getKey()), current.getValue().getDigest());
+        }
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * Adds a named property, for inputs which are neither tools, arguments nor sources.
+     *
+     * @param name  The non-empty name of the property.
+     * @param value The non-null value of the property.
+     * @return This CacheKeyDescriptor, for chaining.
+     */
+    public CacheKeyDescriptor addProperty(final String name, final String value) {
+
+        // Check sanity
+        Validate.notEmpty(name, "name");
+        Validate.notNull(value, "value");
+
+        // All done.
+        properties.put(name, relativize(value));
+        return this;
+    }
+
+    /**
+     * @return An unmodifiable view of the (relativized) arguments of this CacheKeyDescriptor.
+     */
+    public List<String> getArguments() {
+        return Collections.unmodifiableList(arguments);
+    }
+
+    /**
+     * @return An unmodifiable view of the content digests of all sources, keyed by their (relativized) URL form.
+     */
+    public SortedMap<String, String> getSources() {
+        return Collections.unmodifiableSortedMap(sources);
+    }
+
+    /**
+     * @return The cache key, being the digest of all entries of this CacheKeyDescriptor.
+     */
+    public String getKey() {
+
+        final StringBuilder builder = new StringBuilder();
+        for (Map.Entry<Object, Object> current : new TreeMap<Object, Object>(toProperties()).entrySet()) {
+            builder.append(current.getKey()).append('=').append(current.getValue()).append('\n');
+        }
+        return BuildManifest.digest(builder.toString());
+    }
+
+    /**
+     * Writes this CacheKeyDescriptor to the supplied file, in sorted order and without timestamps.
+     *
+     * @param descriptorFile The non-null file to which this CacheKeyDescriptor should be written.
+     * @throws IOException if the file could not be written.
+     */
+    public void write(final File descriptorFile) throws IOException {
+
+        // Check sanity
+        Validate.notNull(descriptorFile, "descriptorFile");
+
+        final Properties props = toProperties();
+        props.setProperty(DIGEST_KEY, getKey());
+
+        // All done.
+        BuildManifest.writeSorted(props, descriptorFile);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private Properties toProperties() {
+
+        final Properties toReturn = new Properties();
+        toReturn.setProperty(VERSION_KEY, FORMAT_VERSION);
+        for (Map.Entry<String, String> current : toolVersions.entrySet()) {
+            toReturn.setProperty(TOOL_PREFIX + current.getKey(), current.getValue());
+        }
+        for (int i = 0; i < arguments.size(); i++) {
+            toReturn.setProperty(ARGUMENT_PREFIX + String.format("%05d", i), arguments.get(i));
+        }
+        for (Map.Entry<String, String> current : classpaths.entrySet()) {
+            toReturn.setProperty(CLASSPATH_PREFIX + current.getKey(), current.getValue());
+        }
+        for (Map.Entry<String, String> current : sources.entrySet()) {
+            toReturn.setProperty(SOURCE_PREFIX + current.getKey(), current.getValue());
+        }
+        for (Map.Entry<String, String> current : properties.entrySet()) {
+            toReturn.setProperty(PROPERTY_PREFIX + current.getKey(), current.getValue());
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static String digestClasspathElement(final File element) throws IOException {
+
+        if (element.isFile()) {
+
+            final String cacheKey = element.getAbsolutePath() + "," + element.lastModified() + "," + element.length();
+            String toReturn = JAR_DIGESTS.get(cacheKey);
+            if (toReturn == null) {
+                toReturn = digestFile(element.toPath());
+                JAR_DIGESTS.put(cacheKey, toReturn);
+            }
+            return toReturn;
+
+        } else if (element.isDirectory()) {
+
+            // Digest the relative path and content of each file, in sorted order.
+            final Path root = element.toPath();
+            final List<Path> files;
+            try (Stream<Path> paths = Files.walk(root)) {
+                files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+
+            final StringBuilder builder = new StringBuilder();
+            for (Path current : files) {
+                builder.append(root.relativize(current).toString().replace(File.separatorChar, '/'))
+                        .append('=')
+                        .append(digestFile(current))
+                        .append('\n');
+            }
+            return BuildManifest.digest(builder.toString());
+        }
+
+        // Neither file nor directory.
+        return MISSING_DIGEST;
+    }
+
+    private static String digestFile(final Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return BuildManifest.digest(in);
+        }
+    }
+
+    private String relativize(final String value) {
+
+        String toReturn = value;
+        for (Map.Entry<String, String> current : roots.entrySet()) {
+            toReturn = toReturn.replace(current.getKey(), current.getValue());
+        }
+        return toReturn.replace(File.separatorChar, '/');
+    }
+}
@@ -0,0 +1,336 @@
+package org.codehaus.mojo.jaxb2.shared.manifest;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Retrieves the modification timestamp and size of sources without opening a URLConnection per source, as
+ * required by staleness checks and {@link BuildManifest}s. Depending on the protocol of the source URL,</p>
+ * <ul>
+ *     <li><strong>file:</strong> the attributes are read using a single {@code Files.readAttributes} call.</li>
+ *     <li><strong>jar:</strong> the JAR is opened once, and the size and CRC of all its entries are cached within
+ *     the JVM. The cache is validated against the timestamp and size of the JAR file, so subsequent probes of any
+ *     entry within an unchanged JAR only read the attributes of the JAR file. The modification timestamp of an
+ *     entry is the one of its JAR file (just as reported by a JarURLConnection), since entry timestamps are
+ *     frequently normalized by reproducible builds.</li>
+ *     <li><strong>other protocols:</strong> (such as http) the metadata and validator (strong ETag) of the remote
+ *     source are retrieved using a HEAD request, and cached within the JVM for {@link #REMOTE_VALIDITY_MILLIS}
+ *     milliseconds - so that remote schemas shared by several modules of a reactor are only probed once. Servers
+ *     rejecting HEAD requests (such as with HTTP 405) are probed using a GET request for the first byte only.</li>
+ * </ul>
+ * <p>The validator of a source (the CRC of a JAR entry, or the strong ETag of a remote source) permits a
+ * {@link BuildManifest} to re-use the content digest of a source whose timestamp changed but whose content did not -
+ * such as an unchanged schema within a rebuilt JAR.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class SourceMetadataProbe {
+
+    /**
+     * The number of milliseconds that probed metadata of remote sources is cached.
+     */
+    public static final long REMOTE_VALIDITY_MILLIS = 60000L;
+
+    // Internal state
+    private static final String JAR_SEPARATOR = "!/";
+    private static final int CONNECT_TIMEOUT_MILLIS = 10000;
+    private static final ConcurrentMap<File, JarIndex> JAR_CACHE = new ConcurrentHashMap<File, JarIndex>();
+    private static final ConcurrentMap<String, Metadata> REMOTE_CACHE = new ConcurrentHashMap<String, Metadata>();
+
+    /*
+     * Hide constructor for utility classes.
+     */
+    private SourceMetadataProbe() {}
+
+    /**
+     * Probes the metadata of the supplied source.
+     *
+     * @param source A non-null source URL.
+     * @return The Metadata of the source.
+     * @throws IOException if the source does not exist, or its metadata could not be retrieved.
+     */
+    public static Metadata probe(final URL source) throws IOException {
+
+        // Check sanity
+        Validate.notNull(source, "source");
+
+        final File file = BuildManifest.toFile(source);
+        if (file != null) {
+            return probeFile(file);
+        }
+
+        if ("jar".equalsIgnoreCase(source.getProtocol())) {
+
+            final String spec = source.getPath();
+            final int separatorIndex = spec.indexOf(JAR_SEPARATOR);
+            if (separatorIndex > 0) {
+
+                final File jarFile = BuildManifest.toFile(new URL(spec.substring(0, separatorIndex)));
+                if (jarFile != null) {
+                    return probeJarEntry(jarFile, decode(spec.substring(separatorIndex + JAR_SEPARATOR.length())));
+                }
+            }
+        }
+
+        // All done.
+        return probeRemote(source);
+    }
+
+    /**
+     * Clears all cached JAR indices and remote metadata.
+     */
+    public static void clearCaches() {
+        JAR_CACHE.clear();
+        REMOTE_CACHE.clear();
+    }
+
+    /**
+     * Metadata of a source, as retrieved by a SourceMetadataProbe.
+     */
+    public static final class Metadata {
+
+        private final long lastModified;
+        private final long length;
+        private final String validator;
+        private final long probedAt;
+
+        Metadata(final long lastModified, final long length, final String validator) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.validator = validator;
+            this.probedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * @return The modification timestamp of the source, in milliseconds since the epoch, or 0 if unknown.
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return The size of the source in bytes, or -1 if unknown.
+         */
+        public long getLength() {
+            return length;
+        }
+
+        /**
+         * @return A content validator of the source - such as the CRC of a JAR entry or the strong ETag of a remote
+         * source - or {@code null} if none is known.
+         */
+        public String getValidator() {
+            return validator;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "Metadata [lastModified: " + lastModified + ", length: " + length + ", validator: " + validator
+                    + "]";
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static Metadata probeFile(final File file) throws IOException {
+
+        final BasicFileAttributes attrs = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        return new Metadata(attrs.lastModifiedTime().toMillis(), attrs.isDirectory() ? -1L : attrs.size(), null);
+    }
+
+    private static Metadata probeJarEntry(final File jarFile, final String entryName) throws IOException {
+
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(jarFile.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            JAR_CACHE.remove(jarFile);
+            throw e;
+        }
+
+        final long jarLastModified = attrs.lastModifiedTime().toMillis();
+        JarIndex index = JAR_CACHE.get(jarFile);
+        if (index == null || index.lastModified != jarLastModified || index.length != attrs.size()) {
+            index = new JarIndex(jarFile, jarLastModified, attrs.size());
+            JAR_CACHE.put(jarFile, index);
+        }
+
+        final long[] entry = index.entries.get(entryName);
+        if (entry == null) {
+            throw new NoSuchFileException(jarFile.getPath() + JAR_SEPARATOR + entryName);
+        }
+
+        // All done.
+        return new Metadata(jarLastModified, entry[0], entry[1] < 0 ? null : "crc32:" + Long.toHexString(entry[1]));
+    }
+
+    private static Metadata probeRemote(final URL source) throws IOException {
+
+        final String key = source.toString();
+        final Metadata cached = REMOTE_CACHE.get(key);
+        if (cached != null && System.currentTimeMillis() - cached.probedAt < REMOTE_VALIDITY_MILLIS) {
+            return cached;
+        }
+
+        final Metadata toReturn;
+        final URLConnection connection = openConnection(source);
+        if (connection instanceof HttpURLConnection) {
+
+            final HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            Metadata headMetadata = null;
+            try {
+                httpConnection.setRequestMethod("HEAD");
+                if (httpConnection.getResponseCode() < HttpURLConnection.HTTP_BAD_REQUEST) {
+                    headMetadata = new Metadata(
+                            httpConnection.getLastModified(),
+                            httpConnection.getContentLengthLong(),
+                            getStrongETag(httpConnection));
+                }
+            } finally {
+                httpConnection.disconnect();
+            }
+
+            // Some servers do not permit HEAD requests; fall back to a GET request for the first byte.
+            toReturn = headMetadata != null ? headMetadata : probeRemoteUsingRangedGet(source);
+        } else {
+
+            connection.connect();
+            try {
+                toReturn = new Metadata(connection.getLastModified(), connection.getContentLengthLong(), null);
+            } finally {
+                connection.getInputStream().close();
+            }
+        }
+
+        // All done.
+        REMOTE_CACHE.put(key, toReturn);
+        return toReturn;
+    }
+
+    private static Metadata probeRemoteUsingRangedGet(final URL source) throws IOException {
+
+        final HttpURLConnection connection = (HttpURLConnection) openConnection(source);
+        try {
+            connection.setRequestProperty("Range", "bytes=0-0");
+            final int responseCode = connection.getResponseCode();
+            if (responseCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                throw new IOException("GET " + source + " responded with HTTP " + responseCode);
+            }
+
+            // A partial response holds the full size of the source in its Content-Range header.
+            long length = connection.getContentLengthLong();
+            if (responseCode == HttpURLConnection.HTTP_PARTIAL) {
+
+                final String contentRange = connection.getHeaderField("Content-Range");
+                final int slashIndex = contentRange == null ? -1 : contentRange.lastIndexOf('/');
+                length = -1L;
+                if (slashIndex >= 0) {
+                    try {
+                        length = Long.parseLong(contentRange.substring(slashIndex + 1).trim());
+                    } catch (NumberFormatException e) {
+                        // Unknown size, such as "bytes 0-0/*".
+                    }
+                }
+            }
+
+            // All done.
+            return new Metadata(connection.getLastModified(), length, getStrongETag(connection));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static URLConnection openConnection(final URL source) throws IOException {
+
+        final URLConnection toReturn = source.openConnection();
+        toReturn.setUseCaches(false);
+        toReturn.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        toReturn.setReadTimeout(CONNECT_TIMEOUT_MILLIS);
+        return toReturn;
+    }
+
+    private static String getStrongETag(final HttpURLConnection connection) {
+
+        // Weak ETags (W/"...") only promise semantic equivalence, not identical content.
+        final String eTag = connection.getHeaderField("ETag");
+        return eTag == null || eTag.startsWith("W/") ? null : "etag:" + eTag;
+    }
+
+    private static String decode(final String entryName) {
+        try {
+            return URLDecoder.decode(entryName.replace("+", "%2B"), StandardCharsets.UTF_8.name());
+        } catch (IOException | IllegalArgumentException e) {
+            return entryName;
+        }
+    }
+
+    /**
+     * The sizes and CRCs of all entries within a JAR, along with the timestamp and size of the JAR when read.
+     */
+    private static final class JarIndex {
+
+        private final long lastModified;
+        private final long length;
+        private final Map<String, long[]> entries;
+
+        JarIndex(final File jarFile, final long lastModified, final long length) throws IOException {
+
+            this.lastModified = lastModified;
+            this.length = length;
+
+            final Map<String, long[]> tmp = new HashMap<String, long[]>();
+            try (ZipFile zipFile = new ZipFile(jarFile)) {
+
+                final Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+                while (zipEntries.hasMoreElements()) {
+                    final ZipEntry current = zipEntries.nextElement();
+                    tmp.put(current.getName(), new long[] {current.getSize(), current.getCrc()});
+                }
+            }
+            this.entries = Collections.unmodifiableMap(tmp);
+        }
+    }
+}
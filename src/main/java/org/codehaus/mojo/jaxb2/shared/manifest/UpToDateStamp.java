@@ -0,0 +1,463 @@
+package org.codehaus.mojo.jaxb2.shared.manifest;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Cheap record of the state of all inputs and outputs of a successful (or verified up-to-date) Mojo execution,
+ * enabling subsequent executions to detect that nothing has changed without resolving sources, reading the
+ * {@link BuildManifest}, synthesizing the tool arguments and classpath or setting up a tool execution environment.
+ * An UpToDateStamp holds:</p>
+ * <ol>
+ *     <li>A digest of the configuration fingerprint of the Mojo, i.e. its effective parameter values and the
+ *     paths of the plugin dependencies and project artifacts - but no file system state, which is recorded
+ *     below.</li>
+ *     <li>The modification timestamp and size of each classpath JAR, as synthesized when the stamp was
+ *     created. A JAR rebuilt at the same path (such as a SNAPSHOT dependency) hence invalidates the stamp.</li>
+ *     <li>The modification timestamp (and size) of each source file, and of each directory traversed when the
+ *     sources were resolved. Adding or removing a source changes the timestamp of its parent directory.</li>
+ *     <li>The modification timestamp of each directory below the output directory. Removing a generated file
+ *     changes the timestamp of its parent directory.</li>
+ * </ol>
+ * <p>Verifying an UpToDateStamp therefore requires one attribute read per recorded path and nothing else.
+ * Any difference simply implies that the full staleness check of the Mojo must be performed - which in turn may
+ * well find that no regeneration is required. Read stamps are cached within the JVM, keyed by the path,
+ * timestamp and size of the stamp file.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class UpToDateStamp {
+
+    /**
+     * The version of the stamp file format. Stamps of other versions are ignored when read.
+     */
+    public static final String FORMAT_VERSION = "1";
+
+    // Internal state
+    private static final String VERSION_KEY = "stamp.version";
+    private static final String CONFIGURATION_KEY = "configuration";
+    private static final String PATH_PREFIX = "path.";
+    private static final String MISSING = "-";
+    private static final String DIRECTORY = "d";
+    private static final String RACY = "racy";
+    private static final String FIELD_SEPARATOR = ",";
+    private static final long RACY_MILLIS = 2000L;
+    private static final ConcurrentMap<String, CachedStamp> STAMP_CACHE = new ConcurrentHashMap<String, CachedStamp>();
+
+    /**
+     * The accessible instance fields of each class and its superclasses, in declaration order from the class
+     * itself up to {@code java.lang.Object}.
+     */
+    private static final ClassValue<List<Field>> INSTANCE_FIELDS = new ClassValue<List<Field>>() {
+        @Override
+        protected List<Field> computeValue(final Class<?> type) {
+
+            final List<Field> toReturn = new ArrayList<Field>();
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                        try {
+                            field.setAccessible(true);
+                        } catch (RuntimeException e) {
+                            // Reading the field fails, and is reported by describeFields.
+                        }
+                        toReturn.add(field);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(toReturn);
+        }
+    };
+
+    private final String configurationDigest;
+    private final SortedMap<String, String> pathStates;
+
+    private UpToDateStamp(final String configurationDigest) {
+        this.configurationDigest = configurationDigest;
+        this.pathStates = new TreeMap<String, String>();
+    }
+
+    /**
+     * Creates a new UpToDateStamp for the supplied configuration fingerprint, recording the current state of the
+     * supplied input files and directories. Inputs should be recorded before the tool is run, so that inputs
+     * changed while the tool runs are detected by the next execution.
+     *
+     * @param configurationFingerprint The non-empty configuration fingerprint of the Mojo.
+     * @param inputs                   The input files and directories; paths which do not exist are recorded
+     *                                 as missing, implying that their later creation is detected.
+     * @return The UpToDateStamp created.
+     */
+    public static UpToDateStamp create(final String configurationFingerprint, final Collection<File> inputs) {
+
+        // Check sanity
+        Validate.notEmpty(configurationFingerprint, "configurationFingerprint");
+        Validate.notNull(inputs, "inputs");
+
+        final UpToDateStamp toReturn = new UpToDateStamp(BuildManifest.digest(configurationFingerprint));
+        final long racyLimit = System.currentTimeMillis() - RACY_MILLIS;
+        for (File current : inputs) {
+
+            final Path path = current.getAbsoluteFile().toPath();
+            final String state = getState(path);
+
+            // An input modified within the timestamp granularity of common file systems may be modified again
+            // without changing its timestamp. Record such inputs as never matching, to enforce a full check.
+            toReturn.pathStates.put(path.toString(), isModifiedAfter(state, racyLimit) ? RACY : state);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Records the state of the supplied output directory and all directories below it. Should be called after
+     * the tool has been run.
+     *
+     * @param outputDirectory The output directory of the tool.
+     * @return This UpToDateStamp, for chaining.
+     * @throws IOException if the output directory could not be traversed.
+     */
+    public UpToDateStamp addOutputDirectory(final File outputDirectory) throws IOException {
+
+        // Check sanity
+        Validate.notNull(outputDirectory, "outputDirectory");
+
+        final Path root = outputDirectory.getAbsoluteFile().toPath();
+        if (!Files.isDirectory(root)) {
+            record(root);
+            return this;
+        }
+
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                pathStates.put(dir.toString(), getState(attrs));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        // All done.
+        return this;
+    }
+
+    /**
+     * @return An unmodifiable view of the recorded paths and their states.
+     */
+    public SortedMap<String, String> getPathStates() {
+        return Collections.unmodifiableSortedMap(pathStates);
+    }
+
+    /**
+     * Writes this UpToDateStamp to the supplied file, replacing any previous stamp.
+     *
+     * @param stampFile The non-null file to which this UpToDateStamp should be written.
+     * @throws IOException if the stamp file could not be written.
+     */
+    public void write(final File stampFile) throws IOException {
+
+        // Check sanity
+        Validate.notNull(stampFile, "stampFile");
+
+        final Properties props = new Properties();
+        props.setProperty(VERSION_KEY, FORMAT_VERSION);
+        props.setProperty(CONFIGURATION_KEY, configurationDigest);
+        for (Map.Entry<String, String> current : pathStates.entrySet()) {
+            props.setProperty(PATH_PREFIX + current.getKey(), current.getValue());
+        }
+
+        // All done.
+        STAMP_CACHE.remove(stampFile.getAbsolutePath());
+        BuildManifest.writeSorted(props, stampFile);
+    }
+
+    /**
+     * Checks if the supplied stamp file was written for the supplied configuration fingerprint, and all paths
+     * recorded within it are unchanged.
+     *
+     * @param stampFile                The stamp file to verify.
+     * @param configurationFingerprint The current configuration fingerprint of the Mojo, or {@code null} if it
+     *                                 could not be determined (in which case {@code false} is returned).
+     * @return {@code true} if the stamp file exists and matches the current configuration and file system state.
+     */
+    public static boolean isUpToDate(final File stampFile, final String configurationFingerprint) {
+
+        // Check sanity
+        Validate.notNull(stampFile, "stampFile");
+
+        if (configurationFingerprint == null) {
+            return false;
+        }
+
+        final UpToDateStamp previous = read(stampFile);
+        if (previous == null || !previous.configurationDigest.equals(BuildManifest.digest(configurationFingerprint))) {
+            return false;
+        }
+
+        for (Map.Entry<String, String> current : previous.pathStates.entrySet()) {
+            if (!current.getValue().equals(getState(new File(current.getKey()).toPath()))) {
+                return false;
+            }
+        }
+
+        // All done.
+        return true;
+    }
+
+    /**
+     * Deletes the supplied stamp file (if it exists), implying that the next execution performs the full
+     * staleness check.
+     *
+     * @param stampFile The stamp file to delete.
+     */
+    public static void delete(final File stampFile) {
+
+        // Check sanity
+        Validate.notNull(stampFile, "stampFile");
+
+        STAMP_CACHE.remove(stampFile.getAbsolutePath());
+        stampFile.delete();
+    }
+
+    /**
+     * <p>Describes the values of all instance fields of the supplied object declared within its class and its
+     * superclasses up to (and including) the supplied topmost class, skipping fields of the supplied ignored
+     * types and fields with the supplied ignored names. Used to synthesize a configuration fingerprint from the
+     * injected parameters of a Mojo. The fields of each class are only looked up once per JVM.</p>
+     * <p>Values are described by their string form if they are primitives, Strings, Files, URLs, Locales or
+     * enum constants - or Collections of such values. Other values are described by their class name and string
+     * form if their class overrides {@code toString()}, or by their class name only if they hold no state.</p>
+     *
+     * @param instance          The object whose fields should be described.
+     * @param topmostClass      The topmost class whose declared fields should be described.
+     * @param ignoredTypes      The types of fields which should not be described, such as injected components
+     *                          and per-execution state.
+     * @param ignoredFieldNames The names of fields which should not be described, such as state derived from
+     *                          the configuration.
+     * @return A description of all field values.
+     * @throws IllegalArgumentException if the value of a field could not be described reliably.
+     */
+    public static String describeFields(
+            final Object instance,
+            final Class<?> topmostClass,
+            final List<Class<?>> ignoredTypes,
+            final Collection<String> ignoredFieldNames) throws IllegalArgumentException {
+
+        // Check sanity
+        Validate.notNull(instance, "instance");
+        Validate.notNull(topmostClass, "topmostClass");
+        Validate.notNull(ignoredTypes, "ignoredTypes");
+        Validate.notNull(ignoredFieldNames, "ignoredFieldNames");
+
+        final StringBuilder builder = new StringBuilder();
+        for (Field field : INSTANCE_FIELDS.get(instance.getClass())) {
+
+            if (!topmostClass.isAssignableFrom(field.getDeclaringClass())
+                    || ignoredFieldNames.contains(field.getName())
+                    || isIgnored(field.getType(), ignoredTypes)) {
+                continue;
+            }
+
+            final String fieldName = field.getDeclaringClass().getName() + "#" + field.getName();
+            String description = null;
+            try {
+                description = describe(field.get(instance));
+            } catch (RuntimeException | IllegalAccessException e) {
+                // Not readable; handled below.
+            }
+            if (description == null) {
+                throw new IllegalArgumentException(
+                        "Cannot describe the value of field [" + fieldName + "] of type [" + field.getType() + "]");
+            }
+            builder.append(fieldName).append('=').append(description).append('\n');
+        }
+
+        // All done.
+        return builder.toString();
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void record(final Path path) {
+        pathStates.put(path.toString(), getState(path));
+    }
+
+    private static boolean isModifiedAfter(final String state, final long limitMillis) {
+
+        if (state.startsWith(MISSING)) {
+            return false;
+        }
+        final long lastModifiedNanos = Long.parseLong(state.substring(0, state.indexOf(FIELD_SEPARATOR)));
+        return TimeUnit.NANOSECONDS.toMillis(lastModifiedNanos) > limitMillis;
+    }
+
+    private static String getState(final Path path) {
+        try {
+            return getState(Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (NoSuchFileException e) {
+            return MISSING;
+        } catch (IOException e) {
+            // Unreadable; never matches a recorded state.
+            return MISSING + e.getClass().getSimpleName();
+        }
+    }
+
+    private static String getState(final BasicFileAttributes attrs) {
+
+        final long lastModified = attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        return attrs.isDirectory()
+                ? lastModified + FIELD_SEPARATOR + DIRECTORY
+                : lastModified + FIELD_SEPARATOR + attrs.size();
+    }
+
+    private static UpToDateStamp read(final File stampFile) {
+
+        final BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(stampFile.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+
+        // Re-use a stamp read by a previous execution within this JVM, unless the file has been rewritten.
+        final String key = stampFile.getAbsolutePath();
+        final String fileState = getState(attrs);
+        final CachedStamp cached = STAMP_CACHE.get(key);
+        if (cached != null && cached.fileState.equals(fileState)) {
+            return cached.stamp;
+        }
+
+        final Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(stampFile.toPath(), StandardCharsets.ISO_8859_1)) {
+            props.load(reader);
+        } catch (IOException e) {
+            return null;
+        }
+
+        final String configurationDigest = props.getProperty(CONFIGURATION_KEY);
+        if (!FORMAT_VERSION.equals(props.getProperty(VERSION_KEY)) || configurationDigest == null) {
+            return null;
+        }
+
+        final UpToDateStamp toReturn = new UpToDateStamp(configurationDigest);
+        for (String current : props.stringPropertyNames()) {
+            if (current.startsWith(PATH_PREFIX)) {
+                toReturn.pathStates.put(current.substring(PATH_PREFIX.length()), props.getProperty(current));
+            }
+        }
+
+        // All done.
+        STAMP_CACHE.put(key, new CachedStamp(fileState, toReturn));
+        return toReturn;
+    }
+
+    private static boolean isIgnored(final Class<?> type, final List<Class<?>> ignoredTypes) {
+        for (Class<?> current : ignoredTypes) {
+            if (current.isAssignableFrom(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(final Object value) {
+
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof CharSequence
+                || value instanceof Number
+                || value instanceof Boolean
+                || value instanceof Character
+                || value instanceof Enum
+                || value instanceof File
+                || value instanceof URL
+                || value instanceof Locale) {
+            return value.toString();
+        }
+        if (value instanceof Collection) {
+
+            final StringBuilder builder = new StringBuilder("[");
+            for (Object current : (Collection<?>) value) {
+
+                final String description = describe(current);
+                if (description == null) {
+                    return null;
+                }
+                builder.append(description).append(", ");
+            }
+            return builder.append(']').toString();
+        }
+
+        // Other objects, such as Filters or TransformSchemas.
+        final Class<?> type = value.getClass();
+        try {
+            if (type.getMethod("toString").getDeclaringClass() != Object.class) {
+                return type.getName() + ":" + value;
+            }
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        return INSTANCE_FIELDS.get(type).isEmpty() ? type.getName() : null;
+    }
+
+    /**
+     * An UpToDateStamp read from a stamp file, along with the state of the stamp file when it was read.
+     */
+    private static final class CachedStamp {
+
+        private final String fileState;
+        private final UpToDateStamp stamp;
+
+        CachedStamp(final String fileState, final UpToDateStamp stamp) {
+            this.fileState = fileState;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package org.codehaus.mojo.jaxb2.shared.metrics;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Collects the metrics of a single plugin execution: the time spent, the bytes allocated and the time spent
+ * in garbage collection within each phase of the execution (such as scanning sources, checking staleness, building
+ * the tool ClassLoader or running the tool), counters such as the number of files and bytes read and written, and
+ * the heap growth during the execution.</p>
+ * <p>Phases are timed exclusively: a phase started while another phase is active pauses the outer phase until
+ * it is closed, implying that the phase times add up to (at most) the total time of the execution. Phases are
+ * started and closed by the thread executing the Mojo, whereas counters may be incremented by any thread.</p>
+ * <p>Allocated bytes are measured for the thread executing the Mojo only (if supported by the JVM), implying that
+ * allocations by worker threads (such as parallel XJC or post-processing threads) are not included.</p>
+ * <p>Garbage collections and heap usage are JVM-wide figures, and are labelled as such: they include the work of
+ * any other plugin or Mojo executing concurrently within the same JVM (such as within a parallel build). The JVM
+ * heap growth is the largest used heap sampled at the phase boundaries, relative to the used heap when the
+ * ExecutionMetrics was created. It is therefore an approximation, which includes garbage not yet collected and
+ * misses any peaks between phase boundaries. No JVM-global state (such as the peak usage of memory pools) is ever
+ * reset.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public final class ExecutionMetrics {
+
+    // Internal state
+    private static final long NANOS_PER_MILLI = 1000L * 1000L;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    private final long startNanos;
+    private final long startHeapUsed;
+    private final Map<String, AtomicLong> phaseNanos;
+    private final Map<String, AtomicLong> phaseAllocatedBytes;
+    private final Map<String, AtomicLong> phaseJvmGcMillis;
+    private final long startAllocatedBytes;
+    private final long startGcCount;
+    private final long startGcMillis;
+    private final Deque<Phase> activePhases;
+    private final Map<String, AtomicLong> counters;
+    private final SortedMap<String, String> attributes;
+    private long totalNanos = -1L;
+    private long maxSampledHeapUsed;
+    private long jvmHeapGrowth;
+    private long allocatedBytes;
+    private long jvmGcCount;
+    private long jvmGcMillis;
+
+    /**
+     * Creates a new ExecutionMetrics, starting the clock of the execution.
+     */
+    public ExecutionMetrics() {
+
+        this.phaseNanos = Collections.synchronizedMap(new LinkedHashMap<String, AtomicLong>());
+        this.phaseAllocatedBytes = new LinkedHashMap<String, AtomicLong>();
+        this.phaseJvmGcMillis = new LinkedHashMap<String, AtomicLong>();
+        this.activePhases = new ArrayDeque<Phase>();
+        this.counters = new ConcurrentHashMap<String, AtomicLong>();
+        this.attributes = new TreeMap<String, String>();
+
+        this.startHeapUsed = readHeapUsed();
+        this.maxSampledHeapUsed = startHeapUsed;
+
+        final long[] gcTotals = readGcTotals();
+        this.startGcCount = gcTotals[0];
+        this.startGcMillis = gcTotals[1];
+        this.startAllocatedBytes = readAllocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Starts timing the named phase, pausing any active (outer) phase. Phases should be used within a
+     * try-with-resources statement, and may be entered several times (in which case the times are summed).
+     *
+     * @param name The non-empty name of the phase, such as "staleCheck".
+     * @return The started Phase, which must be closed when the phase is done.
+     */
+    public Phase phase(final String name) {
+
+        // Check sanity
+        Validate.notEmpty(name, "name");
+
+        final Sample now = sample();
+        final Phase outer = activePhases.peek();
+        if (outer != null) {
+            outer.pause(now);
+        }
+
+        final Phase toReturn = new Phase(name, now);
+        activePhases.push(toReturn);
+        return toReturn;
+    }
+
+    /**
+     * Adds the supplied delta to the named counter.
+     *
+     * @param name  The non-empty name of the counter, such as "files.written".
+     * @param delta The value to add.
+     */
+    public void count(final String name, final long delta) {
+
+        // Check sanity
+        Validate.notEmpty(name, "name");
+
+        counters.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    /**
+     * Assigns a descriptive attribute (such as the goal or execution ID) to this ExecutionMetrics.
+     *
+     * @param name  The non-empty name of the attribute.
+     * @param value The value of the attribute.
+     */
+    public void setAttribute(final String name, final String value) {
+
+        // Check sanity
+        Validate.notEmpty(name, "name");
+
+        attributes.put(name, value == null ? "" : value);
+    }
+
+    /**
+     * Stops the clock of the execution, and calculates the JVM heap growth. Invoking this method more than
+     * once has no effect.
+     */
+    public void finish() {
+
+        if (totalNanos >= 0L) {
+            return;
+        }
+        totalNanos = System.nanoTime() - startNanos;
+
+        maxSampledHeapUsed = Math.max(maxSampledHeapUsed, readHeapUsed());
+        jvmHeapGrowth = Math.max(0L, maxSampledHeapUsed - startHeapUsed);
+
+        final long[] gcTotals = readGcTotals();
+        jvmGcCount = gcTotals[0] - startGcCount;
+        jvmGcMillis = gcTotals[1] - startGcMillis;
+        allocatedBytes = Math.max(0L, readAllocatedBytes() - startAllocatedBytes);
+    }
+
+    /**
+     * @return The milliseconds spent within each phase, in the order in which the phases were first entered.
+     */
+    public Map<String, Long> getPhaseMillis() {
+
+        return snapshot(phaseNanos, NANOS_PER_MILLI);
+    }
+
+    /**
+     * @return The bytes allocated by the thread executing the Mojo within each phase, in the order in which the
+     * phases were first entered. Empty if the JVM does not support measuring thread allocations.
+     */
+    public Map<String, Long> getPhaseAllocatedBytes() {
+        return snapshot(phaseAllocatedBytes, 1L);
+    }
+
+    /**
+     * @return The milliseconds spent in garbage collection by the whole JVM within each phase, in the order in
+     * which the phases were first entered.
+     */
+    public Map<String, Long> getPhaseJvmGcMillis() {
+        return snapshot(phaseJvmGcMillis, 1L);
+    }
+
+    /**
+     * @return The values of all counters, sorted by name.
+     */
+    public SortedMap<String, Long> getCounters() {
+
+        final SortedMap<String, Long> toReturn = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> current : counters.entrySet()) {
+            toReturn.put(current.getKey(), current.getValue().get());
+        }
+        return toReturn;
+    }
+
+    /**
+     * @return The total milliseconds of the execution, or the milliseconds elapsed so far if not finished.
+     */
+    public long getTotalMillis() {
+        return (totalNanos >= 0L ? totalNanos : System.nanoTime() - startNanos) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return The approximate growth of the used JVM heap during the execution in bytes, sampled at the phase
+     * boundaries and calculated by {@link #finish()}.
+     */
+    public long getJvmHeapGrowth() {
+        return jvmHeapGrowth;
+    }
+
+    /**
+     * @return The bytes allocated by the thread executing the Mojo during the execution, calculated by
+     * {@link #finish()}. Zero if the JVM does not support measuring thread allocations.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return The number of garbage collections within the whole JVM during the execution, calculated by
+     * {@link #finish()}.
+     */
+    public long getJvmGcCount() {
+        return jvmGcCount;
+    }
+
+    /**
+     * @return The milliseconds spent in garbage collection by the whole JVM during the execution, calculated by
+     * {@link #finish()}.
+     */
+    public long getJvmGcMillis() {
+        return jvmGcMillis;
+    }
+
+    /**
+     * @return A concise, single-line summary of these ExecutionMetrics.
+     */
+    public String getSummary() {
+
+        final StringBuilder builder = new StringBuilder("Execution metrics: " + getTotalMillis() + " ms total [");
+        String separator = "";
+        for (Map.Entry<String, Long> current : getPhaseMillis().entrySet()) {
+            builder.append(separator).append(current.getKey()).append(' ').append(current.getValue()).append(" ms");
+            separator = ", ";
+        }
+        builder.append("] {");
+        separator = "";
+        for (Map.Entry<String, Long> current : getCounters().entrySet()) {
+            builder.append(separator).append(current.getKey()).append('=').append(current.getValue());
+            separator = ", ";
+        }
+
+        // All done.
+        return builder.append("}, allocated ")
+                .append(allocatedBytes / BYTES_PER_MEGABYTE)
+                .append(" MB, JVM-wide: heap +")
+                .append(jvmHeapGrowth / BYTES_PER_MEGABYTE)
+                .append(" MB, ")
+                .append(jvmGcCount)
+                .append(" GCs (")
+                .append(jvmGcMillis)
+                .append(" ms)")
+                .toString();
+    }
+
+    /**
+     * Writes these ExecutionMetrics as a JSON document to the supplied file, replacing any existing file.
+     *
+     * @param jsonFile The non-null file to write.
+     * @throws IOException if the file could not be written.
+     */
+    public void writeJson(final File jsonFile) throws IOException {
+
+        // Check sanity
+        Validate.notNull(jsonFile, "jsonFile");
+
+        final StringBuilder builder = new StringBuilder("{\n");
+        for (Map.Entry<String, String> current : attributes.entrySet()) {
+            builder.append("  ")
+                    .append(quote(current.getKey()))
+                    .append(": ")
+                    .append(quote(current.getValue()))
+                    .append(",\n");
+        }
+        builder.append("  \"totalMillis\": ").append(getTotalMillis()).append(",\n");
+        builder.append("  \"allocatedBytes\": ").append(allocatedBytes).append(",\n");
+        builder.append("  \"jvmHeapGrowthBytes\": ").append(jvmHeapGrowth).append(",\n");
+        builder.append("  \"jvmGcCount\": ").append(jvmGcCount).append(",\n");
+        builder.append("  \"jvmGcMillis\": ").append(jvmGcMillis).append(",\n");
+        appendJsonObject(builder, "phaseMillis", getPhaseMillis());
+        builder.append(",\n");
+        appendJsonObject(builder, "phaseAllocatedBytes", getPhaseAllocatedBytes());
+        builder.append(",\n");
+        appendJsonObject(builder, "phaseJvmGcMillis", getPhaseJvmGcMillis());
+        builder.append(",\n");
+        appendJsonObject(builder, "counters", getCounters());
+        builder.append("\n}\n");
+
+        final File parent = jsonFile.getAbsoluteFile().getParentFile();
+        Files.createDirectories(parent.toPath());
+        final Path tmp = Files.createTempFile(parent.toPath(), jsonFile.getName(), ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                out.write(builder.toString());
+            }
+            Files.move(tmp, jsonFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * A timed phase of the execution, started by {@link ExecutionMetrics#phase(String)}.
+     */
+    public final class Phase implements AutoCloseable {
+
+        private final String name;
+        private Sample resumed;
+        private boolean closed;
+
+        private Phase(final String name, final Sample start) {
+            this.name = name;
+            this.resumed = start;
+        }
+
+        /**
+         * Stops timing this phase, and resumes the outer phase (if any).
+         */
+        @Override
+        public void close() {
+
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            final Sample now = sample();
+            pause(now);
+
+            // Phases are closed in the reverse order in which they were started.
+            activePhases.remove(this);
+            final Phase outer = activePhases.peek();
+            if (outer != null) {
+                outer.resumed = now;
+            }
+        }
+
+        private void pause(final Sample now) {
+
+            synchronized (phaseNanos) {
+                add(phaseNanos, name, now.nanos - resumed.nanos);
+                if (now.allocatedBytes >= 0L) {
+                    add(phaseAllocatedBytes, name, now.allocatedBytes - resumed.allocatedBytes);
+                }
+                add(phaseJvmGcMillis, name, now.gcMillis - resumed.gcMillis);
+            }
+            resumed = now;
+        }
+    }
+
+    /**
+     * The clock, allocation, garbage collection and heap readings at the start or end of a phase.
+     */
+    private static final class Sample {
+
+        private final long nanos;
+        private final long allocatedBytes;
+        private final long gcMillis;
+        private final long heapUsed;
+
+        private Sample() {
+            this.nanos = System.nanoTime();
+            this.allocatedBytes = readAllocatedBytes();
+            this.gcMillis = readGcTotals()[1];
+            this.heapUsed = readHeapUsed();
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private Sample sample() {
+
+        final Sample toReturn = new Sample();
+        maxSampledHeapUsed = Math.max(maxSampledHeapUsed, toReturn.heapUsed);
+        return toReturn;
+    }
+
+    private static void add(final Map<String, AtomicLong> values, final String name, final long delta) {
+        values.computeIfAbsent(name, k -> new AtomicLong()).addAndGet(delta);
+    }
+
+    private Map<String, Long> snapshot(final Map<String, AtomicLong> values, final long divisor) {
+
+        final Map<String, Long> toReturn = new LinkedHashMap<String, Long>();
+        synchronized (phaseNanos) {
+            for (Map.Entry<String, AtomicLong> current : values.entrySet()) {
+                toReturn.put(current.getKey(), current.getValue().get() / divisor);
+            }
+        }
+        return toReturn;
+    }
+
+    private static long readAllocatedBytes() {
+
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+
+            final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+
+        // Not supported by this JVM.
+        return -1L;
+    }
+
+    private static long readHeapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long[] readGcTotals() {
+
+        final long[] toReturn = new long[2];
+        for (GarbageCollectorMXBean current : ManagementFactory.getGarbageCollectorMXBeans()) {
+            toReturn[0] += Math.max(0L, current.getCollectionCount());
+            toReturn[1] += Math.max(0L, current.getCollectionTime());
+        }
+        return toReturn;
+    }
+
+    private static void appendJsonObject(
+            final StringBuilder builder, final String name, final Map<String, Long> values) {
+
+        builder.append("  ").append(quote(name)).append(": {");
+        String separator = "\n";
+        for (Map.Entry<String, Long> current : values.entrySet()) {
+            builder.append(separator)
+                    .append("    ")
+                    .append(quote(current.getKey()))
+                    .append(": ")
+                    .append(current.getValue());
+            separator = ",\n";
+        }
+        builder.append(values.isEmpty() ? "}" : "\n  }");
+    }
+
+    private static String quote(final String value) {
+
+        final StringBuilder builder = new StringBuilder("\"");
+        for (char current : value.toCharArray()) {
+            switch (current) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (current < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) current));
+                    } else {
+                        builder.append(current);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
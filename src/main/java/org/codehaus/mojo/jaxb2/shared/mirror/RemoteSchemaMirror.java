@@ -0,0 +1,614 @@
+package org.codehaus.mojo.jaxb2.shared.mirror;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.Proxy;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.mojo.jaxb2.shared.manifest.BuildManifest;
+
+/**
+ * <p>Local mirror of remote (http or https) schemas, enabling fast and deterministic builds which keep working
+ * when the network is slow or unavailable. Each remote schema is stored below the mirror directory using a path
+ * synthesized from its URL - i.e. {@code [directory]/[scheme]/[host]/[path]}. Relative references of mirrored
+ * schemas (such as {@code xs:import} and {@code xs:include}) are mirrored as well. Since the local file names are
+ * sanitized (and hold a digest of the query of their URL, if any), the relative {@code schemaLocation} values
+ * within the mirrored copies are rewritten to the local names of the mirrored schemas they reference - so that
+ * {@code schemaLocation="my%20types.xsd"} or {@code schemaLocation="service?xsd=2"} resolve locally.</p>
+ * <p>A small properties file next to each mirrored schema holds the URL, the validators (ETag and
+ * Last-Modified) provided by the server, the original relative references and the time of the last
+ * validation. A mirrored schema is used without
+ * any network access until the revalidation interval has passed, after which it is revalidated using a
+ * conditional request. If revalidation fails - for instance due to a timeout or an unavailable network - or
+ * Maven runs in offline mode, the mirrored copy is used as is. Only schemas which were never mirrored require
+ * network access.</p>
+ * <p>Remote origins are contacted through the proxy active within the Maven settings (if any, see
+ * {@link #withProxy(org.apache.maven.settings.Proxy)}), unless the host of the origin matches its
+ * {@code nonProxyHosts}.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public class RemoteSchemaMirror {
+
+    // Constants
+    private static final List<String> REMOTE_PROTOCOLS = Arrays.asList("http", "https");
+    private static final String METADATA_SUFFIX = ".mirror.properties";
+    private static final String TEMP_PREFIX = ".tmp-";
+    private static final String DEFAULT_FILE_NAME = "index.xsd";
+    private static final String URL_KEY = "url";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final String VALIDATED_KEY = "validated";
+    private static final String REFERENCES_KEY = "references";
+    private static final String REFERENCE_PREFIX = "reference.";
+    private static final Pattern SCHEMA_LOCATION =
+            Pattern.compile("schemaLocation\\s*=\\s*(?:\"([^\"]+)\"|'([^']+)')");
+    private static final Pattern UNSAFE_CHARACTERS = Pattern.compile("[^A-Za-z0-9._-]");
+    private static final Pattern NON_PROXY_HOSTS_SEPARATOR = Pattern.compile("[|,]");
+
+    // Internal state
+    private final File directory;
+    private final long revalidationIntervalMillis;
+    private final int timeoutMillis;
+    private final boolean offline;
+    private final Log log;
+    private final Set<File> resolvedFiles;
+    private org.apache.maven.settings.Proxy proxy;
+
+    /**
+     * Creates a RemoteSchemaMirror within the supplied directory.
+     *
+     * @param directory                  The non-null directory holding the mirror. Created if it does not exist.
+     * @param revalidationIntervalMillis The number of milliseconds a mirrored schema is used without revalidating
+     *                                   it against its remote origin.
+     * @param timeoutMillis              The connect and read timeout of requests to remote origins, in
+     *                                   milliseconds.
+     * @param offline                    if {@code true}, no remote origin is contacted - so only already
+     *                                   mirrored schemas can be resolved.
+     * @param log                        The active Maven Log.
+     */
+    public RemoteSchemaMirror(
+            final File directory,
+            final long revalidationIntervalMillis,
+            final int timeoutMillis,
+            final boolean offline,
+            final Log log) {
+
+        // Check sanity
+        Validate.notNull(directory, "directory");
+        Validate.notNull(log, "log");
+        Validate.isTrue(revalidationIntervalMillis >= 0, "revalidationIntervalMillis must not be negative.");
+        Validate.isTrue(timeoutMillis >= 0, "timeoutMillis must not be negative.");
+
+        // Assign internal state
+        this.directory = directory;
+        this.revalidationIntervalMillis = revalidationIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.offline = offline;
+        this.log = log;
+        this.resolvedFiles = new LinkedHashSet<File>();
+    }
+
+    /**
+     * Assigns the proxy through which remote origins are contacted.
+     *
+     * @param proxy The active proxy of the Maven settings, or {@code null} to contact remote origins directly.
+     * @return This RemoteSchemaMirror, for chaining.
+     */
+    public RemoteSchemaMirror withProxy(final org.apache.maven.settings.Proxy proxy) {
+
+        // Assign internal state
+        this.proxy = proxy;
+        return this;
+    }
+
+    /**
+     * Checks if the supplied source (as configured within a POM) denotes a remote schema, which should be
+     * resolved using a RemoteSchemaMirror.
+     *
+     * @param source A configured source path or URL.
+     * @return {@code true} if the source is an http or https URL.
+     */
+    public static boolean isRemote(final String source) {
+
+        if (source == null) {
+            return false;
+        }
+
+        final int colonIndex = source.indexOf("://");
+        return colonIndex > 0
+                && REMOTE_PROTOCOLS.contains(
+                        source.substring(0, colonIndex).trim().toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Resolves the local copy of the supplied remote schema, mirroring or revalidating it (and the schemas it
+     * references relatively) if required.
+     *
+     * @param remote The non-null URL of a remote schema.
+     * @return The local copy of the remote schema.
+     * @throws IOException if the remote schema was never mirrored, and could not be retrieved.
+     */
+    public File resolve(final URL remote) throws IOException {
+
+        // Check sanity
+        Validate.notNull(remote, "remote");
+        Validate.isTrue(
+                REMOTE_PROTOCOLS.contains(remote.getProtocol().toLowerCase(Locale.ENGLISH)),
+                "Only http and https URLs can be mirrored; not [" + remote + "]");
+
+        // All done.
+        return mirror(remote, new HashSet<String>(), true);
+    }
+
+    /**
+     * Retrieves the local copies of all schemas resolved by this RemoteSchemaMirror so far, including the copies
+     * of schemas referenced relatively by resolved schemas. The state of these files reflects changes of their
+     * remote origins, as mirrored copies are only replaced if their content has changed.
+     *
+     * @return The local copies of all resolved schemas, in resolution order.
+     */
+    public List<File> getResolvedFiles() {
+        return new ArrayList<File>(resolvedFiles);
+    }
+
+    /**
+     * Retrieves the local file of the supplied remote URL within this RemoteSchemaMirror, whether or not it has
+     * been mirrored.
+     *
+     * @param remote The non-null URL of a remote schema.
+     * @return The local file, which is named and placed according to the scheme, host, port, path and query
+     * of the remote URL.
+     */
+    public File getLocalFile(final URL remote) {
+
+        // Check sanity
+        Validate.notNull(remote, "remote");
+
+        final String host = remote.getPort() == -1 ? remote.getHost() : remote.getHost() + "_" + remote.getPort();
+        File toReturn = new File(new File(directory, sanitize(remote.getProtocol())), sanitize(host));
+
+        final String path = remote.getPath() == null ? "" : remote.getPath();
+        final List<String> segments = new ArrayList<String>(Arrays.asList(path.split("/")));
+        if (path.isEmpty() || path.endsWith("/")) {
+            segments.add(DEFAULT_FILE_NAME);
+        }
+        for (int i = 0; i < segments.size(); i++) {
+
+            final String current = segments.get(i);
+            if (current.isEmpty()) {
+                continue;
+            }
+
+            String fileName = sanitize(current);
+            if (i == segments.size() - 1 && remote.getQuery() != null) {
+                fileName = fileName + "_" + BuildManifest.digest(remote.getQuery()).substring(0, 16);
+            }
+            toReturn = new File(toReturn, fileName);
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    //
+    // Private helpers
+    //
+
+    private File mirror(final URL remote, final Set<String> visited, final boolean required) throws IOException {
+
+        final File toReturn = getLocalFile(remote);
+        if (!visited.add(toReturn.getAbsolutePath())) {
+            return toReturn;
+        }
+
+        final List<String> references;
+        try {
+            references = refresh(remote, toReturn);
+        } catch (IOException e) {
+
+            if (required) {
+                throw e;
+            }
+
+            // XJC reports the unresolvable reference in context.
+            log.warn("Could not mirror schema [" + remote + "] referenced by another mirrored schema: "
+                    + e.getMessage());
+            return toReturn;
+        }
+        resolvedFiles.add(toReturn);
+
+        // Mirror the schemas referenced relatively by the mirrored schema.
+        for (String current : references) {
+
+            final URL reference = getMirroredReference(remote, current);
+            if (reference != null) {
+                mirror(reference, visited, false);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    /**
+     * Refreshes the local copy of the supplied remote schema, if required.
+     *
+     * @return The original (i.e. not rewritten) relative schemaLocation values of the remote schema.
+     */
+    private List<String> refresh(final URL remote, final File localFile) throws IOException {
+
+        final File metadataFile = new File(localFile.getParentFile(), localFile.getName() + METADATA_SUFFIX);
+        final Properties metadata = readMetadata(metadataFile);
+        final boolean mirrored = localFile.isFile() && remote.toString().equals(metadata.getProperty(URL_KEY));
+        final long now = System.currentTimeMillis();
+
+        if (mirrored) {
+
+            final long validated = parseLong(metadata.getProperty(VALIDATED_KEY));
+            if (offline || now - validated < revalidationIntervalMillis) {
+
+                if (log.isDebugEnabled()) {
+                    log.debug("Using mirrored schema [" + localFile.getAbsolutePath() + "] for [" + remote + "]");
+                }
+                return getReferences(metadata, localFile);
+            }
+        } else if (offline) {
+            throw new IOException("Schema [" + remote + "] has not been mirrored, and Maven is offline.");
+        }
+
+        try {
+
+            final URLConnection connection = openConnection(remote);
+            if (!(connection instanceof HttpURLConnection)) {
+                throw new IOException("Not an HTTP connection: " + remote);
+            }
+
+            final HttpURLConnection httpConnection = (HttpURLConnection) connection;
+            try {
+                httpConnection.setUseCaches(false);
+                httpConnection.setConnectTimeout(timeoutMillis);
+                httpConnection.setReadTimeout(timeoutMillis);
+                if (mirrored) {
+
+                    // Conditional request, using the validators of the mirrored copy.
+                    final String eTag = metadata.getProperty(ETAG_KEY);
+                    if (eTag != null) {
+                        httpConnection.setRequestProperty("If-None-Match", eTag);
+                    }
+                    final long lastModified = parseLong(metadata.getProperty(LAST_MODIFIED_KEY));
+                    if (lastModified > 0) {
+                        httpConnection.setIfModifiedSince(lastModified);
+                    }
+                }
+
+                final int responseCode = httpConnection.getResponseCode();
+                if (mirrored && responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+
+                    if (log.isDebugEnabled()) {
+                        log.debug("Mirrored schema [" + localFile.getAbsolutePath() + "] is up to date with ["
+                                + remote + "]");
+                    }
+                } else if (responseCode == HttpURLConnection.HTTP_OK) {
+
+                    final String content;
+                    try (InputStream in = httpConnection.getInputStream()) {
+                        content = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+                    }
+                    store(rewriteSchemaLocations(remote, localFile, content), localFile);
+
+                    metadata.clear();
+                    metadata.setProperty(URL_KEY, remote.toString());
+                    final List<String> references = getRelativeSchemaLocations(content);
+                    metadata.setProperty(REFERENCES_KEY, "" + references.size());
+                    for (int i = 0; i < references.size(); i++) {
+                        metadata.setProperty(REFERENCE_PREFIX + i, references.get(i));
+                    }
+                    if (httpConnection.getHeaderField("ETag") != null) {
+                        metadata.setProperty(ETAG_KEY, httpConnection.getHeaderField("ETag"));
+                    }
+                    if (httpConnection.getLastModified() > 0) {
+                        metadata.setProperty(LAST_MODIFIED_KEY, "" + httpConnection.getLastModified());
+                    }
+
+                    if (log.isInfoEnabled()) {
+                        log.info("Mirrored schema [" + remote + "] to [" + localFile.getAbsolutePath() + "]");
+                    }
+                } else {
+                    throw new IOException("Request for [" + remote + "] responded with HTTP " + responseCode);
+                }
+            } finally {
+                httpConnection.disconnect();
+            }
+
+            metadata.setProperty(VALIDATED_KEY, "" + now);
+            writeMetadata(metadata, metadataFile);
+
+        } catch (IOException e) {
+
+            if (!mirrored) {
+                throw e;
+            }
+
+            // Keep building using the mirrored copy.
+            log.warn("Could not revalidate mirrored schema [" + remote + "] (" + e.getMessage()
+                    + "). Using the mirrored copy [" + localFile.getAbsolutePath() + "].");
+        }
+
+        // All done.
+        return getReferences(metadata, localFile);
+    }
+
+    private String rewriteSchemaLocations(final URL remote, final File localFile, final String content) {
+
+        final Matcher matcher = SCHEMA_LOCATION.matcher(content);
+        final StringBuffer buffer = new StringBuffer();
+        while (matcher.find()) {
+
+            final int group = matcher.group(1) != null ? 1 : 2;
+            final String location = matcher.group(group).trim();
+            final URL reference = isRelativeSchemaLocation(location) ? getMirroredReference(remote, location) : null;
+
+            String replacement = matcher.group();
+            if (reference != null) {
+
+                // The local path of the referenced schema, relative to the directory of the referring schema.
+                final String localLocation = localFile.getParentFile()
+                        .toPath()
+                        .relativize(getLocalFile(reference).toPath())
+                        .toString()
+                        .replace(File.separatorChar, '/');
+                replacement = replacement.substring(0, matcher.start(group) - matcher.start())
+                        + localLocation
+                        + replacement.substring(matcher.end(group) - matcher.start());
+            }
+            matcher.appendReplacement(buffer, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(buffer);
+
+        // All done.
+        return buffer.toString();
+    }
+
+    private static URL getMirroredReference(final URL remote, final String location) {
+
+        final URL toReturn;
+        try {
+            toReturn = new URL(remote, location);
+        } catch (MalformedURLException e) {
+            return null;
+        }
+
+        // Only references to the origin of the referring schema are mirrored.
+        return toReturn.getProtocol().equalsIgnoreCase(remote.getProtocol())
+                        && toReturn.getAuthority() != null
+                        && toReturn.getAuthority().equalsIgnoreCase(remote.getAuthority())
+                ? toReturn
+                : null;
+    }
+
+    private static List<String> getReferences(final Properties metadata, final File localFile) throws IOException {
+
+        final String numReferences = metadata.getProperty(REFERENCES_KEY);
+        if (numReferences == null) {
+
+            // Mirrored without recording its references; hence, the local copy was not rewritten.
+            return getRelativeSchemaLocations(
+                    new String(Files.readAllBytes(localFile.toPath()), StandardCharsets.ISO_8859_1));
+        }
+
+        final List<String> toReturn = new ArrayList<String>();
+        for (int i = 0; i < parseLong(numReferences); i++) {
+
+            final String current = metadata.getProperty(REFERENCE_PREFIX + i);
+            if (current != null) {
+                toReturn.add(current);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private URLConnection openConnection(final URL remote) throws IOException {
+
+        if (proxy == null || isNonProxyHost(remote.getHost(), proxy.getNonProxyHosts())) {
+            return remote.openConnection();
+        }
+
+        final URLConnection toReturn = remote.openConnection(
+                new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxy.getHost(), proxy.getPort())));
+        if (proxy.getUsername() != null) {
+
+            // Authenticate preemptively using the credentials of the proxy.
+            final String credentials =
+                    proxy.getUsername() + ":" + (proxy.getPassword() == null ? "" : proxy.getPassword());
+            toReturn.setRequestProperty(
+                    "Proxy-Authorization",
+                    "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Requesting [" + remote + "] through proxy [" + proxy.getHost() + ":" + proxy.getPort() + "]");
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    static boolean isNonProxyHost(final String host, final String nonProxyHosts) {
+
+        if (host == null || nonProxyHosts == null) {
+            return false;
+        }
+
+        // Patterns are separated by '|' (or ',') and may hold '*' wildcards, such as "localhost|*.example.com".
+        final String lowerCaseHost = host.toLowerCase(Locale.ENGLISH);
+        for (String current : NON_PROXY_HOSTS_SEPARATOR.split(nonProxyHosts)) {
+
+            final String pattern = current.trim().toLowerCase(Locale.ENGLISH);
+            if (!pattern.isEmpty() && lowerCaseHost.matches(toRegularExpression(pattern))) {
+                return true;
+            }
+        }
+
+        // No match.
+        return false;
+    }
+
+    private static String toRegularExpression(final String wildcardPattern) {
+
+        final String[] literals = wildcardPattern.split("\\*", -1);
+        final StringBuilder builder = new StringBuilder(Pattern.quote(literals[0]));
+        for (int i = 1; i < literals.length; i++) {
+            builder.append(".*").append(Pattern.quote(literals[i]));
+        }
+        return builder.toString();
+    }
+
+    private static void store(final String content, final File localFile) throws IOException {
+
+        final byte[] bytes = content.getBytes(StandardCharsets.ISO_8859_1);
+
+        // Keep the timestamp of an unchanged schema, so it is not considered modified by staleness checks.
+        if (localFile.isFile() && Arrays.equals(Files.readAllBytes(localFile.toPath()), bytes)) {
+            return;
+        }
+
+        Files.createDirectories(localFile.getParentFile().toPath());
+        final File tempFile = new File(localFile.getParentFile(), TEMP_PREFIX + UUID.randomUUID());
+        try {
+            Files.write(tempFile.toPath(), bytes);
+            try {
+                Files.move(
+                        tempFile.toPath(),
+                        localFile.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), localFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Finds the relative schemaLocation values within the supplied schema content. The content is decoded
+     * using ISO-8859-1, which retains all bytes - and hence works for the ASCII schemaLocation values of all
+     * ASCII-compatible encodings.
+     */
+    private static List<String> getRelativeSchemaLocations(final String content) {
+
+        final List<String> toReturn = new ArrayList<String>();
+        final Matcher matcher = SCHEMA_LOCATION.matcher(content);
+        while (matcher.find()) {
+
+            final String location = (matcher.group(1) != null ? matcher.group(1) : matcher.group(2)).trim();
+            if (isRelativeSchemaLocation(location)) {
+                toReturn.add(location);
+            }
+        }
+
+        // All done.
+        return toReturn;
+    }
+
+    private static boolean isRelativeSchemaLocation(final String location) {
+
+        if (location.isEmpty() || location.contains(":") || location.contains(" ")) {
+            return false;
+        }
+        for (int i = 0; i < location.length(); i++) {
+            if (location.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Properties readMetadata(final File metadataFile) {
+
+        final Properties toReturn = new Properties();
+        if (metadataFile.isFile()) {
+            try (Reader in = Files.newBufferedReader(metadataFile.toPath(), StandardCharsets.ISO_8859_1)) {
+                toReturn.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                toReturn.clear();
+            }
+        }
+        return toReturn;
+    }
+
+    private static void writeMetadata(final Properties metadata, final File metadataFile) throws IOException {
+
+        final File tempFile = new File(metadataFile.getParentFile(), TEMP_PREFIX + UUID.randomUUID());
+        try {
+            try (Writer out = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.ISO_8859_1)) {
+                metadata.store(out, null);
+            }
+            Files.move(tempFile.toPath(), metadataFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private static long parseLong(final String value) {
+        try {
+            return value == null ? 0L : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static String sanitize(final String pathSegment) {
+
+        final String toReturn = UNSAFE_CHARACTERS.matcher(pathSegment).replaceAll("_");
+        return toReturn.equals(".") || toReturn.equals("..") ? "_" : toReturn;
+    }
+}
@@ -0,0 +1,293 @@
+package org.codehaus.mojo.jaxb2.shared.output;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * <p>Local, content-addressed store of generated output trees, shared between builds (and therefore between
+ * modules and branches). Each entry holds the complete output tree of a single tool invocation, and is identified
+ * by a key digesting all inputs of that invocation - typically the key of a
+ * {@link org.codehaus.mojo.jaxb2.shared.manifest.CacheKeyDescriptor}. Identical inputs imply identical outputs,
+ * so the stored output tree can be restored instead of invoking the tool.</p>
+ * <p>Entries are prepared within a temporary directory and renamed into place, implying that concurrent builds
+ * sharing the same store never see partially written entries. The entry marker file is touched whenever an entry
+ * is restored, and the least recently used entries are evicted to keep the store within its size budget.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public class OutputStore {
+
+    // Constants
+    private static final String FILES_DIRECTORY = "files";
+    private static final String ENTRY_FILE = "entry.properties";
+    private static final String SIZE_KEY = "size";
+    private static final String NUM_FILES_KEY = "files";
+    private static final String TEMP_PREFIX = ".tmp-";
+    private static final long STALE_TEMP_MILLIS = 24L * 60L * 60L * 1000L;
+
+    // Internal state
+    private final File directory;
+    private final long maxSize;
+    private final Log log;
+    private int parallelism = 1;
+
+    /**
+     * Creates an OutputStore within the supplied directory.
+     *
+     * @param directory The non-null directory holding the store. Created if it does not exist.
+     * @param maxSize   The maximum total size of all entries within the store, in bytes.
+     * @param log       The active Maven Log.
+     */
+    public OutputStore(final File directory, final long maxSize, final Log log) {
+
+        // Check sanity
+        Validate.notNull(directory, "directory");
+        Validate.isTrue(maxSize >= 0L, "maxSize must not be negative.");
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.directory = directory.getAbsoluteFile();
+        this.maxSize = maxSize;
+        this.log = log;
+    }
+
+    /**
+     * Assigns the number of threads used to copy the files of an entry.
+     *
+     * @param parallelism The maximum number of files copied concurrently.
+     * @return This OutputStore, for chaining.
+     */
+    public OutputStore withParallelism(final int parallelism) {
+
+        // Assign internal state
+        this.parallelism = Math.max(parallelism, 1);
+        return this;
+    }
+
+    /**
+     * Restores the output tree stored for the supplied key into the supplied (empty) target directory.
+     *
+     * @param key             The key of the entry to restore.
+     * @param targetDirectory The directory into which the output tree should be copied.
+     * @return {@code true} if the entry was found and restored, and {@code false} if no entry exists for the key
+     * or it could not be restored (in which case the target directory is left empty).
+     * @throws IOException if the target directory could not be cleaned after a failed restore.
+     */
+    public boolean restore(final String key, final File targetDirectory) throws IOException {
+
+        // Check sanity
+        Validate.notEmpty(key, "key");
+        Validate.notNull(targetDirectory, "targetDirectory");
+
+        final File entryDirectory = new File(directory, key);
+        final File entryFile = new File(entryDirectory, ENTRY_FILE);
+        if (!entryFile.isFile()) {
+
+            if (log.isDebugEnabled()) {
+                log.debug("No stored output for key [" + key + "]");
+            }
+            return false;
+        }
+
+        try {
+
+            // Mark the entry as recently used.
+            entryFile.setLastModified(System.currentTimeMillis());
+
+            final File filesDirectory = new File(entryDirectory, FILES_DIRECTORY);
+            new OutputUpdater(log)
+                    .withParallelism(parallelism)
+                    .transfer(filesDirectory, targetDirectory, listFiles(filesDirectory), false);
+
+        } catch (IOException e) {
+
+            // The entry may have been evicted by a concurrent build.
+            log.warn("Could not restore stored output [" + entryDirectory + "]: " + e.getMessage());
+            FileUtils.cleanDirectory(targetDirectory);
+            return false;
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("Restored stored output for key [" + key + "] from [" + entryDirectory + "]");
+        }
+
+        // All done.
+        return true;
+    }
+
+    /**
+     * Stores the output tree found within the supplied source directory for the supplied key, unless an entry
+     * already exists for the key. Evicts the least recently used entries afterwards, if the store exceeds its size
+     * budget. Failing to store the output tree is logged as a warning, since the store is merely an optimization.
+     *
+     * @param key             The key of the entry to store.
+     * @param sourceDirectory The directory holding the output tree to store. Left unchanged.
+     */
+    public void store(final String key, final File sourceDirectory) {
+
+        // Check sanity
+        Validate.notEmpty(key, "key");
+        Validate.notNull(sourceDirectory, "sourceDirectory");
+
+        final File entryDirectory = new File(directory, key);
+        if (new File(entryDirectory, ENTRY_FILE).isFile()) {
+            return;
+        }
+
+        final File tempDirectory = new File(directory, TEMP_PREFIX + UUID.randomUUID());
+        try {
+
+            // Copy the output tree into a temporary entry.
+            final List<File> sources = listFiles(sourceDirectory);
+            final File filesDirectory = new File(tempDirectory, FILES_DIRECTORY);
+            new OutputUpdater(log)
+                    .withParallelism(parallelism)
+                    .transfer(sourceDirectory, filesDirectory, sources, false);
+
+            long size = 0L;
+            for (File current : sources) {
+                size += current.length();
+            }
+            final Properties props = new Properties();
+            props.setProperty(SIZE_KEY, "" + size);
+            props.setProperty(NUM_FILES_KEY, "" + sources.size());
+            try (Writer out = Files.newBufferedWriter(
+                    new File(tempDirectory, ENTRY_FILE).toPath(), StandardCharsets.ISO_8859_1)) {
+                props.store(out, null);
+            }
+
+            // Rename the completed entry into place. A concurrent build may have stored the same entry already.
+            try {
+                Files.move(tempDirectory.toPath(), entryDirectory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                if (log.isInfoEnabled()) {
+                    log.info("Stored " + sources.size() + " output files (" + size + " bytes) for key [" + key + "]");
+                }
+            } catch (IOException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Output for key [" + key + "] not stored: " + e.getMessage());
+                }
+            }
+
+            evict();
+
+        } catch (IOException e) {
+            log.warn("Could not store output for key [" + key + "] within [" + directory + "]: " + e.getMessage());
+        } finally {
+            deleteQuietly(tempDirectory);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the total size of all entries is within the size budget.
+     * Also removes temporary entries abandoned by crashed builds.
+     *
+     * @throws IOException if the store directory could not be listed.
+     */
+    public void evict() throws IOException {
+
+        final File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        final List<File> entryFiles = new ArrayList<File>();
+        long totalSize = 0L;
+        for (File current : children) {
+
+            final File entryFile = new File(current, ENTRY_FILE);
+            if (current.getName().startsWith(TEMP_PREFIX)) {
+                if (current.lastModified() < System.currentTimeMillis() - STALE_TEMP_MILLIS) {
+                    deleteQuietly(current);
+                }
+            } else if (entryFile.isFile()) {
+                entryFiles.add(entryFile);
+                totalSize += getSize(entryFile);
+            }
+        }
+
+        // Evict the least recently used entries first.
+        Collections.sort(entryFiles, Comparator.comparingLong(File::lastModified));
+        for (File current : entryFiles) {
+
+            if (totalSize <= maxSize) {
+                break;
+            }
+
+            totalSize -= getSize(current);
+            deleteQuietly(current.getParentFile());
+            if (log.isDebugEnabled()) {
+                log.debug("Evicted stored output [" + current.getParentFile() + "]");
+            }
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static List<File> listFiles(final File aDirectory) throws IOException {
+
+        try (Stream<Path> paths = Files.walk(aDirectory.toPath())) {
+            return paths.filter(Files::isRegularFile).map(Path::toFile).collect(Collectors.toList());
+        }
+    }
+
+    private static long getSize(final File entryFile) {
+
+        final Properties props = new Properties();
+        try (Reader in = Files.newBufferedReader(entryFile.toPath(), StandardCharsets.ISO_8859_1)) {
+            props.load(in);
+            return Long.parseLong(props.getProperty(SIZE_KEY, "0"));
+        } catch (IOException | NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private void deleteQuietly(final File aDirectory) {
+        try {
+            FileUtils.deleteDirectory(aDirectory);
+        } catch (IOException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Could not delete [" + aDirectory + "]: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package org.codehaus.mojo.jaxb2.shared.output;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.mojo.jaxb2.shared.Validate;
+
+/**
+ * <p>Write-if-changed layer for the output directories of the plugin. Files produced by a tool within a staging
+ * directory are handed to the OutputUpdater, which only replaces the corresponding output file if its content
+ * differs from the produced file. Unchanged output files are left untouched on disk - including their
+ * modification timestamps - which prevents needless recompilation and re-packaging further down the build.</p>
+ * <p>Contents are compared by streaming both files, after comparing their sizes. Changed output files are
+ * replaced atomically (where supported by the file system), implying that a reader never sees a partially
+ * written output file. The OutputUpdater counts the files written, left unchanged and deleted, to report its
+ * effect.</p>
+ * <p>Entire directories of produced files are transferred using {@link #transfer(File, File, List, boolean)},
+ * which moves the files if both directories reside within the same file store (i.e. renames them without copying
+ * any content), and otherwise copies them using {@link FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel)}, letting the operating system copy the content without passing it
+ * through the JVM heap. Files are transferred concurrently by the number of threads set by
+ * {@link #withParallelism(int)}.</p>
+ *
+ * @author <a href="mailto:agent@local">agent</a>
+ * @since 4.1.1
+ */
+public class OutputUpdater {
+
+    // Constants
+    private static final int BUFFER_SIZE = 8192;
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    // Internal state
+    private final Log log;
+    private final Set<Path> trackedFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger numWritten = new AtomicInteger();
+    private final AtomicInteger numUnchanged = new AtomicInteger();
+    private final AtomicInteger numDeleted = new AtomicInteger();
+    private final AtomicLong numBytesWritten = new AtomicLong();
+    private int parallelism = 1;
+
+    /**
+     * Creates an OutputUpdater wrapping the supplied Maven Log.
+     *
+     * @param log The active Maven Log.
+     */
+    public OutputUpdater(final Log log) {
+
+        // Check sanity
+        Validate.notNull(log, "log");
+
+        // Assign internal state
+        this.log = log;
+    }
+
+    /**
+     * Assigns the number of threads used to transfer files within {@link #transfer(File, File, List, boolean)}.
+     *
+     * @param parallelism The maximum number of files transferred concurrently. Values smaller than 1 are
+     *                    treated as 1.
+     * @return This OutputUpdater, for chaining.
+     */
+    public OutputUpdater withParallelism(final int parallelism) {
+
+        // Assign internal state
+        this.parallelism = Math.max(parallelism, 1);
+        return this;
+    }
+
+    /**
+     * Transfers the supplied source files, found below the source directory, to the same relative paths below the
+     * target directory - replacing only the target files whose content differs. If {@code move} is {@code true}
+     * and both directories reside within the same file store, the source files are moved (and deleted if their
+     * target file is unchanged); otherwise they are copied.
+     *
+     * @param sourceDirectory The non-null directory holding the source files.
+     * @param targetDirectory The non-null directory to which the source files should be transferred.
+     * @param sources         The source files, all of which must reside below the sourceDirectory.
+     * @param move            if {@code true}, the source files may be moved rather than copied, implying that
+     *                        they may no longer exist after this method returns.
+     * @throws IOException if any of the files could not be transferred.
+     */
+    public void transfer(
+            final File sourceDirectory, final File targetDirectory, final List<File> sources, final boolean move)
+            throws IOException {
+
+        // Check sanity
+        Validate.notNull(sourceDirectory, "sourceDirectory");
+        Validate.notNull(targetDirectory, "targetDirectory");
+        Validate.notNull(sources, "sources");
+
+        final Path sourceRoot = sourceDirectory.getAbsoluteFile().toPath().normalize();
+        final Path targetRoot = Files.createDirectories(targetDirectory.getAbsoluteFile().toPath().normalize());
+        final boolean moveFiles =
+                move && Files.getFileStore(sourceRoot).equals(Files.getFileStore(targetRoot));
+
+        // Resolve the target files relative to the roots, without canonicalizing each path.
+        final List<Callable<Boolean>> transfers = new ArrayList<Callable<Boolean>>();
+        for (File current : sources) {
+
+            final Path source = current.getAbsoluteFile().toPath().normalize();
+            Validate.isTrue(source.startsWith(sourceRoot), "All sources must reside below the sourceDirectory.");
+            final File target = targetRoot.resolve(sourceRoot.relativize(source)).toFile();
+
+            transfers.add(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    return moveFiles ? move(current, target) : copy(current, target);
+                }
+            });
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug((moveFiles ? "Moving " : "Copying ") + transfers.size() + " files from [" + sourceRoot
+                    + "] to [" + targetRoot + "]");
+        }
+        transferAll(transfers);
+    }
+
+    /**
+     * Copies the supplied source file to the target file, unless the target file already holds the same content.
+     *
+     * @param source The non-null file produced by a tool.
+     * @param target The non-null output file.
+     * @return {@code true} if the target file was written, and {@code false} if it was left unchanged.
+     * @throws IOException if the files could not be compared or the target file could not be written.
+     */
+    public boolean copy(final File source, final File target) throws IOException {
+
+        // Check sanity
+        Validate.notNull(source, "source");
+        Validate.notNull(target, "target");
+
+        if (isUnchanged(source, target)) {
+            return false;
+        }
+
+        // Write the content into a temporary sibling of the target, and move it into place.
+        final Path parent = createParentDirectory(target);
+        final Path tmp = Files.createTempFile(parent, target.getName(), TEMP_FILE_SUFFIX);
+        try {
+            transferContent(source.toPath(), tmp);
+            replace(tmp, target.toPath());
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        // All done.
+        return written(target);
+    }
+
+    /**
+     * Moves the supplied source file to the target file, unless the target file already holds the same content
+     * (in which case the source file is deleted).
+     *
+     * @param source The non-null file produced by a tool, typically within a staging directory.
+     * @param target The non-null output file.
+     * @return {@code true} if the target file was written, and {@code false} if it was left unchanged.
+     * @throws IOException if the files could not be compared or the target file could not be written.
+     */
+    public boolean move(final File source, final File target) throws IOException {
+
+        // Check sanity
+        Validate.notNull(source, "source");
+        Validate.notNull(target, "target");
+
+        if (isUnchanged(source, target)) {
+            Files.delete(source.toPath());
+            return false;
+        }
+
+        createParentDirectory(target);
+        try {
+            Files.move(
+                    source.toPath(),
+                    target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+
+            // Moving between file stores is not atomic; copy the file through a temporary sibling instead.
+            copy(source, target);
+            Files.delete(source.toPath());
+            return true;
+        }
+
+        // All done.
+        return written(target);
+    }
+
+    /**
+     * Deletes all files below the supplied directory which have not been handed to this OutputUpdater as target
+     * files, along with any directories left empty. This synchronizes the directory with the produced files
+     * without touching the unchanged output files, as opposed to clearing the directory before producing them.
+     *
+     * @param directory The output directory to synchronize. Ignored if it does not exist.
+     * @throws IOException if the directory could not be traversed or a file could not be deleted.
+     */
+    public void deleteUntracked(final File directory) throws IOException {
+
+        // Check sanity
+        Validate.notNull(directory, "directory");
+
+        if (!directory.isDirectory()) {
+            return;
+        }
+
+        final Path root = directory.getAbsoluteFile().toPath().normalize();
+        final List<Path> paths;
+        try (Stream<Path> stream = Files.walk(root)) {
+            paths = stream.collect(Collectors.toCollection(ArrayList<Path>::new));
+        }
+
+        // Walk the paths in reverse order, implying that children are handled before their parents.
+        for (int i = paths.size() - 1; i > 0; i--) {
+
+            final Path current = paths.get(i);
+            if (Files.isDirectory(current)) {
+                try (Stream<Path> children = Files.list(current)) {
+                    if (!children.findAny().isPresent()) {
+                        Files.delete(current);
+                    }
+                }
+            } else if (!trackedFiles.contains(current)) {
+
+                Files.delete(current);
+                numDeleted.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("Deleted obsolete output file [" + current + "]");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of output files written by this OutputUpdater.
+     */
+    public int getNumWritten() {
+        return numWritten.get();
+    }
+
+    /**
+     * @return The number of bytes within the output files written by this OutputUpdater.
+     */
+    public long getNumBytesWritten() {
+        return numBytesWritten.get();
+    }
+
+    /**
+     * @return The number of output files left unchanged by this OutputUpdater.
+     */
+    public int getNumUnchanged() {
+        return numUnchanged.get();
+    }
+
+    /**
+     * @return The number of obsolete output files deleted by this OutputUpdater.
+     */
+    public int getNumDeleted() {
+        return numDeleted.get();
+    }
+
+    /**
+     * Emits the number of output files written, left unchanged and deleted to the Maven Log.
+     *
+     * @param toolName The name of the tool whose outputs were updated, such as "XJC".
+     */
+    public void logSummary(final String toolName) {
+
+        if (log.isInfoEnabled()) {
+            log.info(toolName + " output: Wrote [" + numWritten + "] changed files, left [" + numUnchanged
+                    + "] unchanged files untouched and deleted [" + numDeleted + "] obsolete files.");
+        }
+    }
+
+    /**
+     * Compares the contents of the two supplied files by streaming them, after comparing their sizes.
+     *
+     * @param file1 A non-null file.
+     * @param file2 A non-null file.
+     * @return {@code true} if both files exist and hold the same content.
+     * @throws IOException if any of the files could not be read.
+     */
+    public static boolean contentEquals(final File file1, final File file2) throws IOException {
+
+        // Check sanity
+        Validate.notNull(file1, "file1");
+        Validate.notNull(file2, "file2");
+
+        if (!file1.isFile() || !file2.isFile() || file1.length() != file2.length()) {
+            return false;
+        }
+
+        final byte[] buffer1 = new byte[BUFFER_SIZE];
+        final byte[] buffer2 = new byte[BUFFER_SIZE];
+        try (InputStream in1 = Files.newInputStream(file1.toPath());
+                InputStream in2 = Files.newInputStream(file2.toPath())) {
+
+            while (true) {
+
+                final int read1 = readFully(in1, buffer1);
+                final int read2 = readFully(in2, buffer2);
+                if (read1 != read2) {
+                    return false;
+                }
+                if (read1 == 0) {
+                    return true;
+                }
+                for (int i = 0; i < read1; i++) {
+                    if (buffer1[i] != buffer2[i]) {
+                        return false;
+                    }
+                }
+            }
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private boolean isUnchanged(final File source, final File target) throws IOException {
+
+        trackedFiles.add(target.getAbsoluteFile().toPath().normalize());
+        if (contentEquals(source, target)) {
+
+            numUnchanged.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Output file [" + target.getAbsolutePath() + "] is unchanged.");
+            }
+            return true;
+        }
+
+        // All done.
+        return false;
+    }
+
+    private boolean written(final File target) {
+
+        numWritten.incrementAndGet();
+        numBytesWritten.addAndGet(target.length());
+        if (log.isDebugEnabled()) {
+            log.debug("Wrote output file [" + target.getAbsolutePath() + "]");
+        }
+        return true;
+    }
+
+    private void transferAll(final List<Callable<Boolean>> transfers) throws IOException {
+
+        final int threads = Math.min(parallelism, transfers.size());
+        if (threads <= 1) {
+            for (Callable<Boolean> current : transfers) {
+                call(current);
+            }
+            return;
+        }
+
+        final AtomicInteger threadIndex = new AtomicInteger(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread toReturn = new Thread(runnable, "jaxb2-output-" + threadIndex.getAndIncrement());
+                toReturn.setDaemon(true);
+                return toReturn;
+            }
+        });
+
+        try {
+
+            final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+            for (Callable<Boolean> current : transfers) {
+                futures.add(executor.submit(current));
+            }
+
+            // Wait for all transfers, and report the first failure in file order.
+            IOException failure = null;
+            for (Future<Boolean> current : futures) {
+                try {
+                    current.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof IOException
+                                ? (IOException) e.getCause()
+                                : new IOException(e.getCause().getMessage(), e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while transferring output files.", e);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void call(final Callable<Boolean> transfer) throws IOException {
+        try {
+            transfer.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static void transferContent(final Path source, final Path target) throws IOException {
+
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(
+                        target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            // transferTo may transfer fewer bytes than requested.
+            final long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static Path createParentDirectory(final File target) throws IOException {
+        return Files.createDirectories(target.getAbsoluteFile().getParentFile().toPath());
+    }
+
+    private static void replace(final Path source, final Path target) throws IOException {
+
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static int readFully(final InputStream in, final byte[] buffer) throws IOException {
+
+        int toReturn = 0;
+        while (toReturn < buffer.length) {
+            final int read = in.read(buffer, toReturn, buffer.length - toReturn);
+            if (read == -1) {
+                break;
+            }
+            toReturn += read;
+        }
+        return toReturn;
+    }
+}
@@ -0,0 +1,129 @@
+package org.codehaus.mojo.jaxb2.javageneration;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.mojo.jaxb2.shared.FileSystemUtilities;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class SchemaIslandsTest {
+
+    // Shared state
+    private File islandsDirectory;
+    private BufferingLog log;
+
+    @TempDir
+    File tmpDirectory;
+
+    @BeforeEach
+    void setupSharedState() {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+
+        final URL islandsDirUrl = getClass().getClassLoader().getResource("testdata/javageneration/islands");
+        islandsDirectory = new File(islandsDirUrl.getPath());
+    }
+
+    @Test
+    void validatePartitioningIntoIslands() {
+
+        // Assemble
+        final List<URL> sources = Arrays.asList(
+                getUrl("a.xsd"), getUrl("a-types.xsd"), getUrl("b.xsd"), getUrl("d.xsd"), getUrl("e.xsd"));
+        final List<File> bindings = Arrays.asList(
+                new File(islandsDirectory, "c-episode.xjb"),
+                new File(islandsDirectory, "d-binding.xjb"),
+                new File(islandsDirectory, "global.xjb"));
+
+        // Act
+        final List<SchemaIsland> result = SchemaIslands.resolve(sources, bindings, log);
+
+        // Assert
+        assertEquals(3, result.size());
+
+        // a.xsd includes a-types.xsd
+        final SchemaIsland aIsland = result.get(0);
+        assertEquals(Arrays.asList(getUrl("a.xsd"), getUrl("a-types.xsd")), aIsland.getSources());
+        assertEquals(Collections.emptyList(), aIsland.getReferencedSchemas());
+        assertEquals(Collections.singletonList(bindings.get(2)), aIsland.getBindings());
+
+        // b.xsd imports sub/c.xsd, whose namespace is bound by the episode.
+        final SchemaIsland bIsland = result.get(1);
+        assertEquals(Collections.singletonList(getUrl("b.xsd")), bIsland.getSources());
+        assertEquals(Collections.singletonList(getUrl("sub/c.xsd")), bIsland.getReferencedSchemas());
+        assertEquals(Arrays.asList(bindings.get(0), bindings.get(2)), bIsland.getBindings());
+
+        // e.xsd imports the namespace of d.xsd without a schemaLocation.
+        final SchemaIsland dIsland = result.get(2);
+        assertEquals(Arrays.asList(getUrl("d.xsd"), getUrl("e.xsd")), dIsland.getSources());
+        assertEquals(Arrays.asList(bindings.get(1), bindings.get(2)), dIsland.getBindings());
+    }
+
+    @Test
+    void validateIslandKeysDependOnSourcesOnly() {
+
+        // Assemble
+        final List<URL> sources = Arrays.asList(getUrl("a.xsd"), getUrl("a-types.xsd"));
+
+        // Act
+        final SchemaIsland island1 =
+                new SchemaIsland(sources, Collections.<URL>emptyList(), Collections.<File>emptyList());
+        final SchemaIsland island2 = new SchemaIsland(
+                sources,
+                Collections.singletonList(getUrl("d.xsd")),
+                Collections.singletonList(new File(islandsDirectory, "global.xjb")));
+        final SchemaIsland island3 = new SchemaIsland(
+                Collections.singletonList(getUrl("a.xsd")),
+                Collections.<URL>emptyList(),
+                Collections.<File>emptyList());
+
+        // Assert
+        assertEquals(island1.getKey(), island2.getKey());
+        assertNotEquals(island1.getKey(), island3.getKey());
+    }
+
+    @Test
+    void validateMergingEpisodes() throws Exception {
+
+        // Assemble
+        final File episode = new File(islandsDirectory, "c-episode.xjb");
+        final File merged = new File(tmpDirectory, "merged.xjb");
+
+        // Act
+        SchemaIslands.mergeEpisodes(Arrays.asList(episode, episode), merged);
+
+        // Assert
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final Document document = factory.newDocumentBuilder().parse(merged);
+
+        assertEquals(
+                2,
+                document.getDocumentElement()
+                        .getElementsByTagNameNS("https://jakarta.ee/xml/ns/jaxb", "class")
+                        .getLength());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private URL getUrl(final String relativePath) {
+        return FileSystemUtilities.getUrlFor(new File(islandsDirectory, relativePath));
+    }
+}
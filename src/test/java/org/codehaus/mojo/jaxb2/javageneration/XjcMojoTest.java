@@ -0,0 +1,400 @@
+package org.codehaus.mojo.jaxb2.javageneration;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.settings.Settings;
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.mojo.jaxb2.shared.ResolvedSources;
+import org.codehaus.mojo.jaxb2.shared.environment.EnvironmentFacet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class XjcMojoTest {
+
+    // Shared state
+    private BufferingLog log;
+    private File basedir;
+    private File outputDirectory;
+    private File staleFileDirectory;
+
+    @TempDir
+    File tmpDirectory;
+
+    @BeforeEach
+    void setupSharedState() {
+
+        // The plugin version information logged on DEBUG level is only available within the packaged plugin.
+        log = new BufferingLog(BufferingLog.LogLevel.INFO);
+        basedir = new File(tmpDirectory, "project");
+        outputDirectory = new File(basedir, "target/generated-sources/jaxb");
+        staleFileDirectory = new File(basedir, "target/jaxb2");
+    }
+
+    @Test
+    void validateParallelIslandsGenerateSameOutputAsSequentialIslands() throws Exception {
+
+        // Assemble
+        writeSchema("a.xsd", "urn:a", "AType");
+        writeSchema("b.xsd", "urn:b", "BType");
+        writeSchema("c.xsd", "urn:c", "CType");
+
+        // Act
+        createMojo(true, 1).execute();
+        final SortedMap<String, byte[]> sequentialOutputs = readOutputs();
+
+        deleteRecursively(new File(basedir, "target"));
+        createMojo(true, 3).execute();
+        final SortedMap<String, byte[]> parallelOutputs = readOutputs();
+
+        // Assert
+        assertTrue(log.getPrettyPrintedLog().contains("Generating 3 schema islands using 3 threads."));
+        assertEquals(sequentialOutputs.keySet(), parallelOutputs.keySet());
+        for (Map.Entry<String, byte[]> current : sequentialOutputs.entrySet()) {
+            assertArrayEquals(current.getValue(), parallelOutputs.get(current.getKey()), current.getKey());
+        }
+
+        // The episodes of all islands are merged in island order.
+        final String episode = getEpisode(parallelOutputs);
+        assertTrue(episode.indexOf("urn:a") < episode.indexOf("urn:b"));
+        assertTrue(episode.indexOf("urn:b") < episode.indexOf("urn:c"));
+        assertTrue(parallelOutputs.containsKey("a/AType.java"));
+        assertTrue(parallelOutputs.containsKey("c/CType.java"));
+    }
+
+    @Test
+    void validateFirstFailingIslandIsReported() throws Exception {
+
+        // Assemble
+        writeBrokenSchema("a.xsd", "urn:a");
+        writeSchema("b.xsd", "urn:b", "BType");
+        writeBrokenSchema("c.xsd", "urn:c");
+
+        // Act
+        final MojoExecutionException result =
+                assertThrows(MojoExecutionException.class, () -> createMojo(true, 3).execute());
+
+        // Assert
+        assertTrue(result.getMessage().contains("a.xsd"), result.getMessage());
+        assertFalse(result.getMessage().contains("c.xsd"), result.getMessage());
+        assertFalse(new File(outputDirectory, "b/BType.java").exists());
+    }
+
+    @Test
+    void validateOverlappingIslandsFallBackToSingleInvocation() throws Exception {
+
+        // Assemble
+        // Islands in different namespaces, whose classes are generated into the same package.
+        final String packageBinding = "<xs:annotation><xs:appinfo><jaxb:schemaBindings>"
+                + "<jaxb:package name=\"same\"/></jaxb:schemaBindings></xs:appinfo></xs:annotation>\n";
+        writeSchema("first.xsd", "urn:first", "FirstType", packageBinding);
+        writeSchema("second.xsd", "urn:second", "SecondType", packageBinding);
+
+        // Act
+        createMojo(true, 2).execute();
+
+        // Assert
+        assertTrue(log.getPrettyPrintedLog().contains("Schema islands generated overlapping files"));
+        assertTrue(new File(outputDirectory, "same/FirstType.java").isFile());
+        assertTrue(new File(outputDirectory, "same/SecondType.java").isFile());
+        assertTrue(new String(
+                        Files.readAllBytes(new File(outputDirectory, "same/ObjectFactory.java").toPath()),
+                        StandardCharsets.UTF_8)
+                .contains("createSecondType"));
+        assertTrue(new File(staleFileDirectory, ".nonExecutionJaxb-xjcStaleFlag.islands/overlapping").isFile());
+    }
+
+    @Test
+    void validateParallelismWithoutSchemaIslandsIsIgnored() throws Exception {
+
+        // Assemble
+        writeSchema("a.xsd", "urn:a", "AType");
+        writeSchema("b.xsd", "urn:b", "BType");
+
+        // Act
+        createMojo(false, 4).execute();
+
+        // Assert
+        assertTrue(log.getPrettyPrintedLog().contains("The 'parallelism' parameter only applies"));
+        assertFalse(new File(staleFileDirectory, ".nonExecutionJaxb-xjcStaleFlag.islands").exists());
+        assertTrue(new File(outputDirectory, "a/AType.java").isFile());
+        assertTrue(new File(outputDirectory, "b/BType.java").isFile());
+    }
+
+    @Test
+    void validateSourcesResolvedOncePerExecution() throws Exception {
+
+        // Assemble
+        writeSchema("a.xsd", "urn:a", "AType");
+        final CountingXjcMojo unitUnderTest = new CountingXjcMojo();
+        configureMojo(unitUnderTest, false, 1);
+
+        // Act
+        unitUnderTest.execute();
+        final ResolvedSources firstExecution = unitUnderTest.resolveSources();
+        final int callsAfterFirstExecution = unitUnderTest.getSourcesCalls;
+
+        unitUnderTest.execute();
+        final ResolvedSources secondExecution = unitUnderTest.resolveSources();
+
+        // Assert
+        assertEquals(1, callsAfterFirstExecution);
+        assertEquals(2, unitUnderTest.getSourcesCalls);
+        assertSame(secondExecution, unitUnderTest.resolveSources());
+        assertNotSame(firstExecution, secondExecution);
+
+        assertEquals(1, firstExecution.getSources().size());
+        assertTrue(firstExecution.getScanTimeNanos() > 0L);
+        assertTrue(firstExecution
+                .getTraversedDirectories()
+                .contains(new File(basedir, "src/main/xsd").getAbsoluteFile()));
+        assertTrue(firstExecution
+                .getTraversedDirectories()
+                .contains(new File(basedir, "src/main/xjb").getAbsoluteFile()));
+    }
+
+    @Test
+    void validateUnchangedExecutionIsSkippedByUpToDateStamp() throws Exception {
+
+        // Assemble
+        final File schema = writeSchema("a.xsd", "urn:a", "AType");
+        final long past = System.currentTimeMillis() - 60000L;
+        assertTrue(schema.setLastModified(past));
+        assertTrue(schema.getParentFile().setLastModified(past));
+        final CountingXjcMojo initial = new CountingXjcMojo();
+        configureMojo(initial, false, 1);
+        initial.execute();
+
+        final File generatedFile = new File(outputDirectory, "a/AType.java");
+        assertTrue(generatedFile.setLastModified(past));
+        final CountingXjcMojo unchanged = new CountingXjcMojo();
+        configureMojo(unchanged, false, 1);
+
+        // Act
+        unchanged.execute();
+
+        // Assert
+        assertTrue(log.getPrettyPrintedLog()
+                .contains("No changes detected in schema or binding files - skipping JAXB generation."));
+        assertEquals(1, initial.getSourcesCalls);
+        assertEquals(0, unchanged.getSourcesCalls);
+        assertEquals(past / 1000L, generatedFile.lastModified() / 1000L);
+        assertFalse(log.getPrettyPrintedLog().contains("Not using the fast up-to-date check"));
+    }
+
+    @Test
+    void validateUndescribableConfigurationIsLogged() throws Exception {
+
+        // Assemble
+        writeSchema("a.xsd", "urn:a", "AType");
+        final XjcMojo unitUnderTest = createMojo(false, 1);
+        setField(unitUnderTest, "extraFacets", Collections.<EnvironmentFacet>singletonList(new StatefulFacet()));
+
+        // Act
+        unitUnderTest.execute();
+
+        // Assert
+        assertTrue(log.getPrettyPrintedLog().contains("Not using the fast up-to-date check"));
+        assertTrue(log.getPrettyPrintedLog().contains("#extraFacets"));
+        assertFalse(new File(staleFileDirectory, ".nonExecutionJaxb-xjcStaleFlag.uptodate").exists());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private XjcMojo createMojo(final boolean schemaIslands, final int parallelism) throws Exception {
+
+        final XjcMojo toReturn = new XjcMojo();
+        configureMojo(toReturn, schemaIslands, parallelism);
+        return toReturn;
+    }
+
+    private void configureMojo(final XjcMojo mojo, final boolean schemaIslands, final int parallelism)
+            throws Exception {
+
+        final MavenProject project = new MavenProject();
+        project.setFile(new File(basedir, "pom.xml"));
+        final Build build = new Build();
+        build.setDirectory(new File(basedir, "target").getAbsolutePath());
+        build.setOutputDirectory(new File(basedir, "target/classes").getAbsolutePath());
+        project.setBuild(build);
+
+        mojo.setLog(log);
+        setField(mojo, "project", project);
+        setField(mojo, "buildContext", new DefaultBuildContext());
+        setField(mojo, "settings", new Settings());
+        setField(mojo, "staleFileDirectory", staleFileDirectory);
+        setField(mojo, "encoding", "UTF-8");
+        setField(mojo, "fastUpToDateCheck", true);
+        setField(mojo, "outputDirectory", outputDirectory);
+        setField(mojo, "generateEpisode", true);
+        setField(mojo, "sourceType", SourceContentType.XmlSchema);
+        setField(mojo, "noGeneratedHeaderComments", true);
+        setField(mojo, "extension", true);
+        setField(mojo, "failOnNoSchemas", true);
+        setField(mojo, "clearOutputDir", true);
+        setField(mojo, "outputStoreMaxSize", 512);
+        setField(mojo, "remoteSchemaMirror", new File(staleFileDirectory, "mirror"));
+        setField(mojo, "remoteSchemaRevalidationInterval", 1440);
+        setField(mojo, "remoteSchemaTimeout", 10000);
+        setField(mojo, "schemaIslands", schemaIslands);
+        setField(mojo, "parallelism", parallelism);
+    }
+
+    private static void setField(final Object target, final String fieldName, final Object value) throws Exception {
+
+        for (Class<?> current = target.getClass(); current != null; current = current.getSuperclass()) {
+            try {
+                final Field field = current.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // Try the superclass.
+            }
+        }
+        throw new IllegalArgumentException("No field [" + fieldName + "] within " + target.getClass());
+    }
+
+    private File writeSchema(final String fileName, final String namespace, final String typeName)
+            throws IOException {
+        return writeSchema(fileName, namespace, typeName, "");
+    }
+
+    private File writeSchema(
+            final String fileName, final String namespace, final String typeName, final String annotation)
+            throws IOException {
+
+        return writeFile("src/main/xsd/" + fileName, "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" "
+                + "xmlns:jaxb=\"https://jakarta.ee/xml/ns/jaxb\" jaxb:version=\"3.0\" "
+                + "targetNamespace=\"" + namespace + "\" elementFormDefault=\"qualified\">\n"
+                + annotation
+                + "    <xs:complexType name=\"" + typeName + "\">\n"
+                + "        <xs:sequence><xs:element name=\"value\" type=\"xs:string\"/></xs:sequence>\n"
+                + "    </xs:complexType>\n"
+                + "</xs:schema>\n");
+    }
+
+    private void writeBrokenSchema(final String fileName, final String namespace) throws IOException {
+
+        writeFile("src/main/xsd/" + fileName, "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" "
+                + "targetNamespace=\"" + namespace + "\">\n"
+                + "    <xs:element name=\"broken\" type=\"xs:doesNotExist\"/>\n"
+                + "</xs:schema>\n");
+    }
+
+    private File writeFile(final String relativePath, final String content) throws IOException {
+
+        final File toReturn = new File(basedir, relativePath);
+        Files.createDirectories(toReturn.getParentFile().toPath());
+        Files.write(toReturn.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return toReturn;
+    }
+
+    private SortedMap<String, byte[]> readOutputs() throws IOException {
+
+        final SortedMap<String, byte[]> toReturn = new TreeMap<String, byte[]>();
+        final Path root = outputDirectory.toPath();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path current : (Iterable<Path>) paths::iterator) {
+                if (Files.isRegularFile(current)) {
+                    toReturn.put(root.relativize(current).toString().replace(File.separatorChar, '/'),
+                            Files.readAllBytes(current));
+                }
+            }
+        }
+        return toReturn;
+    }
+
+    private static String getEpisode(final SortedMap<String, byte[]> outputs) {
+
+        for (Map.Entry<String, byte[]> current : outputs.entrySet()) {
+            if (current.getKey().startsWith("META-INF/JAXB/")) {
+                return new String(current.getValue(), StandardCharsets.UTF_8);
+            }
+        }
+        throw new IllegalStateException("No episode file within " + outputs.keySet());
+    }
+
+    private static void deleteRecursively(final File aFile) throws IOException {
+
+        try (Stream<Path> paths = Files.walk(aFile.toPath())) {
+            paths.sorted((first, second) -> second.compareTo(first)).forEach(current -> current.toFile()
+                    .delete());
+        }
+    }
+
+    /**
+     * XjcMojo which counts the number of times its sources are scanned.
+     */
+    static class CountingXjcMojo extends XjcMojo {
+
+        // Internal state
+        int getSourcesCalls;
+
+        @Override
+        protected List<URL> getSources() {
+            getSourcesCalls++;
+            return super.getSources();
+        }
+
+        ResolvedSources resolveSources() {
+            return getResolvedSources();
+        }
+
+        @Override
+        protected List<String> getFingerprintIgnoredFields() {
+
+            final List<String> toReturn = super.getFingerprintIgnoredFields();
+            toReturn.add("getSourcesCalls");
+            return toReturn;
+        }
+    }
+
+    /**
+     * EnvironmentFacet holding state, which cannot be described within the configuration fingerprint.
+     */
+    static class StatefulFacet implements EnvironmentFacet {
+
+        // Internal state
+        private int invocations;
+
+        @Override
+        public void setup() {
+            invocations++;
+        }
+
+        @Override
+        public void restore() {
+            // Nothing to restore.
+        }
+    }
+}
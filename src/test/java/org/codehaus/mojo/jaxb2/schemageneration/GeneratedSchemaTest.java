@@ -0,0 +1,96 @@
+package org.codehaus.mojo.jaxb2.schemageneration;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class GeneratedSchemaTest {
+
+    @TempDir
+    File tmpDirectory;
+
+    @Test
+    void validateReadingTargetNamespaceAndTopLevelTypeNames() throws IOException {
+
+        // Assemble
+        final URL schemaURL =
+                getClass().getClassLoader().getResource("testdata/schemageneration/javadoc/enums/rawEnumSchema.xsd");
+
+        // Act
+        final GeneratedSchema result = GeneratedSchema.read(new File(schemaURL.getPath()), "schema1.xsd");
+
+        // Assert
+        assertEquals("schema1.xsd", result.getRelativePath());
+        assertEquals("http://gnat.west.se/foods", result.getTargetNamespace());
+        assertEquals(
+                new TreeSet<String>(Arrays.asList("americanCoin", "foodPreference", "foodPreferences")),
+                result.getTypeNames());
+        assertEquals(16, result.getKey().length());
+    }
+
+    @Test
+    void validateKeyDependsOnTargetNamespaceOnly() throws IOException {
+
+        // Assemble
+        final File noNamespace = writeFile(
+                "schema1.xsd",
+                "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+                        + "<xs:complexType name=\"foo\"/></xs:schema>");
+        final File sameNoNamespace = writeFile(
+                "schema2.xsd",
+                "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">"
+                        + "<xs:simpleType name=\"bar\"><xs:restriction base=\"xs:string\"/></xs:simpleType>"
+                        + "</xs:schema>");
+        final File otherNamespace = writeFile(
+                "schema3.xsd",
+                "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" targetNamespace=\"http://some/ns\">"
+                        + "<xs:complexType name=\"foo\"/></xs:schema>");
+
+        // Act
+        final GeneratedSchema result1 = GeneratedSchema.read(noNamespace, "schema1.xsd");
+        final GeneratedSchema result2 = GeneratedSchema.read(sameNoNamespace, "schema2.xsd");
+        final GeneratedSchema result3 = GeneratedSchema.read(otherNamespace, "schema3.xsd");
+
+        // Assert
+        assertEquals("", result1.getTargetNamespace());
+        assertEquals(result1.getKey(), result2.getKey());
+        assertNotEquals(result1.getKey(), result3.getKey());
+        assertNotEquals(result1.getDigest(), result3.getDigest());
+        assertEquals("bar", result2.getTypeNames().first());
+    }
+
+    @Test
+    void validateExceptionOnMalformedSchema() throws IOException {
+
+        // Assemble
+        final File malformed = writeFile("schema1.xsd", "<xs:schema");
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> GeneratedSchema.read(malformed, "schema1.xsd"));
+    }
+
+    //
+    // Private helpers
+    //
+
+    private File writeFile(final String relativePath, final String content) throws IOException {
+
+        final File toReturn = new File(tmpDirectory, relativePath);
+        Files.write(toReturn.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return toReturn;
+    }
+}
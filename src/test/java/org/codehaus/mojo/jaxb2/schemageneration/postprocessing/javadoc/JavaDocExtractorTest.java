@@ -1,13 +1,17 @@
 package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
 
 import org.codehaus.mojo.jaxb2.BufferingLog;
@@ -23,6 +27,7 @@ import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -38,6 +43,9 @@ class JavaDocExtractorTest {
     private File javaDocXmlWrappersDir;
     private BufferingLog log;
 
+    @TempDir
+    File tmpDirectory;
+
     @BeforeEach
     void setupSharedState() {
 
@@ -396,10 +404,218 @@ class JavaDocExtractorTest {
                 methodTag2ValueMap.get("return"));
     }
 
+    @Test
+    void validateParallelProcessingIdenticalToSequentialProcessing() {
+
+        // Assemble
+        final File[] sourceDirs = {javaDocBasicDir, javaDocAnnotatedDir, javaDocEnumsDir, javaDocXmlWrappersDir};
+        final JavaDocExtractor sequential = new JavaDocExtractor(log);
+        final JavaDocExtractor parallel = new JavaDocExtractor(log);
+        parallel.setParallelism(3);
+
+        // Act
+        final SearchableDocumentation sequentialResult = getSearchableDocumentationFor(sequential, 8, sourceDirs);
+        final SearchableDocumentation parallelResult = getSearchableDocumentationFor(parallel, 8, sourceDirs);
+
+        // Assert
+        assertEquals(sequentialResult.getPaths(), parallelResult.getPaths());
+        for (String current : sequentialResult.getPaths()) {
+            assertEquals(
+                    sequentialResult.getJavaDoc(current).getComment(),
+                    parallelResult.getJavaDoc(current).getComment(),
+                    current);
+            assertEquals(
+                    sequentialResult.getJavaDoc(current).getTag2ValueMap(),
+                    parallelResult.getJavaDoc(current).getTag2ValueMap(),
+                    current);
+        }
+    }
+
+    @Test
+    void validateParameterTypesResolvedAcrossParallelChunks() {
+
+        // Assemble
+        final URL crossChunkDirURL =
+                getClass().getClassLoader().getResource("testdata/schemageneration/javadoc/crosschunk");
+        final File crossChunkDir = new File(crossChunkDirURL.getPath());
+        final JavaDocExtractor unitUnderTest = new JavaDocExtractor(log);
+        unitUnderTest.setParallelism(2);
+
+        // Act
+        final SearchableDocumentation result = getSearchableDocumentationFor(unitUnderTest, 2, crossChunkDir);
+
+        // Assert
+        final List<String> paths = new ArrayList<String>(result.getPaths());
+        assertEquals(5, paths.size());
+        assertEquals("crosschunk", paths.get(0));
+        assertEquals("crosschunk.Gadget", paths.get(1));
+        assertEquals("crosschunk.Gadget#part", paths.get(2));
+        assertEquals("crosschunk.Gadget#setPart(crosschunk.GadgetPart)", paths.get(3));
+        assertEquals("crosschunk.GadgetPart", paths.get(4));
+    }
+
+    @Test
+    void validateCachedExtractionIdenticalToUncachedExtraction() throws Exception {
+
+        // Assemble
+        final File sourceDir = copyJavaSources("annotated", "basic", "crosschunk", "enums");
+        Files.write(
+                new File(sourceDir, "crosschunk/package-info.java").toPath(),
+                "/**\n * Gadgets and their parts.\n */\npackage crosschunk;\n".getBytes(StandardCharsets.UTF_8));
+        final File nodeProcessor = new File(sourceDir, "basic/NodeProcessor.java");
+        final File cacheFile = new File(tmpDirectory, "javadoc.cache");
+        final String processPath = "basic.NodeProcessor#process(org.w3c.dom.Node)";
+
+        // Act
+        final SearchableDocumentation uncached = getSearchableDocumentationFor(sourceDir, null);
+        final SearchableDocumentation cold = getSearchableDocumentationFor(sourceDir, cacheFile);
+        final SearchableDocumentation warm = getSearchableDocumentationFor(sourceDir, cacheFile);
+
+        final String source = new String(Files.readAllBytes(nodeProcessor.toPath()), StandardCharsets.UTF_8);
+        Files.write(
+                nodeProcessor.toPath(),
+                source.replace("Processes the provided DOM Node.", "Processes the given DOM Node.")
+                        .getBytes(StandardCharsets.UTF_8));
+        final SearchableDocumentation changed = getSearchableDocumentationFor(sourceDir, cacheFile);
+
+        // Assert
+        assertTrue(cacheFile.isFile());
+        assertSameJavaDocs(uncached, cold);
+        assertSameJavaDocs(uncached, warm);
+        assertEquals(
+                "crosschunk.Gadget#setPart(crosschunk.GadgetPart)",
+                warm.getLocation("crosschunk.Gadget#setPart(crosschunk.GadgetPart)").getPath());
+
+        assertEquals(uncached.getPaths(), changed.getPaths());
+        assertEquals("Processes the given DOM Node.", changed.getJavaDoc(processPath).getComment());
+
+        final List<String> logMessages = new ArrayList<String>(log.getLogBuffer().keySet());
+        assertTrue(containsEnding(logMessages, "Re-using cached JavaDoc for [0] of [9] java sources."));
+        assertTrue(containsEnding(logMessages, "Re-using cached JavaDoc for [9] of [9] java sources."));
+        assertTrue(containsEnding(logMessages, "Re-using cached JavaDoc for [8] of [9] java sources."));
+    }
+
+    @Test
+    void validateUnreadableCacheIsIgnored() throws Exception {
+
+        // Assemble
+        final File sourceDir = copyJavaSources("crosschunk");
+        final File cacheFile = new File(tmpDirectory, "javadoc.cache");
+        Files.write(cacheFile.toPath(), "cache.version=1\nsource.00000.path=foo\n".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        final SearchableDocumentation result = getSearchableDocumentationFor(sourceDir, cacheFile);
+
+        // Assert
+        assertEquals(5, result.getPaths().size());
+        assertTrue(containsEnding(
+                new ArrayList<String>(log.getLogBuffer().keySet()),
+                "Re-using cached JavaDoc for [0] of [2] java sources."));
+        assertNotNull(JavaDocCache.read(cacheFile, "UTF-8"));
+        assertNull(JavaDocCache.read(cacheFile, "ISO-8859-1"));
+    }
+
+    @Test
+    void validateClassNamesParsedOnceAndSharedWithProcessing() throws Exception {
+
+        // Assemble
+        final File sourceDir = copyJavaSources("crosschunk");
+        final File packageInfo = new File(sourceDir, "crosschunk/package-info.java");
+        Files.write(
+                packageInfo.toPath(),
+                "/**\n * Some package.\n */\npackage crosschunk;\n".getBytes(StandardCharsets.UTF_8));
+        final File cacheFile = new File(tmpDirectory, "javadoc.cache");
+
+        final JavaDocExtractor unitUnderTest = new JavaDocExtractor(log);
+        unitUnderTest.setEncoding("UTF-8");
+        unitUnderTest.setCacheFile(cacheFile);
+        unitUnderTest.addSourceFiles(Arrays.asList(
+                new File(sourceDir, "crosschunk/Gadget.java"),
+                new File(sourceDir, "crosschunk/GadgetPart.java"),
+                packageInfo));
+
+        // Act
+        final Map<File, SortedSet<String>> classNames = unitUnderTest.getClassNames();
+        final SearchableDocumentation result = unitUnderTest.process();
+
+        // Assert
+        final List<String> fileNames = new ArrayList<String>();
+        for (File current : classNames.keySet()) {
+            fileNames.add(current.getName());
+        }
+        assertEquals(Arrays.asList("Gadget.java", "GadgetPart.java", "package-info.java"), fileNames);
+
+        final List<SortedSet<String>> names = new ArrayList<SortedSet<String>>(classNames.values());
+        assertEquals(Collections.singleton("crosschunk.Gadget"), names.get(0));
+        assertEquals(Collections.singleton("crosschunk.GadgetPart"), names.get(1));
+        assertEquals(Collections.singleton("crosschunk.package-info"), names.get(2));
+
+        assertEquals(5, result.getPaths().size());
+        int numHarvests = 0;
+        for (String current : log.getLogBuffer().keySet()) {
+            if (current.endsWith("Re-using cached JavaDoc for [0] of [3] java sources.")) {
+                numHarvests++;
+            }
+        }
+        assertEquals(1, numHarvests);
+    }
+
     //
     // Private helpers
     //
 
+    private File copyJavaSources(final String... directoryNames) throws IOException {
+
+        final File toReturn = new File(tmpDirectory, "src");
+        for (String current : directoryNames) {
+
+            final URL dirURL = getClass().getClassLoader().getResource("testdata/schemageneration/javadoc/" + current);
+            final File targetDir = new File(toReturn, current);
+            Files.createDirectories(targetDir.toPath());
+
+            for (File currentFile : new File(dirURL.getPath()).listFiles()) {
+                if (currentFile.getName().endsWith(".java")) {
+                    Files.copy(currentFile.toPath(), new File(targetDir, currentFile.getName()).toPath());
+                }
+            }
+        }
+
+        return toReturn;
+    }
+
+    private SearchableDocumentation getSearchableDocumentationFor(final File sourceDir, final File cacheFile) {
+
+        final JavaDocExtractor unitUnderTest = new JavaDocExtractor(log);
+        unitUnderTest.setEncoding("UTF-8");
+        unitUnderTest.setCacheFile(cacheFile);
+        unitUnderTest.addSourceFiles(
+                FileSystemUtilities.resolveRecursively(Collections.singletonList(sourceDir), null, log));
+
+        return unitUnderTest.process();
+    }
+
+    private static void assertSameJavaDocs(
+            final SearchableDocumentation expected, final SearchableDocumentation actual) {
+
+        assertEquals(expected.getPaths(), actual.getPaths());
+        for (String current : expected.getPaths()) {
+            assertEquals(expected.getJavaDoc(current).getComment(), actual.getJavaDoc(current).getComment(), current);
+            assertEquals(
+                    expected.getJavaDoc(current).getTag2ValueMap(),
+                    actual.getJavaDoc(current).getTag2ValueMap(),
+                    current);
+        }
+    }
+
+    private static boolean containsEnding(final List<String> logMessages, final String ending) {
+        for (String current : logMessages) {
+            if (current.endsWith(ending)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Simple helper class wrapping the path2LocationMap and the sortableLocations2JavaDocDataMap.
      */
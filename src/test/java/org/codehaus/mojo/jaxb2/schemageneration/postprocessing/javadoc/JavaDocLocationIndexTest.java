@@ -0,0 +1,114 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.enums.AmericanCoin;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.enums.ExampleEnumHolder;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.enums.FoodPreference;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.ClassLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.FieldLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.location.MethodLocation;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.wrappers.ExampleXmlWrapper;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class JavaDocLocationIndexTest extends AbstractSourceCodeAwareNodeProcessingTest {
+
+    @Test
+    void validateIndexedMatchesIdenticalToLinearMatches() {
+
+        // Assemble
+        final JavaDocLocationIndex unitUnderTest = new JavaDocLocationIndex(docs);
+        final List<Node> elements = new ArrayList<Node>();
+        for (Document current : namespace2DocumentMap.values()) {
+            final NodeList nodes = current.getElementsByTagNameNS("*", "*");
+            for (int i = 0; i < nodes.getLength(); i++) {
+                elements.add(nodes.item(i));
+            }
+        }
+
+        // Act & Assert
+        int numMatches = 0;
+        for (Node current : elements) {
+
+            final SortableLocation expected = getLinearMatch(current);
+            final SortableLocation result = DomHelper.getJavaDocLocation(current, unitUnderTest);
+
+            assertSame(expected, result, DomHelper.getXPathFor(current));
+            if (result != null) {
+                numMatches++;
+                assertSame(docs.getAll().get(expected), unitUnderTest.getJavaDoc(result));
+            }
+        }
+        assertTrue(numMatches > 10, "Got only " + numMatches + " matches.");
+    }
+
+    @Test
+    void validateCaseInsensitiveLookup() {
+
+        // Assemble
+        final JavaDocLocationIndex unitUnderTest = docs.getLocationIndex();
+
+        // Act
+        final ClassLocation classLocation = unitUnderTest.getClassLocation("SOMEWHATNAMEDPERSON");
+        final FieldLocation fieldLocation = unitUnderTest.getFieldLocation("somewhatNamedPerson", "LASTNAME");
+
+        // Assert
+        assertNotNull(classLocation);
+        assertEquals("SomewhatNamedPerson", classLocation.getClassName());
+        assertNotNull(fieldLocation);
+        assertEquals("lastName", fieldLocation.getMemberName());
+
+        assertNull(unitUnderTest.getClassLocation(null));
+        assertNull(unitUnderTest.getFieldLocation(null, "lastName"));
+        assertNull(unitUnderTest.getMethodLocation("somewhatNamedPerson", "nonexistent"));
+        assertSame(unitUnderTest, docs.getLocationIndex());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<Class<?>> getJaxbAnnotatedClassesForJaxbContext() {
+        return Arrays.<Class<?>>asList(
+                SomewhatNamedPerson.class,
+                ExampleXmlWrapper.class,
+                ExampleEnumHolder.class,
+                AmericanCoin.class,
+                FoodPreference.class);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private SortableLocation getLinearMatch(final Node aNode) {
+
+        final ClassLocation classLocation =
+                DomHelper.getClassLocation(aNode, docs.getAll(ClassLocation.class).keySet());
+        if (classLocation != null) {
+            return classLocation;
+        }
+
+        final FieldLocation fieldLocation =
+                DomHelper.getFieldLocation(aNode, docs.getAll(FieldLocation.class).keySet());
+        if (fieldLocation != null) {
+            return fieldLocation;
+        }
+
+        return DomHelper.getMethodLocation(aNode, docs.getAll(MethodLocation.class).keySet());
+    }
+}
@@ -0,0 +1,224 @@
+package org.codehaus.mojo.jaxb2.schemageneration.postprocessing.streaming;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.mojo.jaxb2.schemageneration.XsdGeneratorHelper;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.AbstractSourceCodeAwareNodeProcessingTest;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.DefaultJavaDocRenderer;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.javadoc.SomewhatNamedPerson;
+import org.codehaus.mojo.jaxb2.schemageneration.postprocessing.schemaenhancement.TransformSchema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class XsdPostProcessingPipelineTest extends AbstractSourceCodeAwareNodeProcessingTest {
+
+    // Shared state
+    private static final String[] GENERATED_SCHEMAS = {"schema1.xsd", "schema2.xsd", "schema3.xsd"};
+
+    @TempDir
+    File tmpDirectory;
+
+    @Test
+    void validateInjectingJavaDocAnnotations() throws Exception {
+
+        // Assemble
+        final String expected =
+                readFully("testdata/schemageneration/javadoc/expectedTransformedSomewhatNamedPerson.xml");
+        final File schemaFile = new File(tmpDirectory, "schema1.xsd");
+        Files.write(
+                schemaFile.toPath(),
+                namespace2GeneratedSchemaMap.get(SomewhatNamedPerson.NAMESPACE).getBytes(StandardCharsets.UTF_8));
+
+        final XsdPostProcessingPipeline unitUnderTest = new XsdPostProcessingPipeline(log, "UTF-8")
+                .withJavaDocAnnotations(docs, new DefaultJavaDocRenderer());
+
+        // Act
+        final int result = unitUnderTest.process(tmpDirectory);
+
+        // Assert
+        assertEquals(1, result);
+        assertEquals(1, tmpDirectory.listFiles().length);
+
+        final String processed = readFile(schemaFile);
+        assertTrue(compareXmlIgnoringWhitespace(expected, processed).identical(), processed);
+    }
+
+    @Test
+    void validateTransformsIdenticalToDomProcessing() throws Exception {
+
+        // Assemble
+        final List<TransformSchema> transformSchemas = Arrays.asList(
+                new TransformSchema("http://yet/another/namespace", "yet", "yet_another_schema.xsd"),
+                new TransformSchema("http://some/namespace", "some", "some_schema.xsd"),
+                new TransformSchema("http://another/namespace", "another", "another_schema.xsd"));
+
+        final File domDirectory = copyGeneratedSchemas("dom");
+        final File streamingDirectory = copyGeneratedSchemas("streaming");
+
+        // Act
+        XsdGeneratorHelper.replaceNamespacePrefixes(
+                XsdGeneratorHelper.getFileNameToResolverMap(domDirectory),
+                transformSchemas,
+                log,
+                domDirectory,
+                "UTF-8");
+        XsdGeneratorHelper.renameGeneratedSchemaFiles(
+                XsdGeneratorHelper.getFileNameToResolverMap(domDirectory),
+                transformSchemas,
+                log,
+                domDirectory,
+                "UTF-8");
+
+        final int result = new XsdPostProcessingPipeline(log, "UTF-8")
+                .withTransformSchemas(transformSchemas)
+                .process(streamingDirectory);
+
+        // Assert
+        assertEquals(3, result);
+        for (String current : GENERATED_SCHEMAS) {
+            assertFalse(new File(streamingDirectory, current).exists());
+        }
+        for (TransformSchema current : transformSchemas) {
+
+            final String domResult = readFile(new File(domDirectory, current.getToFile()));
+            final String streamingResult = readFile(new File(streamingDirectory, current.getToFile()));
+
+            assertTrue(compareXmlIgnoringWhitespace(domResult, streamingResult).identical(), streamingResult);
+        }
+        assertEquals(3, streamingDirectory.listFiles().length);
+    }
+
+    @Test
+    void validateParallelProcessingIdenticalToSequentialProcessing() throws Exception {
+
+        // Assemble
+        final List<TransformSchema> transformSchemas = Arrays.asList(
+                new TransformSchema("http://yet/another/namespace", "yet", "yet_another_schema.xsd"),
+                new TransformSchema("http://some/namespace", "some", "some_schema.xsd"),
+                new TransformSchema("http://another/namespace", "another", null));
+
+        final File sequentialDirectory = copyGeneratedSchemas("sequential");
+        final File parallelDirectory = copyGeneratedSchemas("parallel");
+
+        // Act
+        final int sequentialResult = new XsdPostProcessingPipeline(log, "UTF-8")
+                .withTransformSchemas(transformSchemas)
+                .process(sequentialDirectory);
+        final int parallelResult = new XsdPostProcessingPipeline(log, "UTF-8")
+                .withTransformSchemas(transformSchemas)
+                .withParallelism(4)
+                .process(parallelDirectory);
+
+        // Assert
+        assertEquals(3, sequentialResult);
+        assertEquals(3, parallelResult);
+
+        final String[] fileNames = {"yet_another_schema.xsd", "some_schema.xsd", "schema3.xsd"};
+        assertEquals(fileNames.length, parallelDirectory.listFiles().length);
+        for (String current : fileNames) {
+            assertEquals(
+                    readFile(new File(sequentialDirectory, current)), readFile(new File(parallelDirectory, current)));
+        }
+    }
+
+    @Test
+    void validateOnlyIncludedSchemaFilesAreProcessed() throws Exception {
+
+        // Assemble
+        final List<TransformSchema> transformSchemas = Arrays.asList(
+                new TransformSchema("http://yet/another/namespace", "yet", "yet_another_schema.xsd"),
+                new TransformSchema("http://some/namespace", "some", "some_schema.xsd"),
+                new TransformSchema("http://another/namespace", "another", "another_schema.xsd"));
+
+        final File schemaDirectory = copyGeneratedSchemas("subset");
+        final File included = new File(schemaDirectory, "schema2.xsd");
+        final String untouched = readFile(new File(schemaDirectory, "schema1.xsd"));
+
+        final XsdPostProcessingPipeline unitUnderTest = new XsdPostProcessingPipeline(log, "UTF-8")
+                .withTransformSchemas(transformSchemas)
+                .withSchemaFiles(Arrays.asList(included));
+
+        // Act
+        final int result = unitUnderTest.process(schemaDirectory);
+
+        // Assert
+        assertEquals(1, result);
+        assertEquals(1, unitUnderTest.getTargets().size());
+        assertFalse(included.exists());
+
+        final File target = unitUnderTest.getTargets().get(included);
+        assertTrue(target.isFile());
+        assertEquals(untouched, readFile(new File(schemaDirectory, "schema1.xsd")));
+        assertTrue(new File(schemaDirectory, "schema3.xsd").isFile());
+        assertEquals(3, schemaDirectory.listFiles().length);
+    }
+
+    @Test
+    void validateExceptionOnPrefixAlreadyInUse() throws Exception {
+
+        // Assemble
+        final File schemaDirectory = copyGeneratedSchemas("conflict");
+        final List<TransformSchema> transformSchemas =
+                Arrays.asList(new TransformSchema("http://some/namespace", "xs", null));
+
+        final XsdPostProcessingPipeline unitUnderTest =
+                new XsdPostProcessingPipeline(log, "UTF-8").withTransformSchemas(transformSchemas);
+
+        // Act & Assert
+        final MojoExecutionException exception =
+                assertThrows(MojoExecutionException.class, () -> unitUnderTest.process(schemaDirectory));
+        assertTrue(exception.getMessage().contains("Namespace prefix [xs] is already in use."));
+
+        // The generated schemas should be left untouched, without any temporary files.
+        assertEquals(3, schemaDirectory.listFiles().length);
+        for (String current : GENERATED_SCHEMAS) {
+
+            final URL original = getClass().getClassLoader().getResource("generated/schema/" + current);
+            assertEquals(readFile(new File(original.getPath())), readFile(new File(schemaDirectory, current)));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<Class<?>> getJaxbAnnotatedClassesForJaxbContext() {
+        return Arrays.<Class<?>>asList(SomewhatNamedPerson.class);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private File copyGeneratedSchemas(final String directoryName) throws IOException {
+
+        final File toReturn = new File(tmpDirectory, directoryName);
+        Files.createDirectories(toReturn.toPath());
+
+        for (String current : GENERATED_SCHEMAS) {
+            final URL resource = getClass().getClassLoader().getResource("generated/schema/" + current);
+            Files.copy(new File(resource.getPath()).toPath(), new File(toReturn, current).toPath());
+        }
+
+        return toReturn;
+    }
+
+    private static String readFile(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.TreeMap;
 
 import org.codehaus.mojo.jaxb2.AbstractJaxbMojo;
@@ -234,6 +235,61 @@ class FileSystemUtilitiesTest {
         assertEquals("someFile.log", result.get(0).getName());
     }
 
+    @Test
+    void validateParallelAndSequentialResolutionYieldIdenticalResults() {
+
+        // Assemble
+        final List<File> fileList = Collections.singletonList(srcTestResources);
+        final List<Filter<File>> exclusions = PatternFileFilter.createIncludeFilterList(log, "\\.txt", "\\.xml");
+
+        // Act
+        final List<File> sequential = FileSystemUtilities.resolveRecursively(fileList, exclusions, false, log);
+        final List<File> parallel = FileSystemUtilities.resolveRecursively(fileList, exclusions, true, log);
+
+        // Assert
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, parallel);
+        for (File current : parallel) {
+            assertTrue(FileSystemUtilities.EXISTING_FILE.accept(current));
+            assertTrue(Filters.noFilterMatches(current, exclusions));
+        }
+    }
+
+    @Test
+    void validateRecordingTraversedDirectories() {
+
+        // Assemble
+        final File baseDir = fsUtilitiesDirectory.getParentFile();
+        final List<String> sources = Arrays.asList("filesystemutilities", "doesNotExist");
+        final SortedMap<Boolean, SortedSet<File>> recordedPerMode = new TreeMap<Boolean, SortedSet<File>>();
+
+        // Act
+        final List<File> unrecorded =
+                FileSystemUtilities.filterFiles(baseDir, sources, "ignored", log, "testFiles", null, false);
+        final SortedSet<File> notStarted = FileSystemUtilities.stopRecordingTraversedDirectories();
+
+        for (boolean parallel : new boolean[] {false, true}) {
+            FileSystemUtilities.startRecordingTraversedDirectories();
+            try {
+                FileSystemUtilities.filterFiles(baseDir, sources, "ignored", log, "testFiles", null, parallel);
+            } finally {
+                recordedPerMode.put(parallel, FileSystemUtilities.stopRecordingTraversedDirectories());
+            }
+        }
+        final SortedSet<File> afterStop = FileSystemUtilities.stopRecordingTraversedDirectories();
+
+        // Assert
+        assertEquals(2, unrecorded.size());
+        assertTrue(notStarted.isEmpty());
+        assertTrue(afterStop.isEmpty());
+
+        final SortedSet<File> sequential = recordedPerMode.get(false);
+        assertTrue(sequential.contains(fsUtilitiesDirectory.getAbsoluteFile()), "Got: " + sequential);
+        assertTrue(sequential.contains(canonicalsDirectory.getAbsoluteFile()), "Got: " + sequential);
+        assertTrue(sequential.contains(new File(baseDir, "doesNotExist").getAbsoluteFile()), "Got: " + sequential);
+        assertEquals(sequential, recordedPerMode.get(true));
+    }
+
     @Test
     void validateResolvingFilesAndRemovingExclusions() {
 
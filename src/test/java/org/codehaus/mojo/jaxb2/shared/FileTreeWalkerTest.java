@@ -0,0 +1,218 @@
+package org.codehaus.mojo.jaxb2.shared;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.mojo.jaxb2.shared.filters.Filter;
+import org.codehaus.mojo.jaxb2.shared.filters.pattern.PatternFileFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class FileTreeWalkerTest {
+
+    // Shared state
+    private BufferingLog log;
+    private File root;
+
+    @TempDir
+    File tmpDirectory;
+
+    @BeforeEach
+    void setupSharedState() throws IOException {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+        root = new File(tmpDirectory, "root");
+
+        writeFile("a.xsd");
+        writeFile("b.txt");
+        writeFile(".hidden.xsd");
+        writeFile(".hiddenDir/c.xsd");
+        writeFile("sub/d.xsd");
+        writeFile("sub/e.txt");
+        writeFile("sub/.hidden.xsd");
+        writeFile("sub/deeper/f.xsd");
+        writeFile("excluded/g.xsd");
+    }
+
+    @Test
+    void validateHiddenEntriesSkippedAsByListFiles() {
+
+        // Assemble
+        final List<Filter<File>> noFilters = new ArrayList<Filter<File>>();
+        final List<File> expected = new ArrayList<File>();
+        listRecursively(root, noFilters, expected);
+
+        // Act
+        final List<File> sequential = new FileTreeWalker(noFilters, true, log).walk(root, false);
+        final List<File> parallel = new FileTreeWalker(noFilters, true, log).walk(root, true);
+
+        // Assert
+        assertEquals(6, expected.size());
+        assertEquals(sorted(expected), sorted(sequential));
+        assertEquals(sorted(expected), sorted(parallel));
+        for (String current : relativize(sequential)) {
+            assertFalse(("/" + current).contains("/."), current);
+        }
+    }
+
+    @Test
+    void validateExcludeFilters() {
+
+        // Assemble
+        final List<Filter<File>> exclusions = PatternFileFilter.createIncludeFilterList(log, "\\.txt", "excluded");
+
+        // Act
+        final List<File> sequential = new FileTreeWalker(exclusions, true, log).walk(root, false);
+        final List<File> parallel = new FileTreeWalker(exclusions, true, log).walk(root, true);
+
+        // Assert
+        final SortedSet<String> expected = new TreeSet<String>();
+        expected.add("a.xsd");
+        expected.add("sub/d.xsd");
+        expected.add("sub/deeper/f.xsd");
+        assertEquals(expected, relativize(sequential));
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void validateSymbolicLinkCyclesAreTraversedOnce() throws IOException {
+
+        // Assemble
+        final File outside = new File(tmpDirectory, "outside");
+        writeFile(new File(outside, "linked.xsd"));
+        assumeTrue(createSymbolicLink(new File(root, "sub/loop"), root));
+        assumeTrue(createSymbolicLink(new File(root, "link"), outside));
+
+        final SortedSet<File> sequentialDirectories = new ConcurrentSkipListSet<File>();
+        final SortedSet<File> parallelDirectories = new ConcurrentSkipListSet<File>();
+
+        // Act
+        final List<File> sequential =
+                new FileTreeWalker(null, true, log, sequentialDirectories).walk(root, false);
+        final List<File> parallel = new FileTreeWalker(null, true, log, parallelDirectories).walk(root, true);
+
+        // Assert
+        final SortedSet<String> expected = new TreeSet<String>();
+        expected.add("a.xsd");
+        expected.add("b.txt");
+        expected.add("excluded/g.xsd");
+        expected.add("link/linked.xsd");
+        expected.add("sub/d.xsd");
+        expected.add("sub/e.txt");
+        expected.add("sub/deeper/f.xsd");
+
+        assertEquals(expected, relativize(sequential));
+        assertEquals(expected.size(), sequential.size());
+        assertEquals(sequential, parallel);
+        assertEquals(sequentialDirectories, parallelDirectories);
+        assertFalse(sequentialDirectories.contains(new File(root, "sub/loop").getAbsoluteFile()));
+        assertTrue(sequentialDirectories.contains(new File(root, "link").getAbsoluteFile()));
+        assertTrue(log.getPrettyPrintedLog().contains("directory cycle"));
+    }
+
+    @Test
+    void validateParallelWalkEqualsSequentialWalkInOrder() throws IOException {
+
+        // Assemble
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 4; j++) {
+                for (int k = 0; k < 5; k++) {
+                    writeFile("tree/dir" + i + "/dir" + j + "/file" + k + ".xsd");
+                }
+                writeFile("tree/dir" + i + "/file" + j + ".xsd");
+            }
+        }
+        final File tree = new File(root, "tree");
+
+        // Act
+        final List<File> sequential = new FileTreeWalker(null, true, log).walk(tree, false);
+
+        // Assert
+        assertEquals(6 * 4 * 5 + 6 * 4, sequential.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(sequential, new FileTreeWalker(null, true, log).walk(tree, true));
+        }
+
+        // Each subtree is walked depth-first, so its files form one contiguous range.
+        for (int i = 0; i < 6; i++) {
+            final String subtree = new File(tree, "dir" + i).getPath() + File.separator;
+            int first = -1;
+            int last = -1;
+            for (int index = 0; index < sequential.size(); index++) {
+                if (sequential.get(index).getPath().startsWith(subtree)) {
+                    first = first == -1 ? index : first;
+                    last = index;
+                }
+            }
+            assertEquals(4 * 5 + 4, last - first + 1, subtree);
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private void writeFile(final String relativePath) throws IOException {
+        writeFile(new File(root, relativePath));
+    }
+
+    private static void writeFile(final File aFile) throws IOException {
+
+        Files.createDirectories(aFile.getParentFile().toPath());
+        Files.write(aFile.toPath(), aFile.getName().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean createSymbolicLink(final File link, final File target) {
+
+        try {
+            Files.createSymbolicLink(link.toPath(), target.toPath());
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private void listRecursively(final File aDirectory, final List<Filter<File>> filters, final List<File> toPopulate) {
+
+        // This is the recursive listing used before the FileTreeWalker was introduced.
+        for (File current : FileSystemUtilities.listFiles(aDirectory, filters, true, log)) {
+            if (FileSystemUtilities.EXISTING_FILE.accept(current)) {
+                toPopulate.add(current);
+            }
+            if (FileSystemUtilities.EXISTING_DIRECTORY.accept(current)) {
+                listRecursively(current, filters, toPopulate);
+            }
+        }
+    }
+
+    private SortedSet<String> relativize(final List<File> files) {
+
+        final SortedSet<String> toReturn = new TreeSet<String>();
+        for (File current : files) {
+            toReturn.add(FileSystemUtilities.relativize(current.getPath(), root, true)
+                    .replace(File.separatorChar, '/'));
+        }
+        return toReturn;
+    }
+
+    private static SortedSet<File> sorted(final List<File> files) {
+        return new TreeSet<File>(files);
+    }
+}
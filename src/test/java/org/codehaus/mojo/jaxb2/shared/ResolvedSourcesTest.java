@@ -0,0 +1,76 @@
+package org.codehaus.mojo.jaxb2.shared;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class ResolvedSourcesTest {
+
+    @Test
+    void validateSnapshotIsNotAffectedBySuppliedCollections() throws Exception {
+
+        // Assemble
+        final List<URL> sources = new ArrayList<URL>(Arrays.asList(new URL("file:/some/schema.xsd")));
+        final List<File> bindings = new ArrayList<File>(Arrays.asList(new File("/some/bindings.xjb")));
+        final SortedSet<File> traversedDirectories = new TreeSet<File>(Arrays.asList(new File("/some")));
+
+        // Act
+        final ResolvedSources unitUnderTest = new ResolvedSources(sources, bindings, 1L, traversedDirectories);
+        sources.clear();
+        bindings.clear();
+        traversedDirectories.clear();
+
+        // Assert
+        assertEquals(1, unitUnderTest.getSources().size());
+        assertEquals(1, unitUnderTest.getBindings().size());
+        assertEquals(new TreeSet<File>(Arrays.asList(new File("/some"))), unitUnderTest.getTraversedDirectories());
+        assertThrows(UnsupportedOperationException.class, () -> unitUnderTest.getSources().clear());
+        assertThrows(UnsupportedOperationException.class, () -> unitUnderTest.getBindings().clear());
+        assertThrows(
+                UnsupportedOperationException.class, () -> unitUnderTest.getTraversedDirectories().clear());
+    }
+
+    @Test
+    void validateScanTime() {
+
+        // Assemble
+        final long scanTimeNanos = TimeUnit.MILLISECONDS.toNanos(42L) + 500L;
+
+        // Act
+        final ResolvedSources unitUnderTest =
+                new ResolvedSources(new ArrayList<URL>(), new ArrayList<File>(), scanTimeNanos);
+
+        // Assert
+        assertEquals(scanTimeNanos, unitUnderTest.getScanTimeNanos());
+        assertEquals(42L, unitUnderTest.getScanTimeMillis());
+        assertTrue(unitUnderTest.getTraversedDirectories().isEmpty());
+        assertEquals("Resolved 0 sources and 0 bindings in 42 ms", unitUnderTest.toString());
+    }
+
+    @Test
+    void validateExceptionOnNullArguments() {
+
+        // Act & Assert
+        assertThrows(
+                NullPointerException.class, () -> new ResolvedSources(null, new ArrayList<File>(), 0L));
+        assertThrows(
+                NullPointerException.class, () -> new ResolvedSources(new ArrayList<URL>(), null, 0L));
+        assertThrows(
+                NullPointerException.class,
+                () -> new ResolvedSources(new ArrayList<URL>(), new ArrayList<File>(), 0L, null));
+    }
+}
@@ -0,0 +1,232 @@
+package org.codehaus.mojo.jaxb2.shared.environment;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.codehaus.mojo.jaxb2.shared.environment.classloading.ThreadContextClassLoaderBuilder;
+import org.codehaus.mojo.jaxb2.shared.environment.logging.LoggingHandlerEnvironmentFacet;
+import org.codehaus.mojo.jaxb2.shared.environment.sysprops.SystemPropertyChangeEnvironmentFacet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class ToolExecutionEnvironmentTest {
+
+    // Shared state
+    private static final String PROPERTY_KEY = "jaxb2.environment.test";
+    private BufferingLog log;
+
+    @BeforeEach
+    void setupSharedState() {
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+        System.clearProperty(PROPERTY_KEY);
+    }
+
+    @AfterEach
+    void teardownSharedState() {
+        System.clearProperty(PROPERTY_KEY);
+    }
+
+    @Test
+    void validateGlobalStateOnlyChangedDuringToolExecution() throws Exception {
+
+        // Assemble
+        final ToolExecutionEnvironment unitUnderTest = createEnvironment("changed");
+
+        // Act
+        System.setProperty(PROPERTY_KEY, "original");
+        unitUnderTest.setup();
+        final String afterSetup = System.getProperty(PROPERTY_KEY);
+        final String duringExecution = unitUnderTest.execute(new Callable<String>() {
+            @Override
+            public String call() {
+                return System.getProperty(PROPERTY_KEY);
+            }
+        });
+        final String afterExecution = System.getProperty(PROPERTY_KEY);
+        unitUnderTest.restore();
+
+        // Assert
+        assertEquals("original", afterSetup);
+        assertEquals("changed", duringExecution);
+        assertEquals("original", afterExecution);
+        assertEquals("original", System.getProperty(PROPERTY_KEY));
+    }
+
+    @Test
+    void validateConcurrentToolExecutionsAreSerialized() throws Exception {
+
+        // Assemble
+        final ToolExecutionEnvironment first = createEnvironment("first");
+        final ToolExecutionEnvironment second = createEnvironment("second");
+        final CountDownLatch secondSetupDone = new CountDownLatch(1);
+        final CountDownLatch secondExecutionDone = new CountDownLatch(1);
+        final AtomicReference<String> observedBySecond = new AtomicReference<String>();
+
+        final Thread secondThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                second.setup();
+                try {
+                    secondSetupDone.countDown();
+                    observedBySecond.set(second.execute(new Callable<String>() {
+                        @Override
+                        public String call() {
+                            return System.getProperty(PROPERTY_KEY);
+                        }
+                    }));
+                    secondExecutionDone.countDown();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    second.restore();
+                }
+            }
+        });
+
+        // Act
+        first.setup();
+        try {
+            first.execute(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+
+                    // The setup of the second environment does not wait, but its tool execution does.
+                    secondThread.start();
+                    assertTrue(secondSetupDone.await(10, TimeUnit.SECONDS));
+                    assertFalse(secondExecutionDone.await(200, TimeUnit.MILLISECONDS));
+                    assertEquals("first", System.getProperty(PROPERTY_KEY));
+                    return null;
+                }
+            });
+        } finally {
+            first.restore();
+        }
+
+        assertTrue(secondExecutionDone.await(10, TimeUnit.SECONDS));
+        secondThread.join();
+
+        // Assert
+        assertEquals("second", observedBySecond.get());
+        assertNull(System.getProperty(PROPERTY_KEY));
+    }
+
+    @Test
+    void validateOnlyAppliedFacetsAreRestoredWhenSetupFails() throws Exception {
+
+        // Assemble
+        final ToolExecutionEnvironment unitUnderTest = createEnvironment("changed");
+        final RecordingFacet failingFacet = new RecordingFacet(true);
+        final RecordingFacet skippedFacet = new RecordingFacet(false);
+        unitUnderTest.add(failingFacet);
+        unitUnderTest.add(skippedFacet);
+        final AtomicBoolean toolCalled = new AtomicBoolean();
+
+        // Act
+        System.setProperty(PROPERTY_KEY, "original");
+        unitUnderTest.setup();
+        IllegalStateException caught = null;
+        try {
+            unitUnderTest.execute(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    toolCalled.set(true);
+                    return null;
+                }
+            });
+        } catch (IllegalStateException e) {
+            caught = e;
+        } finally {
+            unitUnderTest.restore();
+        }
+
+        // Assert
+        assertNotNull(caught);
+        assertFalse(toolCalled.get());
+        assertEquals("original", System.getProperty(PROPERTY_KEY));
+        assertFalse(failingFacet.restored);
+        assertFalse(skippedFacet.setup);
+        assertFalse(skippedFacet.restored);
+
+        // The lock must have been released.
+        assertEquals("changed", createEnvironmentAndExecute());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private ToolExecutionEnvironment createEnvironment(final String propertyValue) {
+
+        final ToolExecutionEnvironment toReturn = new ToolExecutionEnvironment(
+                log,
+                ThreadContextClassLoaderBuilder.createFor(getClass(), log, "UTF-8"),
+                new LoggingHandlerEnvironmentFacet(
+                        "XJC", log, "UTF-8", LoggingHandlerEnvironmentFacet.DEFAULT_LOGGER_NAMES),
+                null);
+
+        final List<SystemPropertyChangeEnvironmentFacet> changes = SystemPropertyChangeEnvironmentFacet.getBuilder(log)
+                .addOrChange(PROPERTY_KEY, propertyValue)
+                .build();
+        for (SystemPropertyChangeEnvironmentFacet current : changes) {
+            toReturn.add(current);
+        }
+
+        return toReturn;
+    }
+
+    private String createEnvironmentAndExecute() throws Exception {
+
+        final ToolExecutionEnvironment environment = createEnvironment("changed");
+        environment.setup();
+        try {
+            return environment.execute(new Callable<String>() {
+                @Override
+                public String call() {
+                    return System.getProperty(PROPERTY_KEY);
+                }
+            });
+        } finally {
+            environment.restore();
+        }
+    }
+
+    static class RecordingFacet implements EnvironmentFacet {
+
+        // Internal state
+        private final boolean failOnSetup;
+        boolean setup;
+        boolean restored;
+
+        RecordingFacet(final boolean failOnSetup) {
+            this.failOnSetup = failOnSetup;
+        }
+
+        @Override
+        public void setup() {
+            if (failOnSetup) {
+                throw new IllegalArgumentException("Failing setup");
+            }
+            setup = true;
+        }
+
+        @Override
+        public void restore() {
+            restored = true;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.codehaus.mojo.jaxb2.shared.environment.classloading;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class ClassLoaderCacheTest {
+
+    // Shared state
+    private static final String RESOURCE = "resource.txt";
+    private BufferingLog log;
+    private ClassLoader parent;
+
+    @TempDir
+    File tmpDirectory;
+
+    @BeforeEach
+    void setupSharedState() {
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+        parent = getClass().getClassLoader();
+    }
+
+    @Test
+    void validateClassLoaderReusedForIdenticalClasspath() throws IOException {
+
+        // Assemble
+        final List<URL> urls = Collections.singletonList(createJar("first.jar", "content"));
+        final ClassLoaderCache unitUnderTest = new ClassLoaderCache(2);
+
+        // Act
+        final URLClassLoader first = unitUnderTest.acquire(urls, parent, log);
+        unitUnderTest.release(first);
+        final URLClassLoader second = unitUnderTest.acquire(urls, parent, log);
+        unitUnderTest.release(second);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(1, unitUnderTest.size());
+        assertNotNull(second.getResource(RESOURCE));
+    }
+
+    @Test
+    void validateNewClassLoaderForChangedJar() throws IOException {
+
+        // Assemble
+        final List<URL> urls = Collections.singletonList(createJar("changing.jar", "content"));
+        final ClassLoaderCache unitUnderTest = new ClassLoaderCache(2);
+
+        // Act
+        final URLClassLoader first = unitUnderTest.acquire(urls, parent, log);
+        unitUnderTest.release(first);
+        createJar("changing.jar", "some other, and longer, content");
+        final URLClassLoader second = unitUnderTest.acquire(urls, parent, log);
+        unitUnderTest.release(second);
+
+        // Assert
+        assertNotSame(first, second);
+        assertEquals(2, unitUnderTest.size());
+    }
+
+    @Test
+    void validateEvictedClassLoadersClosedWhenReleased() throws IOException {
+
+        // Assemble
+        final List<URL> firstUrls = Collections.singletonList(createJar("first.jar", "first"));
+        final List<URL> secondUrls = Collections.singletonList(createJar("second.jar", "second"));
+        final ClassLoaderCache unitUnderTest = new ClassLoaderCache(1);
+
+        // Act
+        final URLClassLoader first = unitUnderTest.acquire(firstUrls, parent, log);
+        final URLClassLoader second = unitUnderTest.acquire(secondUrls, parent, log);
+        final URL resourceWhileLeased = first.getResource(RESOURCE);
+        unitUnderTest.release(first);
+
+        unitUnderTest.release(second);
+        unitUnderTest.close();
+
+        // Assert
+        assertNotNull(resourceWhileLeased);
+        assertNull(first.getResource(RESOURCE));
+        assertNull(second.getResource(RESOURCE));
+        assertEquals(0, unitUnderTest.size());
+    }
+
+    @Test
+    void validateDefaultCacheClosedWhenNewSessionStarts() throws IOException {
+
+        // Assemble
+        final List<URL> urls = Collections.singletonList(createJar("session.jar", "content"));
+        final Object firstSession = new Object();
+        final Object secondSession = new Object();
+
+        // Act
+        final ClassLoaderCache firstCache = ClassLoaderCache.getDefault(firstSession);
+        final URLClassLoader first = firstCache.acquire(urls, parent, log);
+        firstCache.release(first);
+        final int sizeWithinFirstSession = ClassLoaderCache.getDefault(firstSession).size();
+
+        final ClassLoaderCache secondCache = ClassLoaderCache.getDefault(secondSession);
+
+        // Assert
+        assertSame(firstCache, secondCache);
+        assertEquals(1, sizeWithinFirstSession);
+        assertEquals(0, secondCache.size());
+        assertNull(first.getResource(RESOURCE));
+    }
+
+    @Test
+    void validateBuilderLeasesAndReleasesCachedClassLoader() throws IOException {
+
+        // Assemble
+        final URL jarURL = createJar("tool.jar", "content");
+        final ClassLoaderCache cache = new ClassLoaderCache(2);
+
+        // Act
+        final ThreadContextClassLoaderHolder holder = ThreadContextClassLoaderBuilder.createFor(
+                        parent, log, "UTF-8")
+                .withClassLoaderCache(cache)
+                .addURL(jarURL)
+                .addPath(tmpDirectory.getAbsolutePath())
+                .buildAndSet();
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        holder.restoreClassLoaderAndReleaseThread();
+        cache.close();
+
+        // Assert
+        assertNotSame(parent, contextClassLoader);
+        assertSame(parent, Thread.currentThread().getContextClassLoader());
+        assertNull(contextClassLoader.getParent().getResource(RESOURCE));
+    }
+
+    @Test
+    void validateBuilderRetainsClasspathOrderWithCachedClassLoader() throws IOException {
+
+        // Assemble
+        final File directory = new File(tmpDirectory, "classes");
+        new File(directory, RESOURCE).getParentFile().mkdirs();
+        Files.write(new File(directory, RESOURCE).toPath(), "directory".getBytes(StandardCharsets.UTF_8));
+        final URL firstJarURL = createJar("first.jar", "first");
+        final URL lastJarURL = createJar("last.jar", "last");
+        final ClassLoaderCache cache = new ClassLoaderCache(2);
+
+        // Act
+        final ThreadContextClassLoaderHolder holder = ThreadContextClassLoaderBuilder.createFor(
+                        parent, log, "UTF-8")
+                .withClassLoaderCache(cache)
+                .addURL(firstJarURL)
+                .addPath(directory.getAbsolutePath())
+                .addURL(lastJarURL)
+                .buildAndSet();
+        final List<String> contents = new ArrayList<String>();
+        try {
+            for (URL current : Collections.list(Thread.currentThread()
+                    .getContextClassLoader()
+                    .getResources(RESOURCE))) {
+                try (InputStream in = current.openStream()) {
+                    contents.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        } finally {
+            holder.restoreClassLoaderAndReleaseThread();
+            cache.close();
+        }
+
+        // Assert
+        assertEquals(Arrays.asList("first", "directory", "last"), contents);
+    }
+
+    //
+    // Private helpers
+    //
+
+    private URL createJar(final String fileName, final String content) throws IOException {
+
+        final File jarFile = new File(tmpDirectory, fileName);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jarFile))) {
+            out.putNextEntry(new ZipEntry(RESOURCE));
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return jarFile.toURI().toURL();
+    }
+}
@@ -0,0 +1,110 @@
+package org.codehaus.mojo.jaxb2.shared.filters.pattern;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class CompiledPatternSetTest {
+
+    // Shared state
+    private static final List<String> PATTERNS = Arrays.asList(
+            "\\.xsd", "\\.XJB", "txt", "[/\\\\]README[^/\\\\]*", "[\\\\/]some-dir\\.d[^\\\\/]*", "\\.x[ms]l");
+
+    private static final List<String> CANDIDATES = Arrays.asList(
+            "/some/path/schema.xsd",
+            "/some/path/SCHEMA.XSD",
+            "C:\\some\\path\\bindings.xjb",
+            ".xsd",
+            "x.xsd",
+            "/path with spaces/schema.xsd",
+            "/path/schema with spaces.xsd",
+            "/path/schema.xsd.bak",
+            "/some/file.txt",
+            "txt",
+            "/some/readme/schema.xsd",
+            "/some/readme/file.java",
+            "/some/path/README",
+            "/some/path/readme.md",
+            "/some/path/README with spaces.md",
+            "/some path/README.md",
+            "README.md",
+            "/README.md",
+            "a/README.md",
+            "/some/some-dir.d/file",
+            "/some/some-dir.dx",
+            "/some/file.xml",
+            "/some/file.xsl",
+            "/some/file.xjs",
+            "/some/\u00e5\u00e4\u00f6/schema.xsd",
+            "/some/\ud801\udc00/schema.xsd");
+
+    @Test
+    void validateLiteralFastPathsAreUsed() {
+
+        // Act
+        final CompiledPatternSet unitUnderTest =
+                new CompiledPatternSet(PATTERNS, PatternFileFilter.PATTERN_LETTER_DIGIT_PUNCT);
+
+        // Assert
+        assertEquals(5, unitUnderTest.getNumberOfLiteralPatterns());
+    }
+
+    @Test
+    void validateIdenticalResultsAsRegularExpressions() {
+
+        // Assemble
+        final CompiledPatternSet unitUnderTest =
+                new CompiledPatternSet(PATTERNS, PatternFileFilter.PATTERN_LETTER_DIGIT_PUNCT);
+        final List<Pattern> regularExpressions =
+                AbstractPatternFilter.convert(PATTERNS, PatternFileFilter.PATTERN_LETTER_DIGIT_PUNCT);
+
+        // Act & Assert
+        for (String current : CANDIDATES) {
+
+            boolean expected = false;
+            for (Pattern currentPattern : regularExpressions) {
+                expected |= currentPattern.matcher(current).matches();
+            }
+
+            assertEquals(expected, unitUnderTest.findMatch(current) != null, "Candidate [" + current + "]");
+        }
+    }
+
+    @Test
+    void validateNonStandardPrefixUsesRegularExpressions() {
+
+        // Assemble
+        final CompiledPatternSet unitUnderTest = new CompiledPatternSet(Arrays.asList("\\.xsd"), null);
+
+        // Act & Assert
+        assertEquals(0, unitUnderTest.getNumberOfLiteralPatterns());
+        assertNull(unitUnderTest.findMatch("/some/path/schema.xsd"));
+        assertEquals("\\.xsd", unitUnderTest.findMatch(".xsd"));
+        assertEquals(".*", new CompiledPatternSet(null, null).findMatch("anything"));
+    }
+
+    @Test
+    void validatePatternsRetainSuppliedOrderAndPrefix() {
+
+        // Assemble
+        final String prefix = PatternFileFilter.PATTERN_LETTER_DIGIT_PUNCT;
+
+        // Act
+        final CompiledPatternSet unitUnderTest = new CompiledPatternSet(PATTERNS, prefix);
+
+        // Assert
+        assertEquals(PATTERNS.size(), unitUnderTest.getPatterns().size());
+        for (int i = 0; i < PATTERNS.size(); i++) {
+            assertEquals(prefix + PATTERNS.get(i), unitUnderTest.getPatterns().get(i));
+        }
+        assertEquals(Arrays.asList(".*"), new CompiledPatternSet(null, null).getPatterns());
+    }
+}
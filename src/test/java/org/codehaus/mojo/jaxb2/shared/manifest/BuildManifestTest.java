@@ -0,0 +1,214 @@
+package org.codehaus.mojo.jaxb2.shared.manifest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class BuildManifestTest {
+
+    @TempDir
+    File tmpDirectory;
+
+    @Test
+    void validateRoundTripAndDeterministicOutput() throws IOException {
+
+        // Assemble
+        final File source = writeFile("src/schema.xsd", "<schema/>");
+        final File outputDirectory = new File(tmpDirectory, "out");
+        writeFile("out/foo/Bar.java", "class Bar {}");
+
+        final BuildManifest unitUnderTest = new BuildManifest()
+                .addTool(BuildManifest.class)
+                .setArguments(new String[] {"-d", "out", "-encoding", "UTF-8"})
+                .addSource(source.toURI().toURL(), null)
+                .addOutputs(outputDirectory);
+
+        final File manifestFile1 = new File(tmpDirectory, "manifest1");
+        final File manifestFile2 = new File(tmpDirectory, "manifest2");
+
+        // Act
+        unitUnderTest.write(manifestFile1);
+        final BuildManifest read = BuildManifest.read(manifestFile1);
+        read.write(manifestFile2);
+
+        // Assert
+        assertArrayEquals(Files.readAllBytes(manifestFile1.toPath()), Files.readAllBytes(manifestFile2.toPath()));
+        assertEquals(unitUnderTest.getArguments(), read.getArguments());
+        assertEquals(unitUnderTest.getToolVersions(), read.getToolVersions());
+        assertEquals(1, read.getOutputs().size());
+        assertEquals("foo/Bar.java", read.getOutputs().first());
+        assertTrue(unitUnderTest.getDifferences(read, outputDirectory).isEmpty());
+    }
+
+    @Test
+    void validateTouchedSourceDoesNotRequireRegeneration() throws IOException {
+
+        // Assemble
+        final File source = writeFile("schema.xsd", "<schema/>");
+        final URL sourceURL = source.toURI().toURL();
+        final BuildManifest previous = new BuildManifest().addSource(sourceURL, null);
+
+        // Act
+        assertTrue(source.setLastModified(source.lastModified() + 5000L));
+        final BuildManifest current = new BuildManifest().addSource(sourceURL, previous);
+
+        // Assert
+        assertTrue(current.getDifferences(previous, tmpDirectory).isEmpty());
+    }
+
+    @Test
+    void validateChangedContentRequiresRegeneration() throws IOException {
+
+        // Assemble
+        final File source = writeFile("schema.xsd", "<schema/>");
+        final URL sourceURL = source.toURI().toURL();
+        final BuildManifest previous = new BuildManifest().addSource(sourceURL, null);
+
+        // Act
+        writeFile("schema.xsd", "<schema version=\"2\"/>");
+        assertTrue(source.setLastModified(source.lastModified() + 5000L));
+        final BuildManifest current = new BuildManifest().addSource(sourceURL, previous);
+        final List<String> differences = current.getDifferences(previous, tmpDirectory);
+
+        // Assert
+        assertEquals(1, differences.size());
+        assertTrue(differences.get(0).startsWith("Changed source"));
+    }
+
+    @Test
+    void validateDigestReusedForUnchangedEntryOfRebuiltJar() throws IOException {
+
+        // Assemble
+        final File jarFile = new File(tmpDirectory, "schemas.jar");
+        writeJar(jarFile, "<schema/>");
+        assertTrue(jarFile.setLastModified(1500000000000L));
+        final URL sourceURL = new URL("jar:" + jarFile.toURI() + "!/schema.xsd");
+
+        // Replace the recorded digest, to detect whether it is re-used or re-calculated.
+        final File manifestFile = new File(tmpDirectory, "manifest");
+        new BuildManifest().addSource(sourceURL, null).write(manifestFile);
+        final String recordedDigest = BuildManifest.read(manifestFile)
+                .getSources()
+                .get(sourceURL.toString())
+                .getDigest();
+        Files.write(manifestFile.toPath(), new String(Files.readAllBytes(manifestFile.toPath()), StandardCharsets.UTF_8)
+                .replace(recordedDigest, "reused")
+                .getBytes(StandardCharsets.UTF_8));
+        final BuildManifest previous = BuildManifest.read(manifestFile);
+
+        // Act
+        writeJar(jarFile, "<schema/>");
+        assertTrue(jarFile.setLastModified(1600000000000L));
+        final BuildManifest unchanged = new BuildManifest().addSource(sourceURL, previous);
+
+        writeJar(jarFile, "<schema version=\"2\"/>");
+        assertTrue(jarFile.setLastModified(1700000000000L));
+        final BuildManifest changed = new BuildManifest().addSource(sourceURL, previous);
+
+        // Assert
+        final BuildManifest.SourceEntry unchangedEntry = unchanged.getSources().get(sourceURL.toString());
+        assertEquals("reused", unchangedEntry.getDigest());
+        assertEquals(1600000000000L, unchangedEntry.getLastModified());
+        assertTrue(unchangedEntry.getValidator().startsWith("crc32:"));
+        assertEquals(recordedDigest.length(), changed.getSources().get(sourceURL.toString()).getDigest().length());
+        assertFalse(changed.getDifferences(previous, tmpDirectory).isEmpty());
+    }
+
+    @Test
+    void validateChangedArgumentsAndMissingOutputsRequireRegeneration() throws IOException {
+
+        // Assemble
+        final File outputDirectory = new File(tmpDirectory, "out");
+        final File generated = writeFile("out/Foo.java", "class Foo {}");
+        final BuildManifest previous =
+                new BuildManifest().setArguments(new String[] {"-npa"}).addOutputs(outputDirectory);
+
+        // Act
+        final BuildManifest sameArguments = new BuildManifest().setArguments(new String[] {"-npa"});
+        final BuildManifest otherArguments = new BuildManifest().setArguments(new String[] {"-verbose"});
+        final boolean upToDateBeforeDeletion =
+                sameArguments.getDifferences(previous, outputDirectory).isEmpty();
+        assertTrue(generated.delete());
+
+        // Assert
+        assertTrue(upToDateBeforeDeletion);
+        assertFalse(otherArguments.getDifferences(previous, outputDirectory).isEmpty());
+        assertEquals(
+                "Missing output Foo.java",
+                sameArguments.getDifferences(previous, outputDirectory).get(0));
+    }
+
+    @Test
+    void validateSingleOutputsRequireExistingFiles() throws IOException {
+
+        // Assemble
+        final File outputDirectory = new File(tmpDirectory, "out");
+        writeFile("out/schema1.xsd", "<schema/>");
+        writeFile("out/schema2.xsd", "<schema/>");
+        final BuildManifest previous = new BuildManifest().addOutput("schema1.xsd");
+        final BuildManifest current = new BuildManifest().addOutput("schema1.xsd");
+
+        // Act
+        final boolean upToDate = current.getDifferences(previous, outputDirectory).isEmpty();
+        assertTrue(new File(outputDirectory, "schema1.xsd").delete());
+
+        // Assert
+        assertTrue(upToDate);
+        assertEquals(1, previous.getOutputs().size());
+        assertEquals(
+                "Missing output schema1.xsd",
+                current.getDifferences(previous, outputDirectory).get(0));
+    }
+
+    @Test
+    void validateNullReturnedForMissingOrForeignManifest() throws IOException {
+
+        // Assemble
+        final File missing = new File(tmpDirectory, "nonExistent");
+        final File foreign = writeFile("foreign", "manifest.version=0\n");
+
+        // Act & Assert
+        assertNull(BuildManifest.read(missing));
+        assertNull(BuildManifest.read(foreign));
+        assertFalse(new BuildManifest().getDifferences(null, tmpDirectory).isEmpty());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private File writeFile(final String relativePath, final String content) throws IOException {
+
+        final File toReturn = new File(tmpDirectory, relativePath);
+        Files.createDirectories(toReturn.getParentFile().toPath());
+        Files.write(toReturn.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return toReturn;
+    }
+
+    private static void writeJar(final File jarFile, final String content) throws IOException {
+
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            zip.putNextEntry(new ZipEntry("schema.xsd"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.codehaus.mojo.jaxb2.shared.manifest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class CacheKeyDescriptorTest {
+
+    @TempDir
+    File tmpDirectory;
+
+    @Test
+    void validateKeyIsIndependentOfCheckoutLocationAndTimestamps() throws IOException {
+
+        // Assemble
+        final File checkout1 = new File(tmpDirectory, "checkout1");
+        final File checkout2 = new File(tmpDirectory, "checkout2");
+        final File source1 = writeFile(checkout1, "src/schema.xsd", "<schema/>");
+        final File source2 = writeFile(checkout2, "src/schema.xsd", "<schema/>");
+        assertTrue(source2.setLastModified(source1.lastModified() - 10000L));
+
+        // Act
+        final CacheKeyDescriptor descriptor1 = createDescriptor(checkout1, source1);
+        final CacheKeyDescriptor descriptor2 = createDescriptor(checkout2, source2);
+
+        // Assert
+        assertEquals(descriptor1.getKey(), descriptor2.getKey());
+        assertEquals(Arrays.asList("-d", "${basedir}/target/generated-sources", "${basedir}/src/schema.xsd"),
+                descriptor1.getArguments());
+        assertEquals("file:${basedir}/src/schema.xsd", descriptor1.getSources().firstKey());
+    }
+
+    @Test
+    void validateKeyDependsOnSourceContentAndArguments() throws IOException {
+
+        // Assemble
+        final File checkout = new File(tmpDirectory, "checkout");
+        final File source = writeFile(checkout, "src/schema.xsd", "<schema/>");
+        final String originalKey = createDescriptor(checkout, source).getKey();
+
+        // Act
+        final String argumentKey = createDescriptor(checkout, source)
+                .addArguments(Arrays.asList("-npa"))
+                .getKey();
+        writeFile(checkout, "src/schema.xsd", "<schema version=\"2\"/>");
+        final String contentKey = createDescriptor(checkout, source).getKey();
+
+        // Assert
+        assertNotEquals(originalKey, argumentKey);
+        assertNotEquals(originalKey, contentKey);
+        assertNotEquals(argumentKey, contentKey);
+    }
+
+    @Test
+    void validateKeyDependsOnClasspathContent() throws IOException {
+
+        // Assemble
+        final File checkout = new File(tmpDirectory, "checkout");
+        final File source = writeFile(checkout, "src/schema.xsd", "<schema/>");
+        final File repository1 = new File(tmpDirectory, "repository1");
+        final File repository2 = new File(tmpDirectory, "repository2");
+        final File pluginJar1 = writeFile(repository1, "xjc-plugin-1.0-SNAPSHOT.jar", "first build");
+        final File pluginJar2 = writeFile(repository2, "xjc-plugin-1.0-SNAPSHOT.jar", "first build");
+        final File classesDirectory = new File(tmpDirectory, "module/target/classes");
+        writeFile(classesDirectory, "some/Type.class", "bytecode");
+
+        final List<File> classpath1 = Arrays.asList(pluginJar1, classesDirectory, new File(tmpDirectory, "gone.jar"));
+        final List<File> classpath2 = Arrays.asList(pluginJar2, classesDirectory, new File(tmpDirectory, "gone.jar"));
+
+        // Act
+        final String originalKey =
+                createDescriptor(checkout, source).addClasspath("tool", classpath1).getKey();
+        final String relocatedKey =
+                createDescriptor(checkout, source).addClasspath("tool", classpath2).getKey();
+        final String reorderedKey = createDescriptor(checkout, source)
+                .addClasspath("tool", Arrays.asList(classesDirectory, pluginJar1))
+                .getKey();
+
+        writeFile(repository1, "xjc-plugin-1.0-SNAPSHOT.jar", "second build");
+        final String rebuiltJarKey =
+                createDescriptor(checkout, source).addClasspath("tool", classpath1).getKey();
+
+        writeFile(classesDirectory, "some/Other.class", "bytecode");
+        final String changedDirectoryKey =
+                createDescriptor(checkout, source).addClasspath("tool", classpath2).getKey();
+
+        // Assert
+        assertEquals(originalKey, relocatedKey);
+        assertNotEquals(originalKey, reorderedKey);
+        assertNotEquals(originalKey, rebuiltJarKey);
+        assertNotEquals(originalKey, changedDirectoryKey);
+        assertNotEquals(originalKey, createDescriptor(checkout, source).getKey());
+    }
+
+    @Test
+    void validateWrittenDescriptorIsDeterministic() throws IOException {
+
+        // Assemble
+        final File checkout = new File(tmpDirectory, "checkout");
+        final File source = writeFile(checkout, "src/schema.xsd", "<schema/>");
+        final CacheKeyDescriptor unitUnderTest = createDescriptor(checkout, source);
+
+        final File descriptorFile1 = new File(tmpDirectory, "descriptor1");
+        final File descriptorFile2 = new File(tmpDirectory, "descriptor2");
+
+        // Act
+        unitUnderTest.write(descriptorFile1);
+        createDescriptor(checkout, source).write(descriptorFile2);
+
+        // Assert
+        final List<String> lines = Files.readAllLines(descriptorFile1.toPath(), StandardCharsets.ISO_8859_1);
+        assertEquals(lines, Files.readAllLines(descriptorFile2.toPath(), StandardCharsets.ISO_8859_1));
+        assertTrue(lines.contains("cachekey.digest=" + unitUnderTest.getKey()));
+        assertTrue(lines.contains("cachekey.version=" + CacheKeyDescriptor.FORMAT_VERSION));
+        assertTrue(lines.contains("property.encoding=UTF-8"));
+        for (String current : lines) {
+            assertTrue(current.startsWith("#") || !current.contains(checkout.getName()), current);
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static CacheKeyDescriptor createDescriptor(final File baseDirectory, final File source)
+            throws IOException {
+
+        final BuildManifest manifest = new BuildManifest().addSource(source.toURI().toURL(), null);
+        return new CacheKeyDescriptor()
+                .withRoot("${basedir}", baseDirectory)
+                .addTool(CacheKeyDescriptor.class)
+                .addArguments(Arrays.asList(
+                        "-d",
+                        new File(baseDirectory, "target/generated-sources").getAbsolutePath(),
+                        source.getAbsolutePath()))
+                .addSources(manifest)
+                .addProperty("encoding", "UTF-8");
+    }
+
+    private static File writeFile(final File directory, final String relativePath, final String content)
+            throws IOException {
+
+        final File toReturn = new File(directory, relativePath);
+        Files.createDirectories(toReturn.getParentFile().toPath());
+        Files.write(toReturn.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return toReturn;
+    }
+}
@@ -0,0 +1,181 @@
+package org.codehaus.mojo.jaxb2.shared.manifest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class SourceMetadataProbeTest {
+
+    @TempDir
+    File tmpDirectory;
+
+    @AfterEach
+    void clearCaches() {
+        SourceMetadataProbe.clearCaches();
+    }
+
+    @Test
+    void validateProbingFiles() throws IOException {
+
+        // Assemble
+        final File source = new File(tmpDirectory, "schema.xsd");
+        Files.write(source.toPath(), "<schema/>".getBytes(StandardCharsets.UTF_8));
+        source.setLastModified(1500000000000L);
+
+        // Act
+        final SourceMetadataProbe.Metadata result = SourceMetadataProbe.probe(source.toURI().toURL());
+
+        // Assert
+        assertEquals(1500000000000L, result.getLastModified());
+        assertEquals(9L, result.getLength());
+        assertThrows(
+                IOException.class,
+                () -> SourceMetadataProbe.probe(new File(tmpDirectory, "missing.xsd").toURI().toURL()));
+    }
+
+    @Test
+    void validateProbingJarEntries() throws IOException {
+
+        // Assemble
+        final File jarFile = new File(tmpDirectory, "schemas.jar");
+        writeJar(jarFile, "<schema/>");
+        jarFile.setLastModified(1500000000000L);
+
+        final URL first = new URL("jar:" + jarFile.toURI() + "!/META-INF/first.xsd");
+        final URL second = new URL("jar:" + jarFile.toURI() + "!/META-INF/second.xsd");
+
+        // Act
+        final SourceMetadataProbe.Metadata firstResult = SourceMetadataProbe.probe(first);
+        final SourceMetadataProbe.Metadata secondResult = SourceMetadataProbe.probe(second);
+
+        writeJar(jarFile, "<schema><!-- changed --></schema>");
+        jarFile.setLastModified(1600000000000L);
+        final SourceMetadataProbe.Metadata changed = SourceMetadataProbe.probe(first);
+
+        // Assert
+        assertEquals(1500000000000L, firstResult.getLastModified());
+        assertEquals(9L, firstResult.getLength());
+        assertEquals(firstResult.getLastModified(), secondResult.getLastModified());
+        assertEquals(9L, secondResult.getLength());
+        assertEquals("crc32:" + Long.toHexString(crc("<schema/>")), firstResult.getValidator());
+        assertEquals(firstResult.getValidator(), secondResult.getValidator());
+
+        assertEquals(1600000000000L, changed.getLastModified());
+        assertEquals(33L, changed.getLength());
+        assertEquals("crc32:" + Long.toHexString(crc("<schema><!-- changed --></schema>")), changed.getValidator());
+        assertThrows(IOException.class, () -> SourceMetadataProbe.probe(
+                new URL("jar:" + jarFile.toURI() + "!/META-INF/missing.xsd")));
+    }
+
+    @Test
+    void validateRemoteMetadataIsCached() throws IOException {
+
+        // Assemble
+        final AtomicInteger requests = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/schema.xsd", exchange -> {
+            requests.incrementAndGet();
+            exchange.getResponseHeaders().add("Last-Modified", "Fri, 14 Jul 2017 02:40:00 GMT");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            final URL source = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/schema.xsd");
+
+            // Act
+            final SourceMetadataProbe.Metadata result = SourceMetadataProbe.probe(source);
+            final SourceMetadataProbe.Metadata cached = SourceMetadataProbe.probe(source);
+
+            // Assert
+            assertEquals(1, requests.get());
+            assertEquals(1500000000000L, result.getLastModified());
+            assertEquals(result.getLastModified(), cached.getLastModified());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void validateRangedGetUsedWhenHeadIsRejected() throws IOException {
+
+        // Assemble
+        final List<String> requests = new CopyOnWriteArrayList<String>();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/schema.xsd", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestHeaders().getFirst("Range"));
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+            } else {
+                exchange.getResponseHeaders().add("Last-Modified", "Fri, 14 Jul 2017 02:40:00 GMT");
+                exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                exchange.getResponseHeaders().add("Content-Range", "bytes 0-0/1234");
+                exchange.sendResponseHeaders(206, 1);
+                exchange.getResponseBody().write('<');
+            }
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            final URL source = new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/schema.xsd");
+
+            // Act
+            final SourceMetadataProbe.Metadata result = SourceMetadataProbe.probe(source);
+
+            // Assert
+            assertEquals(Arrays.asList("HEAD null", "GET bytes=0-0"), requests);
+            assertEquals(1500000000000L, result.getLastModified());
+            assertEquals(1234L, result.getLength());
+            assertEquals("etag:\"v1\"", result.getValidator());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static long crc(final String content) {
+        final CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static void writeJar(final File jarFile, final String content) throws IOException {
+
+        try (OutputStream out = new FileOutputStream(jarFile);
+                ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String current : Arrays.asList("META-INF/first.xsd", "META-INF/second.xsd")) {
+                zip.putNextEntry(new ZipEntry(current));
+                zip.write(content.getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.codehaus.mojo.jaxb2.shared.manifest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class UpToDateStampTest {
+
+    private static final String FINGERPRINT = "encoding=UTF-8\n";
+    private static final long PAST = System.currentTimeMillis() - 60000L;
+
+    @TempDir
+    File tmpDirectory;
+
+    @Test
+    void validateUnchangedInputsAndOutputsAreUpToDate() throws IOException {
+
+        // Assemble
+        final File stampFile = writeStamp();
+
+        // Act & Assert
+        assertTrue(UpToDateStamp.isUpToDate(stampFile, FINGERPRINT));
+        assertTrue(UpToDateStamp.isUpToDate(stampFile, FINGERPRINT));
+    }
+
+    @Test
+    void validateChangedInputsAreDetected() throws IOException {
+
+        // Assemble
+        final File stampFile = writeStamp();
+        final File source = new File(tmpDirectory, "src/schema.xsd");
+
+        // Act
+        Files.write(source.toPath(), "<schema><!-- changed --></schema>".getBytes(StandardCharsets.UTF_8));
+        source.setLastModified(PAST + 5000L);
+
+        // Assert
+        assertFalse(UpToDateStamp.isUpToDate(stampFile, FINGERPRINT));
+    }
+
+    @Test
+    void validateAddedSourceWithinTraversedDirectoryIsDetected() throws IOException {
+
+        // Assemble
+        final File stampFile = writeStamp();
+
+        // Act
+        writeFile("src/another.xsd", "<schema/>");
+
+        // Assert
+        assertFalse(UpToDateStamp.isUpToDate(stampFile, FINGERPRINT));
+    }
+
+    @Test
+    void validateDeletedOutputIsDetected() throws IOException {
+
+        // Assemble
+        final File stampFile = writeStamp();
+
+        // Act
+        assertTrue(new File(tmpDirectory, "out/foo/Bar.java").delete());
+
+        // Assert
+        assertFalse(UpToDateStamp.isUpToDate(stampFile, FINGERPRINT));
+    }
+
+    @Test
+    void validateChangedFingerprintOrMissingStampIsNotUpToDate() throws IOException {
+
+        // Assemble
+        final File stampFile = writeStamp();
+
+        // Act & Assert
+        assertFalse(UpToDateStamp.isUpToDate(stampFile, "encoding=ISO-8859-1\n"));
+        assertFalse(UpToDateStamp.isUpToDate(stampFile, null));
+
+        UpToDateStamp.delete(stampFile);
+        assertFalse(stampFile.exists());
+        assertFalse(UpToDateStamp.isUpToDate(stampFile, FINGERPRINT));
+    }
+
+    @Test
+    void validateRecentlyModifiedInputsAreNeverUpToDate() throws IOException {
+
+        // Assemble
+        final File source = writeFile("src/schema.xsd", "<schema/>");
+        source.setLastModified(System.currentTimeMillis());
+        final File stampFile = new File(tmpDirectory, "stamp");
+
+        // Act
+        UpToDateStamp.create(FINGERPRINT, Collections.singletonList(source)).write(stampFile);
+
+        // Assert
+        assertFalse(UpToDateStamp.isUpToDate(stampFile, FINGERPRINT));
+    }
+
+    @Test
+    void validateDescribingFields() {
+
+        // Assemble
+        final List<Class<?>> ignoredTypes = Collections.<Class<?>>singletonList(Runnable.class);
+        final List<String> ignoredFieldNames = Collections.singletonList("derived");
+
+        // Act
+        final String described = UpToDateStamp.describeFields(
+                new DescribableFields(), Object.class, ignoredTypes, ignoredFieldNames);
+        final IllegalArgumentException undescribable = assertThrows(
+                IllegalArgumentException.class,
+                () -> UpToDateStamp.describeFields(
+                        new UndescribableFields(), Object.class, ignoredTypes, ignoredFieldNames));
+
+        // Assert
+        assertNotNull(described);
+        assertTrue(described.contains("foo"));
+        assertTrue(described.contains("42"));
+        assertTrue(described.contains("a, b"));
+        assertFalse(described.contains("ignored"));
+        assertFalse(described.contains("derived"));
+        assertEquals(
+                described,
+                UpToDateStamp.describeFields(new DescribableFields(), Object.class, ignoredTypes, ignoredFieldNames));
+        assertTrue(undescribable.getMessage().contains(UndescribableFields.class.getName() + "#state"));
+    }
+
+    //
+    // Private helpers
+    //
+
+    private File writeStamp() throws IOException {
+
+        final File source = writeFile("src/schema.xsd", "<schema/>");
+        writeFile("out/foo/Bar.java", "class Bar {}");
+        for (String current : Arrays.asList("src", "out", "out/foo")) {
+            new File(tmpDirectory, current).setLastModified(PAST);
+        }
+
+        final File stampFile = new File(tmpDirectory, "stamp");
+        UpToDateStamp.create(FINGERPRINT, Arrays.asList(source, source.getParentFile()))
+                .addOutputDirectory(new File(tmpDirectory, "out"))
+                .write(stampFile);
+        return stampFile;
+    }
+
+    private File writeFile(final String path, final String content) throws IOException {
+
+        final File toReturn = new File(tmpDirectory, path);
+        toReturn.getParentFile().mkdirs();
+        Files.write(toReturn.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        toReturn.setLastModified(PAST);
+        return toReturn;
+    }
+
+    static class DescribableFields {
+
+        private String name = "foo";
+        private int answer = 42;
+        private List<String> values = Arrays.asList("a", "b");
+        private Runnable ignored = () -> {};
+        private Object derived = new Object();
+    }
+
+    static class UndescribableFields {
+
+        private Object state = new Object() {
+            private int counter;
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package org.codehaus.mojo.jaxb2.shared.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class ExecutionMetricsTest {
+
+    @TempDir
+    File tmpDirectory;
+
+    @Test
+    void validateNestedPhasesAreTimedExclusively() throws InterruptedException {
+
+        // Assemble
+        final ExecutionMetrics unitUnderTest = new ExecutionMetrics();
+
+        // Act
+        try (ExecutionMetrics.Phase outer = unitUnderTest.phase("outer")) {
+            try (ExecutionMetrics.Phase inner = unitUnderTest.phase("inner")) {
+                Thread.sleep(100L);
+            }
+        }
+        try (ExecutionMetrics.Phase inner = unitUnderTest.phase("inner")) {
+            Thread.sleep(20L);
+        }
+        unitUnderTest.finish();
+
+        // Assert
+        final Map<String, Long> phaseMillis = unitUnderTest.getPhaseMillis();
+        assertEquals("[outer, inner]", phaseMillis.keySet().toString());
+        assertTrue(phaseMillis.get("inner") >= 120L, "inner: " + phaseMillis.get("inner"));
+        assertTrue(phaseMillis.get("outer") < 100L, "outer: " + phaseMillis.get("outer"));
+        assertTrue(unitUnderTest.getTotalMillis() >= phaseMillis.get("inner") + phaseMillis.get("outer"));
+    }
+
+    @Test
+    void validateAllocationsAreMeasuredPerPhase() {
+
+        // Assemble
+        final ExecutionMetrics unitUnderTest = new ExecutionMetrics();
+        final int allocationSize = 4 * 1024 * 1024;
+
+        // Act
+        byte[] allocated;
+        try (ExecutionMetrics.Phase phase = unitUnderTest.phase("allocating")) {
+            allocated = new byte[allocationSize];
+        }
+        try (ExecutionMetrics.Phase phase = unitUnderTest.phase("idle")) {
+            allocated[0] = 1;
+        }
+        unitUnderTest.finish();
+
+        // Assert
+        final Map<String, Long> phaseAllocatedBytes = unitUnderTest.getPhaseAllocatedBytes();
+        assumeTrue(!phaseAllocatedBytes.isEmpty(), "Thread allocation measurement not supported.");
+        assertTrue(phaseAllocatedBytes.get("allocating") >= allocationSize, phaseAllocatedBytes.toString());
+        assertTrue(phaseAllocatedBytes.get("idle") < allocationSize, phaseAllocatedBytes.toString());
+        assertTrue(unitUnderTest.getAllocatedBytes() >= allocationSize);
+        assertEquals(unitUnderTest.getPhaseMillis().keySet(), unitUnderTest.getPhaseJvmGcMillis().keySet());
+    }
+
+    @Test
+    void validateSummaryAndJson() throws IOException {
+
+        // Assemble
+        final ExecutionMetrics unitUnderTest = new ExecutionMetrics();
+        final File jsonFile = new File(tmpDirectory, "metrics/jaxb2-metrics.json");
+
+        // Act
+        try (ExecutionMetrics.Phase phase = unitUnderTest.phase("staleCheck")) {
+            unitUnderTest.count("outputs.written", 2L);
+            unitUnderTest.count("outputs.written", 3L);
+            unitUnderTest.count("outputs.writtenBytes", 1024L);
+        }
+        unitUnderTest.setAttribute("mojo", "xjc \"main\"");
+        unitUnderTest.finish();
+        unitUnderTest.writeJson(jsonFile);
+
+        // Assert
+        final String summary = unitUnderTest.getSummary();
+        assertTrue(summary.startsWith("Execution metrics: "), summary);
+        assertTrue(summary.contains("[staleCheck "), summary);
+        assertTrue(summary.contains("{outputs.written=5, outputs.writtenBytes=1024}"), summary);
+
+        final String json = new String(Files.readAllBytes(jsonFile.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"mojo\": \"xjc \\\"main\\\"\","), json);
+        assertTrue(json.contains("\"phaseMillis\": {\n    \"staleCheck\": "), json);
+        assertTrue(json.contains("\"outputs.written\": 5,\n    \"outputs.writtenBytes\": 1024\n  }"), json);
+        assertTrue(summary.contains(", JVM-wide: heap +"), summary);
+        assertTrue(json.contains("\"jvmHeapGrowthBytes\": " + unitUnderTest.getJvmHeapGrowth()), json);
+        assertTrue(json.contains("\"jvmGcCount\": " + unitUnderTest.getJvmGcCount()), json);
+        assertTrue(json.contains("\"phaseJvmGcMillis\": {\n    \"staleCheck\": "), json);
+        assertEquals(1, jsonFile.getParentFile().listFiles().length);
+    }
+}
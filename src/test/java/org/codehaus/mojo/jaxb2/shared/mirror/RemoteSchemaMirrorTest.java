@@ -0,0 +1,309 @@
+package org.codehaus.mojo.jaxb2.shared.mirror;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.maven.settings.Proxy;
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class RemoteSchemaMirrorTest {
+
+    private static final String MAIN_SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n"
+            + "    <xs:include schemaLocation=\"common/types.xsd\"/>\n"
+            + "</xs:schema>\n";
+    private static final String TYPES_SCHEMA = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\"/>\n";
+
+    @TempDir
+    File tmpDirectory;
+
+    private HttpServer server;
+    private List<String> requests;
+    private List<String> proxiedRequests;
+    private volatile String mainSchema;
+    private BufferingLog log;
+
+    @BeforeEach
+    void setupSharedState() throws IOException {
+
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+        requests = new CopyOnWriteArrayList<String>();
+        proxiedRequests = new CopyOnWriteArrayList<String>();
+        mainSchema = MAIN_SCHEMA;
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/schemas/main.xsd", exchange -> respond(exchange, mainSchema));
+        server.createContext("/schemas/common/types.xsd", exchange -> respond(exchange, TYPES_SCHEMA));
+        server.start();
+    }
+
+    @AfterEach
+    void teardownSharedState() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void validateMirroringRemoteSchemaAndRelativeReferences() throws IOException {
+
+        // Assemble
+        final RemoteSchemaMirror unitUnderTest = new RemoteSchemaMirror(tmpDirectory, 60000L, 5000, false, log);
+
+        // Act
+        final File result = unitUnderTest.resolve(getUrl("/schemas/main.xsd"));
+
+        // Assert
+        assertEquals(MAIN_SCHEMA, read(result));
+        assertEquals(TYPES_SCHEMA, read(new File(result.getParentFile(), "common/types.xsd")));
+        assertEquals(unitUnderTest.getLocalFile(getUrl("/schemas/main.xsd")), result);
+        assertEquals(
+                Arrays.asList(result, unitUnderTest.getLocalFile(getUrl("/schemas/common/types.xsd"))),
+                unitUnderTest.getResolvedFiles());
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void validateSchemaLocationsRewrittenToLocalNames() throws IOException {
+
+        // Assemble
+        final String encodedSchema = "<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\">\n"
+                + "    <xs:include schemaLocation=\"my%20types.xsd\"/>\n"
+                + "    <xs:import namespace=\"urn:svc\" schemaLocation='svc?xsd=2'/>\n"
+                + "</xs:schema>\n";
+        server.createContext("/encoded/", exchange -> {
+            final String rawPath = exchange.getRequestURI().getRawPath();
+            final String rawQuery = exchange.getRequestURI().getRawQuery();
+            if ("/encoded/main.xsd".equals(rawPath)) {
+                respond(exchange, encodedSchema, rawPath);
+            } else if ("/encoded/my%20types.xsd".equals(rawPath) || "xsd=2".equals(rawQuery)) {
+                respond(exchange, TYPES_SCHEMA, rawPath);
+            } else {
+                respond(exchange, TYPES_SCHEMA, "/not/found");
+            }
+        });
+        final RemoteSchemaMirror unitUnderTest = new RemoteSchemaMirror(tmpDirectory, 60000L, 5000, false, log);
+        final File encodedFile = unitUnderTest.getLocalFile(getUrl("/encoded/my%20types.xsd"));
+        final File queryFile = unitUnderTest.getLocalFile(getUrl("/encoded/svc?xsd=2"));
+
+        // Act
+        final File result = unitUnderTest.resolve(getUrl("/encoded/main.xsd"));
+        final RemoteSchemaMirror offlineMirror = new RemoteSchemaMirror(tmpDirectory, 60000L, 5000, true, log);
+        requests.clear();
+        offlineMirror.resolve(getUrl("/encoded/main.xsd"));
+
+        // Assert
+        final String mirrored = read(result);
+        assertTrue(mirrored.contains("schemaLocation=\"" + encodedFile.getName() + "\""));
+        assertTrue(mirrored.contains("schemaLocation='" + queryFile.getName() + "'"));
+        assertEquals(TYPES_SCHEMA, read(new File(result.toURI().resolve(encodedFile.getName()))));
+        assertEquals(TYPES_SCHEMA, read(new File(result.toURI().resolve(queryFile.getName()))));
+
+        // The original references are mirrored when the (rewritten) mirrored copy is used offline.
+        assertTrue(requests.isEmpty());
+        assertEquals(Arrays.asList(result, encodedFile, queryFile), offlineMirror.getResolvedFiles());
+    }
+
+    @Test
+    void validateMirroredSchemaIsUsedWithinRevalidationInterval() throws IOException {
+
+        // Assemble
+        final RemoteSchemaMirror unitUnderTest = new RemoteSchemaMirror(tmpDirectory, 60000L, 5000, false, log);
+        unitUnderTest.resolve(getUrl("/schemas/main.xsd"));
+        requests.clear();
+
+        // Act
+        final File result = unitUnderTest.resolve(getUrl("/schemas/main.xsd"));
+
+        // Assert
+        assertEquals(MAIN_SCHEMA, read(result));
+        assertTrue(requests.isEmpty());
+    }
+
+    @Test
+    void validateConditionalRevalidation() throws IOException {
+
+        // Assemble
+        final RemoteSchemaMirror unitUnderTest = new RemoteSchemaMirror(tmpDirectory, 0L, 5000, false, log);
+        final File mirrored = unitUnderTest.resolve(getUrl("/schemas/main.xsd"));
+        mirrored.setLastModified(1500000000000L);
+        requests.clear();
+
+        // Act
+        final File unchanged = unitUnderTest.resolve(getUrl("/schemas/main.xsd"));
+        final long unchangedLastModified = unchanged.lastModified();
+
+        mainSchema = MAIN_SCHEMA.replace("</xs:schema>", "<!-- changed --></xs:schema>");
+        final File changed = unitUnderTest.resolve(getUrl("/schemas/main.xsd"));
+
+        // Assert
+        assertTrue(requests.get(0).startsWith("/schemas/main.xsd 304"));
+        assertEquals(1500000000000L, unchangedLastModified);
+        assertEquals(mainSchema, read(changed));
+    }
+
+    @Test
+    void validateMirroredSchemaIsUsedWhenOriginIsUnavailable() throws IOException {
+
+        // Assemble
+        final URL remote = getUrl("/schemas/main.xsd");
+        new RemoteSchemaMirror(tmpDirectory, 0L, 5000, false, log).resolve(remote);
+        server.stop(0);
+        server = null;
+
+        // Act
+        final File result = new RemoteSchemaMirror(tmpDirectory, 0L, 500, false, log).resolve(remote);
+        final File offline = new RemoteSchemaMirror(tmpDirectory, 0L, 500, true, log).resolve(remote);
+
+        // Assert
+        assertEquals(MAIN_SCHEMA, read(result));
+        assertEquals(result, offline);
+    }
+
+    @Test
+    void validateExceptionOnUnavailableSchemaNeverMirrored() throws IOException {
+
+        // Assemble
+        final RemoteSchemaMirror unitUnderTest = new RemoteSchemaMirror(tmpDirectory, 0L, 5000, false, log);
+        final RemoteSchemaMirror offlineMirror = new RemoteSchemaMirror(tmpDirectory, 0L, 5000, true, log);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> unitUnderTest.resolve(getUrl("/schemas/missing.xsd")));
+        assertThrows(IOException.class, () -> offlineMirror.resolve(getUrl("/schemas/main.xsd")));
+    }
+
+    @Test
+    void validateRequestsUseTheActiveProxy() throws IOException {
+
+        // Assemble
+        final Proxy proxy = new Proxy();
+        proxy.setHost("127.0.0.1");
+        proxy.setPort(server.getAddress().getPort());
+        proxy.setUsername("user");
+        proxy.setPassword("secret");
+        proxy.setNonProxyHosts("localhost|*.internal.example.org");
+
+        final URL remote = new URL("http://schemas.example.org/schemas/main.xsd");
+        final RemoteSchemaMirror unitUnderTest =
+                new RemoteSchemaMirror(tmpDirectory, 60000L, 5000, false, log).withProxy(proxy);
+
+        // Act
+        final File result = unitUnderTest.resolve(remote);
+
+        // Assert
+        assertEquals(MAIN_SCHEMA, read(result));
+        assertEquals(TYPES_SCHEMA, read(new File(result.getParentFile(), "common/types.xsd")));
+        assertEquals(2, proxiedRequests.size());
+        assertEquals("http://schemas.example.org/schemas/main.xsd Basic dXNlcjpzZWNyZXQ=", proxiedRequests.get(0));
+        assertEquals(
+                "http://schemas.example.org/schemas/common/types.xsd Basic dXNlcjpzZWNyZXQ=",
+                proxiedRequests.get(1));
+    }
+
+    @Test
+    void validateNonProxyHostsBypassTheProxy() throws IOException {
+
+        // Assemble
+        final Proxy proxy = new Proxy();
+        proxy.setHost("127.0.0.1");
+        proxy.setPort(server.getAddress().getPort());
+        proxy.setNonProxyHosts("localhost|127.0.*");
+
+        final RemoteSchemaMirror unitUnderTest =
+                new RemoteSchemaMirror(tmpDirectory, 60000L, 5000, false, log).withProxy(proxy);
+
+        // Act
+        final File result = unitUnderTest.resolve(getUrl("/schemas/main.xsd"));
+
+        // Assert
+        assertEquals(MAIN_SCHEMA, read(result));
+        assertEquals(2, requests.size());
+        assertTrue(proxiedRequests.isEmpty());
+        assertTrue(RemoteSchemaMirror.isNonProxyHost(
+                "Schemas.Internal.Example.org", "localhost, *.internal.example.org"));
+        assertFalse(RemoteSchemaMirror.isNonProxyHost("schemas.example.org", "localhost|*.internal.example.org"));
+        assertFalse(RemoteSchemaMirror.isNonProxyHost("schemas.example.org", null));
+    }
+
+    @Test
+    void validateRemoteSourceDetection() {
+
+        // Act & Assert
+        assertTrue(RemoteSchemaMirror.isRemote("http://example.org/schema.xsd"));
+        assertTrue(RemoteSchemaMirror.isRemote("HTTPS://example.org/schema.xsd"));
+        assertFalse(RemoteSchemaMirror.isRemote("src/main/xsd/schema.xsd"));
+        assertFalse(RemoteSchemaMirror.isRemote("file:///tmp/schema.xsd"));
+        assertFalse(RemoteSchemaMirror.isRemote(null));
+    }
+
+    //
+    // Private helpers
+    //
+
+    private URL getUrl(final String path) throws IOException {
+        return new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+
+    private void respond(final HttpExchange exchange, final String content) throws IOException {
+        respond(exchange, content, exchange.getHttpContext().getPath());
+    }
+
+    private void respond(final HttpExchange exchange, final String content, final String expectedPath)
+            throws IOException {
+
+        final String path = exchange.getRequestURI().getPath();
+        if (exchange.getRequestURI().isAbsolute()) {
+
+            // Requests sent to a proxy hold the absolute URI of the origin.
+            proxiedRequests.add(exchange.getRequestURI() + " "
+                    + exchange.getRequestHeaders().getFirst("Proxy-Authorization"));
+        }
+        if (!exchange.getRequestURI().getRawPath().equals(expectedPath)) {
+            requests.add(path + " 404");
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        final String eTag = "\"" + Integer.toHexString(content.hashCode()) + "\"";
+        exchange.getResponseHeaders().add("ETag", eTag);
+        if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            requests.add(path + " 304");
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+
+        requests.add(path + " 200");
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String read(final File aFile) throws IOException {
+        return new String(Files.readAllBytes(aFile.toPath()), StandardCharsets.UTF_8);
+    }
+}
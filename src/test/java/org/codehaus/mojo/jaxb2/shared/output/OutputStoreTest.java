@@ -0,0 +1,101 @@
+package org.codehaus.mojo.jaxb2.shared.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class OutputStoreTest {
+
+    @TempDir
+    File tmpDirectory;
+
+    private File storeDirectory;
+    private File generatedDirectory;
+    private BufferingLog log;
+
+    @BeforeEach
+    void setupSharedState() throws IOException {
+
+        storeDirectory = new File(tmpDirectory, "store");
+        generatedDirectory = new File(tmpDirectory, "generated");
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+
+        writeFile(generatedDirectory, "foo/Bar.java", "class Bar {}");
+        writeFile(generatedDirectory, "META-INF/JAXB/episode_foo.xjb", "<bindings/>");
+    }
+
+    @Test
+    void validateRestoringStoredOutput() throws IOException {
+
+        // Assemble
+        final OutputStore unitUnderTest = new OutputStore(storeDirectory, 1024L * 1024L, log);
+        final File restoreDirectory = new File(tmpDirectory, "restored");
+
+        // Act
+        final boolean missResult = unitUnderTest.restore("key1", restoreDirectory);
+        unitUnderTest.store("key1", generatedDirectory);
+        final boolean hitResult = unitUnderTest.restore("key1", restoreDirectory);
+
+        // Assert
+        assertFalse(missResult);
+        assertTrue(hitResult);
+        assertEquals("class Bar {}", readFile(new File(restoreDirectory, "foo/Bar.java")));
+        assertEquals("<bindings/>", readFile(new File(restoreDirectory, "META-INF/JAXB/episode_foo.xjb")));
+        assertTrue(new File(generatedDirectory, "foo/Bar.java").isFile());
+        assertEquals(1, storeDirectory.listFiles().length);
+    }
+
+    @Test
+    void validateLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+
+        // Assemble
+        final long entrySize = new File(generatedDirectory, "foo/Bar.java").length()
+                + new File(generatedDirectory, "META-INF/JAXB/episode_foo.xjb").length();
+        final OutputStore unitUnderTest = new OutputStore(storeDirectory, 2 * entrySize, log);
+        final File restoreDirectory = new File(tmpDirectory, "restored");
+
+        unitUnderTest.store("key1", generatedDirectory);
+        unitUnderTest.store("key2", generatedDirectory);
+        assertTrue(new File(storeDirectory, "key1/entry.properties").setLastModified(1000L));
+        assertTrue(new File(storeDirectory, "key2/entry.properties").setLastModified(2000L));
+
+        // Act
+        unitUnderTest.restore("key1", restoreDirectory);
+        unitUnderTest.store("key3", generatedDirectory);
+
+        // Assert
+        assertTrue(new File(storeDirectory, "key1").isDirectory());
+        assertFalse(new File(storeDirectory, "key2").exists());
+        assertTrue(new File(storeDirectory, "key3").isDirectory());
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static File writeFile(final File directory, final String relativePath, final String content)
+            throws IOException {
+
+        final File toReturn = new File(directory, relativePath);
+        Files.createDirectories(toReturn.getParentFile().toPath());
+        Files.write(toReturn.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return toReturn;
+    }
+
+    private static String readFile(final File aFile) throws IOException {
+        return new String(Files.readAllBytes(aFile.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,199 @@
+package org.codehaus.mojo.jaxb2.shared.output;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.codehaus.mojo.jaxb2.BufferingLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author <a href="mailto:agent@local">agent</a>
+ */
+class OutputUpdaterTest {
+
+    @TempDir
+    File tmpDirectory;
+
+    private File stagingDirectory;
+    private File outputDirectory;
+    private BufferingLog log;
+
+    @BeforeEach
+    void setupSharedState() {
+
+        stagingDirectory = new File(tmpDirectory, "staging");
+        outputDirectory = new File(tmpDirectory, "output");
+        log = new BufferingLog(BufferingLog.LogLevel.DEBUG);
+    }
+
+    @Test
+    void validateUnchangedFilesAreLeftUntouched() throws IOException {
+
+        // Assemble
+        final File source = writeFile(stagingDirectory, "foo/Bar.java", "class Bar {}");
+        final File target = writeFile(outputDirectory, "foo/Bar.java", "class Bar {}");
+        assertTrue(target.setLastModified(1000L));
+
+        final OutputUpdater unitUnderTest = new OutputUpdater(log);
+
+        // Act
+        final boolean result = unitUnderTest.copy(source, target);
+
+        // Assert
+        assertFalse(result);
+        assertEquals(1000L, target.lastModified());
+        assertEquals(0, unitUnderTest.getNumWritten());
+        assertEquals(1, unitUnderTest.getNumUnchanged());
+    }
+
+    @Test
+    void validateChangedAndMissingFilesAreWritten() throws IOException {
+
+        // Assemble
+        final File changedSource = writeFile(stagingDirectory, "foo/Bar.java", "class Bar { int i; }");
+        final File changedTarget = writeFile(outputDirectory, "foo/Bar.java", "class Bar { int j; }");
+        final File newSource = writeFile(stagingDirectory, "foo/Baz.java", "class Baz {}");
+        final File newTarget = new File(outputDirectory, "foo/Baz.java");
+
+        final OutputUpdater unitUnderTest = new OutputUpdater(log);
+
+        // Act
+        final boolean changedResult = unitUnderTest.copy(changedSource, changedTarget);
+        final boolean newResult = unitUnderTest.move(newSource, newTarget);
+
+        // Assert
+        assertTrue(changedResult);
+        assertTrue(newResult);
+        assertEquals("class Bar { int i; }", readFile(changedTarget));
+        assertEquals("class Baz {}", readFile(newTarget));
+        assertTrue(changedSource.exists());
+        assertFalse(newSource.exists());
+        assertEquals(2, unitUnderTest.getNumWritten());
+        assertEquals(0, unitUnderTest.getNumUnchanged());
+        assertEquals(0, newTarget.getParentFile().listFiles((dir, name) -> name.endsWith(".tmp")).length);
+    }
+
+    @Test
+    void validateMovingUnchangedFileDeletesSource() throws IOException {
+
+        // Assemble
+        final File source = writeFile(stagingDirectory, "Bar.java", "class Bar {}");
+        final File target = writeFile(outputDirectory, "Bar.java", "class Bar {}");
+        assertTrue(target.setLastModified(1000L));
+
+        final OutputUpdater unitUnderTest = new OutputUpdater(log);
+
+        // Act
+        final boolean result = unitUnderTest.move(source, target);
+
+        // Assert
+        assertFalse(result);
+        assertFalse(source.exists());
+        assertEquals(1000L, target.lastModified());
+    }
+
+    @Test
+    void validateDeletingUntrackedFiles() throws IOException {
+
+        // Assemble
+        final File source = writeFile(stagingDirectory, "foo/Bar.java", "class Bar {}");
+        final File target = new File(outputDirectory, "foo/Bar.java");
+        final File obsolete = writeFile(outputDirectory, "gnat/Obsolete.java", "class Obsolete {}");
+
+        final OutputUpdater unitUnderTest = new OutputUpdater(log);
+        unitUnderTest.copy(source, target);
+
+        // Act
+        unitUnderTest.deleteUntracked(outputDirectory);
+        unitUnderTest.logSummary("XJC");
+
+        // Assert
+        assertTrue(target.isFile());
+        assertFalse(obsolete.exists());
+        assertFalse(obsolete.getParentFile().exists());
+        assertTrue(outputDirectory.isDirectory());
+        assertEquals(1, unitUnderTest.getNumDeleted());
+        assertTrue(log.getPrettyPrintedLog()
+                .contains("XJC output: Wrote [1] changed files, left [0] unchanged files untouched "
+                        + "and deleted [1] obsolete files."));
+    }
+
+    @Test
+    void validateTransferringDirectories() throws IOException {
+
+        // Assemble
+        final List<File> sources = new ArrayList<File>();
+        for (int i = 0; i < 20; i++) {
+            sources.add(writeFile(stagingDirectory, "foo/File" + i + ".txt", "content " + i));
+        }
+        writeFile(outputDirectory, "foo/File0.txt", "content 0");
+        final File copyDirectory = new File(tmpDirectory, "copy");
+
+        final OutputUpdater copier = new OutputUpdater(log).withParallelism(4);
+        final OutputUpdater mover = new OutputUpdater(log).withParallelism(4);
+
+        // Act
+        copier.transfer(stagingDirectory, copyDirectory, sources, false);
+        mover.transfer(stagingDirectory, outputDirectory, sources, true);
+
+        // Assert
+        assertEquals(20, copier.getNumWritten());
+        assertEquals(19, mover.getNumWritten());
+        assertEquals(1, mover.getNumUnchanged());
+        for (int i = 0; i < 20; i++) {
+
+            final String relativePath = "foo/File" + i + ".txt";
+            assertEquals("content " + i, readFile(new File(copyDirectory, relativePath)));
+            assertEquals("content " + i, readFile(new File(outputDirectory, relativePath)));
+            assertFalse(new File(stagingDirectory, relativePath).exists());
+        }
+    }
+
+    @Test
+    void validateContentComparison() throws IOException {
+
+        // Assemble
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("line ").append(i).append('\n');
+        }
+        final String content = builder.toString();
+        final String changedContent = content.substring(0, content.length() - 2) + "X\n";
+
+        final File file1 = writeFile(tmpDirectory, "file1.txt", content);
+        final File file2 = writeFile(tmpDirectory, "file2.txt", content);
+        final File file3 = writeFile(tmpDirectory, "file3.txt", changedContent);
+
+        // Act & Assert
+        assertTrue(OutputUpdater.contentEquals(file1, file2));
+        assertFalse(OutputUpdater.contentEquals(file1, file3));
+        assertFalse(OutputUpdater.contentEquals(file1, new File(tmpDirectory, "nonexistent.txt")));
+    }
+
+    //
+    // Private helpers
+    //
+
+    private static File writeFile(final File directory, final String relativePath, final String content)
+            throws IOException {
+
+        final File toReturn = new File(directory, relativePath);
+        Files.createDirectories(toReturn.getParentFile().toPath());
+        Files.write(toReturn.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return toReturn;
+    }
+
+    private static String readFile(final File aFile) throws IOException {
+        return new String(Files.readAllBytes(aFile.toPath()), StandardCharsets.UTF_8);
+    }
+}